@@ -0,0 +1,66 @@
+/*
+ * Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.benchmarks;
+
+import java.nio.ByteBuffer;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.mobilitydata.gtfsvalidator.generator.SyntheticFeedConfig;
+import org.mobilitydata.gtfsvalidator.generator.SyntheticFeedGenerator;
+import org.mobilitydata.gtfsvalidator.input.GtfsFeedName;
+import org.mobilitydata.gtfsvalidator.parsing.CsvFile;
+import org.mobilitydata.gtfsvalidator.parsing.CsvRow;
+import org.mobilitydata.gtfsvalidator.validator.ValidationContext;
+
+/** Inputs shared by benchmarks. */
+final class BenchmarkFeeds {
+  static final GtfsFeedName FEED_NAME = GtfsFeedName.parseString("ca-synthetic");
+
+  private BenchmarkFeeds() {}
+
+  /**
+   * Returns a generator for a feed with a given amount of trips. Other sizes scale with it, so that
+   * a benchmark needs a single parameter.
+   */
+  static SyntheticFeedGenerator generator(int tripCount) {
+    return new SyntheticFeedGenerator(
+        SyntheticFeedConfig.builder()
+            .setTripCount(tripCount)
+            .setStopCount(Math.max(100, tripCount))
+            .setRouteCount(Math.max(1, tripCount / 50))
+            .build());
+  }
+
+  /** Validation context with a fixed time, so that date-dependent notices are reproducible. */
+  static ValidationContext validationContext() {
+    return ValidationContext.builder()
+        .setFeedName(FEED_NAME)
+        .setNow(ZonedDateTime.of(2021, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC))
+        .build();
+  }
+
+  /** Parses all rows of a CSV file. */
+  static List<CsvRow> readRows(byte[] content, String filename) {
+    List<CsvRow> rows = new ArrayList<>();
+    for (CsvRow row : new CsvFile(ByteBuffer.wrap(content), filename)) {
+      rows.add(row);
+    }
+    return rows;
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import org.mobilitydata.gtfsvalidator.parsing.CsvFile;
+import org.mobilitydata.gtfsvalidator.parsing.CsvRow;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** Tokenizes stop_times.txt of a synthetic feed and reads every cell of every row. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CsvFileBenchmark {
+  private static final String FILENAME = "stop_times.txt";
+
+  @Param({"1000", "10000"})
+  public int tripCount;
+
+  private byte[] content;
+
+  @Setup
+  public void setUp() {
+    content = BenchmarkFeeds.generator(tripCount).tableBytes(FILENAME);
+  }
+
+  private static long readCells(CsvFile csvFile) {
+    long length = 0;
+    for (CsvRow row : csvFile) {
+      for (int i = 0; i < row.getColumnCount(); ++i) {
+        final String cell = row.asString(i);
+        length += cell == null ? 0 : cell.length();
+      }
+    }
+    return length;
+  }
+
+  /** Files that are read from a directory or STORED in a ZIP archive are mapped to a buffer. */
+  @Benchmark
+  public long byteBuffer() {
+    return readCells(new CsvFile(ByteBuffer.wrap(content), FILENAME));
+  }
+
+  /** Compressed files of a ZIP archive are read as a stream. */
+  @Benchmark
+  public long inputStream() {
+    return readCells(new CsvFile(new ByteArrayInputStream(content), FILENAME));
+  }
+}
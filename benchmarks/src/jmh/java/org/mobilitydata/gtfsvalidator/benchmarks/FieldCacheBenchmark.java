@@ -0,0 +1,85 @@
+/*
+ * Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.mobilitydata.gtfsvalidator.parsing.CsvRow;
+import org.mobilitydata.gtfsvalidator.parsing.FieldCache;
+import org.mobilitydata.gtfsvalidator.type.GtfsTime;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Deduplicates values of stop_times.txt of a synthetic feed, as the generated table loaders do.
+ *
+ * <p>A new cache is filled in every invocation, so the results include both misses for the first
+ * occurrence of a value and hits for the repeated ones.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FieldCacheBenchmark {
+  @Param({"1000", "10000"})
+  public int tripCount;
+
+  /** Distinct instances of stop IDs, as they come from the CSV parser. */
+  private String[] stopIds;
+
+  /** Arrival times as seconds since midnight. */
+  private int[] arrivalSeconds;
+
+  @Setup
+  public void setUp() {
+    final String filename = "stop_times.txt";
+    List<CsvRow> rows =
+        BenchmarkFeeds.readRows(BenchmarkFeeds.generator(tripCount).tableBytes(filename), filename);
+    final int stopIdColumn = rows.get(0).getColumnIndex("stop_id");
+    final int arrivalTimeColumn = rows.get(0).getColumnIndex("arrival_time");
+    stopIds = new String[rows.size()];
+    arrivalSeconds = new int[rows.size()];
+    for (int i = 0; i < rows.size(); ++i) {
+      stopIds[i] = rows.get(i).asString(stopIdColumn);
+      arrivalSeconds[i] =
+          GtfsTime.fromString(rows.get(i).asString(arrivalTimeColumn)).getSecondsSinceMidnight();
+    }
+  }
+
+  @Benchmark
+  public int addIfAbsentString() {
+    FieldCache<String> cache = new FieldCache<>();
+    for (String stopId : stopIds) {
+      cache.addIfAbsent(stopId);
+    }
+    return cache.getCacheSize();
+  }
+
+  @Benchmark
+  public int addIfAbsentIntKey() {
+    FieldCache<GtfsTime> cache = new FieldCache<>();
+    for (int seconds : arrivalSeconds) {
+      cache.addIfAbsent(seconds, GtfsTime::fromSecondsSinceMidnight);
+    }
+    return cache.getCacheSize();
+  }
+}
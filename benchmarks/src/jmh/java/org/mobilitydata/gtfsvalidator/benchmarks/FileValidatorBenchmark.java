@@ -0,0 +1,114 @@
+/*
+ * Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.benchmarks;
+
+import com.google.common.io.MoreFiles;
+import com.google.common.io.RecursiveDeleteOption;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.mobilitydata.gtfsvalidator.input.GtfsInput;
+import org.mobilitydata.gtfsvalidator.notice.NoticeContainer;
+import org.mobilitydata.gtfsvalidator.table.GtfsFeedContainer;
+import org.mobilitydata.gtfsvalidator.table.GtfsFeedLoader;
+import org.mobilitydata.gtfsvalidator.table.GtfsStopTimeTableContainer;
+import org.mobilitydata.gtfsvalidator.validator.FileValidator;
+import org.mobilitydata.gtfsvalidator.validator.ValidationContext;
+import org.mobilitydata.gtfsvalidator.validator.ValidatorLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Runs a single multi-file validator on a synthetic feed that is loaded once per trial.
+ *
+ * <p>The validators are the ones that look at every stop time or shape point. {@code
+ * SequenceVisitorValidator} runs all visitors of stop times of a trip, e.g., {@code
+ * TooFastTravelValidator}, in a single pass.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FileValidatorBenchmark {
+  private static final String VALIDATOR_PACKAGE = "org.mobilitydata.gtfsvalidator.validator.";
+
+  @Param({"1000", "10000"})
+  public int tripCount;
+
+  @Param({
+    "BlockTripsWithOverlappingStopTimesValidator",
+    "SequenceVisitorValidator",
+    "ShapeIncreasingDistanceValidator",
+    "StopTooFarFromTripShapeValidator"
+  })
+  public String validator;
+
+  private Supplier<FileValidator> validatorFactory;
+  private GtfsFeedContainer feedContainer;
+  private ValidationContext validationContext;
+  private ValidatorLoader validatorLoader;
+  private Path feedDirectory;
+
+  @Setup
+  public void setUp() throws IOException, ClassNotFoundException {
+    validationContext = BenchmarkFeeds.validationContext();
+    validatorLoader = new ValidatorLoader();
+    feedDirectory = Files.createTempDirectory("gtfs-benchmark");
+    BenchmarkFeeds.generator(tripCount).writeDirectory(feedDirectory);
+    try (GtfsInput gtfsInput = GtfsInput.createFromPath(feedDirectory)) {
+      feedContainer =
+          new GtfsFeedLoader()
+              .loadAndValidate(
+                  gtfsInput, validationContext, validatorLoader, new NoticeContainer());
+    }
+    if (validator.equals("SequenceVisitorValidator")) {
+      validatorFactory =
+          () ->
+              validatorLoader.createSequenceVisitorValidator(
+                  feedContainer.getTable(GtfsStopTimeTableContainer.class),
+                  feedContainer,
+                  validationContext);
+    } else {
+      Class<? extends FileValidator> validatorClass =
+          Class.forName(VALIDATOR_PACKAGE + validator).asSubclass(FileValidator.class);
+      validatorFactory =
+          () ->
+              validatorLoader.createMultiFileValidator(
+                  validatorClass, feedContainer, validationContext);
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    MoreFiles.deleteRecursively(feedDirectory, RecursiveDeleteOption.ALLOW_INSECURE);
+  }
+
+  @Benchmark
+  public int validate() {
+    NoticeContainer noticeContainer = new NoticeContainer();
+    validatorFactory.get().validate(noticeContainer);
+    return noticeContainer.getValidationNotices().size();
+  }
+}
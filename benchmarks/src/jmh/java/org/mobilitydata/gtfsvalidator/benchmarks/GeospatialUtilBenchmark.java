@@ -0,0 +1,108 @@
+/*
+ * Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.benchmarks;
+
+import static org.locationtech.spatial4j.context.SpatialContext.GEO;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.locationtech.spatial4j.distance.DistanceUtils;
+import org.mobilitydata.gtfsvalidator.util.GeospatialUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Distance between consecutive stops of a trip, as computed by {@code TooFastTravelValidator}.
+ *
+ * <p>Every benchmark sums distances along a polyline of {@code size} points, so the results are
+ * the cost of {@code size - 1} hops.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GeospatialUtilBenchmark {
+  @Param({"10000"})
+  public int size;
+
+  /** Maximal difference of latitude or longitude between consecutive points, in degrees. */
+  @Param({"0.005", "1"})
+  public double hopDegrees;
+
+  private double[] lats;
+  private double[] lngs;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(1);
+    lats = new double[size];
+    lngs = new double[size];
+    lats[0] = 45.5;
+    lngs[0] = -73.5;
+    for (int i = 1; i < size; ++i) {
+      lats[i] =
+          Math.max(-80, Math.min(80, lats[i - 1] + (random.nextDouble() - 0.5) * hopDegrees));
+      lngs[i] =
+          Math.max(-179, Math.min(179, lngs[i - 1] + (random.nextDouble() - 0.5) * hopDegrees));
+    }
+  }
+
+  /** The implementation that allocates Spatial4j points for every hop. */
+  @Benchmark
+  public double spatial4j() {
+    double sum = 0;
+    for (int i = 1; i < size; ++i) {
+      sum +=
+          DistanceUtils.DEG_TO_KM
+              * GEO.getDistCalc()
+                  .distance(
+                      GEO.getShapeFactory().pointXY(lngs[i - 1], lats[i - 1]),
+                      GEO.getShapeFactory().pointXY(lngs[i], lats[i]))
+              * GeospatialUtil.KILOMETER_TO_METER_CONVERSION_FACTOR;
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public double distanceInMeterBetween() {
+    double sum = 0;
+    for (int i = 1; i < size; ++i) {
+      sum += GeospatialUtil.distanceInMeterBetween(lats[i - 1], lngs[i - 1], lats[i], lngs[i]);
+    }
+    return sum;
+  }
+
+  /** Cosine of latitude is computed once per point and reused for the next hop. */
+  @Benchmark
+  public double distanceInMeterBetweenWithCosLatitude() {
+    double sum = 0;
+    double prevCosLat = GeospatialUtil.cosLatitude(lats[0]);
+    for (int i = 1; i < size; ++i) {
+      final double cosLat = GeospatialUtil.cosLatitude(lats[i]);
+      sum +=
+          GeospatialUtil.distanceInMeterBetween(
+              lats[i - 1], lngs[i - 1], prevCosLat, lats[i], lngs[i], cosLat);
+      prevCosLat = cosLat;
+    }
+    return sum;
+  }
+}
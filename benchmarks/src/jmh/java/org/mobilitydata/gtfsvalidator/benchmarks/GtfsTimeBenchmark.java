@@ -0,0 +1,62 @@
+/*
+ * Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.mobilitydata.gtfsvalidator.parsing.CsvRow;
+import org.mobilitydata.gtfsvalidator.type.GtfsTime;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** Parses arrival times of stop_times.txt of a synthetic feed. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GtfsTimeBenchmark {
+  @Param({"1000"})
+  public int tripCount;
+
+  private String[] times;
+
+  @Setup
+  public void setUp() {
+    final String filename = "stop_times.txt";
+    List<CsvRow> rows =
+        BenchmarkFeeds.readRows(BenchmarkFeeds.generator(tripCount).tableBytes(filename), filename);
+    final int column = rows.get(0).getColumnIndex("arrival_time");
+    times = new String[rows.size()];
+    for (int i = 0; i < rows.size(); ++i) {
+      times[i] = rows.get(i).asString(column);
+    }
+  }
+
+  @Benchmark
+  public long fromString() {
+    long sum = 0;
+    for (String time : times) {
+      sum += GtfsTime.fromString(time).getSecondsSinceMidnight();
+    }
+    return sum;
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.benchmarks;
+
+import com.google.common.io.CharStreams;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.mobilitydata.gtfsvalidator.notice.ForeignKeyError;
+import org.mobilitydata.gtfsvalidator.notice.NoticeContainer;
+import org.mobilitydata.gtfsvalidator.notice.ValidationNotice;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Collects and exports notices about stop times that refer to unknown trips, which is what a feed
+ * with a broken trips.txt produces.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class NoticeContainerBenchmark {
+  @Param({"100000"})
+  public int noticeCount;
+
+  private ValidationNotice[] notices;
+  private NoticeContainer filledContainer;
+
+  @Setup
+  public void setUp() {
+    notices = new ValidationNotice[noticeCount];
+    for (int i = 0; i < noticeCount; ++i) {
+      notices[i] =
+          new ForeignKeyError("stop_times.txt", "trip_id", "trips.txt", "trip_id", "t" + i, i + 2);
+    }
+    filledContainer = new NoticeContainer();
+    for (ValidationNotice notice : notices) {
+      filledContainer.addValidationNotice(notice);
+    }
+  }
+
+  @Benchmark
+  public int addValidationNotice() {
+    NoticeContainer container = new NoticeContainer();
+    for (ValidationNotice notice : notices) {
+      container.addValidationNotice(notice);
+    }
+    return container.getValidationNotices().size();
+  }
+
+  @Benchmark
+  public void exportValidationNotices() throws IOException {
+    filledContainer.exportValidationNotices(CharStreams.nullWriter());
+  }
+}
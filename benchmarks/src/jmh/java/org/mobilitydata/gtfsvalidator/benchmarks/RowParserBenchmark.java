@@ -0,0 +1,206 @@
+/*
+ * Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.mobilitydata.gtfsvalidator.notice.NoticeContainer;
+import org.mobilitydata.gtfsvalidator.parsing.CsvRow;
+import org.mobilitydata.gtfsvalidator.parsing.RowParser;
+import org.mobilitydata.gtfsvalidator.table.GtfsRouteType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Parses a column of every type that {@link RowParser} supports.
+ *
+ * <p>All values are valid, so the benchmarks measure parsing rather than notice creation. Every
+ * benchmark parses {@code rowCount} cells of a single column, so the results are comparable with
+ * each other.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RowParserBenchmark {
+  private static final String[] COLUMNS = {
+    "id", "text", "url", "email", "phone", "language", "timezone", "currency", "float", "latitude",
+    "longitude", "integer", "decimal", "color", "time", "date", "enum"
+  };
+
+  private static final String[] URLS = {"https://www.example.com", "http://example.org/gtfs"};
+  private static final String[] EMAILS = {"info@example.com", "transit@example.org"};
+  private static final String[] PHONES = {"514-555-0100", "+1 438 555 0199"};
+  private static final String[] LANGUAGES = {"en", "fr-CA"};
+  private static final String[] TIMEZONES = {"America/Montreal", "Europe/Paris"};
+  private static final String[] CURRENCIES = {"CAD", "EUR"};
+  private static final String[] COLORS = {"FFFFFF", "00A1DE"};
+
+  @Param({"10000"})
+  public int rowCount;
+
+  private List<CsvRow> rows;
+  private RowParser parser;
+
+  @Setup
+  public void setUp() {
+    StringBuilder csv = new StringBuilder(String.join(",", COLUMNS)).append('\n');
+    for (int i = 0; i < rowCount; ++i) {
+      final int seconds = 5 * 3600 + i * 7 % (20 * 3600);
+      final String[] cells = {
+        "t" + i,
+        "Stop " + i,
+        URLS[i % URLS.length],
+        EMAILS[i % EMAILS.length],
+        PHONES[i % PHONES.length],
+        LANGUAGES[i % LANGUAGES.length],
+        TIMEZONES[i % TIMEZONES.length],
+        CURRENCIES[i % CURRENCIES.length],
+        String.format(Locale.ROOT, "%.2f", i * 0.37),
+        String.format(Locale.ROOT, "%.6f", 45.45 + i % 1000 * 1e-4),
+        String.format(Locale.ROOT, "%.6f", -73.75 + i % 997 * 1e-4),
+        Integer.toString(i % 50 + 1),
+        String.format(Locale.ROOT, "%d.%02d", i % 10, i % 100),
+        COLORS[i % COLORS.length],
+        String.format("%02d:%02d:%02d", seconds / 3600, seconds / 60 % 60, seconds % 60),
+        String.format("2021%02d%02d", i % 12 + 1, i % 28 + 1),
+        Integer.toString(i % 8)
+      };
+      csv.append(String.join(",", cells)).append('\n');
+    }
+    rows = BenchmarkFeeds.readRows(csv.toString().getBytes(StandardCharsets.UTF_8), "values.txt");
+    parser = new RowParser(BenchmarkFeeds.FEED_NAME, new NoticeContainer());
+  }
+
+  @FunctionalInterface
+  private interface CellParser {
+    Object parse(RowParser parser, int columnIndex);
+  }
+
+  /** Parses a column of all rows and returns the amount of parsed values. */
+  private int parseColumn(String column, CellParser cellParser) {
+    final int columnIndex = rows.get(0).getColumnIndex(column);
+    int parsed = 0;
+    for (CsvRow row : rows) {
+      parser.setRow(row);
+      if (cellParser.parse(parser, columnIndex) != null) {
+        ++parsed;
+      }
+    }
+    return parsed;
+  }
+
+  @Benchmark
+  public int asString() {
+    return parseColumn("text", (p, i) -> p.asString(i, RowParser.REQUIRED));
+  }
+
+  @Benchmark
+  public int asText() {
+    return parseColumn("text", (p, i) -> p.asText(i, RowParser.REQUIRED));
+  }
+
+  @Benchmark
+  public int asId() {
+    return parseColumn("id", (p, i) -> p.asId(i, RowParser.REQUIRED));
+  }
+
+  @Benchmark
+  public int asUrl() {
+    return parseColumn("url", (p, i) -> p.asUrl(i, RowParser.REQUIRED));
+  }
+
+  @Benchmark
+  public int asEmail() {
+    return parseColumn("email", (p, i) -> p.asEmail(i, RowParser.REQUIRED));
+  }
+
+  @Benchmark
+  public int asPhoneNumber() {
+    return parseColumn("phone", (p, i) -> p.asPhoneNumber(i, RowParser.REQUIRED));
+  }
+
+  @Benchmark
+  public int asLanguageCode() {
+    return parseColumn("language", (p, i) -> p.asLanguageCode(i, RowParser.REQUIRED));
+  }
+
+  @Benchmark
+  public int asTimezone() {
+    return parseColumn("timezone", (p, i) -> p.asTimezone(i, RowParser.REQUIRED));
+  }
+
+  @Benchmark
+  public int asCurrencyCode() {
+    return parseColumn("currency", (p, i) -> p.asCurrencyCode(i, RowParser.REQUIRED));
+  }
+
+  @Benchmark
+  public int asFloat() {
+    return parseColumn("float", (p, i) -> p.asFloat(i, RowParser.REQUIRED));
+  }
+
+  @Benchmark
+  public int asLatitude() {
+    return parseColumn("latitude", (p, i) -> p.asLatitude(i, RowParser.REQUIRED));
+  }
+
+  @Benchmark
+  public int asLongitude() {
+    return parseColumn("longitude", (p, i) -> p.asLongitude(i, RowParser.REQUIRED));
+  }
+
+  @Benchmark
+  public int asInteger() {
+    return parseColumn(
+        "integer", (p, i) -> p.asInteger(i, RowParser.REQUIRED, RowParser.NumberBounds.POSITIVE));
+  }
+
+  @Benchmark
+  public int asDecimal() {
+    return parseColumn(
+        "decimal",
+        (p, i) -> p.asDecimal(i, RowParser.REQUIRED, RowParser.NumberBounds.NON_NEGATIVE));
+  }
+
+  @Benchmark
+  public int asColor() {
+    return parseColumn("color", (p, i) -> p.asColor(i, RowParser.REQUIRED));
+  }
+
+  @Benchmark
+  public int asTime() {
+    return parseColumn("time", (p, i) -> p.asTime(i, RowParser.REQUIRED));
+  }
+
+  @Benchmark
+  public int asDate() {
+    return parseColumn("date", (p, i) -> p.asDate(i, RowParser.REQUIRED));
+  }
+
+  @Benchmark
+  public int asEnum() {
+    return parseColumn("enum", (p, i) -> p.asEnum(i, RowParser.REQUIRED, GtfsRouteType::forNumber));
+  }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+import org.mobilitydata.gtfsvalidator.notice.NoticeContainer;
+import org.mobilitydata.gtfsvalidator.table.GtfsStopTimeTableLoader;
+import org.mobilitydata.gtfsvalidator.validator.ValidationContext;
+import org.mobilitydata.gtfsvalidator.validator.ValidatorLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Loads stop_times.txt of a synthetic feed with the generated loader in the current thread,
+ * including single-entity and single-file validators.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class StopTimeLoaderBenchmark {
+  @Param({"1000", "10000"})
+  public int tripCount;
+
+  private byte[] content;
+  private ValidationContext validationContext;
+  private ValidatorLoader validatorLoader;
+
+  @Setup
+  public void setUp() {
+    content = BenchmarkFeeds.generator(tripCount).tableBytes("stop_times.txt");
+    validationContext = BenchmarkFeeds.validationContext();
+    validatorLoader = new ValidatorLoader();
+  }
+
+  @Benchmark
+  public int load() {
+    return new GtfsStopTimeTableLoader()
+        .load(
+            new ByteArrayInputStream(content),
+            validationContext,
+            validatorLoader,
+            new NoticeContainer())
+        .entityCount();
+  }
+}
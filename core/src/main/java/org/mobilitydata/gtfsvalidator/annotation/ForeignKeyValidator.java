@@ -0,0 +1,39 @@
+/*
+ * Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import org.mobilitydata.gtfsvalidator.table.GtfsTableContainer;
+
+/**
+ * Marks a validator that is generated for a {@link ForeignKey}, so that it can be told apart from
+ * other validators without relying on its class name.
+ *
+ * <p>This annotation should not be used directly.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface ForeignKeyValidator {
+  /** Container of the table that is referenced, e.g., {@code GtfsStopTableContainer}. */
+  Class<? extends GtfsTableContainer> parentTable();
+
+  /** Container of the table that has the foreign key, e.g., {@code GtfsStopTimeTableContainer}. */
+  Class<? extends GtfsTableContainer> childTable();
+}
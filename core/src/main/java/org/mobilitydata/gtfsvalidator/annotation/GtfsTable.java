@@ -26,6 +26,9 @@ import java.lang.annotation.Target;
  *
  * <p>Set {@code singleRow = true} if the table may have a single row, such as "feed_info.txt".
  *
+ * <p>Set {@code storage = TableStorageEnum.COLUMNAR} for large tables, such as "stop_times.txt", to
+ * store their rows in primitive arrays instead of separate objects.
+ *
  * <p>Example.
  *
  * <pre>
@@ -42,4 +45,6 @@ public @interface GtfsTable {
   String value();
 
   boolean singleRow() default false;
+
+  TableStorageEnum storage() default TableStorageEnum.ROW;
 }
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.annotation;
+
+/**
+ * Memory layout of a loaded GTFS table.
+ *
+ * <p>See {@code @GtfsTable} annotation for an example how to specify the layout.
+ */
+public enum TableStorageEnum {
+  /** Every row is stored as a separate entity object. */
+  ROW,
+
+  /**
+   * Rows are stored in primitive arrays, one array per column. Entities are lightweight views into
+   * the arrays, so they are cheap to create but hold no data themselves.
+   *
+   * <p>This layout takes several times less memory than {@code ROW} and it is designed for large
+   * tables, such as "stop_times.txt" and "shapes.txt".
+   */
+  COLUMNAR,
+}
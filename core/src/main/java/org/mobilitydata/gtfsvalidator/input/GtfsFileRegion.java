@@ -0,0 +1,60 @@
+/*
+ * Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.input;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+
+/**
+ * A region of a file on disk that holds uncompressed content of a GTFS file, e.g., a whole file in
+ * a directory or a STORED entry of a ZIP archive.
+ *
+ * <p>The region may be memory-mapped with {@link FileChannel#map}. The caller owns the channel and
+ * must close the region after use.
+ */
+public final class GtfsFileRegion implements Closeable {
+  private final FileChannel channel;
+  private final long offset;
+  private final long size;
+
+  GtfsFileRegion(FileChannel channel, long offset, long size) {
+    this.channel = channel;
+    this.offset = offset;
+    this.size = size;
+  }
+
+  /** Returns the channel of the file that contains the region. */
+  public FileChannel getChannel() {
+    return channel;
+  }
+
+  /** Returns the position in the channel where the content starts. */
+  public long getOffset() {
+    return offset;
+  }
+
+  /** Returns the size of the content in bytes. */
+  public long getSize() {
+    return size;
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
@@ -18,6 +18,7 @@ package org.mobilitydata.gtfsvalidator.input;
 
 import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
@@ -32,6 +33,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Set;
+import javax.annotation.Nullable;
 import org.apache.commons.io.FileUtils;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
@@ -42,7 +44,7 @@ import org.apache.http.impl.client.HttpClients;
  * GtfsInput provides a common interface for reading GTFS data, either from a ZIP archive or from a
  * directory.
  */
-public abstract class GtfsInput {
+public abstract class GtfsInput implements Closeable {
   /**
    * Creates a specific GtfsInput to read data from the given path.
    *
@@ -99,6 +101,34 @@ public abstract class GtfsInput {
     return new GtfsZipInMemoryInput(sourceUrl.toString(), outputStream.toByteArray());
   }
 
+  /**
+   * Creates a GtfsInput that reads a ZIP archive from the given URL while it is being downloaded.
+   *
+   * <p>The archive is spooled to a file on disk instead of being kept in memory. Use {@link
+   * #visitFiles(FileVisitor)} to load files as soon as they arrive.
+   *
+   * @param sourceUrl the fully qualified URL of the archive
+   * @param targetPathAsString the path where the downloaded archive will be stored; if null or
+   *     empty, the archive is stored in a temporary file that is deleted on exit
+   * @return the {@code GtfsInput} that is downloading the archive
+   * @throws IOException if the target file cannot be created
+   * @throws URISyntaxException if URL is malformed
+   * @throws InterruptedException when a thread is waiting, sleeping, or otherwise occupied, and the
+   *     thread is interrupted, either before or during the activity
+   */
+  public static GtfsInput createFromUrlStreaming(
+      URL sourceUrl, @Nullable String targetPathAsString)
+      throws IOException, URISyntaxException, InterruptedException {
+    Path targetPath;
+    if (targetPathAsString == null || targetPathAsString.isEmpty()) {
+      targetPath = Files.createTempFile("gtfs", ".zip");
+      targetPath.toFile().deleteOnExit();
+    } else {
+      targetPath = createPath(targetPathAsString);
+    }
+    return new GtfsZipStreamingInput(sourceUrl, targetPath);
+  }
+
   /**
    * Downloads data from network.
    *
@@ -165,4 +195,72 @@ public abstract class GtfsInput {
    * @throws IOException if no file could not be found at the specified location
    */
   public abstract InputStream getFile(String filename) throws IOException;
+
+  /**
+   * Returns a region of a file on disk that holds the uncompressed content of a given file, so that
+   * the file may be memory-mapped instead of being read with {@link #getFile(String)}.
+   *
+   * <p>The default implementation returns null, i.e., the file may be only streamed.
+   *
+   * @param filename relative path to the file, e.g, "stops.txt"
+   * @return the region that the caller must close or null if the file cannot be memory-mapped,
+   *     e.g., it is compressed
+   * @throws IOException if no file could not be found at the specified location
+   */
+  @Nullable
+  public GtfsFileRegion getFileRegion(String filename) throws IOException {
+    return null;
+  }
+
+  /**
+   * Tells if files should be read with {@link #visitFiles(FileVisitor)} in their order in the
+   * input, e.g., because the input is still being downloaded.
+   *
+   * @return true if files are read sequentially, false if they may be read in parallel with {@link
+   *     #getFile(String)}
+   */
+  public boolean isSequential() {
+    return false;
+  }
+
+  /**
+   * Reads all files one after another.
+   *
+   * <p>The default implementation opens every file of {@link #getFilenames()} with {@link
+   * #getFile(String)}.
+   *
+   * @param visitor the visitor to call for every file
+   * @throws IOException if the input cannot be read
+   */
+  public void visitFiles(FileVisitor visitor) throws IOException {
+    for (String filename : getFilenames()) {
+      try (InputStream inputStream = getFile(filename)) {
+        visitor.visit(filename, inputStream);
+      }
+    }
+  }
+
+  /**
+   * Releases resources that are held by the input, e.g., an open ZIP file.
+   *
+   * <p>The default implementation does nothing.
+   *
+   * @throws IOException if the resources cannot be released
+   */
+  @Override
+  public void close() throws IOException {}
+
+  /** Receives files of a GTFS input in {@link #visitFiles(FileVisitor)}. */
+  @FunctionalInterface
+  public interface FileVisitor {
+    /**
+     * Reads a single file.
+     *
+     * @param filename base name of the file, e.g., "stops.txt"
+     * @param content content of the file that is valid only until the visitor returns; the
+     *     visitor does not need to close it
+     * @throws IOException if the file cannot be read
+     */
+    void visit(String filename, InputStream content) throws IOException;
+  }
 }
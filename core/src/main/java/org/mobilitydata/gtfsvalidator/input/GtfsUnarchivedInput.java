@@ -18,8 +18,10 @@ package org.mobilitydata.gtfsvalidator.input;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Collections;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -50,4 +52,10 @@ public class GtfsUnarchivedInput extends GtfsInput {
   public InputStream getFile(String filename) throws IOException {
     return Files.newInputStream(directory.resolve(filename));
   }
+
+  @Override
+  public GtfsFileRegion getFileRegion(String filename) throws IOException {
+    FileChannel channel = FileChannel.open(directory.resolve(filename), StandardOpenOption.READ);
+    return new GtfsFileRegion(channel, 0, channel.size());
+  }
 }
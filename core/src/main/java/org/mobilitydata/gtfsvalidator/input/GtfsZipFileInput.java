@@ -20,10 +20,14 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
@@ -32,14 +36,29 @@ import java.util.zip.ZipFile;
 public class GtfsZipFileInput extends GtfsInput {
   private final Set<String> filenames = new HashSet();
   private final ZipFile zipFile;
+  private final Path path;
+
+  /**
+   * Regions of uncompressed entries keyed by entry names: {@code {offset, size}}.
+   *
+   * <p>The central directory is only scanned on the first call to {@link #getFileRegion}, so that
+   * archives that are not memory-mapped do not pay for it.
+   */
+  private Map<String, long[]> storedEntries;
 
   public GtfsZipFileInput(File file) throws IOException {
     zipFile = new ZipFile(file);
-    for (Enumeration<? extends ZipEntry> i = zipFile.entries(); i.hasMoreElements(); ) {
-      ZipEntry entry = i.nextElement();
-      if (!isInsideZipDirectory(entry)) {
-        filenames.add(entry.getName());
+    path = file.toPath();
+    try {
+      for (Enumeration<? extends ZipEntry> i = zipFile.entries(); i.hasMoreElements(); ) {
+        ZipEntry entry = i.nextElement();
+        if (!isInsideZipDirectory(entry)) {
+          filenames.add(entry.getName());
+        }
       }
+    } catch (RuntimeException e) {
+      zipFile.close();
+      throw e;
     }
   }
 
@@ -66,4 +85,34 @@ public class GtfsZipFileInput extends GtfsInput {
     }
     return zipFile.getInputStream(entry);
   }
+
+  /**
+   * Returns the region of an uncompressed entry in the archive or null if the entry is compressed.
+   */
+  @Override
+  public GtfsFileRegion getFileRegion(String filename) throws IOException {
+    if (zipFile.getEntry(filename) == null) {
+      throw new FileNotFoundException(Paths.get(zipFile.getName(), filename).toString());
+    }
+    long[] region = getStoredEntries().get(filename);
+    if (region == null) {
+      return null;
+    }
+    return new GtfsFileRegion(
+        FileChannel.open(path, StandardOpenOption.READ), region[0], region[1]);
+  }
+
+  private synchronized Map<String, long[]> getStoredEntries() throws IOException {
+    if (storedEntries == null) {
+      try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+        storedEntries = ZipStoredEntries.locate(channel);
+      }
+    }
+    return storedEntries;
+  }
+
+  @Override
+  public void close() throws IOException {
+    zipFile.close();
+  }
 }
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.input;
+
+import static org.mobilitydata.gtfsvalidator.input.GtfsZipFileInput.isInsideZipDirectory;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import javax.annotation.Nullable;
+import org.apache.commons.io.input.CloseShieldInputStream;
+import org.apache.http.HttpEntity;
+import org.apache.http.StatusLine;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+
+/**
+ * Reads a GTFS ZIP archive while it is being downloaded.
+ *
+ * <p>A background thread spools the HTTP response body to a file on disk. {@link
+ * #visitFiles(FileVisitor)} parses the spooled bytes with {@code ZipInputStream} as they arrive, so
+ * the files at the beginning of the archive, such as agency.txt or stops.txt, are loaded while the
+ * rest of the archive is still downloading. The heap never holds a copy of the whole archive.
+ *
+ * <p>Once the download is complete, the spool file is read as a usual {@link GtfsZipFileInput}, so
+ * {@link #getFilenames()} and {@link #getFile(String)} wait for the download to finish.
+ */
+public class GtfsZipStreamingInput extends GtfsInput {
+  private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+  private final String source;
+  private final Path spoolPath;
+
+  // Download progress, guarded by this.
+  private long spooledBytes = 0;
+  private boolean downloadFinished = false;
+  @Nullable private IOException downloadError = null;
+
+  @Nullable private GtfsZipFileInput spooledInput = null;
+
+  /**
+   * Starts downloading an archive from a given URL in a background thread.
+   *
+   * @param sourceUrl the fully qualified URL of the archive
+   * @param spoolPath the file to store the downloaded archive; it is overwritten if it exists
+   * @throws URISyntaxException if URL is malformed
+   */
+  public GtfsZipStreamingInput(URL sourceUrl, Path spoolPath) throws URISyntaxException {
+    this.source = sourceUrl.toString();
+    this.spoolPath = spoolPath;
+    final HttpGet httpGet = new HttpGet(sourceUrl.toURI());
+    Thread downloadThread = new Thread(() -> download(httpGet), "gtfs-download");
+    downloadThread.setDaemon(true);
+    downloadThread.start();
+  }
+
+  private void download(HttpGet httpGet) {
+    IOException error = null;
+    try (CloseableHttpClient httpClient = HttpClients.createDefault();
+        CloseableHttpResponse httpResponse = httpClient.execute(httpGet)) {
+      // Do not parse an error page as an archive.
+      final StatusLine statusLine = httpResponse.getStatusLine();
+      if (statusLine.getStatusCode() < 200 || statusLine.getStatusCode() >= 300) {
+        throw new IOException("Unexpected HTTP status: " + statusLine);
+      }
+      final HttpEntity entity = httpResponse.getEntity();
+      if (entity == null) {
+        throw new IOException("HTTP response has no body");
+      }
+      try (InputStream body = entity.getContent();
+          OutputStream spool = Files.newOutputStream(spoolPath)) {
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        int n;
+        while ((n = body.read(buffer)) >= 0) {
+          spool.write(buffer, 0, n);
+          synchronized (this) {
+            spooledBytes += n;
+            notifyAll();
+          }
+        }
+      }
+    } catch (IOException e) {
+      // Readers get the error when they reach the end of spooled bytes.
+      error = e;
+    } catch (Throwable e) {
+      // Any failure must finish the download, otherwise readers would wait forever.
+      error = new IOException(e);
+    } finally {
+      synchronized (this) {
+        downloadFinished = true;
+        downloadError = error;
+        notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Waits until at least {@code position + 1} bytes are spooled or the download finishes.
+   *
+   * @return amount of spooled bytes
+   */
+  private synchronized long awaitSpooledBytes(long position) throws IOException {
+    while (spooledBytes <= position && !downloadFinished) {
+      try {
+        wait();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while downloading " + source);
+      }
+    }
+    if (spooledBytes <= position && downloadError != null) {
+      throw new IOException("Cannot download " + source, downloadError);
+    }
+    return spooledBytes;
+  }
+
+  /** Waits for the download to finish and returns the downloaded archive. */
+  private synchronized GtfsZipFileInput getSpooledInput() throws IOException {
+    awaitSpooledBytes(Long.MAX_VALUE);
+    if (spooledInput == null) {
+      spooledInput = new GtfsZipFileInput(spoolPath.toFile());
+    }
+    return spooledInput;
+  }
+
+  @Override
+  public boolean isSequential() {
+    return true;
+  }
+
+  /**
+   * Reads files in their order in the archive while it is being downloaded. Files in nested
+   * directories are skipped.
+   */
+  @Override
+  public void visitFiles(FileVisitor visitor) throws IOException {
+    try (ZipInputStream zipInputStream =
+        new ZipInputStream(new BufferedInputStream(new SpoolInputStream(), COPY_BUFFER_SIZE))) {
+      for (ZipEntry entry = zipInputStream.getNextEntry();
+          entry != null;
+          entry = zipInputStream.getNextEntry()) {
+        if (!entry.isDirectory() && !isInsideZipDirectory(entry)) {
+          visitor.visit(entry.getName(), new CloseShieldInputStream(zipInputStream));
+        }
+      }
+    }
+  }
+
+  /** Waits for the download to finish and lists files in the archive. */
+  @Override
+  public Set<String> getFilenames() {
+    try {
+      return getSpooledInput().getFilenames();
+    } catch (IOException e) {
+      throw new IllegalStateException("Cannot read downloaded archive " + source, e);
+    }
+  }
+
+  /** Waits for the download to finish and returns a stream for a file in the archive. */
+  @Override
+  public InputStream getFile(String filename) throws IOException {
+    return getSpooledInput().getFile(filename);
+  }
+
+  /** Closes the downloaded archive. A download in progress is not interrupted. */
+  @Override
+  public synchronized void close() throws IOException {
+    if (spooledInput != null) {
+      spooledInput.close();
+    }
+  }
+
+  /** Reads the spool file, waiting for new bytes until the download finishes. */
+  private class SpoolInputStream extends InputStream {
+    private final FileChannel channel;
+    private long position = 0;
+
+    SpoolInputStream() throws IOException {
+      // The download thread may have not created the file yet.
+      awaitSpooledBytes(0);
+      channel = FileChannel.open(spoolPath, StandardOpenOption.READ);
+    }
+
+    @Override
+    public int read() throws IOException {
+      byte[] b = new byte[1];
+      return read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      if (len == 0) {
+        return 0;
+      }
+      final long available = awaitSpooledBytes(position) - position;
+      if (available <= 0) {
+        return -1;
+      }
+      final int n =
+          channel.read(ByteBuffer.wrap(b, off, (int) Math.min(len, available)), position);
+      if (n > 0) {
+        position += n;
+      }
+      return n;
+    }
+
+    @Override
+    public void close() throws IOException {
+      channel.close();
+    }
+  }
+}
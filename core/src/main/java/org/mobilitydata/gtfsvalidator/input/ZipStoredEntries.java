@@ -0,0 +1,137 @@
+/*
+ * Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.input;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+
+/**
+ * Locates content of uncompressed (STORED) entries in a ZIP archive.
+ *
+ * <p>{@code java.util.zip.ZipFile} does not tell where the data of an entry starts, so this class
+ * reads the central directory and local file headers itself. Entries that need ZIP64 extensions,
+ * encrypted entries and archives with a malformed central directory are not located: they are read
+ * with {@code ZipFile} as usual.
+ */
+final class ZipStoredEntries {
+  private static final int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+  private static final int CENTRAL_FILE_HEADER_SIGNATURE = 0x02014b50;
+  private static final int LOCAL_FILE_HEADER_SIGNATURE = 0x04034b50;
+
+  private static final int END_OF_CENTRAL_DIRECTORY_SIZE = 22;
+  private static final int CENTRAL_FILE_HEADER_SIZE = 46;
+  private static final int LOCAL_FILE_HEADER_SIZE = 30;
+  private static final int MAX_COMMENT_SIZE = 0xffff;
+
+  private static final long ZIP64_MARKER = 0xffffffffL;
+  private static final int ENCRYPTED_FLAG = 1;
+
+  private ZipStoredEntries() {}
+
+  /**
+   * Returns regions of STORED entries in the archive.
+   *
+   * @param channel the ZIP archive
+   * @return offsets and sizes of entry content as {@code {offset, size}} pairs keyed by entry names
+   */
+  static Map<String, long[]> locate(FileChannel channel) throws IOException {
+    Map<String, long[]> entries = new HashMap<>();
+    final long fileSize = channel.size();
+    final int tailSize =
+        (int) Math.min(fileSize, END_OF_CENTRAL_DIRECTORY_SIZE + MAX_COMMENT_SIZE);
+    final ByteBuffer tail = read(channel, fileSize - tailSize, tailSize);
+    int end = -1;
+    for (int p = tailSize - END_OF_CENTRAL_DIRECTORY_SIZE; p >= 0; --p) {
+      if (tail.getInt(p) == END_OF_CENTRAL_DIRECTORY_SIGNATURE) {
+        end = p;
+        break;
+      }
+    }
+    if (end < 0) {
+      return entries;
+    }
+    final long directorySize = tail.getInt(end + 12) & ZIP64_MARKER;
+    final long directoryOffset = tail.getInt(end + 16) & ZIP64_MARKER;
+    if (directoryOffset == ZIP64_MARKER
+        || directorySize == ZIP64_MARKER
+        || directoryOffset + directorySize > fileSize) {
+      return entries;
+    }
+    final ByteBuffer directory = read(channel, directoryOffset, (int) directorySize);
+    int p = 0;
+    while (p + CENTRAL_FILE_HEADER_SIZE <= directorySize
+        && directory.getInt(p) == CENTRAL_FILE_HEADER_SIGNATURE) {
+      final int flags = directory.getShort(p + 8) & 0xffff;
+      final int method = directory.getShort(p + 10) & 0xffff;
+      final long compressedSize = directory.getInt(p + 20) & ZIP64_MARKER;
+      final long size = directory.getInt(p + 24) & ZIP64_MARKER;
+      final int nameLength = directory.getShort(p + 28) & 0xffff;
+      final int extraLength = directory.getShort(p + 30) & 0xffff;
+      final int commentLength = directory.getShort(p + 32) & 0xffff;
+      final long localHeaderOffset = directory.getInt(p + 42) & ZIP64_MARKER;
+      if (p + CENTRAL_FILE_HEADER_SIZE + nameLength > directorySize) {
+        break;
+      }
+      if (method == ZipEntry.STORED
+          && (flags & ENCRYPTED_FLAG) == 0
+          && size == compressedSize
+          && size != ZIP64_MARKER
+          && localHeaderOffset != ZIP64_MARKER) {
+        byte[] name = new byte[nameLength];
+        ByteBuffer nameBuffer = directory.duplicate();
+        nameBuffer.position(p + CENTRAL_FILE_HEADER_SIZE);
+        nameBuffer.get(name);
+        final long dataOffset = findData(channel, localHeaderOffset);
+        if (dataOffset >= 0 && dataOffset + size <= fileSize) {
+          entries.put(new String(name, StandardCharsets.UTF_8), new long[] {dataOffset, size});
+        }
+      }
+      p += CENTRAL_FILE_HEADER_SIZE + nameLength + extraLength + commentLength;
+    }
+    return entries;
+  }
+
+  /** Returns offset of entry data that follows a local file header, or -1 if it is malformed. */
+  private static long findData(FileChannel channel, long localHeaderOffset) throws IOException {
+    if (localHeaderOffset + LOCAL_FILE_HEADER_SIZE > channel.size()) {
+      return -1;
+    }
+    final ByteBuffer header = read(channel, localHeaderOffset, LOCAL_FILE_HEADER_SIZE);
+    if (header.getInt(0) != LOCAL_FILE_HEADER_SIGNATURE) {
+      return -1;
+    }
+    final int nameLength = header.getShort(26) & 0xffff;
+    final int extraLength = header.getShort(28) & 0xffff;
+    return localHeaderOffset + LOCAL_FILE_HEADER_SIZE + nameLength + extraLength;
+  }
+
+  private static ByteBuffer read(FileChannel channel, long position, int size) throws IOException {
+    final ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) < 0) {
+        throw new IOException("Unexpected end of ZIP archive");
+      }
+    }
+    return buffer;
+  }
+}
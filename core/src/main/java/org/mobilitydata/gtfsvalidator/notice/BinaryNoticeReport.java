@@ -0,0 +1,297 @@
+/*
+ * Copyright 2020 Google LLC, MobilityData IO
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.notice;
+
+import com.google.common.collect.ImmutableList;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonWriter;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Validation notices read from a binary report, see {@link
+ * NoticeContainer#exportValidationNoticesBinary}.
+ *
+ * <p>The binary report holds the same data as the JSON report but it is smaller and much faster to
+ * parse. Its schema is stored in the report itself: the table of notice codes, the severity and the
+ * field names of every notice type. So all notice types are covered, including the ones added
+ * after the reader was compiled. The layout is:
+ *
+ * <pre>
+ * report  := magic:"GTNR" version:u8 codeCount:varint string* groupCount:varint group*
+ * group   := code:varint severity:u8 totalNotices:varint
+ *            fieldCount:varint string* noticeCount:varint notice*
+ * notice  := fieldCount:varint (field:varint value)*
+ * value   := tag:u8 payload
+ * string  := length:varint UTF-8 bytes
+ * </pre>
+ *
+ * <p>Notice codes are referred to by their index in the code table, and severity by its ordinal in
+ * {@link SeverityLevel}. Integers and longs are written as zigzag varints, doubles as 8 bytes in
+ * big-endian order. A string value is written once and then referred to by its index in the order
+ * of first occurrence in the report. Values of other types are written as JSON text.
+ */
+public final class BinaryNoticeReport {
+  static final byte[] MAGIC = {'G', 'T', 'N', 'R'};
+  static final int VERSION = 1;
+
+  static final int TAG_NULL = 0;
+  static final int TAG_INT = 1;
+  static final int TAG_LONG = 2;
+  static final int TAG_DOUBLE = 3;
+  static final int TAG_NEW_STRING = 4;
+  static final int TAG_STRING_REF = 5;
+  static final int TAG_BOOLEAN = 6;
+  static final int TAG_JSON = 7;
+
+  private static final Gson DEFAULT_GSON = new GsonBuilder().serializeNulls().create();
+
+  private final List<NoticeGroup> groups;
+
+  private BinaryNoticeReport(List<NoticeGroup> groups) {
+    this.groups = groups;
+  }
+
+  /** Returns groups of notices in the order of the JSON report. */
+  public List<NoticeGroup> getGroups() {
+    return groups;
+  }
+
+  /**
+   * Converts the report to JSON. The result is the same as the JSON report exported from the
+   * container that produced the binary report.
+   */
+  public String toJson() {
+    StringWriter out = new StringWriter();
+    try {
+      JsonWriter writer = DEFAULT_GSON.newJsonWriter(out);
+      writer.beginObject();
+      writer.name("notices").beginArray();
+      for (NoticeGroup group : groups) {
+        writer.beginObject();
+        writer.name("code").value(group.getCode());
+        writer.name("severity").value(group.getSeverityLevel().toString());
+        writer.name("totalNotices").value(group.getTotalNotices());
+        writer.name("notices").beginArray();
+        for (Map<String, Object> context : group.getNotices()) {
+          DEFAULT_GSON.toJson(context, Map.class, writer);
+        }
+        writer.endArray();
+        writer.endObject();
+      }
+      writer.endArray();
+      writer.endObject();
+      writer.flush();
+    } catch (IOException e) {
+      // StringWriter does not throw IOException.
+      throw new UncheckedIOException(e);
+    }
+    return out.toString();
+  }
+
+  /**
+   * Reads a binary report.
+   *
+   * @param in stream with the report, it is not closed
+   * @throws IOException if the stream cannot be read or does not contain a valid report
+   */
+  public static BinaryNoticeReport read(InputStream in) throws IOException {
+    return new Reader(new DataInputStream(new BufferedInputStream(in))).readReport();
+  }
+
+  /** Notices with the same code and severity. */
+  public static final class NoticeGroup {
+    private final String code;
+    private final SeverityLevel severityLevel;
+    private final long totalNotices;
+    private final List<Map<String, Object>> notices;
+
+    NoticeGroup(
+        String code,
+        SeverityLevel severityLevel,
+        long totalNotices,
+        List<Map<String, Object>> notices) {
+      this.code = code;
+      this.severityLevel = severityLevel;
+      this.totalNotices = totalNotices;
+      this.notices = notices;
+    }
+
+    public String getCode() {
+      return code;
+    }
+
+    public SeverityLevel getSeverityLevel() {
+      return severityLevel;
+    }
+
+    /** Returns the amount of notices found, which may be more than the amount of stored ones. */
+    public long getTotalNotices() {
+      return totalNotices;
+    }
+
+    /**
+     * Returns contexts of stored notices. Values are {@code Integer}, {@code Long}, {@code Double},
+     * {@code String}, {@code Boolean}, {@code JsonElement} or null.
+     */
+    public List<Map<String, Object>> getNotices() {
+      return notices;
+    }
+  }
+
+  private static final class Reader {
+    private final DataInputStream in;
+    private final List<String> strings = new ArrayList<>();
+
+    Reader(DataInputStream in) {
+      this.in = in;
+    }
+
+    BinaryNoticeReport readReport() throws IOException {
+      byte[] magic = new byte[MAGIC.length];
+      in.readFully(magic);
+      if (!Arrays.equals(magic, MAGIC)) {
+        throw new IOException("Not a binary notice report");
+      }
+      final int version = in.readUnsignedByte();
+      if (version != VERSION) {
+        throw new IOException("Unsupported version of binary notice report: " + version);
+      }
+      final String[] codes = new String[readCount()];
+      for (int i = 0; i < codes.length; ++i) {
+        codes[i] = readString();
+      }
+      final int groupCount = readCount();
+      List<NoticeGroup> groups = new ArrayList<>(groupCount);
+      for (int i = 0; i < groupCount; ++i) {
+        groups.add(readGroup(codes));
+      }
+      return new BinaryNoticeReport(Collections.unmodifiableList(groups));
+    }
+
+    private NoticeGroup readGroup(String[] codes) throws IOException {
+      final String code = codes[readIndex(codes.length)];
+      final int severity = checkIndex(in.readUnsignedByte(), SeverityLevel.values().length);
+      final SeverityLevel severityLevel = SeverityLevel.values()[severity];
+      final long totalNotices = readVarLong();
+      final String[] fields = new String[readCount()];
+      for (int i = 0; i < fields.length; ++i) {
+        fields[i] = readString();
+      }
+      final int noticeCount = readCount();
+      List<Map<String, Object>> notices = new ArrayList<>(noticeCount);
+      for (int i = 0; i < noticeCount; ++i) {
+        final int fieldCount = readCount();
+        Map<String, Object> context = new LinkedHashMap<>(fieldCount * 2);
+        for (int j = 0; j < fieldCount; ++j) {
+          final String field = fields[readIndex(fields.length)];
+          context.put(field, readValue());
+        }
+        notices.add(Collections.unmodifiableMap(context));
+      }
+      return new NoticeGroup(code, severityLevel, totalNotices, ImmutableList.copyOf(notices));
+    }
+
+    private Object readValue() throws IOException {
+      final int tag = in.readUnsignedByte();
+      switch (tag) {
+        case TAG_NULL:
+          return null;
+        case TAG_INT:
+          return (int) decodeZigZag(readVarLong());
+        case TAG_LONG:
+          return decodeZigZag(readVarLong());
+        case TAG_DOUBLE:
+          return in.readDouble();
+        case TAG_NEW_STRING:
+          final String s = readString();
+          strings.add(s);
+          return s;
+        case TAG_STRING_REF:
+          return strings.get(readIndex(strings.size()));
+        case TAG_BOOLEAN:
+          return in.readBoolean();
+        case TAG_JSON:
+          return JsonParser.parseString(readString());
+        default:
+          throw new IOException("Unknown value tag in binary notice report: " + tag);
+      }
+    }
+
+    private String readString() throws IOException {
+      byte[] bytes = new byte[readCount()];
+      in.readFully(bytes);
+      return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int readCount() throws IOException {
+      final long count = readVarLong();
+      if (count < 0 || count > Integer.MAX_VALUE) {
+        throw new IOException("Malformed binary notice report: too large count " + count);
+      }
+      return (int) count;
+    }
+
+    private int readIndex(int size) throws IOException {
+      return checkIndex(readCount(), size);
+    }
+
+    private static int checkIndex(int index, int size) throws IOException {
+      if (index >= size) {
+        throw new IOException("Malformed binary notice report: index out of range " + index);
+      }
+      return index;
+    }
+
+    private long readVarLong() throws IOException {
+      long value = 0;
+      for (int shift = 0; shift < 64; shift += 7) {
+        final int b = in.read();
+        if (b < 0) {
+          throw new EOFException();
+        }
+        value |= (long) (b & 0x7f) << shift;
+        if ((b & 0x80) == 0) {
+          return value;
+        }
+      }
+      throw new IOException("Malformed varint in binary notice report");
+    }
+  }
+
+  static long encodeZigZag(long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+
+  static long decodeZigZag(long value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2020 Google LLC, MobilityData IO
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.notice;
+
+import static org.mobilitydata.gtfsvalidator.notice.BinaryNoticeReport.encodeZigZag;
+
+import com.google.gson.Gson;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/** Writes a binary notice report, see {@link BinaryNoticeReport} for the layout. */
+final class BinaryNoticeWriter {
+  private final DataOutputStream out;
+  private final Gson gson;
+  private final Map<String, Integer> stringIds = new HashMap<>();
+
+  BinaryNoticeWriter(OutputStream out, Gson gson) {
+    this.out = new DataOutputStream(out);
+    this.gson = gson;
+  }
+
+  /** Writes the header of the report with the table of notice codes. */
+  void writeHeader(List<String> codes) throws IOException {
+    out.write(BinaryNoticeReport.MAGIC);
+    out.writeByte(BinaryNoticeReport.VERSION);
+    writeVarLong(codes.size());
+    for (String code : codes) {
+      writeString(code);
+    }
+  }
+
+  void writeGroupCount(int groupCount) throws IOException {
+    writeVarLong(groupCount);
+  }
+
+  /**
+   * Writes the header of a group of notices that is followed by {@code noticeCount} calls of
+   * {@link #writeNoticeHeader} and {@link #writeField}.
+   */
+  void writeGroupHeader(
+      int codeIndex,
+      SeverityLevel severityLevel,
+      long totalNotices,
+      List<String> fields,
+      int noticeCount)
+      throws IOException {
+    writeVarLong(codeIndex);
+    out.writeByte(severityLevel.ordinal());
+    writeVarLong(totalNotices);
+    writeVarLong(fields.size());
+    for (String field : fields) {
+      writeString(field);
+    }
+    writeVarLong(noticeCount);
+  }
+
+  void writeNoticeHeader(int fieldCount) throws IOException {
+    writeVarLong(fieldCount);
+  }
+
+  /** Writes a context value of a notice with the index of its field in the group header. */
+  void writeField(int fieldIndex, @Nullable Object value) throws IOException {
+    writeVarLong(fieldIndex);
+    if (value == null) {
+      out.writeByte(BinaryNoticeReport.TAG_NULL);
+    } else if (value instanceof Integer) {
+      out.writeByte(BinaryNoticeReport.TAG_INT);
+      writeVarLong(encodeZigZag((Integer) value));
+    } else if (value instanceof Long) {
+      out.writeByte(BinaryNoticeReport.TAG_LONG);
+      writeVarLong(encodeZigZag((Long) value));
+    } else if (value instanceof Double) {
+      out.writeByte(BinaryNoticeReport.TAG_DOUBLE);
+      out.writeDouble((Double) value);
+    } else if (value instanceof String) {
+      final Integer id = stringIds.get(value);
+      if (id != null) {
+        out.writeByte(BinaryNoticeReport.TAG_STRING_REF);
+        writeVarLong(id);
+      } else {
+        stringIds.put((String) value, stringIds.size());
+        out.writeByte(BinaryNoticeReport.TAG_NEW_STRING);
+        writeString((String) value);
+      }
+    } else if (value instanceof Boolean) {
+      out.writeByte(BinaryNoticeReport.TAG_BOOLEAN);
+      out.writeBoolean((Boolean) value);
+    } else {
+      out.writeByte(BinaryNoticeReport.TAG_JSON);
+      writeString(gson.toJson(value));
+    }
+  }
+
+  void flush() throws IOException {
+    out.flush();
+  }
+
+  private void writeString(String s) throws IOException {
+    final byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+    writeVarLong(bytes.length);
+    out.write(bytes);
+  }
+
+  private void writeVarLong(long value) throws IOException {
+    while ((value & ~0x7fL) != 0) {
+      out.writeByte((int) (value & 0x7f) | 0x80);
+      value >>>= 7;
+    }
+    out.writeByte((int) value);
+  }
+}
@@ -0,0 +1,771 @@
+/*
+ * Copyright 2020 Google LLC, MobilityData IO
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.notice;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import javax.annotation.Nullable;
+
+/**
+ * Stores notices in columns instead of keeping the notice objects and their context
+ * maps.
+ *
+ * <p>Notices are grouped into tables by code and severity. Every key of the notice context is a
+ * column of its table: integers, longs and doubles are kept in primitive arrays, strings are
+ * dictionary-encoded while a column has few distinct values and other values are kept as objects.
+ *
+ * <p>The first notice of every class and list of context keys is kept as a prototype. A notice is
+ * materialized on request as a copy of its prototype whose context is a view of the columns, so it
+ * has the same class, code and context as the notice that was added.
+ *
+ * <p>Notice constructors still build their context maps, so every added notice allocates a map
+ * once. The store copies its values into columns and drops the map, so memory is saved for the
+ * notices that are kept, not for the allocation of each notice.
+ *
+ * <p>The store keeps at most a given amount of notices for every code and severity. Past that cap,
+ * it keeps an exact count of notices and a uniform random sample of them (reservoir sampling), so a
+ * feed with millions of notices of the same kind does not exhaust memory.
+ *
+ * <p>This class is not thread-safe.
+ *
+ * @param <T> type of stored notices, e.g., {@link ValidationNotice} or {@link SystemError}
+ */
+final class ColumnarNoticeStore<T extends Notice> {
+  private static final int INITIAL_CAPACITY = 16;
+
+  private final int maxNoticesPerGroup;
+
+  /** Tables keyed by code and severity, sorted in the order of export. */
+  private final Map<String, NoticeTable<T>> tablesByGroup = new TreeMap<>();
+
+  private final List<NoticeTable<T>> tables = new ArrayList<>();
+
+  /** Table index and row of every notice in the order the notices were added. */
+  private int[] noticeTables = new int[INITIAL_CAPACITY];
+
+  private int[] noticeRows = new int[INITIAL_CAPACITY];
+  private int size = 0;
+
+  /**
+   * Creates a store.
+   *
+   * @param maxNoticesPerGroup maximum amount of notices to keep for a single code and severity
+   */
+  ColumnarNoticeStore(int maxNoticesPerGroup) {
+    if (maxNoticesPerGroup < 0) {
+      throw new IllegalArgumentException("Negative cap of notices: " + maxNoticesPerGroup);
+    }
+    this.maxNoticesPerGroup = maxNoticesPerGroup;
+  }
+
+  /** Returns the amount of stored notices, which may be less than the amount of added notices. */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Returns the exact amount of added notices for every code, including the ones that were not
+   * sampled, sorted by code.
+   */
+  Map<String, Long> countByCode() {
+    Map<String, Long> counts = new TreeMap<>();
+    for (NoticeTable<T> table : tables) {
+      counts.merge(table.code, table.totalCount, Long::sum);
+    }
+    return counts;
+  }
+
+  void add(T notice) {
+    final NoticeTable<T> table = getTable(notice.getCode(), notice.getSeverityLevel());
+    final int row = sampleRow(table);
+    if (row < 0) {
+      return;
+    }
+    final Map<String, Object> context = notice.getContext();
+    final Shape shape = table.findShape(notice, context);
+    storeRow(table, row, shape);
+    int i = 0;
+    for (Object value : context.values()) {
+      table.setValue(shape.columnIds[i++], row, value);
+    }
+  }
+
+  /**
+   * Adds all notices of another store.
+   *
+   * <p>Notices of groups that are not sampled in the other store are added in their order, as if
+   * they were added with {@link #add}. Samples are merged so that the result is a uniform sample of
+   * notices in both stores.
+   */
+  void addAll(ColumnarNoticeStore<T> other) {
+    for (int i = 0; i < other.size; ++i) {
+      final NoticeTable<T> otherTable = other.tables.get(other.noticeTables[i]);
+      if (otherTable.isSampled()) {
+        continue;
+      }
+      final NoticeTable<T> table = getTable(otherTable.code, otherTable.severityLevel);
+      final int row = sampleRow(table);
+      if (row >= 0) {
+        copyRow(table, row, otherTable, other.noticeRows[i]);
+      }
+    }
+    for (NoticeTable<T> otherTable : other.tables) {
+      if (otherTable.isSampled()) {
+        mergeSample(otherTable);
+      }
+    }
+  }
+
+  /**
+   * Counts a new notice of the table and chooses a row for it (Algorithm R).
+   *
+   * @return {@code table.rowCount} to append a row, index of an existing row to replace or -1 if
+   *     the notice is not sampled
+   */
+  private int sampleRow(NoticeTable<T> table) {
+    ++table.totalCount;
+    if (table.rowCount < maxNoticesPerGroup) {
+      return table.rowCount;
+    }
+    // The n-th notice replaces a random stored notice with probability cap / n.
+    final long slot = table.random.nextLong(table.totalCount);
+    return slot < maxNoticesPerGroup ? (int) slot : -1;
+  }
+
+  /**
+   * Merges a sample of notices from another store into the table with the same code and severity.
+   *
+   * <p>Rows of both tables are uniform samples of their notices. The amount of rows taken from
+   * each table follows the hypergeometric distribution, so the result is a uniform sample of all
+   * notices. If a source store had a smaller cap, it may provide fewer rows than this cap.
+   */
+  private void mergeSample(NoticeTable<T> other) {
+    final NoticeTable<T> table = getTable(other.code, other.severityLevel);
+    final int sampleSize =
+        (int) Math.min(maxNoticesPerGroup, (long) table.rowCount + other.rowCount);
+    long remaining = table.totalCount;
+    long otherRemaining = other.totalCount;
+    int keptRows = 0;
+    int otherRows = 0;
+    for (int i = 0; i < sampleSize; ++i) {
+      final boolean fromTable =
+          keptRows < table.rowCount
+              && (otherRows == other.rowCount
+                  || table.random.nextLong(remaining + otherRemaining) < remaining);
+      if (fromTable) {
+        ++keptRows;
+        --remaining;
+      } else {
+        ++otherRows;
+        --otherRemaining;
+      }
+    }
+    final int[] replacedRows =
+        randomSubset(table.random, table.rowCount, table.rowCount - keptRows);
+    final int[] otherPickedRows = randomSubset(table.random, other.rowCount, otherRows);
+    for (int i = 0; i < otherRows; ++i) {
+      final int row = i < replacedRows.length ? replacedRows[i] : table.rowCount;
+      copyRow(table, row, other, otherPickedRows[i]);
+    }
+    table.totalCount += other.totalCount;
+  }
+
+  /** Returns {@code k} distinct random numbers from 0 to {@code n - 1} in ascending order. */
+  private static int[] randomSubset(SplittableRandom random, int n, int k) {
+    final int[] numbers = new int[n];
+    for (int i = 0; i < n; ++i) {
+      numbers[i] = i;
+    }
+    for (int i = 0; i < k; ++i) {
+      final int j = i + random.nextInt(n - i);
+      final int t = numbers[i];
+      numbers[i] = numbers[j];
+      numbers[j] = t;
+    }
+    final int[] subset = Arrays.copyOf(numbers, k);
+    Arrays.sort(subset);
+    return subset;
+  }
+
+  private void copyRow(NoticeTable<T> table, int row, NoticeTable<T> other, int otherRow) {
+    final Shape otherShape = other.getShape(otherRow);
+    final Shape shape = table.findShape(otherShape.prototype, otherShape.keys);
+    storeRow(table, row, shape);
+    for (int k = 0; k < shape.keys.length; ++k) {
+      table.setValue(shape.columnIds[k], row, other.getValue(otherShape.columnIds[k], otherRow));
+    }
+  }
+
+  /** Appends a row if {@code row} is {@code table.rowCount} or sets shape of an existing row. */
+  private void storeRow(NoticeTable<T> table, int row, Shape shape) {
+    if (row == table.rowCount) {
+      table.appendRow(shape);
+      appendNotice(table.index, row);
+    } else {
+      table.setShape(row, shape);
+    }
+  }
+
+  /**
+   * Returns the stored notice with the given index in the order of addition. A sampled notice
+   * takes the place of the notice that it replaced.
+   */
+  T get(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+    }
+    return tables.get(noticeTables[index]).materialize(noticeRows[index]);
+  }
+
+  /** Returns a read-only list view that materializes notices on access. */
+  List<T> asList() {
+    return new AbstractList<T>() {
+      @Override
+      public T get(int index) {
+        return ColumnarNoticeStore.this.get(index);
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+  /**
+   * Writes notices as JSON objects grouped by code and severity. Every group is written as a
+   * separate object, so the caller should begin an array before calling this method.
+   *
+   * @param writer JSON writer positioned inside an array
+   * @param maxExportsPerGroup maximum amount of notices to write in a single group
+   * @param gson serializer for context values
+   */
+  void writeJson(JsonWriter writer, int maxExportsPerGroup, Gson gson) throws IOException {
+    for (NoticeTable<T> table : tablesByGroup.values()) {
+      writer.beginObject();
+      writer.name("code").value(table.code);
+      writer.name("severity").value(table.severityLevel.toString());
+      writer.name("totalNotices").value(table.totalCount);
+      writer.name("notices").beginArray();
+      final int exportedRows = Math.min(table.rowCount, maxExportsPerGroup);
+      for (int row = 0; row < exportedRows; ++row) {
+        table.writeJson(row, writer, gson);
+      }
+      writer.endArray();
+      writer.endObject();
+    }
+  }
+
+  /**
+   * Writes notices in the binary format, grouped by code and severity in the same order as {@link
+   * #writeJson}.
+   *
+   * @param writer binary writer
+   * @param maxExportsPerGroup maximum amount of notices to write in a single group
+   */
+  void writeBinary(BinaryNoticeWriter writer, int maxExportsPerGroup) throws IOException {
+    final Map<String, Integer> codeIndices = new LinkedHashMap<>();
+    for (NoticeTable<T> table : tablesByGroup.values()) {
+      codeIndices.putIfAbsent(table.code, codeIndices.size());
+    }
+    writer.writeHeader(new ArrayList<>(codeIndices.keySet()));
+    writer.writeGroupCount(tablesByGroup.size());
+    for (NoticeTable<T> table : tablesByGroup.values()) {
+      final int exportedRows = Math.min(table.rowCount, maxExportsPerGroup);
+      writer.writeGroupHeader(
+          codeIndices.get(table.code),
+          table.severityLevel,
+          table.totalCount,
+          table.columnKeys,
+          exportedRows);
+      for (int row = 0; row < exportedRows; ++row) {
+        final Shape shape = table.getShape(row);
+        writer.writeNoticeHeader(shape.keys.length);
+        for (int columnId : shape.columnIds) {
+          writer.writeField(columnId, table.getValue(columnId, row));
+        }
+      }
+    }
+  }
+
+  private NoticeTable<T> getTable(String code, SeverityLevel severityLevel) {
+    // Groups are sorted by code and then by severity in the report.
+    final String group = code + severityLevel.ordinal();
+    NoticeTable<T> table = tablesByGroup.get(group);
+    if (table == null) {
+      table = new NoticeTable<>(tables.size(), code, severityLevel);
+      tablesByGroup.put(group, table);
+      tables.add(table);
+    }
+    return table;
+  }
+
+  private void appendNotice(int table, int row) {
+    if (size == noticeTables.length) {
+      noticeTables = Arrays.copyOf(noticeTables, size * 2);
+      noticeRows = Arrays.copyOf(noticeRows, size * 2);
+    }
+    noticeTables[size] = table;
+    noticeRows[size] = row;
+    ++size;
+  }
+
+  private static int grow(int length, int row) {
+    return Math.max(length * 2, row + 1);
+  }
+
+  /** Class and context keys that are shared by notices of a table. */
+  private static final class Shape {
+    final Notice prototype;
+    final String[] keys;
+    final int[] columnIds;
+
+    Shape(Notice prototype, String[] keys, int[] columnIds) {
+      this.prototype = prototype;
+      this.keys = keys;
+      this.columnIds = columnIds;
+    }
+
+    boolean matches(Class<?> noticeClass, Map<String, Object> context) {
+      if (prototype.getClass() != noticeClass || keys.length != context.size()) {
+        return false;
+      }
+      int i = 0;
+      for (String key : context.keySet()) {
+        if (!keys[i++].equals(key)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  /** Notices with the same code and severity. */
+  private static final class NoticeTable<T extends Notice> {
+    final int index;
+    final String code;
+    final SeverityLevel severityLevel;
+
+    private final List<Shape> shapes = new ArrayList<>();
+    private final List<Column> columns = new ArrayList<>();
+    private final Map<String, Integer> columnIdsByKey = new HashMap<>();
+
+    /** Context keys of columns by column index. */
+    final List<String> columnKeys = new ArrayList<>();
+    private int[] rowShapes = new int[INITIAL_CAPACITY];
+    int rowCount = 0;
+
+    /** Amount of added notices, including the ones that were not sampled. */
+    long totalCount = 0;
+
+    /**
+     * Source of sampling decisions. It is seeded from the code and severity, so that a
+     * single-threaded validation is reproducible while samples of different codes are not
+     * correlated.
+     */
+    final SplittableRandom random;
+
+    NoticeTable(int index, String code, SeverityLevel severityLevel) {
+      this.index = index;
+      this.code = code;
+      this.severityLevel = severityLevel;
+      // String.hashCode() and ordinal() are stable between runs, unlike the hash of an enum.
+      this.random = new SplittableRandom(31L * code.hashCode() + severityLevel.ordinal());
+    }
+
+    Shape findShape(T notice, Map<String, Object> context) {
+      for (Shape shape : shapes) {
+        if (shape.matches(notice.getClass(), context)) {
+          return shape;
+        }
+      }
+      return addShape(notice, context.keySet().toArray(new String[0]));
+    }
+
+    Shape findShape(Notice prototype, String[] keys) {
+      for (Shape shape : shapes) {
+        if (shape.prototype.getClass() == prototype.getClass() && Arrays.equals(shape.keys, keys)) {
+          return shape;
+        }
+      }
+      return addShape(prototype, keys);
+    }
+
+    private Shape addShape(Notice prototype, String[] keys) {
+      final int[] columnIds = new int[keys.length];
+      for (int i = 0; i < keys.length; ++i) {
+        Integer columnId = columnIdsByKey.get(keys[i]);
+        if (columnId == null) {
+          columnId = columns.size();
+          // The type of the column is chosen by its first value.
+          columns.add(null);
+          columnKeys.add(keys[i]);
+          columnIdsByKey.put(keys[i], columnId);
+        }
+        columnIds[i] = columnId;
+      }
+      final Shape shape = new Shape(prototype, keys, columnIds);
+      shapes.add(shape);
+      return shape;
+    }
+
+    int appendRow(Shape shape) {
+      if (rowCount == rowShapes.length) {
+        rowShapes = Arrays.copyOf(rowShapes, rowCount * 2);
+      }
+      rowShapes[rowCount] = shapes.indexOf(shape);
+      return rowCount++;
+    }
+
+    void setShape(int row, Shape shape) {
+      rowShapes[row] = shapes.indexOf(shape);
+    }
+
+    boolean isSampled() {
+      return totalCount > rowCount;
+    }
+
+    Shape getShape(int row) {
+      return shapes.get(rowShapes[row]);
+    }
+
+    void setValue(int columnId, int row, @Nullable Object value) {
+      Column column = columns.get(columnId);
+      if (column == null) {
+        column = Column.forValue(value);
+        columns.set(columnId, column);
+      } else if (!column.accepts(value)) {
+        column = ObjectColumn.copyOf(column, rowCount);
+        columns.set(columnId, column);
+      }
+      column.set(row, value);
+    }
+
+    @Nullable
+    Object getValue(int columnId, int row) {
+      return columns.get(columnId).get(row);
+    }
+
+    @SuppressWarnings("unchecked")
+    T materialize(int row) {
+      final Shape shape = getShape(row);
+      // The prototype is a notice of type T that was added to the table.
+      return (T) shape.prototype.copyWithContext(new RowContext(this, shape, row));
+    }
+
+    void writeJson(int row, JsonWriter writer, Gson gson) throws IOException {
+      final Shape shape = getShape(row);
+      writer.beginObject();
+      for (int i = 0; i < shape.keys.length; ++i) {
+        writer.name(shape.keys[i]);
+        final Object value = getValue(shape.columnIds[i], row);
+        if (value == null) {
+          writer.nullValue();
+        } else {
+          gson.toJson(value, value.getClass(), writer);
+        }
+      }
+      writer.endObject();
+    }
+  }
+
+  /** Read-only context of a stored notice that reads values from columns. */
+  private static final class RowContext extends AbstractMap<String, Object> {
+    private final NoticeTable<?> table;
+    private final Shape shape;
+    private final int row;
+
+    RowContext(NoticeTable<?> table, Shape shape, int row) {
+      this.table = table;
+      this.shape = shape;
+      this.row = row;
+    }
+
+    @Override
+    public int size() {
+      return shape.keys.length;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return indexOf(key) >= 0;
+    }
+
+    @Override
+    @Nullable
+    public Object get(Object key) {
+      final int i = indexOf(key);
+      return i >= 0 ? table.getValue(shape.columnIds[i], row) : null;
+    }
+
+    private int indexOf(Object key) {
+      for (int i = 0; i < shape.keys.length; ++i) {
+        if (shape.keys[i].equals(key)) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+      return new AbstractSet<Entry<String, Object>>() {
+        @Override
+        public Iterator<Entry<String, Object>> iterator() {
+          return new Iterator<Entry<String, Object>>() {
+            private int i = 0;
+
+            @Override
+            public boolean hasNext() {
+              return i < shape.keys.length;
+            }
+
+            @Override
+            public Entry<String, Object> next() {
+              if (!hasNext()) {
+                throw new NoSuchElementException();
+              }
+              final Entry<String, Object> entry =
+                  new SimpleImmutableEntry<>(
+                      shape.keys[i], table.getValue(shape.columnIds[i], row));
+              ++i;
+              return entry;
+            }
+          };
+        }
+
+        @Override
+        public int size() {
+          return shape.keys.length;
+        }
+      };
+    }
+  }
+
+  /** Values of a single context key for all rows of a table. */
+  private abstract static class Column {
+    static Column forValue(@Nullable Object value) {
+      if (value instanceof Integer) {
+        return new IntColumn();
+      }
+      if (value instanceof Long) {
+        return new LongColumn();
+      }
+      if (value instanceof Double) {
+        return new DoubleColumn();
+      }
+      if (value instanceof String) {
+        return new StringColumn();
+      }
+      return new ObjectColumn(INITIAL_CAPACITY);
+    }
+
+    /** Tells if the column can store the value without losing its type. */
+    abstract boolean accepts(@Nullable Object value);
+
+    abstract void set(int row, @Nullable Object value);
+
+    /** Returns the value at a row or null if the row is beyond the values stored so far. */
+    @Nullable
+    abstract Object get(int row);
+  }
+
+  private static final class IntColumn extends Column {
+    private int[] values = new int[INITIAL_CAPACITY];
+
+    @Override
+    boolean accepts(@Nullable Object value) {
+      return value instanceof Integer;
+    }
+
+    @Override
+    void set(int row, @Nullable Object value) {
+      if (row >= values.length) {
+        values = Arrays.copyOf(values, grow(values.length, row));
+      }
+      values[row] = (Integer) value;
+    }
+
+    @Override
+    @Nullable
+    Object get(int row) {
+      return row < values.length ? values[row] : null;
+    }
+  }
+
+  private static final class LongColumn extends Column {
+    private long[] values = new long[INITIAL_CAPACITY];
+
+    @Override
+    boolean accepts(@Nullable Object value) {
+      return value instanceof Long;
+    }
+
+    @Override
+    void set(int row, @Nullable Object value) {
+      if (row >= values.length) {
+        values = Arrays.copyOf(values, grow(values.length, row));
+      }
+      values[row] = (Long) value;
+    }
+
+    @Override
+    @Nullable
+    Object get(int row) {
+      return row < values.length ? values[row] : null;
+    }
+  }
+
+  private static final class DoubleColumn extends Column {
+    private double[] values = new double[INITIAL_CAPACITY];
+
+    @Override
+    boolean accepts(@Nullable Object value) {
+      return value instanceof Double;
+    }
+
+    @Override
+    void set(int row, @Nullable Object value) {
+      if (row >= values.length) {
+        values = Arrays.copyOf(values, grow(values.length, row));
+      }
+      values[row] = (Double) value;
+    }
+
+    @Override
+    @Nullable
+    Object get(int row) {
+      return row < values.length ? values[row] : null;
+    }
+  }
+
+  /**
+   * Strings that are dictionary-encoded while the column has few distinct values, e.g., file and
+   * field names. Columns with many distinct values, e.g., field values, keep plain references
+   * since a dictionary would take more memory than it saves.
+   */
+  private static final class StringColumn extends Column {
+    private static final int MAX_DICTIONARY_SIZE = 1024;
+
+    @Nullable private int[] ids = new int[INITIAL_CAPACITY];
+    @Nullable private List<String> dictionary = new ArrayList<>();
+    @Nullable private Map<String, Integer> dictionaryIds = new HashMap<>();
+    @Nullable private String[] references = null;
+
+    @Override
+    boolean accepts(@Nullable Object value) {
+      return value instanceof String;
+    }
+
+    @Override
+    void set(int row, @Nullable Object value) {
+      final String s = (String) value;
+      if (references == null) {
+        Integer id = dictionaryIds.get(s);
+        if (id == null && dictionary.size() < MAX_DICTIONARY_SIZE) {
+          id = dictionary.size();
+          dictionary.add(s);
+          dictionaryIds.put(s, id);
+        }
+        if (id != null) {
+          if (row >= ids.length) {
+            ids = Arrays.copyOf(ids, grow(ids.length, row));
+          }
+          ids[row] = id;
+          return;
+        }
+        decode();
+      }
+      if (row >= references.length) {
+        references = Arrays.copyOf(references, grow(references.length, row));
+      }
+      references[row] = s;
+    }
+
+    /** Switches from dictionary encoding to plain references. */
+    private void decode() {
+      references = new String[ids.length];
+      for (int row = 0; row < ids.length; ++row) {
+        references[row] = dictionary.get(ids[row]);
+      }
+      ids = null;
+      dictionary = null;
+      dictionaryIds = null;
+    }
+
+    @Override
+    @Nullable
+    Object get(int row) {
+      if (references != null) {
+        return row < references.length ? references[row] : null;
+      }
+      return row < ids.length && !dictionary.isEmpty() ? dictionary.get(ids[row]) : null;
+    }
+  }
+
+  /** Values of any type, including nulls and values of several types. */
+  private static final class ObjectColumn extends Column {
+    private Object[] values;
+
+    ObjectColumn(int capacity) {
+      values = new Object[capacity];
+    }
+
+    /** Copies values of the first {@code rowCount} rows of another column. */
+    static ObjectColumn copyOf(Column column, int rowCount) {
+      ObjectColumn copy = new ObjectColumn(Math.max(INITIAL_CAPACITY, rowCount));
+      for (int row = 0; row < rowCount; ++row) {
+        copy.values[row] = column.get(row);
+      }
+      return copy;
+    }
+
+    @Override
+    boolean accepts(@Nullable Object value) {
+      return true;
+    }
+
+    @Override
+    void set(int row, @Nullable Object value) {
+      if (row >= values.length) {
+        values = Arrays.copyOf(values, grow(values.length, row));
+      }
+      values[row] = value;
+    }
+
+    @Override
+    @Nullable
+    Object get(int row) {
+      return row < values.length ? values[row] : null;
+    }
+  }
+}
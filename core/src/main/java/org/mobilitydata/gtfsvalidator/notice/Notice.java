@@ -22,7 +22,7 @@ import java.util.Map;
 import java.util.Objects;
 
 /** Base class for all notices produced by GTFS validator. */
-public abstract class Notice {
+public abstract class Notice implements Cloneable {
   private Map<String, Object> context;
   private SeverityLevel severityLevel;
 
@@ -39,6 +39,21 @@ public abstract class Notice {
     return this.severityLevel;
   }
 
+  /**
+   * Returns a shallow copy of this notice with another context, e.g., a view of a notice that is
+   * stored in columns.
+   */
+  Notice copyWithContext(Map<String, Object> context) {
+    final Notice copy;
+    try {
+      copy = (Notice) clone();
+    } catch (CloneNotSupportedException e) {
+      throw new AssertionError("Notice implements Cloneable", e);
+    }
+    copy.context = context;
+    return copy;
+  }
+
   /**
    * Returns a descriptive type-specific name for this notice.
    *
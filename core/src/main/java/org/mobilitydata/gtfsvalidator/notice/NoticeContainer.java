@@ -16,28 +16,61 @@
 
 package org.mobilitydata.gtfsvalidator.notice;
 
-import com.google.common.collect.ListMultimap;
-import com.google.common.collect.MultimapBuilder;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
-import java.util.ArrayList;
-import java.util.Collection;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Container for validation notices (errors and warnings).
  *
  * <p>This class is not intentionally not thread-safe to increase performance. Each thread has it's
  * own NoticeContainer, and after execution is complete the results are merged.
+ *
+ * <p>Notices are stored in columns, see {@link ColumnarNoticeStore}: {@link
+ * #getValidationNotices()} and {@link #getSystemErrors()} materialize notice objects only when
+ * they are accessed.
  */
 public class NoticeContainer {
-  private static final int MAX_EXPORTS_PER_NOTICE_TYPE = 100000;
+  /** Default amount of notices of every type that are stored and exported. */
+  public static final int DEFAULT_MAX_NOTICES_PER_TYPE = 100000;
+
   private static final Gson DEFAULT_GSON = new GsonBuilder().serializeNulls().create();
 
-  private final List<ValidationNotice> validationNotices = new ArrayList<>();
-  private final List<SystemError> systemErrors = new ArrayList<>();
+  private final int maxNoticesPerType;
+  private final ColumnarNoticeStore<ValidationNotice> validationNotices;
+  private final ColumnarNoticeStore<SystemError> systemErrors;
+
+  /** Creates a container that keeps {@link #DEFAULT_MAX_NOTICES_PER_TYPE} notices of each type. */
+  public NoticeContainer() {
+    this(DEFAULT_MAX_NOTICES_PER_TYPE);
+  }
+
+  /**
+   * Creates a container that keeps at most {@code maxNoticesPerType} notices for every code and
+   * severity.
+   *
+   * <p>Past the cap, the container keeps an exact count of notices and a uniform random sample of
+   * them. The report contains the kept notices, and {@code totalNotices} in it is always exact.
+   *
+   * @param maxNoticesPerType maximum amount of notices to keep for a single code and severity
+   */
+  public NoticeContainer(int maxNoticesPerType) {
+    this.maxNoticesPerType = maxNoticesPerType;
+    validationNotices = new ColumnarNoticeStore<>(maxNoticesPerType);
+    systemErrors = new ColumnarNoticeStore<>(maxNoticesPerType);
+  }
+
+  /** Returns the maximum amount of notices that are kept for a single code and severity. */
+  public int getMaxNoticesPerType() {
+    return maxNoticesPerType;
+  }
 
   public void addValidationNotice(ValidationNotice notice) {
     validationNotices.add(notice);
@@ -47,57 +80,89 @@ public class NoticeContainer {
     systemErrors.add(error);
   }
 
+  /**
+   * Returns a read-only view of stored validation notices in the order they were added.
+   *
+   * <p>If there are more notices of the same type than the cap of the container, only a sample of
+   * them is returned.
+   */
   public List<ValidationNotice> getValidationNotices() {
-    return validationNotices;
+    return validationNotices.asList();
   }
 
+  /** Returns a read-only view of stored system errors in the order they were added. */
   public List<SystemError> getSystemErrors() {
-    return systemErrors;
+    return systemErrors.asList();
+  }
+
+  /**
+   * Returns the exact amount of validation notices for every code, including the ones past the cap
+   * of the container, sorted by code.
+   */
+  public Map<String, Long> countValidationNoticesByCode() {
+    return validationNotices.countByCode();
   }
 
   public String exportValidationNotices() {
-    return exportJson(validationNotices);
+    return exportJsonToString(validationNotices);
   }
 
   public String exportSystemErrors() {
-    return exportJson(systemErrors);
-  }
-
-  private static <T extends Notice> String exportJson(List<T> notices) {
-    JsonObject root = new JsonObject();
-    JsonArray jsonNotices = new JsonArray();
-    root.add("notices", jsonNotices);
-
-    for (Collection<T> noticesOfType : groupNoticesByTypeAndSeverity(notices).asMap().values()) {
-      JsonObject noticesOfTypeJson = new JsonObject();
-      jsonNotices.add(noticesOfTypeJson);
-      T firstNotice = noticesOfType.iterator().next();
-      noticesOfTypeJson.addProperty("code", firstNotice.getCode());
-      noticesOfTypeJson.addProperty("severity", firstNotice.getSeverityLevel().toString());
-      noticesOfTypeJson.addProperty("totalNotices", noticesOfType.size());
-      JsonArray noticesArrayJson = new JsonArray();
-      noticesOfTypeJson.add("notices", noticesArrayJson);
-      int i = 0;
-      for (T notice : noticesOfType) {
-        ++i;
-        if (i > MAX_EXPORTS_PER_NOTICE_TYPE) {
-          // Do not export too many notices for this type.
-          break;
-        }
-        noticesArrayJson.add(DEFAULT_GSON.toJsonTree(notice.getContext()));
-      }
-    }
+    return exportJsonToString(systemErrors);
+  }
+
+  /**
+   * Writes validation notices as JSON without building the whole report in memory.
+   *
+   * <p>The output is the same as {@link #exportValidationNotices()}. The writer is flushed but not
+   * closed.
+   */
+  public void exportValidationNotices(Writer writer) throws IOException {
+    exportJson(validationNotices, writer);
+  }
+
+  /**
+   * Writes system errors as JSON without building the whole report in memory.
+   *
+   * <p>The output is the same as {@link #exportSystemErrors()}. The writer is flushed but not
+   * closed.
+   */
+  public void exportSystemErrors(Writer writer) throws IOException {
+    exportJson(systemErrors, writer);
+  }
 
-    return DEFAULT_GSON.toJson(root);
+  /**
+   * Writes validation notices as a compact binary report that can be read with {@link
+   * BinaryNoticeReport}.
+   *
+   * <p>The report contains the same notices as {@link #exportValidationNotices()}. The stream is
+   * flushed but not closed.
+   */
+  public void exportValidationNoticesBinary(OutputStream out) throws IOException {
+    BinaryNoticeWriter writer = new BinaryNoticeWriter(out, DEFAULT_GSON);
+    validationNotices.writeBinary(writer, maxNoticesPerType);
+    writer.flush();
   }
 
-  private static <T extends Notice> ListMultimap<String, T> groupNoticesByTypeAndSeverity(
-      List<T> notices) {
-    ListMultimap<String, T> noticesByType = MultimapBuilder.treeKeys().arrayListValues().build();
-    for (T notice : notices) {
-      noticesByType.put(notice.getCode() + notice.getSeverityLevel().ordinal(), notice);
+  private String exportJsonToString(ColumnarNoticeStore<?> notices) {
+    StringWriter writer = new StringWriter();
+    try {
+      exportJson(notices, writer);
+    } catch (IOException e) {
+      // StringWriter does not throw IOException.
+      throw new UncheckedIOException(e);
     }
-    return noticesByType;
+    return writer.toString();
+  }
+
+  private void exportJson(ColumnarNoticeStore<?> notices, Writer writer) throws IOException {
+    JsonWriter jsonWriter = DEFAULT_GSON.newJsonWriter(writer);
+    jsonWriter.beginObject();
+    jsonWriter.name("notices").beginArray();
+    notices.writeJson(jsonWriter, maxNoticesPerType, DEFAULT_GSON);
+    jsonWriter.endArray();
+    jsonWriter.endObject();
+    jsonWriter.flush();
   }
 
   /**
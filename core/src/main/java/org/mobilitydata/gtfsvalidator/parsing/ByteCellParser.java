@@ -0,0 +1,140 @@
+/*
+ * Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.parsing;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Parses values straight from raw bytes of a CSV cell.
+ *
+ * <p>Only the common well-formed notation of every type is supported. Functions return {@link
+ * #INVALID} for anything else, e.g., for empty cells, whitespaces, signs or exponents. The caller
+ * should then parse the cell as a string, which gives the same result for well-formed values and
+ * reports notices for malformed ones.
+ */
+final class ByteCellParser {
+  /** Returned if the cell cannot be parsed from bytes. */
+  static final long INVALID = Long.MIN_VALUE;
+
+  /** Maximal number of digits in an integer that surely fits into {@code long}. */
+  private static final int MAX_LONG_DIGITS = 18;
+
+  /** Powers of 10 that are exactly representable as {@code double}. */
+  private static final double[] EXACT_POWERS_OF_TEN = {
+    1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16,
+    1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+  };
+
+  /** Integers up to this value are exactly representable as {@code double}. */
+  private static final long MAX_EXACT_DOUBLE_INTEGER = 1L << 53;
+
+  private ByteCellParser() {}
+
+  /**
+   * Parses an integer that consists of an optional minus sign and 1 to 10 decimal digits.
+   *
+   * @return the integer or {@link #INVALID} if it is malformed or does not fit into {@code int}
+   */
+  static long parseInt(ByteBuffer data, int start, int end) {
+    int p = start;
+    final boolean negative = p < end && data.get(p) == '-';
+    if (negative) {
+      ++p;
+    }
+    if (p == end || end - p > 10) {
+      return INVALID;
+    }
+    long value = 0;
+    for (; p < end; ++p) {
+      final int digit = data.get(p) - '0';
+      if (digit < 0 || digit > 9) {
+        return INVALID;
+      }
+      value = value * 10 + digit;
+    }
+    if (negative) {
+      value = -value;
+    }
+    if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+      return INVALID;
+    }
+    return value;
+  }
+
+  /**
+   * Parses a decimal number such as {@code -12.345}.
+   *
+   * <p>The result is exactly the same as of {@link Double#parseDouble}: both the mantissa and the
+   * power of ten are exactly representable as {@code double}, so their quotient is correctly
+   * rounded.
+   *
+   * @return the number or {@code Double.NaN} if it cannot be parsed from bytes
+   */
+  static double parseDouble(ByteBuffer data, int start, int end) {
+    int p = start;
+    final boolean negative = p < end && data.get(p) == '-';
+    if (negative) {
+      ++p;
+    }
+    long mantissa = 0;
+    int digits = 0;
+    int fractionDigits = 0;
+    boolean seenDot = false;
+    for (; p < end; ++p) {
+      final byte b = data.get(p);
+      if (b == '.' && !seenDot) {
+        seenDot = true;
+        continue;
+      }
+      final int digit = b - '0';
+      if (digit < 0 || digit > 9 || ++digits > MAX_LONG_DIGITS) {
+        return Double.NaN;
+      }
+      mantissa = mantissa * 10 + digit;
+      if (seenDot) {
+        ++fractionDigits;
+      }
+    }
+    if (digits == 0
+        || mantissa > MAX_EXACT_DOUBLE_INTEGER
+        || fractionDigits >= EXACT_POWERS_OF_TEN.length) {
+      return Double.NaN;
+    }
+    final double value = mantissa / EXACT_POWERS_OF_TEN[fractionDigits];
+    return negative ? -value : value;
+  }
+
+  /**
+   * Parses a color that consists of exactly 6 hexadecimal digits.
+   *
+   * @return RGB value or {@link #INVALID}
+   */
+  static long parseColor(ByteBuffer data, int start, int end) {
+    if (end - start != 6) {
+      return INVALID;
+    }
+    int rgb = 0;
+    for (int p = start; p < end; ++p) {
+      final int digit = Character.digit(data.get(p), 16);
+      if (digit < 0) {
+        return INVALID;
+      }
+      rgb = (rgb << 4) | digit;
+    }
+    return rgb;
+  }
+}
@@ -0,0 +1,285 @@
+/*
+ * Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.parsing;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Splits UTF-8 encoded CSV content into records and cells without decoding it to characters.
+ *
+ * <p>The tokenizer does not copy the content: a cell is described by its start and end offsets in
+ * the buffer. Cell values follow the same rules as in Univocity parser with the settings of {@link
+ * CsvFile}:
+ *
+ * <ul>
+ *   <li>leading and trailing whitespaces of unquoted values are removed;
+ *   <li>whitespaces inside quotes are kept;
+ *   <li>empty lines and lines that consist only of whitespaces are skipped, unless it is the last
+ *       line of the file that does not end with a newline;
+ *   <li>a record number is the number of the line where the record ends.
+ * </ul>
+ *
+ * <p>Univocity has its own rules to recover from malformed content, such as unescaped quotes,
+ * comments and overly long values. The tokenizer does not try to reproduce them: it returns {@link
+ * #FALLBACK} and the caller should parse the rest of the content with Univocity, starting from
+ * {@link #getRecordStart()}.
+ */
+final class CsvByteTokenizer {
+  /** A record was read. */
+  static final int RECORD = 0;
+
+  /** End of content was reached. */
+  static final int END = 1;
+
+  /** The current record should be parsed by Univocity. */
+  static final int FALLBACK = 2;
+
+  /** Cell flag: the cell is quoted. */
+  static final int QUOTED = 1;
+
+  /** Cell flag: the cell is quoted and it has escaped quotes inside. */
+  static final int ESCAPED_QUOTES = 2;
+
+  /** Amount of ints that describe a single cell: start, end and flags. */
+  static final int CELL_SIZE = 3;
+
+  // Univocity throws an exception for records that exceed these default limits.
+  private static final int MAX_COLUMNS = 512;
+  private static final int MAX_CELL_BYTES = 4096;
+
+  private static final int EOF = -1;
+
+  private final ByteBuffer data;
+  private final int limit;
+  private int position;
+  private long newlines = 0;
+  private int recordStart;
+  private long recordStartNewlines;
+  private long recordLine;
+  private boolean recordEndsWithNewline;
+  private int[] cells = new int[CELL_SIZE * 16];
+  private int cellCount;
+
+  /**
+   * Creates a tokenizer for the remaining bytes of a buffer.
+   *
+   * <p>The position and limit of {@code data} are not changed by the tokenizer.
+   */
+  CsvByteTokenizer(ByteBuffer data) {
+    this.data = data;
+    this.position = data.position();
+    this.limit = data.limit();
+  }
+
+  /**
+   * Reads the next record.
+   *
+   * @return {@link #RECORD}, {@link #END} or {@link #FALLBACK}
+   */
+  int next() {
+    recordStart = position;
+    recordStartNewlines = newlines;
+    cellCount = 0;
+    int p = position;
+    long lines = newlines;
+    // Skip empty lines and lines with whitespaces.
+    while (true) {
+      int b = byteAt(p);
+      if (b == EOF) {
+        return END;
+      }
+      if (b == '#') {
+        // A comment line.
+        return FALLBACK;
+      }
+      while (isWhitespace(b)) {
+        b = byteAt(++p);
+      }
+      if (b == EOF) {
+        // Univocity returns a single empty cell for whitespaces at the end of file.
+        addCell(p, p, 0);
+        recordLine = lines + 1;
+        recordEndsWithNewline = false;
+        position = p;
+        newlines = lines;
+        return RECORD;
+      }
+      if (b != '\n') {
+        break;
+      }
+      ++p;
+      ++lines;
+    }
+
+    while (true) {
+      final int cellStart = p;
+      int b = byteAt(p);
+      while (isWhitespace(b)) {
+        b = byteAt(++p);
+      }
+      if (b == '"') {
+        final int valueStart = ++p;
+        int flags = QUOTED;
+        while (true) {
+          b = byteAt(p);
+          if (b == EOF || b == 0) {
+            return FALLBACK;
+          }
+          if (b == '"') {
+            if (byteAt(p + 1) != '"') {
+              break;
+            }
+            flags |= ESCAPED_QUOTES;
+            ++p;
+          } else if (b == '\n') {
+            ++lines;
+          }
+          ++p;
+        }
+        addCell(valueStart, p, flags);
+        b = byteAt(++p);
+        while (isWhitespace(b)) {
+          b = byteAt(++p);
+        }
+        if (b != ',' && b != '\n' && b != EOF) {
+          // Unescaped quote.
+          return FALLBACK;
+        }
+      } else {
+        final int valueStart = p;
+        int valueEnd = p;
+        while (b != ',' && b != '\n' && b != EOF) {
+          if (b == '"' || b == 0) {
+            return FALLBACK;
+          }
+          ++p;
+          if (b > ' ') {
+            valueEnd = p;
+          }
+          b = byteAt(p);
+        }
+        addCell(valueStart, valueEnd, 0);
+      }
+      if (p - cellStart > MAX_CELL_BYTES || cellCount >= MAX_COLUMNS) {
+        return FALLBACK;
+      }
+      if (b == ',') {
+        ++p;
+        continue;
+      }
+      recordLine = lines + 1;
+      recordEndsWithNewline = b == '\n';
+      if (recordEndsWithNewline) {
+        ++p;
+        ++lines;
+      }
+      position = p;
+      newlines = lines;
+      return RECORD;
+    }
+  }
+
+  /** Returns the buffer that holds the content. */
+  ByteBuffer getData() {
+    return data;
+  }
+
+  /** Returns offset in the buffer where the last record or fallback content starts. */
+  int getRecordStart() {
+    return recordStart;
+  }
+
+  /** Returns the amount of lines before {@link #getRecordStart()}. */
+  long getRecordStartLine() {
+    return recordStartNewlines;
+  }
+
+  /** Returns 1-based number of the line where the last record ends. */
+  long getRecordLine() {
+    return recordLine;
+  }
+
+  /** Tells if any cell of the last record is quoted. */
+  boolean hasQuotedCells() {
+    for (int i = 0; i < cellCount; ++i) {
+      if ((cells[i * CELL_SIZE + 2] & QUOTED) != 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Tells if the last record is terminated by a newline rather than by the end of content. */
+  boolean recordEndsWithNewline() {
+    return recordEndsWithNewline;
+  }
+
+  /**
+   * Returns cells of the last record: {@link #CELL_SIZE} ints per cell that hold start offset, end
+   * offset and flags.
+   */
+  int[] copyCells() {
+    return Arrays.copyOf(cells, cellCount * CELL_SIZE);
+  }
+
+  int getCellCount() {
+    return cellCount;
+  }
+
+  /**
+   * Decodes UTF-8 bytes between the given offsets. Malformed input is replaced with U+FFFD, just
+   * as {@link CsvFile} does for Univocity parser.
+   */
+  static String decode(ByteBuffer data, int start, int end) {
+    if (data.hasArray()) {
+      return new String(
+          data.array(), data.arrayOffset() + start, end - start, StandardCharsets.UTF_8);
+    }
+    byte[] bytes = new byte[end - start];
+    ByteBuffer view = data.duplicate();
+    view.position(start);
+    view.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private void addCell(int start, int end, int flags) {
+    int i = cellCount * CELL_SIZE;
+    if (i == cells.length) {
+      cells = Arrays.copyOf(cells, cells.length * 2);
+    }
+    cells[i] = start;
+    cells[i + 1] = end;
+    cells[i + 2] = flags;
+    ++cellCount;
+  }
+
+  private int byteAt(int p) {
+    return p < limit ? data.get(p) & 0xff : EOF;
+  }
+
+  /**
+   * Tells if the byte is a whitespace in terms of Univocity parser, except for the newline.
+   *
+   * <p>Zero byte is not a whitespace: Univocity has special handling for it, so the tokenizer
+   * falls back to Univocity.
+   */
+  private static boolean isWhitespace(int b) {
+    return b > 0 && b <= ' ' && b != '\n';
+  }
+}
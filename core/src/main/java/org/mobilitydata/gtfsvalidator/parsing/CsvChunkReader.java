@@ -0,0 +1,475 @@
+/*
+ * Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.parsing;
+
+import com.google.common.primitives.Bytes;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.Arrays;
+import javax.annotation.Nullable;
+import org.apache.commons.io.ByteOrderMark;
+
+/**
+ * Splits a CSV file into row-aligned chunks that may be parsed independently, e.g., in parallel
+ * threads.
+ *
+ * <p>Each chunk is returned as a {@link CsvFile}. The first chunk contains the header line and it
+ * is parsed exactly as a whole file would be. The following chunks reuse the column names of the
+ * first chunk and report row numbers relative to the beginning of the file, so the rows of all
+ * chunks together are identical to the rows of the whole file.
+ *
+ * <p>A chunk is cut only at a newline that terminates a row, i.e., a newline that is not enclosed
+ * in quotes. If the file has malformed quotes, then the row boundaries cannot be detected reliably
+ * and the rest of the file is returned as a single chunk.
+ *
+ * <p>Chunks are parsed by Univocity parser by default. If the byte tokenizer is enabled, chunks are
+ * parsed by {@link CsvByteTokenizer} straight from the bytes read for the chunk.
+ *
+ * <p>The file is either read from an {@code InputStream} into heap buffers or memory-mapped from a
+ * region of a {@code FileChannel}. In the latter case every chunk is a separate mapping, so files
+ * larger than 2 GiB are supported as long as a single chunk fits into a {@code ByteBuffer}.
+ *
+ * <p>This class is not thread-safe: chunks must be requested from a single thread. The returned
+ * chunks do not share any state and may be parsed in any thread.
+ */
+public class CsvChunkReader {
+  /** Default approximate size of a chunk in bytes. */
+  public static final int DEFAULT_CHUNK_SIZE = 16 * 1024 * 1024;
+
+  private static final int READ_BLOCK_SIZE = 64 * 1024;
+
+  private static final byte[] UTF8_BOM = ByteOrderMark.UTF_8.getBytes();
+
+  // States of the CSV tokenizer that looks for row boundaries.
+  private static final int ROW_START = 0;
+  private static final int FIELD_START = 1;
+  private static final int UNQUOTED = 2;
+  private static final int QUOTED = 3;
+  private static final int QUOTED_QUOTE = 4;
+  private static final int AFTER_QUOTED = 5;
+  private static final int COMMENT = 6;
+
+  @Nullable private final InputStream inputStream;
+  @Nullable private final FileChannel channel;
+  private final long regionStart;
+  private final long regionEnd;
+  private final String filename;
+  private final int chunkSize;
+  private final boolean byteTokenizerEnabled;
+
+  /** Bytes that were read from the stream but do not belong to the previous chunks. */
+  private byte[] pending = new byte[0];
+
+  private int pendingLength = 0;
+  private boolean endOfStream = false;
+  private boolean splittingDisabled = false;
+  private boolean headerPending = true;
+  private int state = ROW_START;
+  private long lineOffset = 0;
+  private String[] columnNames = null;
+
+  /** Position in {@link #channel} where the next chunk starts. */
+  private long mappedPosition;
+
+  /** Amount of bytes in the chunks returned so far. */
+  private long bytesRead = 0;
+
+  /** Amount of bytes of the current chunk that were passed to the tokenizer. */
+  private int scanned;
+
+  /** Amount of newlines in the scanned bytes of the current chunk. */
+  private long scannedNewlines;
+
+  /**
+   * Amount of byte order marks that may be skipped at the beginning of the file: one is removed by
+   * {@code BOMInputStream} and one more by Univocity parser.
+   */
+  private int bomsToSkip = 2;
+
+  public CsvChunkReader(InputStream inputStream, String filename) {
+    this(inputStream, filename, DEFAULT_CHUNK_SIZE);
+  }
+
+  public CsvChunkReader(InputStream inputStream, String filename, int chunkSize) {
+    this(inputStream, filename, chunkSize, false);
+  }
+
+  /**
+   * Creates a chunk reader.
+   *
+   * @param inputStream content of the file
+   * @param filename base name of the file, e.g., "stops.txt"
+   * @param chunkSize approximate size of a chunk in bytes
+   * @param byteTokenizerEnabled whether chunks should be parsed with {@link CsvByteTokenizer}
+   *     instead of Univocity parser
+   */
+  public CsvChunkReader(
+      InputStream inputStream, String filename, int chunkSize, boolean byteTokenizerEnabled) {
+    if (chunkSize <= 0) {
+      throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+    }
+    this.inputStream = inputStream;
+    this.channel = null;
+    this.regionStart = 0;
+    this.regionEnd = 0;
+    this.filename = filename;
+    this.chunkSize = chunkSize;
+    this.byteTokenizerEnabled = byteTokenizerEnabled;
+  }
+
+  /**
+   * Creates a chunk reader that memory-maps a region of a file, e.g., a whole CSV file or an
+   * uncompressed entry of a ZIP archive.
+   *
+   * <p>The channel must stay open until all chunks are read. Chunks remain valid after the channel
+   * is closed.
+   *
+   * @param channel the file to read
+   * @param offset position in the file where the CSV content starts
+   * @param size size of the CSV content in bytes
+   * @param filename base name of the file, e.g., "stops.txt"
+   * @param chunkSize approximate size of a chunk in bytes
+   * @param byteTokenizerEnabled whether chunks should be parsed with {@link CsvByteTokenizer}
+   *     instead of Univocity parser
+   */
+  public CsvChunkReader(
+      FileChannel channel,
+      long offset,
+      long size,
+      String filename,
+      int chunkSize,
+      boolean byteTokenizerEnabled) {
+    if (chunkSize <= 0) {
+      throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+    }
+    this.inputStream = null;
+    this.channel = channel;
+    this.regionStart = offset;
+    this.regionEnd = offset + size;
+    this.mappedPosition = offset;
+    this.endOfStream = size == 0;
+    this.filename = filename;
+    this.chunkSize = chunkSize;
+    this.byteTokenizerEnabled = byteTokenizerEnabled;
+  }
+
+  /**
+   * Base name of the file, e.g., "stops.txt".
+   *
+   * @return file name
+   */
+  public String getFileName() {
+    return filename;
+  }
+
+  /** Returns the amount of bytes of the file in the chunks that were read so far. */
+  public long getBytesRead() {
+    return bytesRead;
+  }
+
+  /**
+   * Reads the next chunk of the file.
+   *
+   * <p>The first call always returns a non-null {@link CsvFile}, even for an empty file. Use {@link
+   * CsvFile#isEmpty()} and {@link CsvFile#getColumnNames()} of the first chunk to check the file
+   * and its headers.
+   *
+   * @return the next chunk or null if end of file was reached
+   * @throws UncheckedIOException if the underlying stream cannot be read
+   */
+  @Nullable
+  public CsvFile nextChunk() {
+    if (columnNames != null && endOfStream && pendingLength == 0) {
+      return null;
+    }
+    final long chunkLineOffset = lineOffset;
+    final ByteBuffer chunk;
+    try {
+      chunk = readChunk();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    if (columnNames == null) {
+      // The first chunk is returned even if it is empty.
+      CsvFile csvFile = createFirstChunk(chunk);
+      if (csvFile.isEmpty() && !(endOfStream && pendingLength == 0)) {
+        // The chunk has no header, e.g., it consists of comments. Read the whole file as a single
+        // chunk, so that the parser finds the header where it would find it in the whole file.
+        if (channel != null) {
+          mappedPosition = regionStart;
+          endOfStream = false;
+        } else {
+          pending = Bytes.concat(Arrays.copyOf(chunk.array(), chunk.limit()), pending);
+          pendingLength = pending.length;
+        }
+        splittingDisabled = true;
+        lineOffset = 0;
+        bytesRead = 0;
+        try {
+          csvFile = createFirstChunk(readChunk());
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }
+      columnNames = csvFile.getColumnNames();
+      if (csvFile.isEmpty()) {
+        // Nothing to parse after the headers.
+        endOfStream = true;
+        pendingLength = 0;
+      }
+      return csvFile;
+    }
+    if (!chunk.hasRemaining()) {
+      return null;
+    }
+    if (byteTokenizerEnabled) {
+      return new CsvFile(chunk, filename, columnNames, chunkLineOffset);
+    }
+    return new CsvFile(toStream(chunk), filename, columnNames, chunkLineOffset);
+  }
+
+  private CsvFile createFirstChunk(ByteBuffer chunk) {
+    return byteTokenizerEnabled
+        ? new CsvFile(chunk, filename)
+        : new CsvFile(toStream(chunk), filename);
+  }
+
+  private static InputStream toStream(ByteBuffer chunk) {
+    if (chunk.hasArray()) {
+      return new ByteArrayInputStream(chunk.array(), chunk.arrayOffset(), chunk.limit());
+    }
+    return new ByteBufferInputStream(chunk, 0);
+  }
+
+  /**
+   * Reads bytes until the first row boundary after {@code chunkSize} bytes or until end of stream.
+   */
+  private ByteBuffer readChunk() throws IOException {
+    scanned = 0;
+    scannedNewlines = 0;
+    final ByteBuffer chunk = channel != null ? mapChunk() : readChunkFromStream();
+    lineOffset += scannedNewlines;
+    bytesRead += chunk.limit();
+    state = ROW_START;
+    return chunk;
+  }
+
+  private ByteBuffer readChunkFromStream() throws IOException {
+    byte[] buffer = new byte[Math.max(chunkSize, pendingLength) + READ_BLOCK_SIZE];
+    System.arraycopy(pending, 0, buffer, 0, pendingLength);
+    int length = pendingLength;
+    int cut;
+    while (true) {
+      cut = scan(ByteBuffer.wrap(buffer), length, endOfStream);
+      if (cut >= 0 || endOfStream) {
+        break;
+      }
+      if (length == buffer.length) {
+        buffer = Arrays.copyOf(buffer, buffer.length * 2);
+      }
+      int n = inputStream.read(buffer, length, buffer.length - length);
+      if (n < 0) {
+        endOfStream = true;
+      } else {
+        length += n;
+      }
+    }
+    if (cut < 0) {
+      cut = length;
+    }
+    pendingLength = length - cut;
+    pending = Arrays.copyOfRange(buffer, cut, length);
+    return ByteBuffer.wrap(buffer, 0, cut);
+  }
+
+  /**
+   * Maps the next chunk of the file. If there is no row boundary within the mapped bytes, the
+   * mapping is repeated with a larger size.
+   */
+  private ByteBuffer mapChunk() throws IOException {
+    final long remaining = regionEnd - mappedPosition;
+    int size =
+        (int) Math.min(remaining, Math.min(Integer.MAX_VALUE, (long) chunkSize + READ_BLOCK_SIZE));
+    while (true) {
+      final ByteBuffer chunk = channel.map(MapMode.READ_ONLY, mappedPosition, size);
+      final boolean endOfData = size == remaining;
+      int cut = scan(chunk, size, endOfData);
+      if (cut >= 0 || endOfData) {
+        if (cut < 0) {
+          cut = size;
+        }
+        chunk.limit(cut);
+        mappedPosition += cut;
+        endOfStream = mappedPosition == regionEnd;
+        return chunk;
+      }
+      if (size == Integer.MAX_VALUE) {
+        throw new IOException(
+            String.format(
+                "Cannot map a chunk of %s at offset %d: no row boundary within %d bytes",
+                filename, mappedPosition - regionStart, size));
+      }
+      size = (int) Math.min(remaining, Math.min(Integer.MAX_VALUE, size * 2L));
+    }
+  }
+
+  /**
+   * Passes bytes of the current chunk from {@link #scanned} to {@code length} to the tokenizer.
+   *
+   * @param chunk bytes of the current chunk starting from index 0
+   * @param length amount of available bytes in the chunk
+   * @param endOfData whether there are no more bytes after {@code length}
+   * @return offset after the row boundary where the chunk should be cut, or -1 if more bytes are
+   *     needed
+   */
+  private int scan(ByteBuffer chunk, int length, boolean endOfData) {
+    while (bomsToSkip > 0 && (length - scanned >= UTF8_BOM.length || endOfData)) {
+      if (hasBom(chunk, scanned, length)) {
+        scanned += UTF8_BOM.length;
+        --bomsToSkip;
+      } else {
+        bomsToSkip = 0;
+      }
+    }
+    for (; bomsToSkip == 0 && scanned < length; ++scanned) {
+      final byte b = chunk.get(scanned);
+      if (b == '\n') {
+        ++scannedNewlines;
+      }
+      if (advance(b)
+          && scanned >= chunkSize - 1
+          && !splittingDisabled
+          && !startsWithBom(chunk, scanned + 1, length)) {
+        return ++scanned;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Tells if a chunk could start with a byte order mark at the given position. Univocity parser
+   * skips a byte order mark at the beginning of its input, so a chunk must not start with it.
+   * Bytes that are not read yet are treated as a possible byte order mark.
+   */
+  private static boolean startsWithBom(ByteBuffer buffer, int position, int length) {
+    return position >= length || buffer.get(position) == UTF8_BOM[0];
+  }
+
+  private static boolean hasBom(ByteBuffer buffer, int position, int length) {
+    if (length - position < UTF8_BOM.length) {
+      return false;
+    }
+    for (int i = 0; i < UTF8_BOM.length; ++i) {
+      if (buffer.get(position + i) != UTF8_BOM[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Advances the tokenizer by one byte.
+   *
+   * @return true if {@code b} is a newline that terminates a row
+   */
+  private boolean advance(byte b) {
+    if (b == 0) {
+      // Univocity parser has special handling for zero characters.
+      splittingDisabled = true;
+    }
+    if (headerPending) {
+      if (b == '"') {
+        // Univocity parser has special handling for quotes in headers.
+        splittingDisabled = true;
+      } else if (b == '\n' && state != ROW_START && state != COMMENT) {
+        headerPending = false;
+      }
+    }
+    switch (state) {
+      case ROW_START:
+        if (b == '#') {
+          state = COMMENT;
+          return false;
+        }
+        state = FIELD_START;
+        // Fall through: a row starts with a field.
+      case FIELD_START:
+        if (b == '\n') {
+          state = ROW_START;
+          return true;
+        }
+        if (b == '"') {
+          state = QUOTED;
+        } else if (b != ',' && !isWhitespace(b)) {
+          state = UNQUOTED;
+        }
+        return false;
+      case UNQUOTED:
+        if (b == '\n') {
+          state = ROW_START;
+          return true;
+        }
+        if (b == ',') {
+          state = FIELD_START;
+        }
+        return false;
+      case QUOTED:
+        if (b == '"') {
+          state = QUOTED_QUOTE;
+        }
+        return false;
+      case QUOTED_QUOTE:
+        if (b == '"') {
+          state = QUOTED;
+          return false;
+        }
+        // Fall through: the quoted value is closed.
+        state = AFTER_QUOTED;
+      case AFTER_QUOTED:
+        if (b == '\n') {
+          state = ROW_START;
+          return true;
+        }
+        if (b == ',') {
+          state = FIELD_START;
+        } else if (!isWhitespace(b)) {
+          // Unescaped quote inside a value. The CSV parser has its own rules to recover from that,
+          // so we stop looking for row boundaries to stay consistent with it.
+          splittingDisabled = true;
+        }
+        return false;
+      case COMMENT:
+        if (b == '\n') {
+          state = ROW_START;
+          return true;
+        }
+        return false;
+      default:
+        throw new IllegalStateException("Unknown tokenizer state: " + state);
+    }
+  }
+
+  private static boolean isWhitespace(byte b) {
+    // Non-ASCII bytes are negative.
+    return b >= 0 && b <= ' ';
+  }
+}
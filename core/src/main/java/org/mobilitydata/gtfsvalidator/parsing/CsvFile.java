@@ -19,13 +19,17 @@ package org.mobilitydata.gtfsvalidator.parsing;
 import com.univocity.parsers.csv.CsvParser;
 import com.univocity.parsers.csv.CsvParserSettings;
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
 import java.nio.charset.CharsetDecoder;
 import java.nio.charset.CodingErrorAction;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.Set;
 import javax.annotation.Nullable;
 import org.apache.commons.io.ByteOrderMark;
 import org.apache.commons.io.input.BOMInputStream;
@@ -33,45 +37,189 @@ import org.apache.commons.io.input.BOMInputStream;
 /**
  * Reading support for a CSV file in GTFS feed. The file normally has headers and 0 or several data
  * rows.
+ *
+ * <p>A file that is given as an {@code InputStream} is decoded to characters and parsed by
+ * Univocity parser. A file that is given as a {@code ByteBuffer} is split into cells by {@link
+ * CsvByteTokenizer} that works directly on UTF-8 bytes and does not create strings for cells that
+ * are parsed as numbers. Both ways produce the same rows.
  */
 public class CsvFile implements Iterable<CsvRow> {
+  private static final byte[] UTF8_BOM = ByteOrderMark.UTF_8.getBytes();
+
   private final boolean isEmpty;
-  private final CsvParser parser;
   private final HashMap<String, Integer> columnIndices = new HashMap<>();
   private final String filename;
+  private long lineOffset;
   private String[] columnNames;
+  // Exactly one of parser and tokenizer is set unless the file is empty. The byte tokenizer is
+  // replaced with Univocity parser if it finds malformed content.
+  @Nullable private CsvParser parser;
+  @Nullable private CsvByteTokenizer tokenizer;
 
   public CsvFile(InputStream inputStream, String filename) {
     this.filename = filename;
+    this.lineOffset = 0;
 
     // Only UTF-8 is supported according to GTFS reference. We may add optional support for other
     // encodings later.
     final BOMInputStream bomInputStream = new BOMInputStream(inputStream, ByteOrderMark.UTF_8);
+    parser = new CsvParser(createParserSettings(true));
+    parser.beginParsing(createReader(bomInputStream));
+
+    columnNames = parser.getContext().headers();
+    isEmpty = columnNames == null;
+    if (isEmpty) {
+      // Do not leave them as null.
+      columnNames = new String[] {};
+      return;
+    }
+    initColumnIndices();
+  }
+
+  /**
+   * Creates a reader for a part of a CSV file that has no header line, e.g., the second and
+   * following chunks produced by {@link CsvChunkReader}.
+   *
+   * <p>Row numbers of the returned rows are shifted by {@code lineOffset}, so they match the row
+   * numbers in the whole file.
+   *
+   * @param inputStream stream that starts at the beginning of a row
+   * @param filename base name of the file, e.g., "stops.txt"
+   * @param columnNames column names taken from the first line of the file
+   * @param lineOffset amount of lines in the file before {@code inputStream} starts
+   */
+  public CsvFile(InputStream inputStream, String filename, String[] columnNames, long lineOffset) {
+    this.filename = filename;
+    this.lineOffset = lineOffset;
+    this.columnNames = columnNames;
+    this.isEmpty = false;
+    parser = new CsvParser(createParserSettings(false));
+    parser.beginParsing(createReader(inputStream));
+    initColumnIndices();
+  }
+
+  /**
+   * Creates a reader for UTF-8 content of a whole CSV file that uses {@link CsvByteTokenizer}.
+   *
+   * <p>The buffer is not copied, so it must not be modified while the file is read.
+   *
+   * @param data content of the file from the position to the limit of the buffer
+   * @param filename base name of the file, e.g., "stops.txt"
+   */
+  public CsvFile(ByteBuffer data, String filename) {
+    this.filename = filename;
+    this.lineOffset = 0;
+
+    // Univocity skips one more byte order mark after the one removed by BOMInputStream.
+    final ByteBuffer afterBom = skipBom(data);
+    final ByteBuffer content = skipBom(afterBom);
+    final CsvByteTokenizer headerTokenizer = new CsvByteTokenizer(content);
+    final int status = headerTokenizer.next();
+    // Univocity has special rules for headers that are preceded by blank lines, have empty,
+    // quoted or duplicate cells, or are not followed by a newline. Only a plain header on the
+    // first line is handled by the tokenizer.
+    String[] headerValues = null;
+    if (status == CsvByteTokenizer.RECORD
+        && headerTokenizer.getRecordLine() == 1
+        && headerTokenizer.recordEndsWithNewline()
+        && !headerTokenizer.hasQuotedCells()) {
+      CsvRow header = new CsvRow(this, 1, content, headerTokenizer.copyCells());
+      headerValues = new String[header.getColumnCount()];
+      Set<String> uniqueValues = new HashSet<>();
+      for (int i = 0; i < headerValues.length; ++i) {
+        headerValues[i] = header.asString(i);
+        if (headerValues[i] == null || !uniqueValues.add(headerValues[i])) {
+          headerValues = null;
+          break;
+        }
+      }
+    }
+    if (headerValues != null) {
+      tokenizer = headerTokenizer;
+      columnNames = headerValues;
+    } else if (afterBom.hasRemaining()) {
+      parser = new CsvParser(createParserSettings(true));
+      parser.beginParsing(createReader(toInputStream(afterBom, afterBom.position())));
+      columnNames = parser.getContext().headers();
+    }
+    isEmpty = columnNames == null;
+    if (isEmpty) {
+      // Do not leave them as null.
+      columnNames = new String[] {};
+      return;
+    }
+    initColumnIndices();
+  }
+
+  /**
+   * Creates a reader that uses {@link CsvByteTokenizer} for a part of a CSV file that has no header
+   * line.
+   *
+   * @param data content from the position to the limit of the buffer, starting at a row boundary
+   * @param filename base name of the file, e.g., "stops.txt"
+   * @param columnNames column names taken from the first line of the file
+   * @param lineOffset amount of lines in the file before {@code data} starts
+   * @see #CsvFile(InputStream, String, String[], long)
+   */
+  public CsvFile(ByteBuffer data, String filename, String[] columnNames, long lineOffset) {
+    this.filename = filename;
+    this.lineOffset = lineOffset;
+    this.columnNames = columnNames;
+    this.isEmpty = false;
+    tokenizer = new CsvByteTokenizer(data);
+    initColumnIndices();
+  }
+
+  private static ByteBuffer skipBom(ByteBuffer data) {
+    if (!hasBom(data, data.position())) {
+      return data;
+    }
+    ByteBuffer content = data.duplicate();
+    content.position(data.position() + UTF8_BOM.length);
+    return content;
+  }
+
+  private static boolean hasBom(ByteBuffer data, int position) {
+    if (data.limit() - position < UTF8_BOM.length) {
+      return false;
+    }
+    for (int i = 0; i < UTF8_BOM.length; ++i) {
+      if (data.get(position + i) != UTF8_BOM[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static InputStream toInputStream(ByteBuffer data, int start) {
+    if (data.hasArray()) {
+      return new ByteArrayInputStream(
+          data.array(), data.arrayOffset() + start, data.limit() - start);
+    }
+    return new ByteBufferInputStream(data, start);
+  }
+
+  private static BufferedReader createReader(InputStream inputStream) {
     final CharsetDecoder decoder =
         StandardCharsets.UTF_8
             .newDecoder()
             .replaceWith("\uFFFD")
             .onMalformedInput(CodingErrorAction.REPLACE);
-    final BufferedReader reader =
-        new BufferedReader(new InputStreamReader(bomInputStream, decoder));
+    return new BufferedReader(new InputStreamReader(inputStream, decoder));
+  }
 
+  private static CsvParserSettings createParserSettings(boolean headerExtractionEnabled) {
     CsvParserSettings settings = new CsvParserSettings();
     settings.getFormat().setLineSeparator("\n");
     settings.getFormat().setDelimiter(',');
-    settings.setHeaderExtractionEnabled(true);
+    settings.setHeaderExtractionEnabled(headerExtractionEnabled);
     // Explicitly disable trimming of whitespaces because we will emit notices for them.
     settings.setIgnoreLeadingWhitespacesInQuotes(false);
     settings.setIgnoreTrailingWhitespacesInQuotes(false);
-    parser = new CsvParser(settings);
-    parser.beginParsing(reader);
+    return settings;
+  }
 
-    columnNames = parser.getContext().headers();
-    isEmpty = columnNames == null;
-    if (isEmpty) {
-      // Do not leave them as null.
-      columnNames = new String[] {};
-      return;
-    }
+  private void initColumnIndices() {
     for (int i = 0; i < columnNames.length; ++i) {
       columnIndices.putIfAbsent(columnNames[i], i);
     }
@@ -106,11 +254,40 @@ public class CsvFile implements Iterable<CsvRow> {
    */
   @Nullable
   private CsvRow nextResult() {
+    if (tokenizer != null) {
+      final int status = tokenizer.next();
+      if (status == CsvByteTokenizer.RECORD) {
+        return new CsvRow(
+            this,
+            lineOffset + tokenizer.getRecordLine(),
+            tokenizer.getData(),
+            tokenizer.copyCells());
+      }
+      if (status == CsvByteTokenizer.END) {
+        return null;
+      }
+      // Let Univocity parse the rest of the file starting from the malformed row.
+      final ByteBuffer data = tokenizer.getData();
+      int start = tokenizer.getRecordStart();
+      lineOffset += tokenizer.getRecordStartLine();
+      if (start > data.position() && hasBom(data, start)) {
+        // Univocity would skip a byte order mark at the beginning of its input, so start from the
+        // preceding newline instead.
+        --start;
+        --lineOffset;
+      }
+      parser = new CsvParser(createParserSettings(false));
+      parser.beginParsing(createReader(toInputStream(data, start)));
+      tokenizer = null;
+    }
+    if (parser == null) {
+      return null;
+    }
     String[] columnValues = parser.parseNext();
     if (columnValues == null) {
       return null;
     }
-    return new CsvRow(this, parser.getContext().currentLine(), columnValues);
+    return new CsvRow(this, lineOffset + parser.getContext().currentLine(), columnValues);
   }
 
   /**
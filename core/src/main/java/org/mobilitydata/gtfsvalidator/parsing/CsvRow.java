@@ -17,18 +17,43 @@
 package org.mobilitydata.gtfsvalidator.parsing;
 
 import com.google.common.base.Strings;
+import java.nio.ByteBuffer;
 import javax.annotation.Nullable;
 
-/** Read access to a data row in a CSV file. */
+/**
+ * Read access to a data row in a CSV file.
+ *
+ * <p>A row holds either decoded string values or, if it was read by {@link CsvByteTokenizer},
+ * offsets of its cells in the raw UTF-8 content. In the latter case a string is created only when
+ * {@link #asString} is called, so numbers, times and dates may be parsed straight from the bytes.
+ */
 public class CsvRow {
   private final CsvFile csvFile;
   private final long rowNumber;
-  private final String[] columnValues;
+  @Nullable private final String[] columnValues;
+  @Nullable private final ByteBuffer rawData;
+  @Nullable private final int[] rawCells;
 
   public CsvRow(CsvFile csvFile, long rowNumber, String[] columnValues) {
     this.csvFile = csvFile;
     this.rowNumber = rowNumber;
     this.columnValues = columnValues;
+    this.rawData = null;
+    this.rawCells = null;
+  }
+
+  /**
+   * Creates a row that refers to cells in the raw content.
+   *
+   * @param rawData UTF-8 content of the file
+   * @param rawCells cells as returned by {@link CsvByteTokenizer#copyCells()}
+   */
+  CsvRow(CsvFile csvFile, long rowNumber, ByteBuffer rawData, int[] rawCells) {
+    this.csvFile = csvFile;
+    this.rowNumber = rowNumber;
+    this.columnValues = null;
+    this.rawData = rawData;
+    this.rawCells = rawCells;
   }
 
   public CsvFile getCsvFile() {
@@ -44,7 +69,10 @@ public class CsvRow {
   }
 
   public int getColumnCount() {
-    return columnValues.length;
+    if (columnValues != null) {
+      return columnValues.length;
+    }
+    return rawCells.length / CsvByteTokenizer.CELL_SIZE;
   }
 
   public String getColumnName(int columnIndex) {
@@ -79,9 +107,12 @@ public class CsvRow {
    */
   @Nullable
   public String asString(int columnIndex) {
-    if (columnIndex < 0 || columnIndex >= columnValues.length) {
+    if (columnIndex < 0 || columnIndex >= getColumnCount()) {
       return null;
     }
+    if (columnValues == null) {
+      return decodeRawCell(columnIndex);
+    }
     String s = columnValues[columnIndex];
     // Univocity CSV parser already returns null for no explicit value and for an explicit empty
     // string "".
@@ -91,4 +122,42 @@ public class CsvRow {
     }
     return s;
   }
+
+  /**
+   * Tells if the cell may be read as raw bytes with {@link #getRawData()}, {@link #getRawStart}
+   * and {@link #getRawEnd}.
+   *
+   * <p>Raw bytes of a quoted cell are the bytes between the quotes, with escaped quotes left as
+   * is. Anything that is not a plain number should be read with {@link #asString}.
+   */
+  boolean hasRawCell(int columnIndex) {
+    return rawCells != null && columnIndex >= 0 && columnIndex < getColumnCount();
+  }
+
+  ByteBuffer getRawData() {
+    return rawData;
+  }
+
+  int getRawStart(int columnIndex) {
+    return rawCells[columnIndex * CsvByteTokenizer.CELL_SIZE];
+  }
+
+  int getRawEnd(int columnIndex) {
+    return rawCells[columnIndex * CsvByteTokenizer.CELL_SIZE + 1];
+  }
+
+  @Nullable
+  private String decodeRawCell(int columnIndex) {
+    final int start = getRawStart(columnIndex);
+    final int end = getRawEnd(columnIndex);
+    if (start == end) {
+      return null;
+    }
+    String s = CsvByteTokenizer.decode(rawData, start, end);
+    if ((rawCells[columnIndex * CsvByteTokenizer.CELL_SIZE + 2] & CsvByteTokenizer.ESCAPED_QUOTES)
+        != 0) {
+      s = s.replace("\"\"", "\"");
+    }
+    return s;
+  }
 }
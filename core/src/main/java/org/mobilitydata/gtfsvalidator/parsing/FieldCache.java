@@ -18,6 +18,7 @@ package org.mobilitydata.gtfsvalidator.parsing;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.IntFunction;
 import javax.annotation.Nullable;
 
 /**
@@ -32,11 +33,21 @@ import javax.annotation.Nullable;
  * It is tempting to use the same cache for, e.g., trip_id in both trips.txt and stop_times.txt but
  * that would require synchronization that slows down the reading.
  *
+ * <p>Values that are represented by a single int, such as times and dates, may be looked up by that
+ * int with {@link #addIfAbsent(int, IntFunction)}. Then the object is created only on a cache miss.
+ *
  * @param <T> the type of the cached objects. It must be suitable as a key for hash maps.
  */
 public class FieldCache<T> {
+  private static final int INITIAL_INT_CAPACITY = 64;
+
   private final Map<T, T> cache = new HashMap<>();
 
+  // Open addressing hash table for int keys. A slot is free if its value is null.
+  private int[] intKeys = new int[INITIAL_INT_CAPACITY];
+  private Object[] intValues = new Object[INITIAL_INT_CAPACITY];
+  private int intCacheSize = 0;
+
   private int lookupCount = 0;
 
   /**
@@ -67,6 +78,63 @@ public class FieldCache<T> {
     return inCache;
   }
 
+  /**
+   * Returns the object that is cached for the given key. If there is no such object, creates it
+   * with {@code factory} and adds it to the cache.
+   *
+   * <p>The same key must always correspond to the same object, e.g., seconds since midnight for
+   * {@code GtfsTime}. Objects that are cached by keys are separate from objects that are added with
+   * {@link #addIfAbsent(Object)}.
+   *
+   * @param key int representation of the object
+   * @param factory function that creates an object for the key
+   * @return reference to the object in cache.
+   */
+  @SuppressWarnings("unchecked")
+  public T addIfAbsent(int key, IntFunction<T> factory) {
+    ++lookupCount;
+    int mask = intKeys.length - 1;
+    int slot = hashSlot(key, mask);
+    while (intValues[slot] != null) {
+      if (intKeys[slot] == key) {
+        return (T) intValues[slot];
+      }
+      slot = (slot + 1) & mask;
+    }
+    final T value = factory.apply(key);
+    intKeys[slot] = key;
+    intValues[slot] = value;
+    // Keep the load factor at most 1/2.
+    if (++intCacheSize * 2 > intKeys.length) {
+      growIntCache();
+    }
+    return value;
+  }
+
+  private void growIntCache() {
+    final int[] oldKeys = intKeys;
+    final Object[] oldValues = intValues;
+    intKeys = new int[oldKeys.length * 2];
+    intValues = new Object[oldValues.length * 2];
+    final int mask = intKeys.length - 1;
+    for (int i = 0; i < oldKeys.length; ++i) {
+      if (oldValues[i] != null) {
+        int slot = hashSlot(oldKeys[i], mask);
+        while (intValues[slot] != null) {
+          slot = (slot + 1) & mask;
+        }
+        intKeys[slot] = oldKeys[i];
+        intValues[slot] = oldValues[i];
+      }
+    }
+  }
+
+  private static int hashSlot(int key, int mask) {
+    // Spread consecutive keys, such as times on the same minute, over the table.
+    final int hash = key * 0x9E3779B9;
+    return (hash ^ (hash >>> 16)) & mask;
+  }
+
   /**
    * Returns amount of lookups using {@code addIfAbsent}.
    *
@@ -84,7 +152,7 @@ public class FieldCache<T> {
    * @return cache size.
    */
   public int getCacheSize() {
-    return cache.size();
+    return cache.size() + intCacheSize;
   }
 
   /**
@@ -95,7 +163,7 @@ public class FieldCache<T> {
    * @return amount of cache misses.
    */
   public int getCacheMisses() {
-    return cache.size();
+    return getCacheSize();
   }
 
   /**
@@ -212,6 +212,14 @@ public class RowParser {
 
   @Nullable
   public Double asFloat(int columnIndex, boolean required) {
+    if (row.hasRawCell(columnIndex)) {
+      final double value =
+          ByteCellParser.parseDouble(
+              row.getRawData(), row.getRawStart(columnIndex), row.getRawEnd(columnIndex));
+      if (!Double.isNaN(value)) {
+        return value;
+      }
+    }
     return parseAsType(columnIndex, required, Double::parseDouble, InvalidFloatNotice::new);
   }
 
@@ -254,6 +262,14 @@ public class RowParser {
 
   @Nullable
   public Integer asInteger(int columnIndex, boolean required) {
+    if (row.hasRawCell(columnIndex)) {
+      final long value =
+          ByteCellParser.parseInt(
+              row.getRawData(), row.getRawStart(columnIndex), row.getRawEnd(columnIndex));
+      if (value != ByteCellParser.INVALID) {
+        return (int) value;
+      }
+    }
     return parseAsType(columnIndex, required, Integer::parseInt, InvalidIntegerNotice::new);
   }
 
@@ -330,6 +346,14 @@ public class RowParser {
 
   @Nullable
   public GtfsColor asColor(int columnIndex, boolean required) {
+    if (row.hasRawCell(columnIndex)) {
+      final long rgb =
+          ByteCellParser.parseColor(
+              row.getRawData(), row.getRawStart(columnIndex), row.getRawEnd(columnIndex));
+      if (rgb != ByteCellParser.INVALID) {
+        return GtfsColor.fromInt((int) rgb);
+      }
+    }
     return parseAsType(columnIndex, required, GtfsColor::fromString, InvalidColorNotice::new);
   }
 
@@ -349,12 +373,92 @@ public class RowParser {
 
   @Nullable
   public GtfsTime asTime(int columnIndex, boolean required) {
-    return parseAsType(columnIndex, required, GtfsTime::fromString, InvalidTimeNotice::new);
+    final int seconds = parseSecondsSinceMidnight(columnIndex, required);
+    return seconds == GtfsTime.INVALID_SECONDS ? null : GtfsTime.fromSecondsSinceMidnight(seconds);
+  }
+
+  /**
+   * Parses a time and looks it up in a cache by seconds since midnight, so a cache hit does not
+   * create a new {@code GtfsTime}.
+   */
+  @Nullable
+  public GtfsTime asTime(int columnIndex, boolean required, FieldCache<GtfsTime> cache) {
+    final int seconds = parseSecondsSinceMidnight(columnIndex, required);
+    return seconds == GtfsTime.INVALID_SECONDS
+        ? null
+        : cache.addIfAbsent(seconds, GtfsTime::fromSecondsSinceMidnight);
   }
 
   @Nullable
   public GtfsDate asDate(int columnIndex, boolean required) {
-    return parseAsType(columnIndex, required, GtfsDate::fromString, InvalidDateNotice::new);
+    final int epochDay = parseEpochDay(columnIndex, required);
+    return epochDay == GtfsDate.INVALID_EPOCH_DAY ? null : GtfsDate.fromEpochDay(epochDay);
+  }
+
+  /**
+   * Parses a date and looks it up in a cache by epoch day, so a cache hit does not create a new
+   * {@code GtfsDate}.
+   */
+  @Nullable
+  public GtfsDate asDate(int columnIndex, boolean required, FieldCache<GtfsDate> cache) {
+    final int epochDay = parseEpochDay(columnIndex, required);
+    return epochDay == GtfsDate.INVALID_EPOCH_DAY
+        ? null
+        : cache.addIfAbsent(epochDay, GtfsDate::fromEpochDay);
+  }
+
+  /**
+   * Parses a time cell and adds notices if it is missing or invalid.
+   *
+   * @return seconds since midnight or {@link GtfsTime#INVALID_SECONDS}
+   */
+  private int parseSecondsSinceMidnight(int columnIndex, boolean required) {
+    if (row.hasRawCell(columnIndex)) {
+      final int seconds =
+          GtfsTime.parseSecondsSinceMidnight(
+              row.getRawData(), row.getRawStart(columnIndex), row.getRawEnd(columnIndex));
+      if (seconds != GtfsTime.INVALID_SECONDS) {
+        return seconds;
+      }
+    }
+    final String s = asString(columnIndex, required);
+    if (s == null) {
+      return GtfsTime.INVALID_SECONDS;
+    }
+    final int seconds = GtfsTime.parseSecondsSinceMidnight(s);
+    if (seconds == GtfsTime.INVALID_SECONDS) {
+      addNoticeInRow(
+          new InvalidTimeNotice(
+              row.getFileName(), row.getRowNumber(), row.getColumnName(columnIndex), s));
+    }
+    return seconds;
+  }
+
+  /**
+   * Parses a date cell and adds notices if it is missing or invalid.
+   *
+   * @return days since 1970-01-01 or {@link GtfsDate#INVALID_EPOCH_DAY}
+   */
+  private int parseEpochDay(int columnIndex, boolean required) {
+    if (row.hasRawCell(columnIndex)) {
+      final int epochDay =
+          GtfsDate.parseEpochDay(
+              row.getRawData(), row.getRawStart(columnIndex), row.getRawEnd(columnIndex));
+      if (epochDay != GtfsDate.INVALID_EPOCH_DAY) {
+        return epochDay;
+      }
+    }
+    final String s = asString(columnIndex, required);
+    if (s == null) {
+      return GtfsDate.INVALID_EPOCH_DAY;
+    }
+    final int epochDay = GtfsDate.parseEpochDay(s);
+    if (epochDay == GtfsDate.INVALID_EPOCH_DAY) {
+      addNoticeInRow(
+          new InvalidDateNotice(
+              row.getFileName(), row.getRowNumber(), row.getColumnName(columnIndex), s));
+    }
+    return epochDay;
   }
 
   /**
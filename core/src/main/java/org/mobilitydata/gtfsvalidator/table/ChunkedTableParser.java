@@ -0,0 +1,189 @@
+/*
+ * Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.table;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import org.mobilitydata.gtfsvalidator.notice.NoticeContainer;
+import org.mobilitydata.gtfsvalidator.parsing.CsvChunkReader;
+import org.mobilitydata.gtfsvalidator.parsing.CsvFile;
+
+/**
+ * Parses chunks of a CSV file in parallel and merges the results in file order.
+ *
+ * <p>Each chunk is parsed with its own {@code NoticeContainer}. Mutable parsing state, such as
+ * builders and field caches, is created by {@code stateFactory} and is never used by two chunks at
+ * the same time. The amount of states is limited by the amount of threads that parse chunks
+ * concurrently.
+ *
+ * <p>Entities and notices of the chunks are concatenated in the order of the chunks in the file, so
+ * the result does not depend on the amount of threads.
+ *
+ * @param <T> subclass of {@code GtfsEntity}
+ * @param <S> mutable parsing state
+ */
+public class ChunkedTableParser<T extends GtfsEntity, S> {
+  /** Maximal amount of chunks that are read in memory but are not merged yet. */
+  private static final int MAX_CHUNKS_IN_FLIGHT = 2 * Runtime.getRuntime().availableProcessors();
+
+  private final Supplier<List<T>> listFactory;
+  private final Supplier<S> stateFactory;
+  private final ChunkParser<T, S> chunkParser;
+  private final ConcurrentLinkedQueue<S> idleStates = new ConcurrentLinkedQueue<>();
+  private final List<S> allStates = Collections.synchronizedList(new ArrayList<>());
+
+  /**
+   * Creates a parser.
+   *
+   * @param listFactory creates a list for all entities of the file, e.g., {@code ArrayList::new}
+   * @param stateFactory creates a mutable parsing state
+   * @param chunkParser parses a single chunk
+   */
+  public ChunkedTableParser(
+      Supplier<List<T>> listFactory, Supplier<S> stateFactory, ChunkParser<T, S> chunkParser) {
+    this.listFactory = listFactory;
+    this.stateFactory = stateFactory;
+    this.chunkParser = chunkParser;
+  }
+
+  /**
+   * Parses all chunks of a file.
+   *
+   * @param firstChunk the first chunk returned by {@code chunkReader}
+   * @param chunkReader reader for the following chunks
+   * @param executor executor for parsing of chunks, may be a direct executor
+   * @param noticeContainer container to add notices of all chunks to, in file order
+   * @return entities of all chunks in file order and {@code noticeContainer}
+   */
+  public ParsedChunk<T> parse(
+      CsvFile firstChunk,
+      CsvChunkReader chunkReader,
+      ExecutorService executor,
+      NoticeContainer noticeContainer) {
+    List<T> entities = listFactory.get();
+    boolean hasUnparsableRows = false;
+
+    ArrayDeque<Future<ParsedChunk<T>>> inFlight = new ArrayDeque<>();
+    try {
+      for (CsvFile chunk = firstChunk; chunk != null; chunk = chunkReader.nextChunk()) {
+        final CsvFile currentChunk = chunk;
+        inFlight.addLast(executor.submit(() -> parseChunk(currentChunk)));
+        while (inFlight.size() >= MAX_CHUNKS_IN_FLIGHT
+            || (!inFlight.isEmpty() && inFlight.peekFirst().isDone())) {
+          hasUnparsableRows |= merge(getResult(inFlight.removeFirst()), entities, noticeContainer);
+        }
+      }
+      while (!inFlight.isEmpty()) {
+        hasUnparsableRows |= merge(getResult(inFlight.removeFirst()), entities, noticeContainer);
+      }
+    } finally {
+      for (Future<ParsedChunk<T>> future : inFlight) {
+        future.cancel(true);
+      }
+    }
+    return new ParsedChunk<>(entities, noticeContainer, hasUnparsableRows);
+  }
+
+  /** Returns all parsing states that were created, e.g., to print cache statistics. */
+  public List<S> getStates() {
+    return Collections.unmodifiableList(allStates);
+  }
+
+  private ParsedChunk<T> parseChunk(CsvFile chunk) {
+    S state = idleStates.poll();
+    if (state == null) {
+      state = stateFactory.get();
+      allStates.add(state);
+    }
+    try {
+      return chunkParser.parse(chunk, state);
+    } finally {
+      idleStates.add(state);
+    }
+  }
+
+  private static <T extends GtfsEntity> boolean merge(
+      ParsedChunk<T> chunk, List<T> entities, NoticeContainer noticeContainer) {
+    entities.addAll(chunk.getEntities());
+    noticeContainer.addAll(chunk.getNoticeContainer());
+    return chunk.hasUnparsableRows();
+  }
+
+  private static <T extends GtfsEntity> ParsedChunk<T> getResult(Future<ParsedChunk<T>> future) {
+    try {
+      return Uninterruptibles.getUninterruptibly(future);
+    } catch (ExecutionException e) {
+      // Rethrow the original exception so that the caller may report it for the file.
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IllegalStateException(cause);
+    }
+  }
+
+  /**
+   * Parses a single chunk of a CSV file.
+   *
+   * @param <T> subclass of {@code GtfsEntity}
+   * @param <S> mutable parsing state
+   */
+  public interface ChunkParser<T extends GtfsEntity, S> {
+    ParsedChunk<T> parse(CsvFile chunk, S state);
+  }
+
+  /**
+   * Entities and notices produced from a chunk of a CSV file.
+   *
+   * @param <T> subclass of {@code GtfsEntity}
+   */
+  public static class ParsedChunk<T extends GtfsEntity> {
+    private final List<T> entities;
+    private final NoticeContainer noticeContainer;
+    private final boolean hasUnparsableRows;
+
+    public ParsedChunk(
+        List<T> entities, NoticeContainer noticeContainer, boolean hasUnparsableRows) {
+      this.entities = entities;
+      this.noticeContainer = noticeContainer;
+      this.hasUnparsableRows = hasUnparsableRows;
+    }
+
+    public List<T> getEntities() {
+      return entities;
+    }
+
+    public NoticeContainer getNoticeContainer() {
+      return noticeContainer;
+    }
+
+    public boolean hasUnparsableRows() {
+      return hasUnparsableRows;
+    }
+  }
+}
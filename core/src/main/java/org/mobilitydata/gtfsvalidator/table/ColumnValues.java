@@ -0,0 +1,60 @@
+/*
+ * Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.table;
+
+import javax.annotation.Nullable;
+import org.mobilitydata.gtfsvalidator.type.GtfsColor;
+import org.mobilitydata.gtfsvalidator.type.GtfsDate;
+import org.mobilitydata.gtfsvalidator.type.GtfsTime;
+
+/**
+ * Conversions between GTFS values and primitives that are stored in columnar tables.
+ *
+ * <p>Null values are encoded as {@link #NULL_INT} which is out of range for all supported types.
+ */
+public final class ColumnValues {
+  public static final int NULL_INT = Integer.MIN_VALUE;
+
+  private ColumnValues() {}
+
+  public static int encodeTime(@Nullable GtfsTime value) {
+    return value == null ? NULL_INT : value.getSecondsSinceMidnight();
+  }
+
+  @Nullable
+  public static GtfsTime decodeTime(int value) {
+    return value == NULL_INT ? null : GtfsTime.fromSecondsSinceMidnight(value);
+  }
+
+  public static int encodeDate(@Nullable GtfsDate value) {
+    return value == null ? NULL_INT : (int) value.toEpochDay();
+  }
+
+  @Nullable
+  public static GtfsDate decodeDate(int value) {
+    return value == NULL_INT ? null : GtfsDate.fromEpochDay(value);
+  }
+
+  public static int encodeColor(@Nullable GtfsColor value) {
+    return value == null ? NULL_INT : value.getRgb();
+  }
+
+  @Nullable
+  public static GtfsColor decodeColor(int value) {
+    return value == NULL_INT ? null : GtfsColor.fromInt(value);
+  }
+}
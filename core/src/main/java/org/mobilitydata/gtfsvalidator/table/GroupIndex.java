@@ -0,0 +1,292 @@
+/*
+ * Copyright 2021 MobilityData IO
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.table;
+
+import com.google.common.base.Preconditions;
+import java.util.AbstractCollection;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Read-only index of table rows grouped by a key, e.g., stop times by trip_id.
+ *
+ * <p>The index stores positions of rows in compressed sparse row layout: a single {@code int[]}
+ * holds positions of rows of all groups one after another, and another {@code int[]} holds the
+ * offset of every group in it. Groups are lists that read entities from the table on demand, so
+ * the index takes 4 bytes per row and 4 bytes per group in addition to the keys.
+ *
+ * <p>Groups are ordered by the first row of every group. Rows in a group keep the order of the
+ * table unless the index is sorted by a sequence key, see {@link #createSorted}.
+ *
+ * <p>This class is immutable and thread-safe if the table is not modified.
+ *
+ * @param <K> type of keys
+ * @param <T> type of entities
+ */
+public final class GroupIndex<K, T> {
+  private final List<T> entities;
+  private final OrdinalMap<K> keys;
+
+  /** Positions of rows in {@link #entities}, grouped by key. */
+  private final int[] rows;
+
+  /** Group {@code g} takes positions from {@code offsets[g]} to {@code offsets[g + 1]}. */
+  private final int[] offsets;
+
+  private GroupIndex(List<T> entities, OrdinalMap<K> keys, int[] rows, int[] offsets) {
+    this.entities = entities;
+    this.keys = keys;
+    this.rows = rows;
+    this.offsets = offsets;
+  }
+
+  /** Returns an index without any groups. */
+  public static <K, T> GroupIndex<K, T> empty() {
+    return new GroupIndex<>(Collections.emptyList(), new OrdinalMap<>(), new int[0], new int[1]);
+  }
+
+  /**
+   * Groups rows of a table by a key.
+   *
+   * @param entities rows of the table
+   * @param keyFunction returns the key of a row
+   * @return the index
+   */
+  public static <K, T> GroupIndex<K, T> create(List<T> entities, Function<T, K> keyFunction) {
+    return build(entities, keyFunction, null);
+  }
+
+  /**
+   * Groups rows of a table by a key and sorts every group by a sequence key, e.g., stop times by
+   * trip_id and stop_sequence.
+   *
+   * <p>Sorting is stable: rows with the same sequence key keep the order of the table.
+   *
+   * @param entities rows of the table
+   * @param keyFunction returns the key of a row
+   * @param sequenceFunction returns the sequence key of a row
+   * @return the index
+   */
+  public static <K, T> GroupIndex<K, T> createSorted(
+      List<T> entities, Function<T, K> keyFunction, ToIntFunction<T> sequenceFunction) {
+    return build(entities, keyFunction, sequenceFunction);
+  }
+
+  private static <K, T> GroupIndex<K, T> build(
+      List<T> entities, Function<T, K> keyFunction, ToIntFunction<T> sequenceFunction) {
+    final int rowCount = entities.size();
+    final OrdinalMap<K> keys = new OrdinalMap<>();
+    final int[] groupOfRow = new int[rowCount];
+    final int[] sequences = sequenceFunction != null ? new int[rowCount] : null;
+    int[] counts = new int[16];
+    for (int row = 0; row < rowCount; ++row) {
+      final T entity = entities.get(row);
+      final int group = keys.add(keyFunction.apply(entity));
+      if (group == counts.length) {
+        counts = Arrays.copyOf(counts, counts.length * 2);
+      }
+      ++counts[group];
+      groupOfRow[row] = group;
+      if (sequences != null) {
+        sequences[row] = sequenceFunction.applyAsInt(entity);
+      }
+    }
+
+    final int groupCount = keys.size();
+    final int[] offsets = new int[groupCount + 1];
+    for (int group = 0; group < groupCount; ++group) {
+      offsets[group + 1] = offsets[group] + counts[group];
+    }
+    // Counting sort by group keeps the order of rows inside every group.
+    final int[] next = Arrays.copyOf(offsets, groupCount);
+    final int[] rows = new int[rowCount];
+    for (int row = 0; row < rowCount; ++row) {
+      rows[next[groupOfRow[row]]++] = row;
+    }
+
+    if (sequences != null) {
+      sortGroups(rows, offsets, sequences);
+    }
+    return new GroupIndex<>(entities, keys, rows, offsets);
+  }
+
+  /** Sorts positions of every group by the sequence key and then by position. */
+  private static void sortGroups(int[] rows, int[] offsets, int[] sequences) {
+    long[] packed = new long[0];
+    for (int group = 0; group + 1 < offsets.length; ++group) {
+      final int from = offsets[group];
+      final int size = offsets[group + 1] - from;
+      if (size < 2) {
+        continue;
+      }
+      if (packed.length < size) {
+        packed = new long[Math.max(size, packed.length * 2)];
+      }
+      // Rows are non-negative, so comparing packed longs compares sequences first.
+      for (int i = 0; i < size; ++i) {
+        final int row = rows[from + i];
+        packed[i] = ((long) sequences[row] << 32) | row;
+      }
+      Arrays.sort(packed, 0, size);
+      for (int i = 0; i < size; ++i) {
+        rows[from + i] = (int) packed[i];
+      }
+    }
+  }
+
+  /**
+   * Returns entities with the given key.
+   *
+   * @param key the key
+   * @return a read-only list, empty if there are no entities with the key
+   */
+  public List<T> get(Object key) {
+    final int group = keys.get(key);
+    return group == -1 ? Collections.emptyList() : getGroup(group);
+  }
+
+  /** Returns the amount of distinct keys. */
+  public int groupCount() {
+    return keys.size();
+  }
+
+  /**
+   * Returns entities of a group.
+   *
+   * @param group index of the group, from 0 to {@link #groupCount()} - 1
+   * @return a read-only list, never empty
+   */
+  public List<T> getGroup(int group) {
+    return new Group(offsets[group], offsets[group + 1]);
+  }
+
+  /** Returns a read-only collection of all groups in the order of the index. */
+  public Collection<List<T>> groups() {
+    return new AbstractCollection<List<T>>() {
+      @Override
+      public Iterator<List<T>> iterator() {
+        return new GroupIterator<>(groupCount(), GroupIndex.this::getGroup);
+      }
+
+      @Override
+      public int size() {
+        return groupCount();
+      }
+    };
+  }
+
+  /** Returns a read-only map view of the index, iterated in the order of the index. */
+  public Map<K, List<T>> asMap() {
+    return new AbstractMap<K, List<T>>() {
+      @Override
+      public List<T> get(Object key) {
+        final int group = keys.get(key);
+        return group == -1 ? null : getGroup(group);
+      }
+
+      @Override
+      public boolean containsKey(Object key) {
+        return keys.get(key) != -1;
+      }
+
+      @Override
+      public int size() {
+        return groupCount();
+      }
+
+      @Override
+      public Collection<List<T>> values() {
+        return groups();
+      }
+
+      @Override
+      public Set<Entry<K, List<T>>> entrySet() {
+        return new AbstractSet<Entry<K, List<T>>>() {
+          @Override
+          public Iterator<Entry<K, List<T>>> iterator() {
+            return new GroupIterator<>(
+                groupCount(),
+                group -> new SimpleImmutableEntry<>(keys.getKey(group), getGroup(group)));
+          }
+
+          @Override
+          public int size() {
+            return groupCount();
+          }
+        };
+      }
+    };
+  }
+
+  private final class Group extends AbstractList<T> implements RandomAccess {
+    private final int from;
+    private final int to;
+
+    Group(int from, int to) {
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    public T get(int index) {
+      Preconditions.checkElementIndex(index, to - from);
+      return entities.get(rows[from + index]);
+    }
+
+    @Override
+    public int size() {
+      return to - from;
+    }
+  }
+
+  private static final class GroupIterator<E> implements Iterator<E> {
+    private final int groupCount;
+    private final IntFunction<E> groupFunction;
+    private int next = 0;
+
+    GroupIterator(int groupCount, IntFunction<E> groupFunction) {
+      this.groupCount = groupCount;
+      this.groupFunction = groupFunction;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next < groupCount;
+    }
+
+    @Override
+    public E next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return groupFunction.apply(next++);
+    }
+  }
+}
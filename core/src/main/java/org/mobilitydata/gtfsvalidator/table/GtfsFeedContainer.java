@@ -64,6 +64,15 @@ public class GtfsFeedContainer {
     return true;
   }
 
+  /** Returns the total amount of rows in all tables. */
+  public long totalEntityCount() {
+    long count = 0;
+    for (GtfsTableContainer<?> table : tables.values()) {
+      count += table.entityCount();
+    }
+    return count;
+  }
+
   public String tableTotals() {
     List<String> totalList = new ArrayList<>();
     for (GtfsTableContainer<?> table : tables.values()) {
@@ -24,19 +24,23 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import javax.annotation.Nullable;
 import org.mobilitydata.gtfsvalidator.annotation.GtfsLoader;
+import org.mobilitydata.gtfsvalidator.input.GtfsFileRegion;
 import org.mobilitydata.gtfsvalidator.input.GtfsInput;
+import org.mobilitydata.gtfsvalidator.notice.IOError;
 import org.mobilitydata.gtfsvalidator.notice.NoticeContainer;
 import org.mobilitydata.gtfsvalidator.notice.RuntimeExceptionInLoaderError;
-import org.mobilitydata.gtfsvalidator.notice.RuntimeExceptionInValidatorError;
 import org.mobilitydata.gtfsvalidator.notice.ThreadExecutionError;
 import org.mobilitydata.gtfsvalidator.notice.ThreadInterruptedError;
 import org.mobilitydata.gtfsvalidator.notice.UnknownFileNotice;
-import org.mobilitydata.gtfsvalidator.validator.FileValidator;
+import org.mobilitydata.gtfsvalidator.parsing.CsvChunkReader;
 import org.mobilitydata.gtfsvalidator.validator.ValidationContext;
 import org.mobilitydata.gtfsvalidator.validator.ValidatorLoader;
 
@@ -50,6 +54,9 @@ public class GtfsFeedLoader {
   private static final FluentLogger logger = FluentLogger.forEnclosingClass();
   private final HashMap<String, GtfsTableLoader> tableLoaders = new HashMap<>();
   private int numThreads = 1;
+  private boolean byteTokenizerEnabled = false;
+  private boolean memoryMappingEnabled = false;
+  private boolean referencedTablesOnly = false;
 
   public GtfsFeedLoader() {
     ClassPath classPath;
@@ -83,146 +90,296 @@ public class GtfsFeedLoader {
     return String.join(" ", tableLoaders.keySet());
   }
 
+  /** Returns classes of table containers keyed by class of their entities. */
+  public Map<Class<? extends GtfsEntity>, Class<? extends GtfsTableContainer>>
+      getTableContainerClasses() {
+    Map<Class<? extends GtfsEntity>, Class<? extends GtfsTableContainer>> containerClasses =
+        new HashMap<>();
+    for (GtfsTableLoader<?> loader : tableLoaders.values()) {
+      containerClasses.put(loader.getEntityClass(), loader.getTableContainerClass());
+    }
+    return containerClasses;
+  }
+
   public void setNumThreads(int numThreads) {
     this.numThreads = numThreads;
   }
 
+  /**
+   * Enables parsing of CSV files with {@code CsvByteTokenizer} that works directly on UTF-8 bytes
+   * instead of Univocity parser.
+   */
+  public void setByteTokenizerEnabled(boolean byteTokenizerEnabled) {
+    this.byteTokenizerEnabled = byteTokenizerEnabled;
+  }
+
+  /**
+   * Enables memory mapping of files that are stored uncompressed on disk: files in a directory and
+   * STORED entries of a ZIP archive. Other files are streamed as usual.
+   */
+  public void setMemoryMappingEnabled(boolean memoryMappingEnabled) {
+    this.memoryMappingEnabled = memoryMappingEnabled;
+  }
+
+  /**
+   * Loads only the tables that enabled validators read, see {@link
+   * ValidatorLoader#getReferencedTables}. Other files are only checked for valid headers and row
+   * lengths, without creating entities and indices, so that a feed is checked faster by a reduced
+   * set of validators.
+   */
+  public void setReferencedTablesOnly(boolean referencedTablesOnly) {
+    this.referencedTablesOnly = referencedTablesOnly;
+  }
+
+  /**
+   * Loads and validates a feed on a new {@code ForkJoinPool} of {@code numThreads} threads, so that
+   * validators split their work among the threads, see {@link
+   * org.mobilitydata.gtfsvalidator.validator.ParallelValidation}.
+   */
   public GtfsFeedContainer loadAndValidate(
       GtfsInput gtfsInput,
       ValidationContext validationContext,
       ValidatorLoader validatorLoader,
       NoticeContainer noticeContainer) {
     logger.atInfo().log("Loading in %d threads", numThreads);
-    ExecutorService exec = Executors.newFixedThreadPool(numThreads);
+    ForkJoinPool pool = new ForkJoinPool(numThreads);
+    try {
+      return loadAndValidate(gtfsInput, validationContext, validatorLoader, noticeContainer, pool);
+    } finally {
+      pool.shutdown();
+    }
+  }
 
+  /**
+   * Loads and validates a feed on a pool that is shared with other feeds, e.g., in batch mode.
+   *
+   * <p>Tables, chunks of large files and multi-file validators are all submitted to {@code pool}. A
+   * worker that waits for a table or a chunk executes other tasks of the pool meanwhile, so a
+   * single thread pool is enough and a large feed does not block the workers it waits on. The pool
+   * is not shut down.
+   */
+  public GtfsFeedContainer loadAndValidate(
+      GtfsInput gtfsInput,
+      ValidationContext validationContext,
+      ValidatorLoader validatorLoader,
+      NoticeContainer noticeContainer,
+      ForkJoinPool pool) {
+    // Multi-file validators start as soon as their tables are loaded, while other tables are
+    // still being loaded.
+    MultiFileValidatorScheduler validatorScheduler =
+        MultiFileValidatorScheduler.create(
+            validatorLoader, validationContext, pool, getTableContainerClasses());
+    validatorScheduler.start();
+    // Tables that no enabled validator reads are scanned without creating entities.
+    final Set<Class<? extends GtfsTableContainer>> referencedTables =
+        referencedTablesOnly
+            ? validatorLoader.getReferencedTables(getTableContainerClasses())
+            : null;
     List<Callable<TableAndNoticeContainers>> loaderCallables = new ArrayList<>();
     Map<String, GtfsTableLoader<?>> remainingLoaders =
         (Map<String, GtfsTableLoader<?>>) tableLoaders.clone();
-    for (String filename : gtfsInput.getFilenames()) {
-      GtfsTableLoader loader = remainingLoaders.remove(filename.toLowerCase());
-      if (loader == null) {
-        noticeContainer.addValidationNotice(new UnknownFileNotice(filename));
-      } else {
-        loaderCallables.add(
-            () -> {
-              InputStream inputStream = gtfsInput.getFile(filename);
-              NoticeContainer loaderNotices = new NoticeContainer();
-              GtfsTableContainer tableContainer;
-              try {
-                tableContainer =
-                    loader.load(inputStream, validationContext, validatorLoader, loaderNotices);
-              } catch (RuntimeException e) {
-                // This handler should prevent ExecutionException for
-                // this thread. We catch an exception here for storing
-                // the context since we know the filename here.
-                logger.atSevere().withCause(e).log("Runtime exception when loading %s", filename);
-                loaderNotices.addSystemError(
-                    new RuntimeExceptionInLoaderError(
-                        filename, e.getClass().getCanonicalName(), e.getMessage()));
-                // Since the file was not loaded successfully, we treat
-                // it as missing for continuing validation.
-                tableContainer =
-                    loader.loadMissingFile(validationContext, validatorLoader, loaderNotices);
-              } finally {
-                inputStream.close();
-              }
-              return new TableAndNoticeContainers(tableContainer, loaderNotices);
-            });
-      }
-    }
     ArrayList<GtfsTableContainer<?>> tableContainers = new ArrayList<>();
     tableContainers.ensureCapacity(tableLoaders.size());
-    for (GtfsTableLoader loader : remainingLoaders.values()) {
-      tableContainers.add(
-          loader.loadMissingFile(validationContext, validatorLoader, noticeContainer));
-    }
-    try {
+    // Set if the input could not be read to the end, e.g., a download broke off.
+    boolean inputFailed = false;
+    if (gtfsInput.isSequential()) {
+      // Files are loaded one after another while the input is still being read, e.g., downloaded.
+      // Chunks of every file are still parsed in parallel.
       try {
-        exec.invokeAll(loaderCallables)
-            .forEach(
-                f -> {
-                  try {
-                    TableAndNoticeContainers containers = f.get();
-                    tableContainers.add(containers.tableContainer);
-                    noticeContainer.addAll(containers.noticeContainer);
-                  } catch (ExecutionException e) {
-                    // All runtime exceptions should be caught above.
-                    // ExecutionException is not expected to happen.
-                    logger.atSevere().withCause(e).log("Execution exception in loader");
-                    final Throwable cause = e.getCause();
-                    noticeContainer.addSystemError(
-                        new ThreadExecutionError(
-                            cause.getClass().getCanonicalName(), cause.getMessage()));
-                  } catch (InterruptedException e) {
-                    logger.atSevere().withCause(e).log("Interrupted during loading a GTFS tables");
-                    noticeContainer.addSystemError(new ThreadInterruptedError(e.getMessage()));
-                  }
-                });
-      } catch (InterruptedException e) {
-        logger.atSevere().withCause(e).log("Interrupted during loading GTFS tables");
-        noticeContainer.addSystemError(new ThreadInterruptedError(e.getMessage()));
-      }
-      GtfsFeedContainer feed = new GtfsFeedContainer(tableContainers);
-      if (!feed.isParsedSuccessfully()) {
-        // No need to call file validators if any file failed to parse. File validations in that
-        // case may lead to confusing error messages.
-        //
-        // Consider we failed to parse a row trip.txt but there is another row in stop_times.txt
-        // that references a trip. Then foreign key validator may notify about a missing trip_id
-        // which would be wrong.
-        return feed;
-      }
-      List<Callable<NoticeContainer>> validatorCallables = new ArrayList<>();
-      for (FileValidator validator :
-          validatorLoader.createMultiFileValidators(feed, validationContext)) {
-        validatorCallables.add(
-            () -> {
-              NoticeContainer validatorNotices = new NoticeContainer();
-              try {
-                validator.validate(validatorNotices);
-              } catch (RuntimeException e) {
-                // This handler should prevent ExecutionException for
-                // this thread. We catch an exception here for storing
-                // the context since we know validator class name here.
-                logger.atSevere().withCause(e).log(
-                    "Runtime exception in validator %s", validator.getClass().getCanonicalName());
-                validatorNotices.addSystemError(
-                    new RuntimeExceptionInValidatorError(
-                        validator.getClass().getCanonicalName(),
-                        e.getClass().getCanonicalName(),
-                        e.getMessage()));
+        gtfsInput.visitFiles(
+            (filename, content) -> {
+              GtfsTableLoader loader = remainingLoaders.remove(filename.toLowerCase());
+              if (loader == null) {
+                noticeContainer.addValidationNotice(new UnknownFileNotice(filename));
+                return;
               }
-              return validatorNotices;
+              TableAndNoticeContainers containers =
+                  loadTable(
+                      loader,
+                      isScanOnly(loader, referencedTables),
+                      filename,
+                      new CsvChunkReader(
+                          content,
+                          loader.gtfsFilename(),
+                          CsvChunkReader.DEFAULT_CHUNK_SIZE,
+                          byteTokenizerEnabled),
+                      validationContext,
+                      validatorLoader,
+                      pool,
+                      validatorScheduler);
+              tableContainers.add(containers.tableContainer);
+              noticeContainer.addAll(containers.noticeContainer);
             });
+      } catch (IOException e) {
+        logger.atSevere().withCause(e).log("Cannot read GTFS input");
+        noticeContainer.addSystemError(new IOError(e.getMessage()));
+        inputFailed = true;
       }
-      try {
-        exec.invokeAll(validatorCallables)
-            .forEach(
-                container -> {
-                  try {
-                    noticeContainer.addAll(container.get());
-                  } catch (ExecutionException e) {
-                    // All runtime exceptions should be caught above.
-                    // ExecutionException is not expected to happen.
-                    logger.atSevere().withCause(e).log("Execution exception in validator");
-                    final Throwable cause = e.getCause();
-                    noticeContainer.addSystemError(
-                        new ThreadExecutionError(
-                            cause.getClass().getCanonicalName(), cause.getMessage()));
-                  } catch (InterruptedException e) {
-                    logger.atSevere().withCause(e).log(
-                        "Interrupted during validation of GTFS tables");
-                    noticeContainer.addSystemError(new ThreadInterruptedError(e.getMessage()));
+    } else {
+      for (String filename : gtfsInput.getFilenames()) {
+        GtfsTableLoader loader = remainingLoaders.remove(filename.toLowerCase());
+        if (loader == null) {
+          noticeContainer.addValidationNotice(new UnknownFileNotice(filename));
+        } else {
+          loaderCallables.add(
+              () -> {
+                final GtfsFileRegion fileRegion =
+                    memoryMappingEnabled ? gtfsInput.getFileRegion(filename) : null;
+                final InputStream inputStream =
+                    fileRegion == null ? gtfsInput.getFile(filename) : null;
+                try {
+                  return loadTable(
+                      loader,
+                      isScanOnly(loader, referencedTables),
+                      filename,
+                      fileRegion != null
+                          ? new CsvChunkReader(
+                              fileRegion.getChannel(),
+                              fileRegion.getOffset(),
+                              fileRegion.getSize(),
+                              loader.gtfsFilename(),
+                              CsvChunkReader.DEFAULT_CHUNK_SIZE,
+                              byteTokenizerEnabled)
+                          : new CsvChunkReader(
+                              inputStream,
+                              loader.gtfsFilename(),
+                              CsvChunkReader.DEFAULT_CHUNK_SIZE,
+                              byteTokenizerEnabled),
+                      validationContext,
+                      validatorLoader,
+                      pool,
+                      validatorScheduler);
+                } finally {
+                  if (fileRegion != null) {
+                    fileRegion.close();
+                  } else {
+                    inputStream.close();
                   }
-                });
-      } catch (InterruptedException e) {
-        logger.atSevere().withCause(e).log("Interrupted during validation of GTFS tables");
-        noticeContainer.addSystemError(new ThreadInterruptedError(e.getMessage()));
+                }
+              });
+        }
+      }
+    }
+    for (GtfsTableLoader loader : remainingLoaders.values()) {
+      // Files that follow a failure of the input are not known to be missing, so they are not
+      // reported.
+      GtfsTableContainer<?> tableContainer =
+          loader.loadMissingFile(
+              validationContext,
+              validatorLoader,
+              inputFailed ? new NoticeContainer() : noticeContainer);
+      tableContainers.add(tableContainer);
+      validatorScheduler.tableLoaded(tableContainer);
+    }
+    // Tables are awaited one by one since ForkJoinPool.invokeAll() cannot be interrupted.
+    List<Future<TableAndNoticeContainers>> loaderFutures = new ArrayList<>();
+    for (Callable<TableAndNoticeContainers> loaderCallable : loaderCallables) {
+      loaderFutures.add(pool.submit(loaderCallable));
+    }
+    try {
+      for (Future<TableAndNoticeContainers> f : loaderFutures) {
+        try {
+          TableAndNoticeContainers containers = f.get();
+          tableContainers.add(containers.tableContainer);
+          noticeContainer.addAll(containers.noticeContainer);
+        } catch (ExecutionException e) {
+          // All runtime exceptions should be caught above.
+          // ExecutionException is not expected to happen.
+          logger.atSevere().withCause(e).log("Execution exception in loader");
+          final Throwable cause = e.getCause();
+          noticeContainer.addSystemError(
+              new ThreadExecutionError(cause.getClass().getCanonicalName(), cause.getMessage()));
+        }
       }
+    } catch (InterruptedException e) {
+      logger.atSevere().withCause(e).log("Interrupted during loading GTFS tables");
+      noticeContainer.addSystemError(new ThreadInterruptedError(e.getMessage()));
+      loaderFutures.forEach(f -> f.cancel(true));
+      // Validation was cancelled, e.g., by a timeout in the validation server.
+      Thread.currentThread().interrupt();
+    }
+    GtfsFeedContainer feed = new GtfsFeedContainer(tableContainers);
+    if (inputFailed || !feed.isParsedSuccessfully() || Thread.currentThread().isInterrupted()) {
+      // No need to call file validators if any file failed to parse. File validations in that
+      // case may lead to confusing error messages.
+      //
+      // Consider we failed to parse a row trip.txt but there is another row in stop_times.txt
+      // that references a trip. Then foreign key validator may notify about a missing trip_id
+      // which would be wrong.
+      //
+      // The same holds if the input could not be read to the end: files after the failure, e.g.,
+      // shapes.txt, look missing, and every reference to them would be reported.
+      //
+      // Validators that were started before the failure was known are cancelled and their
+      // notices are dropped.
+      validatorScheduler.cancel();
       return feed;
-    } finally {
-      exec.shutdown();
     }
+    try {
+      for (Future<NoticeContainer> container : validatorScheduler.getStartedValidators()) {
+        try {
+          noticeContainer.addAll(container.get());
+        } catch (ExecutionException e) {
+          // All runtime exceptions should be caught in the scheduler.
+          // ExecutionException is not expected to happen.
+          logger.atSevere().withCause(e).log("Execution exception in validator");
+          final Throwable cause = e.getCause();
+          noticeContainer.addSystemError(
+              new ThreadExecutionError(cause.getClass().getCanonicalName(), cause.getMessage()));
+        }
+      }
+    } catch (InterruptedException e) {
+      logger.atSevere().withCause(e).log("Interrupted during validation of GTFS tables");
+      noticeContainer.addSystemError(new ThreadInterruptedError(e.getMessage()));
+      validatorScheduler.cancel();
+      Thread.currentThread().interrupt();
+    }
+    return feed;
+  }
+
+  private static boolean isScanOnly(
+      GtfsTableLoader<?> loader,
+      @Nullable Set<Class<? extends GtfsTableContainer>> referencedTables) {
+    return referencedTables != null && !referencedTables.contains(loader.getTableContainerClass());
+  }
+
+  /**
+   * Loads a single table. Runtime exceptions are reported as notices and the table is treated as
+   * missing.
+   *
+   * <p>If {@code scanOnly} is set, only headers and row lengths of the table are checked.
+   */
+  private static TableAndNoticeContainers loadTable(
+      GtfsTableLoader loader,
+      boolean scanOnly,
+      String filename,
+      CsvChunkReader csvChunkReader,
+      ValidationContext validationContext,
+      ValidatorLoader validatorLoader,
+      ExecutorService chunkExec,
+      MultiFileValidatorScheduler validatorScheduler) {
+    NoticeContainer loaderNotices = validationContext.newNoticeContainer();
+    GtfsTableContainer tableContainer;
+    try {
+      tableContainer =
+          scanOnly
+              ? loader.scan(csvChunkReader, validationContext, loaderNotices)
+              : loader.load(
+                  csvChunkReader, validationContext, validatorLoader, loaderNotices, chunkExec);
+    } catch (RuntimeException e) {
+      // This handler should prevent ExecutionException for
+      // this thread. We catch an exception here for storing
+      // the context since we know the filename here.
+      logger.atSevere().withCause(e).log("Runtime exception when loading %s", filename);
+      loaderNotices.addSystemError(
+          new RuntimeExceptionInLoaderError(
+              filename, e.getClass().getCanonicalName(), e.getMessage()));
+      // Since the file was not loaded successfully, we treat
+      // it as missing for continuing validation.
+      tableContainer = loader.loadMissingFile(validationContext, validatorLoader, loaderNotices);
+    }
+    validatorScheduler.tableLoaded(tableContainer);
+    return new TableAndNoticeContainers(tableContainer, loaderNotices);
   }
 
   static class TableAndNoticeContainers {
@@ -16,7 +16,11 @@
 
 package org.mobilitydata.gtfsvalidator.table;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 /**
  * Container for {@code GtfsEntity} instances for the whole GTFS table, e.g., stops.txt.
@@ -31,6 +35,9 @@ public abstract class GtfsTableContainer<T extends GtfsEntity> {
 
   private final TableStatus tableStatus;
 
+  /** Key sets of columns by column name, created on first use. */
+  private final ConcurrentHashMap<String, KeySet> keySets = new ConcurrentHashMap<>();
+
   public GtfsTableContainer(TableStatus tableStatus) {
     this.tableStatus = tableStatus;
   }
@@ -49,6 +56,36 @@ public abstract class GtfsTableContainer<T extends GtfsEntity> {
 
   public abstract String gtfsFilename();
 
+  /**
+   * Returns entities grouped by the first key and sorted by the sequence key, e.g., stop times of
+   * every trip sorted by stop_sequence.
+   *
+   * <p>Tables without a sequence key have no sequences.
+   *
+   * @return a read-only view of non-empty sequences
+   */
+  public Collection<List<T>> getSequences() {
+    return Collections.emptyList();
+  }
+
+  /**
+   * Returns a snapshot of keys of a column, e.g., all stop_id values.
+   *
+   * <p>The snapshot is created on first use and shared by all callers, so that all foreign key
+   * validators that refer to the same column look keys up in the same set. Concurrent callers wait
+   * until the set is created.
+   *
+   * @param columnName name of the column, e.g., "stop_id"
+   * @param dictionary dictionary of the feed, the same for all calls
+   * @param keyFunction returns the value of the column for an entity
+   * @return the key set
+   */
+  public KeySet getKeySet(
+      String columnName, IdDictionary dictionary, Function<T, String> keyFunction) {
+    return keySets.computeIfAbsent(
+        columnName, unused -> KeySet.create(dictionary, getEntities(), keyFunction));
+  }
+
   /**
    * Tells if the file is completely empty, i.e. it has no rows and even no headers.
    *
@@ -125,5 +162,8 @@ public abstract class GtfsTableContainer<T extends GtfsEntity> {
     PARSABLE_HEADERS_AND_ROWS,
     INVALID_HEADERS,
     UNPARSABLE_ROWS,
+    // Headers and row lengths were checked, but entities were not loaded since no enabled
+    // validator reads the table, see GtfsFeedLoader.setReferencedTablesOnly().
+    SCANNED_WITHOUT_ENTITIES,
   }
 }
@@ -16,9 +16,15 @@
 
 package org.mobilitydata.gtfsvalidator.table;
 
+import com.google.common.util.concurrent.MoreExecutors;
 import java.io.InputStream;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 import org.mobilitydata.gtfsvalidator.notice.NoticeContainer;
+import org.mobilitydata.gtfsvalidator.parsing.CsvChunkReader;
+import org.mobilitydata.gtfsvalidator.parsing.CsvFile;
+import org.mobilitydata.gtfsvalidator.parsing.CsvRow;
+import org.mobilitydata.gtfsvalidator.parsing.RowParser;
 import org.mobilitydata.gtfsvalidator.validator.ValidationContext;
 import org.mobilitydata.gtfsvalidator.validator.ValidatorLoader;
 
@@ -35,16 +41,104 @@ public abstract class GtfsTableLoader<T extends GtfsEntity> {
 
   public abstract boolean isRequired();
 
+  /** Returns the class of entities of the table, e.g., {@code GtfsStop.class}. */
+  public abstract Class<T> getEntityClass();
+
+  /** Returns the class of the container that the loader creates, e.g., for stops.txt. */
+  public abstract Class<? extends GtfsTableContainer<T>> getTableContainerClass();
+
   public abstract Set<String> getColumnNames();
 
   public abstract Set<String> getRequiredColumnNames();
 
-  public abstract GtfsTableContainer<T> load(
+  /**
+   * Loads a table from a stream in the current thread.
+   *
+   * @param inputStream stream with the CSV file
+   * @param validationContext context of the validation
+   * @param validatorLoader loader for single-entity and single-file validators
+   * @param noticeContainer container for notices about the file
+   * @return the loaded table
+   */
+  public GtfsTableContainer<T> load(
       InputStream inputStream,
       ValidationContext validationContext,
       ValidatorLoader validatorLoader,
+      NoticeContainer noticeContainer) {
+    return load(
+        new CsvChunkReader(inputStream, gtfsFilename()),
+        validationContext,
+        validatorLoader,
+        noticeContainer,
+        MoreExecutors.newDirectExecutorService());
+  }
+
+  /**
+   * Loads a table and parses its chunks in {@code chunkExecutor}.
+   *
+   * <p>The executor must not be the one that runs this method, otherwise all its threads may end up
+   * waiting for chunks that are never scheduled. The only exception is a {@code ForkJoinPool}: its
+   * workers execute queued tasks while they wait.
+   *
+   * @param chunkReader reader that splits the CSV file into chunks
+   * @param validationContext context of the validation
+   * @param validatorLoader loader for single-entity and single-file validators
+   * @param noticeContainer container for notices about the file
+   * @param chunkExecutor executor that parses chunks of the file
+   * @return the loaded table
+   */
+  public abstract GtfsTableContainer<T> load(
+      CsvChunkReader chunkReader,
+      ValidationContext validationContext,
+      ValidatorLoader validatorLoader,
+      NoticeContainer noticeContainer,
+      ExecutorService chunkExecutor);
+
+  /**
+   * Checks headers and row lengths of a table without parsing values or creating entities.
+   *
+   * <p>This is used for tables that no enabled validator reads. The returned table has no entities
+   * and its status is {@code SCANNED_WITHOUT_ENTITIES} unless the file is empty or has invalid
+   * headers or rows, just as {@link #load} would tell.
+   *
+   * @param chunkReader reader that splits the CSV file into chunks
+   * @param validationContext context of the validation
+   * @param noticeContainer container for notices about the file
+   * @return a table without entities
+   */
+  public abstract GtfsTableContainer<T> scan(
+      CsvChunkReader chunkReader,
+      ValidationContext validationContext,
       NoticeContainer noticeContainer);
 
+  /**
+   * Checks that every row of a file has as many values as there are columns.
+   *
+   * <p>Rows are tokenized chunk by chunk in the current thread; values are not parsed.
+   *
+   * @param firstChunk the first chunk returned by {@code chunkReader}
+   * @param chunkReader reader for the following chunks
+   * @param validationContext context of the validation
+   * @param noticeContainer container for notices about invalid rows
+   * @return true if some rows have a wrong length, i.e., the table has unparsable rows
+   */
+  protected static boolean checkRowLengths(
+      CsvFile firstChunk,
+      CsvChunkReader chunkReader,
+      ValidationContext validationContext,
+      NoticeContainer noticeContainer) {
+    final RowParser rowParser = new RowParser(validationContext.feedName(), noticeContainer);
+    boolean hasUnparsableRows = false;
+    for (CsvFile chunk = firstChunk; chunk != null; chunk = chunkReader.nextChunk()) {
+      for (CsvRow row : chunk) {
+        rowParser.setRow(row);
+        rowParser.checkRowLength();
+        hasUnparsableRows |= rowParser.hasParseErrorsInRow();
+      }
+    }
+    return hasUnparsableRows;
+  }
+
   public abstract GtfsTableContainer<T> loadMissingFile(
       ValidationContext validationContext,
       ValidatorLoader validatorLoader,
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.table;
+
+import com.google.common.base.Preconditions;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nullable;
+
+/**
+ * Feed-wide dictionary that maps IDs to dense ordinals, starting from 0.
+ *
+ * <p>All tables of a feed share the same dictionary through {@code ValidationContext}, so an ID
+ * such as a trip_id is stored once and has the same ordinal in trips.txt, stop_times.txt and
+ * frequencies.txt. Ordinals are dense, so sets of IDs may be stored as bitsets.
+ *
+ * <p>This class is thread-safe: chunks of different tables are loaded concurrently. Lookups of
+ * known IDs do not take a lock.
+ */
+public final class IdDictionary {
+  /** Ordinal of a null ID. It is also returned by {@link #find} for unknown IDs. */
+  public static final int NO_ID = -1;
+
+  private static final int INITIAL_CAPACITY = 1024;
+
+  private final ConcurrentHashMap<String, Integer> ordinals = new ConcurrentHashMap<>();
+
+  /**
+   * IDs by ordinal. The array is replaced when it grows; an ordinal read from {@link #ordinals}
+   * always has its ID stored in the array because the ID is stored before the ordinal is
+   * published.
+   */
+  private volatile String[] ids = new String[INITIAL_CAPACITY];
+
+  private volatile int size;
+
+  /**
+   * Returns the ordinal of the ID and adds the ID to the dictionary if needed.
+   *
+   * @param id the ID, may be null
+   * @return ordinal of the ID or {@link #NO_ID} for null
+   */
+  public int encode(@Nullable String id) {
+    if (id == null) {
+      return NO_ID;
+    }
+    final Integer ordinal = ordinals.get(id);
+    return ordinal != null ? ordinal : add(id);
+  }
+
+  /**
+   * Returns the ordinal of the ID without adding it.
+   *
+   * @param id the ID, may be null
+   * @return ordinal of the ID or {@link #NO_ID} if the ID is null or unknown
+   */
+  public int find(@Nullable String id) {
+    if (id == null) {
+      return NO_ID;
+    }
+    final Integer ordinal = ordinals.get(id);
+    return ordinal != null ? ordinal : NO_ID;
+  }
+
+  /**
+   * Returns the ID with the given ordinal.
+   *
+   * @param ordinal ordinal returned by {@link #encode} or {@link #NO_ID}
+   * @return the ID or null for {@link #NO_ID}
+   */
+  @Nullable
+  public String decode(int ordinal) {
+    if (ordinal == NO_ID) {
+      return null;
+    }
+    Preconditions.checkElementIndex(ordinal, size);
+    return ids[ordinal];
+  }
+
+  /**
+   * Returns the canonical instance of the ID, so that equal IDs from all tables of the feed share
+   * the same {@code String} object.
+   *
+   * @param id the ID, may be null
+   * @return the canonical instance or null for null
+   */
+  @Nullable
+  public String intern(@Nullable String id) {
+    return decode(encode(id));
+  }
+
+  /** Returns the amount of distinct IDs in the dictionary. */
+  public int size() {
+    return size;
+  }
+
+  private synchronized int add(String id) {
+    final Integer existing = ordinals.get(id);
+    if (existing != null) {
+      return existing;
+    }
+    final int ordinal = size;
+    String[] array = ids;
+    if (ordinal == array.length) {
+      array = Arrays.copyOf(array, array.length * 2);
+    }
+    array[ordinal] = id;
+    ids = array;
+    size = ordinal + 1;
+    ordinals.put(id, ordinal);
+    return ordinal;
+  }
+}
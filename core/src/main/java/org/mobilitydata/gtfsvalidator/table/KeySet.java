@@ -0,0 +1,93 @@
+/*
+ * Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.table;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Function;
+import javax.annotation.Nullable;
+
+/**
+ * Snapshot of the keys of a table column, e.g., all stop_id values in stops.txt.
+ *
+ * <p>Keys are stored as a {@link BitSet} over their ordinals in the {@link IdDictionary} of the
+ * feed, so a membership test for a key that is already encoded, e.g., a stop_id of a columnar
+ * stop_times.txt, is a single bit lookup.
+ *
+ * <p>This class is immutable and thread-safe.
+ */
+public final class KeySet {
+  private final IdDictionary dictionary;
+  private final BitSet ordinals;
+  private final int size;
+
+  private KeySet(IdDictionary dictionary, BitSet ordinals) {
+    this.dictionary = dictionary;
+    this.ordinals = ordinals;
+    this.size = ordinals.cardinality();
+  }
+
+  /**
+   * Collects keys of all rows of a table. Null keys are skipped.
+   *
+   * @param dictionary dictionary of the feed
+   * @param entities rows of the table
+   * @param keyFunction returns the key of a row
+   * @return the key set
+   */
+  public static <T> KeySet create(
+      IdDictionary dictionary, List<T> entities, Function<T, String> keyFunction) {
+    final BitSet ordinals = new BitSet();
+    for (T entity : entities) {
+      final int ordinal = dictionary.encode(keyFunction.apply(entity));
+      if (ordinal != IdDictionary.NO_ID) {
+        ordinals.set(ordinal);
+      }
+    }
+    return new KeySet(dictionary, ordinals);
+  }
+
+  /** Returns the dictionary that encodes keys of this set. */
+  public IdDictionary getDictionary() {
+    return dictionary;
+  }
+
+  /**
+   * Tells if the set has the given key.
+   *
+   * @param key the key, may be null
+   * @return true if the key is in the set
+   */
+  public boolean contains(@Nullable String key) {
+    return containsOrdinal(dictionary.find(key));
+  }
+
+  /**
+   * Tells if the set has the key with the given ordinal.
+   *
+   * @param ordinal ordinal of the key in {@link #getDictionary()} or {@link IdDictionary#NO_ID}
+   * @return true if the key is in the set
+   */
+  public boolean containsOrdinal(int ordinal) {
+    return ordinal != IdDictionary.NO_ID && ordinals.get(ordinal);
+  }
+
+  /** Returns the amount of distinct keys in the set. */
+  public int size() {
+    return size;
+  }
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.table;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import javax.annotation.Nullable;
+import org.mobilitydata.gtfsvalidator.notice.NoticeContainer;
+import org.mobilitydata.gtfsvalidator.notice.RuntimeExceptionInValidatorError;
+import org.mobilitydata.gtfsvalidator.validator.FileValidator;
+import org.mobilitydata.gtfsvalidator.validator.ValidationContext;
+import org.mobilitydata.gtfsvalidator.validator.ValidationMetrics;
+import org.mobilitydata.gtfsvalidator.validator.ValidatorLoader;
+
+/**
+ * Starts multi-file validators as soon as all tables that they depend on are loaded.
+ *
+ * <p>Dependencies of a validator are the table containers that it injects with {@code @Inject}.
+ * Table loaders report every table, including missing files, to {@link #tableLoaded}. Once the
+ * last dependency of a validator is reported, the validator is submitted to the executor, so it
+ * may run while other tables, e.g., stop_times.txt, are still being loaded.
+ *
+ * <p>Sequence visitors of a table are scheduled as a single validator, see {@link
+ * org.mobilitydata.gtfsvalidator.validator.SequenceVisitorValidator}, that depends on the visited
+ * table and on all tables that the visitors inject.
+ *
+ * <p>A validator is not started if any of its dependencies failed to parse. The caller is still
+ * responsible for dropping the notices of all validators if any table of the feed failed to
+ * parse, see {@link #cancel()}.
+ */
+final class MultiFileValidatorScheduler {
+  /** A validator to start once the tables that it depends on are loaded. */
+  interface ScheduledValidator {
+    /** Returns classes of tables that the validator reads. */
+    List<Class<? extends GtfsTableContainer>> getDependencies();
+
+    /** Returns a new validator that reads the given tables or null if it cannot be created. */
+    @Nullable
+    FileValidator create(GtfsFeedContainer tables);
+  }
+
+  private final List<ScheduledValidator> validators;
+  private final List<List<Class<? extends GtfsTableContainer>>> dependencies = new ArrayList<>();
+  private final ExecutorService executor;
+  private final ValidationMetrics metrics;
+  private final int maxNoticesPerType;
+
+  // The fields below are guarded by this.
+
+  /** Indices of validators that wait for a table, keyed by the class of the table container. */
+  private final ListMultimap<Class<? extends GtfsTableContainer>, Integer> waitingValidators =
+      ArrayListMultimap.create();
+
+  private final int[] remainingDependencies;
+  private final Map<Class<? extends GtfsTableContainer>, GtfsTableContainer<?>> loadedTables =
+      new HashMap<>();
+
+  /** Results of started validators, null for validators that were not started. */
+  private final List<Future<NoticeContainer>> results;
+
+  private boolean cancelled = false;
+
+  /**
+   * Creates a scheduler for the given validators. No validator is started until {@link #start()}.
+   *
+   * @param validators validators to schedule, their notices are returned in this order
+   * @param executor executor to run validators
+   * @param metrics metrics to record time of validators
+   * @param maxNoticesPerType maximum amount of notices of a single type that a validator keeps
+   */
+  MultiFileValidatorScheduler(
+      List<ScheduledValidator> validators,
+      ExecutorService executor,
+      ValidationMetrics metrics,
+      int maxNoticesPerType) {
+    this.validators = validators;
+    this.executor = executor;
+    this.metrics = metrics;
+    this.maxNoticesPerType = maxNoticesPerType;
+    remainingDependencies = new int[validators.size()];
+    results = new ArrayList<>(Collections.nCopies(validators.size(), null));
+    for (int i = 0; i < validators.size(); ++i) {
+      List<Class<? extends GtfsTableContainer>> validatorDependencies =
+          validators.get(i).getDependencies();
+      dependencies.add(validatorDependencies);
+      remainingDependencies[i] = validatorDependencies.size();
+      for (Class<? extends GtfsTableContainer> tableClass : validatorDependencies) {
+        waitingValidators.put(tableClass, i);
+      }
+    }
+  }
+
+  /**
+   * Creates a scheduler for all multi-file validators and sequence visitors of the given loader.
+   *
+   * @param validatorLoader loader of validators
+   * @param validationContext context to pass to validators
+   * @param executor executor to run validators
+   * @param tableContainerClasses classes of table containers keyed by class of their entities
+   */
+  static MultiFileValidatorScheduler create(
+      ValidatorLoader validatorLoader,
+      ValidationContext validationContext,
+      ExecutorService executor,
+      Map<Class<? extends GtfsEntity>, Class<? extends GtfsTableContainer>>
+          tableContainerClasses) {
+    List<ScheduledValidator> validators = new ArrayList<>();
+    for (Class<? extends FileValidator> validatorClass : validatorLoader.getMultiFileValidators()) {
+      validators.add(
+          new ScheduledValidator() {
+            @Override
+            public List<Class<? extends GtfsTableContainer>> getDependencies() {
+              return ValidatorLoader.getTableDependencies(validatorClass);
+            }
+
+            @Override
+            public FileValidator create(GtfsFeedContainer tables) {
+              return validatorLoader.createMultiFileValidator(
+                  validatorClass, tables, validationContext);
+            }
+          });
+    }
+    for (Class<? extends GtfsEntity> entityClass : validatorLoader.getVisitedEntityClasses()) {
+      final Class<? extends GtfsTableContainer> tableClass = tableContainerClasses.get(entityClass);
+      if (tableClass == null) {
+        continue;
+      }
+      validators.add(
+          new ScheduledValidator() {
+            @Override
+            public List<Class<? extends GtfsTableContainer>> getDependencies() {
+              LinkedHashSet<Class<? extends GtfsTableContainer>> dependencies =
+                  new LinkedHashSet<>();
+              dependencies.add(tableClass);
+              dependencies.addAll(validatorLoader.getSequenceVisitorDependencies(entityClass));
+              return new ArrayList<>(dependencies);
+            }
+
+            @Override
+            public FileValidator create(GtfsFeedContainer tables) {
+              return validatorLoader.createSequenceVisitorValidator(
+                  tables.getTable(tableClass), tables, validationContext);
+            }
+          });
+    }
+    return new MultiFileValidatorScheduler(
+        validators, executor, validationContext.metrics(), validationContext.maxNoticesPerType());
+  }
+
+  /** Starts validators that do not depend on any table. */
+  synchronized void start() {
+    for (int i = 0; i < remainingDependencies.length; ++i) {
+      if (remainingDependencies[i] == 0) {
+        submit(i);
+      }
+    }
+  }
+
+  /**
+   * Records a loaded table and starts validators whose dependencies are all loaded.
+   *
+   * @param table a table that was loaded or created for a missing file
+   */
+  synchronized void tableLoaded(GtfsTableContainer<?> table) {
+    loadedTables.put(table.getClass(), table);
+    for (int i : waitingValidators.removeAll(table.getClass())) {
+      if (--remainingDependencies[i] == 0) {
+        submit(i);
+      }
+    }
+  }
+
+  private void submit(int index) {
+    if (cancelled) {
+      return;
+    }
+    List<GtfsTableContainer<?>> tables = new ArrayList<>();
+    for (Class<? extends GtfsTableContainer> tableClass : dependencies.get(index)) {
+      GtfsTableContainer<?> table = loadedTables.get(tableClass);
+      if (!table.isParsedSuccessfully()) {
+        return;
+      }
+      tables.add(table);
+    }
+    final FileValidator validator = validators.get(index).create(new GtfsFeedContainer(tables));
+    if (validator == null) {
+      return;
+    }
+    results.set(index, executor.submit(() -> runValidator(validator)));
+  }
+
+  private NoticeContainer runValidator(FileValidator validator) {
+    NoticeContainer validatorNotices = new NoticeContainer(maxNoticesPerType);
+    try {
+      metrics.runFileValidator(validator, validatorNotices);
+    } catch (RuntimeException e) {
+      // This handler should prevent ExecutionException for
+      // this thread. We catch an exception here for storing
+      // the context since we know validator class name here.
+      validatorNotices.addSystemError(
+          new RuntimeExceptionInValidatorError(
+              validator.getClass().getCanonicalName(),
+              e.getClass().getCanonicalName(),
+              e.getMessage()));
+    }
+    return validatorNotices;
+  }
+
+  /**
+   * Returns results of started validators in the order of the validator list, so that notices are
+   * merged in the same order in every run.
+   */
+  synchronized List<Future<NoticeContainer>> getStartedValidators() {
+    List<Future<NoticeContainer>> started = new ArrayList<>();
+    for (Future<NoticeContainer> result : results) {
+      if (result != null) {
+        started.add(result);
+      }
+    }
+    return started;
+  }
+
+  /** Cancels validators that are queued or running and does not start new ones. */
+  synchronized void cancel() {
+    cancelled = true;
+    for (Future<NoticeContainer> result : results) {
+      if (result != null) {
+        result.cancel(true);
+      }
+    }
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2021 MobilityData IO
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.table;
+
+import com.google.common.base.Preconditions;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Maps keys to dense ordinals, starting from 0, in the order the keys were added.
+ *
+ * <p>The map uses open addressing with linear probing over a single {@code int[]} table, so it
+ * does not allocate an entry object per key as {@code HashMap} does. Hashes of keys are kept to
+ * rehash without calling {@code hashCode()} again. Null is a valid key.
+ *
+ * <p>This class is not thread-safe, but it may be read concurrently once all keys are added.
+ *
+ * @param <K> type of keys
+ */
+public final class OrdinalMap<K> {
+  private static final int MIN_CAPACITY = 8;
+
+  /** Ordinal + 1 for every slot, 0 for empty slots. The length is a power of 2. */
+  private int[] slots;
+
+  private Object[] keys;
+  private int[] hashes;
+  private int size;
+
+  public OrdinalMap() {
+    this(0);
+  }
+
+  /**
+   * Creates a map that holds the given amount of keys without resizing.
+   *
+   * @param expectedSize expected amount of keys
+   */
+  public OrdinalMap(int expectedSize) {
+    // The load factor is at most 1/2.
+    slots = new int[tableSizeFor(Math.max(MIN_CAPACITY, expectedSize * 2))];
+    keys = new Object[Math.max(MIN_CAPACITY, expectedSize)];
+    hashes = new int[keys.length];
+  }
+
+  /**
+   * Returns the ordinal of the key and adds the key if it is missing.
+   *
+   * @param key the key, may be null
+   * @return ordinal of the key
+   */
+  public int add(K key) {
+    final int hash = hash(key);
+    final int mask = slots.length - 1;
+    int slot = hash & mask;
+    while (slots[slot] != 0) {
+      final int ordinal = slots[slot] - 1;
+      if (hashes[ordinal] == hash && Objects.equals(keys[ordinal], key)) {
+        return ordinal;
+      }
+      slot = (slot + 1) & mask;
+    }
+    final int ordinal = size++;
+    if (ordinal == keys.length) {
+      keys = Arrays.copyOf(keys, keys.length * 2);
+      hashes = Arrays.copyOf(hashes, hashes.length * 2);
+    }
+    keys[ordinal] = key;
+    hashes[ordinal] = hash;
+    slots[slot] = ordinal + 1;
+    if (size * 2 > slots.length) {
+      rehash(slots.length * 2);
+    }
+    return ordinal;
+  }
+
+  /**
+   * Returns the ordinal of the key.
+   *
+   * @param key the key, may be null
+   * @return ordinal of the key or -1 if the key was not added
+   */
+  public int get(Object key) {
+    final int hash = hash(key);
+    final int mask = slots.length - 1;
+    int slot = hash & mask;
+    while (slots[slot] != 0) {
+      final int ordinal = slots[slot] - 1;
+      if (hashes[ordinal] == hash && Objects.equals(keys[ordinal], key)) {
+        return ordinal;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the key with the given ordinal.
+   *
+   * @param ordinal ordinal returned by {@link #add}
+   * @return the key
+   */
+  @SuppressWarnings("unchecked")
+  public K getKey(int ordinal) {
+    Preconditions.checkElementIndex(ordinal, size);
+    return (K) keys[ordinal];
+  }
+
+  /** Returns the amount of keys in the map. */
+  public int size() {
+    return size;
+  }
+
+  private void rehash(int capacity) {
+    slots = new int[capacity];
+    final int mask = capacity - 1;
+    for (int ordinal = 0; ordinal < size; ++ordinal) {
+      int slot = hashes[ordinal] & mask;
+      while (slots[slot] != 0) {
+        slot = (slot + 1) & mask;
+      }
+      slots[slot] = ordinal + 1;
+    }
+  }
+
+  /** Spreads higher bits of the hash code, since the table size is a power of 2. */
+  private static int hash(Object key) {
+    final int h = Objects.hashCode(key) * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  private static int tableSizeFor(int capacity) {
+    return Integer.highestOneBit(capacity - 1) << 1;
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2021 MobilityData IO
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.table;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.Nullable;
+
+/**
+ * Index of table rows by a primary key, e.g., stops by stop_id.
+ *
+ * <p>Keys are mapped to ordinals by an {@link OrdinalMap} and the position of the row of every
+ * ordinal is kept in an {@code int[]}, so the index does not allocate objects per row.
+ *
+ * <p>Rows are added by the container while it builds its indices. After that, the index is
+ * read-only and may be shared between threads.
+ *
+ * @param <K> type of keys
+ * @param <T> type of entities
+ */
+public final class UniqueIndex<K, T> {
+  private final List<T> entities;
+  private final OrdinalMap<K> keys;
+  private int[] rows;
+
+  /**
+   * Creates an empty index for the given table.
+   *
+   * @param entities rows of the table
+   */
+  public UniqueIndex(List<T> entities) {
+    this.entities = entities;
+    this.keys = new OrdinalMap<>(entities.size());
+    this.rows = new int[Math.max(1, entities.size())];
+  }
+
+  /** Returns an index without any rows. */
+  public static <K, T> UniqueIndex<K, T> empty() {
+    return new UniqueIndex<>(Collections.emptyList());
+  }
+
+  /**
+   * Indexes a row unless another row has the same key.
+   *
+   * @param key key of the row
+   * @param row position of the row in the table
+   * @return the entity that already has the key or null if the row was indexed
+   */
+  @Nullable
+  public T putIfAbsent(K key, int row) {
+    final int size = keys.size();
+    final int ordinal = keys.add(key);
+    if (ordinal < size) {
+      return entities.get(rows[ordinal]);
+    }
+    if (ordinal == rows.length) {
+      rows = Arrays.copyOf(rows, rows.length * 2);
+    }
+    rows[ordinal] = row;
+    return null;
+  }
+
+  /**
+   * Returns the entity with the given key.
+   *
+   * @param key the key
+   * @return the entity or null if there is no entity with the key
+   */
+  @Nullable
+  public T get(Object key) {
+    final int ordinal = keys.get(key);
+    return ordinal == -1 ? null : entities.get(rows[ordinal]);
+  }
+
+  /** Returns the amount of indexed rows. */
+  public int size() {
+    return keys.size();
+  }
+}
@@ -16,10 +16,14 @@
 
 package org.mobilitydata.gtfsvalidator.type;
 
+import java.nio.ByteBuffer;
 import java.time.LocalDate;
 
 /** Represents GTFS date. */
 public class GtfsDate implements Comparable<GtfsDate> {
+  /** Returned by {@code parseEpochDay} for strings that are not valid dates. */
+  public static final int INVALID_EPOCH_DAY = Integer.MIN_VALUE;
+
   private final LocalDate localDate;
 
   private GtfsDate(LocalDate localDate) {
@@ -35,18 +39,87 @@ public class GtfsDate implements Comparable<GtfsDate> {
   }
 
   public static GtfsDate fromString(String yyyymmdd) {
+    final int epochDay = parseEpochDay(yyyymmdd);
+    if (epochDay == INVALID_EPOCH_DAY) {
+      throw new IllegalArgumentException("Date must have valid YYYYMMDD format: " + yyyymmdd);
+    }
+    return fromEpochDay(epochDay);
+  }
+
+  /**
+   * Parses a date in YYYYMMDD format without creating any objects.
+   *
+   * @param yyyymmdd the string to parse
+   * @return days since 1970-01-01 or {@link #INVALID_EPOCH_DAY} if the string is not a valid date
+   */
+  public static int parseEpochDay(CharSequence yyyymmdd) {
     if (yyyymmdd.length() != 8) {
-      throw new IllegalArgumentException("Date must have YYYYMMDD format: " + yyyymmdd);
+      return INVALID_EPOCH_DAY;
+    }
+    int value = 0;
+    for (int i = 0; i < 8; ++i) {
+      final char c = yyyymmdd.charAt(i);
+      if (c < '0' || c > '9') {
+        return INVALID_EPOCH_DAY;
+      }
+      value = value * 10 + (c - '0');
+    }
+    return toEpochDay(value / 10000, value / 100 % 100, value % 100);
+  }
+
+  /**
+   * Parses a date in YYYYMMDD format from ASCII bytes without creating any objects.
+   *
+   * @param data the buffer that holds the bytes
+   * @param start offset of the first byte in the buffer
+   * @param end offset after the last byte in the buffer
+   * @return days since 1970-01-01 or {@link #INVALID_EPOCH_DAY} if the bytes are not a valid date
+   */
+  public static int parseEpochDay(ByteBuffer data, int start, int end) {
+    if (end - start != 8) {
+      return INVALID_EPOCH_DAY;
+    }
+    int value = 0;
+    for (int i = start; i < end; ++i) {
+      final byte b = data.get(i);
+      if (b < '0' || b > '9') {
+        return INVALID_EPOCH_DAY;
+      }
+      value = value * 10 + (b - '0');
     }
-    int year, month, day;
-    try {
-      year = Integer.parseInt(yyyymmdd.substring(0, 4));
-      month = Integer.parseInt(yyyymmdd.substring(4, 6));
-      day = Integer.parseInt(yyyymmdd.substring(6));
-    } catch (NumberFormatException ex) {
-      throw new IllegalArgumentException("Date must have YYYYMMDD format: " + yyyymmdd);
+    return toEpochDay(value / 10000, value / 100 % 100, value % 100);
+  }
+
+  /**
+   * Converts a date of the proleptic Gregorian calendar to epoch day, just as {@link
+   * LocalDate#toEpochDay()} does, or returns {@link #INVALID_EPOCH_DAY} if there is no such day.
+   */
+  private static int toEpochDay(int year, int month, int day) {
+    if (month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)) {
+      return INVALID_EPOCH_DAY;
+    }
+    // Count years from March, so that the leap day is the last day of a year.
+    final int y = month <= 2 ? year - 1 : year;
+    final int era = Math.floorDiv(y, 400);
+    final int yearOfEra = y - era * 400;
+    final int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+    final int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+    // 719468 is the amount of days from 0000-03-01 to 1970-01-01.
+    return era * 146097 + dayOfEra - 719468;
+  }
+
+  private static int daysInMonth(int year, int month) {
+    switch (month) {
+      case 2:
+        return (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+      case 4:
+      case 6:
+      case 9:
+      case 11:
+        return 30;
+      default:
+        return 31;
     }
-    return new GtfsDate(LocalDate.of(year, month, day));
   }
 
   public int getYear() {
@@ -16,8 +16,7 @@
 
 package org.mobilitydata.gtfsvalidator.type;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.nio.ByteBuffer;
 
 /**
  * Represents GTFS time.
@@ -26,7 +25,9 @@ import java.util.regex.Pattern;
  * days on which daylight savings time changes occur).
  */
 public class GtfsTime implements Comparable<GtfsTime> {
-  private static final Pattern HHMMCC_PATTERN = Pattern.compile("(\\d{1,3}):(\\d\\d):(\\d\\d)");
+  /** Returned by {@code parseSecondsSinceMidnight} for strings that are not valid times. */
+  public static final int INVALID_SECONDS = Integer.MIN_VALUE;
+
   private final int secondsSinceMidnight;
 
   private GtfsTime(int secondsSinceMidnight) {
@@ -57,15 +58,97 @@ public class GtfsTime implements Comparable<GtfsTime> {
    * @return GtfsTime object
    */
   public static GtfsTime fromString(String time) {
-    Matcher matcher = HHMMCC_PATTERN.matcher(time);
-    if (!matcher.matches()) {
+    final int secondsSinceMidnight = parseSecondsSinceMidnight(time);
+    if (secondsSinceMidnight == INVALID_SECONDS) {
       throw new IllegalArgumentException(
           "Time must have H:MM:SS, HH:MM:SS or HHH:MM:SS format: " + time);
     }
-    return fromHourMinuteSecond(
-        Integer.parseInt(matcher.group(1)),
-        Integer.parseInt(matcher.group(2)),
-        Integer.parseInt(matcher.group(3)));
+    return new GtfsTime(secondsSinceMidnight);
+  }
+
+  /**
+   * Parses time in H:MM:SS, HH:MM:SS or HHH:MM:SS format without creating any objects.
+   *
+   * @param time the string to parse
+   * @return seconds since midnight or {@link #INVALID_SECONDS} if the string is not a valid time
+   */
+  public static int parseSecondsSinceMidnight(CharSequence time) {
+    final int length = time.length();
+    final int hourDigits = length - 6;
+    if (hourDigits < 1 || hourDigits > 3) {
+      return INVALID_SECONDS;
+    }
+    final int colon = hourDigits;
+    if (time.charAt(colon) != ':' || time.charAt(colon + 3) != ':') {
+      return INVALID_SECONDS;
+    }
+    int hour = 0;
+    for (int i = 0; i < colon; ++i) {
+      final int digit = digit(time.charAt(i));
+      if (digit < 0) {
+        return INVALID_SECONDS;
+      }
+      hour = hour * 10 + digit;
+    }
+    return toSeconds(
+        hour,
+        digit(time.charAt(colon + 1)),
+        digit(time.charAt(colon + 2)),
+        digit(time.charAt(colon + 4)),
+        digit(time.charAt(colon + 5)));
+  }
+
+  /**
+   * Parses time in H:MM:SS, HH:MM:SS or HHH:MM:SS format from ASCII bytes without creating any
+   * objects.
+   *
+   * @param data the buffer that holds the bytes
+   * @param start offset of the first byte in the buffer
+   * @param end offset after the last byte in the buffer
+   * @return seconds since midnight or {@link #INVALID_SECONDS} if the bytes are not a valid time
+   */
+  public static int parseSecondsSinceMidnight(ByteBuffer data, int start, int end) {
+    final int hourDigits = end - start - 6;
+    if (hourDigits < 1 || hourDigits > 3) {
+      return INVALID_SECONDS;
+    }
+    final int colon = start + hourDigits;
+    if (data.get(colon) != ':' || data.get(colon + 3) != ':') {
+      return INVALID_SECONDS;
+    }
+    int hour = 0;
+    for (int i = start; i < colon; ++i) {
+      final int digit = digit(data.get(i));
+      if (digit < 0) {
+        return INVALID_SECONDS;
+      }
+      hour = hour * 10 + digit;
+    }
+    return toSeconds(
+        hour,
+        digit(data.get(colon + 1)),
+        digit(data.get(colon + 2)),
+        digit(data.get(colon + 4)),
+        digit(data.get(colon + 5)));
+  }
+
+  /** Returns the value of an ASCII decimal digit or -1 for any other character. */
+  private static int digit(int c) {
+    return c >= '0' && c <= '9' ? c - '0' : -1;
+  }
+
+  /** Combines hours with digits of minutes and seconds. A digit is -1 if it is not a digit. */
+  private static int toSeconds(
+      int hour, int minuteTens, int minuteOnes, int secondTens, int secondOnes) {
+    if (minuteTens < 0 || minuteOnes < 0 || secondTens < 0 || secondOnes < 0) {
+      return INVALID_SECONDS;
+    }
+    final int minute = minuteTens * 10 + minuteOnes;
+    final int second = secondTens * 10 + secondOnes;
+    if (minute >= 60 || second >= 60) {
+      return INVALID_SECONDS;
+    }
+    return hour * 3600 + minute * 60 + second;
   }
 
   public int getSecondsSinceMidnight() {
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2021 MobilityData IO
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.validator;
+
+import java.util.Collection;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Decides if a validator splits its work among threads.
+ *
+ * <p>Work is split only when the validator runs in a {@link java.util.concurrent.ForkJoinPool},
+ * as it does in {@code GtfsFeedLoader}. Parallel streams then run on the threads of that pool, so
+ * a validation uses no more threads than requested. Otherwise, e.g., in unit tests, work is done
+ * in the calling thread.
+ *
+ * <p>Ordered streams keep the order of their elements in both cases, so notices that are collected
+ * in order and added afterwards are reported in a stable order.
+ */
+public final class ParallelValidation {
+  private ParallelValidation() {}
+
+  /** Tells if work is split among the threads of the current pool. */
+  public static boolean isEnabled() {
+    return ForkJoinTask.inForkJoinPool();
+  }
+
+  /** Returns a stream of the items that is parallel if {@link #isEnabled}. */
+  public static <T> Stream<T> stream(Collection<T> items) {
+    return isEnabled() ? items.parallelStream() : items.stream();
+  }
+
+  /** Returns a range of integers that is parallel if {@link #isEnabled}. */
+  public static IntStream range(int startInclusive, int endExclusive) {
+    IntStream range = IntStream.range(startInclusive, endExclusive);
+    return isEnabled() ? range.parallel() : range;
+  }
+}
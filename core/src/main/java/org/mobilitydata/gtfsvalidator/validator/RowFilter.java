@@ -0,0 +1,56 @@
+/*
+ * Copyright 2021 MobilityData IO
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.validator;
+
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+/**
+ * Finds rows of a table that match a predicate, e.g., rows with a foreign key that is missing in
+ * the parent table.
+ *
+ * <p>Rows are split into chunks that are checked in parallel, see {@link ParallelValidation}.
+ * Matching rows are returned in the order of the table, so that callers add notices in a stable
+ * order.
+ */
+public final class RowFilter {
+  /** Amount of rows in a chunk. */
+  static final int CHUNK_SIZE = 4096;
+
+  private RowFilter() {}
+
+  /**
+   * Returns rows that match the predicate.
+   *
+   * @param rowCount amount of rows in the table
+   * @param predicate tells if a row matches, must be thread-safe
+   * @return positions of matching rows in ascending order
+   */
+  public static int[] findRows(int rowCount, IntPredicate predicate) {
+    if (!ParallelValidation.isEnabled() || rowCount <= CHUNK_SIZE) {
+      return IntStream.range(0, rowCount).filter(predicate).toArray();
+    }
+    // The ordered stream keeps the order of rows.
+    final int chunkCount = (rowCount + CHUNK_SIZE - 1) / CHUNK_SIZE;
+    return ParallelValidation.range(0, chunkCount)
+        .flatMap(
+            chunk ->
+                IntStream.range(chunk * CHUNK_SIZE, Math.min(rowCount, (chunk + 1) * CHUNK_SIZE))
+                    .filter(predicate))
+        .toArray();
+  }
+}
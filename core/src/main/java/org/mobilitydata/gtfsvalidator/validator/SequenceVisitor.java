@@ -0,0 +1,58 @@
+/*
+ * Copyright 2021 MobilityData IO
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.validator;
+
+import java.util.List;
+import org.mobilitydata.gtfsvalidator.notice.NoticeContainer;
+import org.mobilitydata.gtfsvalidator.table.GtfsEntity;
+import org.mobilitydata.gtfsvalidator.table.GtfsTableContainer;
+
+/**
+ * Base class for validators that check every sequence of a table on its own, e.g., stop times of
+ * a single trip sorted by stop_sequence.
+ *
+ * <p>Visitors of the same table are registered with {@code @GtfsValidator} and run together by
+ * {@link SequenceVisitorValidator}, which walks the sequences once and passes every sequence to
+ * all visitors while it is still in cache. Other tables and {@link ValidationContext} are injected
+ * with {@code @Inject} as for {@link FileValidator}.
+ *
+ * <p>Sequences are visited concurrently by several threads, so {@link #visit} must not modify the
+ * state of the visitor.
+ *
+ * @param <T> subclass of {@code GtfsEntity} that has a sequence key, e.g., {@code GtfsStopTime}
+ */
+public abstract class SequenceVisitor<T extends GtfsEntity> {
+  /**
+   * Validates a single sequence.
+   *
+   * @param sequence entities with the same first key, sorted by the sequence key, never empty
+   * @param noticeContainer container for notices about the sequence
+   */
+  public abstract void visit(List<T> sequence, NoticeContainer noticeContainer);
+
+  /**
+   * Visits all sequences of a table in the current thread, e.g., in tests.
+   *
+   * @param table table to validate
+   * @param noticeContainer container for notices
+   */
+  public void visitAll(GtfsTableContainer<T> table, NoticeContainer noticeContainer) {
+    for (List<T> sequence : table.getSequences()) {
+      visit(sequence, noticeContainer);
+    }
+  }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2021 MobilityData IO
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.validator;
+
+import static java.util.stream.Collectors.toList;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.mobilitydata.gtfsvalidator.notice.NoticeContainer;
+import org.mobilitydata.gtfsvalidator.notice.RuntimeExceptionInValidatorError;
+import org.mobilitydata.gtfsvalidator.table.GtfsEntity;
+import org.mobilitydata.gtfsvalidator.table.GtfsTableContainer;
+
+/**
+ * Runs all {@link SequenceVisitor} validators of a table in a single pass over its sequences.
+ *
+ * <p>Sequences are split into small batches. Every visitor walks a batch before the next visitor
+ * does, so the entities of the batch are read from memory once and stay in cache for the other
+ * visitors. The time of every visitor is summed over batches and recorded in {@link
+ * ValidationMetrics} as a single run.
+ *
+ * <p>Batches are independent, so they are visited in parallel, see {@link ParallelValidation}.
+ * Notices are added in the order of sequences.
+ *
+ * <p>A visitor that throws a runtime exception is reported once with {@link
+ * RuntimeExceptionInValidatorError} and is not called for the following batches.
+ *
+ * @param <T> subclass of {@code GtfsEntity} that has a sequence key
+ */
+public class SequenceVisitorValidator<T extends GtfsEntity> extends FileValidator {
+  /** Amount of sequences in a batch, e.g., trips whose stop times fit into a core's cache. */
+  static final int BATCH_SIZE = 256;
+
+  private final GtfsTableContainer<T> table;
+  private final List<SequenceVisitor<T>> visitors;
+  private final ValidationMetrics metrics;
+  private final Set<SequenceVisitor<T>> failedVisitors = ConcurrentHashMap.newKeySet();
+
+  /** Wall and CPU time of every visitor, summed over batches, in the order of visitors. */
+  private final LongAdder[] wallNanos;
+
+  private final LongAdder[] cpuNanos;
+
+  /**
+   * Creates a validator.
+   *
+   * @param table table whose sequences are visited
+   * @param visitors visitors of the sequences, with their dependencies injected
+   * @param metrics metrics to record time of every visitor
+   */
+  public SequenceVisitorValidator(
+      GtfsTableContainer<T> table, List<SequenceVisitor<T>> visitors, ValidationMetrics metrics) {
+    this.table = table;
+    this.visitors = visitors;
+    this.metrics = metrics;
+    this.wallNanos = new LongAdder[visitors.size()];
+    this.cpuNanos = new LongAdder[visitors.size()];
+    for (int i = 0; i < visitors.size(); ++i) {
+      wallNanos[i] = new LongAdder();
+      cpuNanos[i] = new LongAdder();
+    }
+  }
+
+  @Override
+  public void validate(NoticeContainer noticeContainer) {
+    try {
+      visitSequences(noticeContainer);
+    } finally {
+      for (int i = 0; i < visitors.size(); ++i) {
+        metrics.recordValidator(
+            visitors.get(i).getClass().getCanonicalName(),
+            wallNanos[i].sumThenReset(),
+            cpuNanos[i].sumThenReset());
+      }
+    }
+  }
+
+  private void visitSequences(NoticeContainer noticeContainer) {
+    final List<List<T>> sequences = new ArrayList<>(table.getSequences());
+    final int batchCount = (sequences.size() + BATCH_SIZE - 1) / BATCH_SIZE;
+    if (!ParallelValidation.isEnabled()) {
+      for (int batch = 0; batch < batchCount; ++batch) {
+        visitBatch(getBatch(sequences, batch), noticeContainer);
+      }
+      return;
+    }
+    // Notices are collected per batch and added in the order of batches, since NoticeContainer is
+    // not thread-safe.
+    List<NoticeContainer> noticesByBatch =
+        ParallelValidation.range(0, batchCount)
+            .mapToObj(
+                batch -> {
+                  NoticeContainer batchNotices =
+                      new NoticeContainer(noticeContainer.getMaxNoticesPerType());
+                  visitBatch(getBatch(sequences, batch), batchNotices);
+                  return batchNotices;
+                })
+            .collect(toList());
+    for (NoticeContainer batchNotices : noticesByBatch) {
+      noticeContainer.addAll(batchNotices);
+    }
+  }
+
+  private static <T> List<List<T>> getBatch(List<List<T>> sequences, int batch) {
+    return sequences.subList(
+        batch * BATCH_SIZE, Math.min(sequences.size(), (batch + 1) * BATCH_SIZE));
+  }
+
+  private void visitBatch(List<List<T>> batch, NoticeContainer noticeContainer) {
+    for (int i = 0; i < visitors.size(); ++i) {
+      final SequenceVisitor<T> visitor = visitors.get(i);
+      if (failedVisitors.contains(visitor)) {
+        continue;
+      }
+      final long startCpuNanos = ValidationMetrics.currentThreadCpuNanos();
+      final long startNanos = System.nanoTime();
+      try {
+        for (List<T> sequence : batch) {
+          visitor.visit(sequence, noticeContainer);
+        }
+      } catch (RuntimeException e) {
+        if (failedVisitors.add(visitor)) {
+          noticeContainer.addSystemError(
+              new RuntimeExceptionInValidatorError(
+                  visitor.getClass().getCanonicalName(),
+                  e.getClass().getCanonicalName(),
+                  e.getMessage()));
+        }
+      } finally {
+        wallNanos[i].add(System.nanoTime() - startNanos);
+        cpuNanos[i].add(ValidationMetrics.currentThreadCpuNanos() - startCpuNanos);
+      }
+    }
+  }
+}
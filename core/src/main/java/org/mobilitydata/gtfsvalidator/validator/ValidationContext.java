@@ -3,6 +3,8 @@ package org.mobilitydata.gtfsvalidator.validator;
 import com.google.auto.value.AutoValue;
 import java.time.ZonedDateTime;
 import org.mobilitydata.gtfsvalidator.input.GtfsFeedName;
+import org.mobilitydata.gtfsvalidator.notice.NoticeContainer;
+import org.mobilitydata.gtfsvalidator.table.IdDictionary;
 
 /**
  * A read-only context passed to particular validator objects. It gives information relevant for
@@ -11,7 +13,10 @@ import org.mobilitydata.gtfsvalidator.input.GtfsFeedName;
 @AutoValue
 public abstract class ValidationContext {
   public static Builder builder() {
-    return new AutoValue_ValidationContext.Builder();
+    return new AutoValue_ValidationContext.Builder()
+        .setMetrics(new ValidationMetrics())
+        .setIdDictionary(new IdDictionary())
+        .setMaxNoticesPerType(NoticeContainer.DEFAULT_MAX_NOTICES_PER_TYPE);
   }
 
   /**
@@ -36,12 +41,53 @@ public abstract class ValidationContext {
    */
   public abstract ZonedDateTime now();
 
+  /**
+   * Timing and throughput of the validation that loaders and validators record.
+   *
+   * <p>A new instance is created by {@link #builder()}, so every validation has its own metrics.
+   *
+   * @return metrics of the validation
+   */
+  public abstract ValidationMetrics metrics();
+
+  /**
+   * Dictionary of IDs shared by all tables of the feed.
+   *
+   * <p>Loaders intern IDs through it, so that equal IDs from different tables share the same
+   * string and ordinal. A new instance is created by {@link #builder()}.
+   *
+   * @return the ID dictionary of the feed
+   */
+  public abstract IdDictionary idDictionary();
+
+  /**
+   * Maximum amount of notices of a single code and severity that are kept for the report, see
+   * {@link NoticeContainer#NoticeContainer(int)}.
+   *
+   * @return the cap of notices per type
+   */
+  public abstract int maxNoticesPerType();
+
+  /**
+   * Creates an empty notice container with the cap of this validation, e.g., for notices of a
+   * single thread that are merged into the container of the feed.
+   */
+  public NoticeContainer newNoticeContainer() {
+    return new NoticeContainer(maxNoticesPerType());
+  }
+
   @AutoValue.Builder
   public abstract static class Builder {
     public abstract Builder setFeedName(GtfsFeedName feedName);
 
     public abstract Builder setNow(ZonedDateTime now);
 
+    public abstract Builder setMetrics(ValidationMetrics metrics);
+
+    public abstract Builder setIdDictionary(IdDictionary idDictionary);
+
+    public abstract Builder setMaxNoticesPerType(int maxNoticesPerType);
+
     public abstract ValidationContext build();
   }
 }
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2021 MobilityData IO
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.validator;
+
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Map;
+import java.util.TreeMap;
+import org.mobilitydata.gtfsvalidator.notice.NoticeContainer;
+
+/**
+ * Timing and throughput of a single validation, written to metrics.json next to the report.
+ *
+ * <p>Table loaders record the amount of bytes and rows of every file, the time to parse them, to
+ * run single-entity validators and to build indices of the table. File validators are recorded
+ * with their wall and CPU time, so that a validator that regressed between releases is easy to
+ * spot.
+ *
+ * <p>The class is thread-safe: tables and validators are recorded from the threads that load and
+ * validate them.
+ */
+public class ValidationMetrics {
+  private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+  /** Metrics of loaded tables keyed by filename. */
+  private final Map<String, TableMetrics> tables = new TreeMap<>();
+
+  /** Metrics of file validators keyed by class name. */
+  private final Map<String, ValidatorMetrics> validators = new TreeMap<>();
+
+  /**
+   * Records parsing of a table.
+   *
+   * @param filename name of the file, e.g., "stops.txt"
+   * @param bytesRead amount of bytes read from the file
+   * @param rowCount amount of parsed rows
+   * @param parseNanos wall time to parse all chunks of the file, including single-entity
+   *     validators
+   * @param singleEntityValidatorNanos time spent in single-entity validators, summed over all
+   *     threads that parsed chunks of the file
+   */
+  public synchronized void recordTableParsed(
+      String filename,
+      long bytesRead,
+      long rowCount,
+      long parseNanos,
+      long singleEntityValidatorNanos) {
+    TableMetrics table = getTable(filename);
+    table.bytesRead += bytesRead;
+    table.rowCount += rowCount;
+    table.parseNanos += parseNanos;
+    table.singleEntityValidatorNanos += singleEntityValidatorNanos;
+  }
+
+  /**
+   * Records creation of a table container, which builds its indices in {@code setupIndices}.
+   *
+   * @param filename name of the file, e.g., "stops.txt"
+   * @param indexNanos wall time to create the container
+   */
+  public synchronized void recordTableIndexed(String filename, long indexNanos) {
+    getTable(filename).indexNanos += indexNanos;
+  }
+
+  private TableMetrics getTable(String filename) {
+    return tables.computeIfAbsent(filename, unused -> new TableMetrics());
+  }
+
+  /**
+   * Runs a file validator in the current thread and records its wall and CPU time.
+   *
+   * <p>Runtime exceptions of the validator are passed to the caller.
+   *
+   * @param validator validator to run
+   * @param noticeContainer container for notices of the validator
+   */
+  public void runFileValidator(FileValidator validator, NoticeContainer noticeContainer) {
+    runTimed(validator.getClass().getCanonicalName(), () -> validator.validate(noticeContainer));
+  }
+
+  /**
+   * Runs a part of validation in the current thread and records its wall and CPU time as a run of
+   * the given validator.
+   *
+   * <p>Runtime exceptions of the validation are passed to the caller.
+   *
+   * @param validatorName canonical name of the validator class
+   * @param validation the code to run
+   */
+  public void runTimed(String validatorName, Runnable validation) {
+    final long startCpuNanos = currentThreadCpuNanos();
+    final long startNanos = System.nanoTime();
+    try {
+      validation.run();
+    } finally {
+      recordValidator(
+          validatorName, System.nanoTime() - startNanos, currentThreadCpuNanos() - startCpuNanos);
+    }
+  }
+
+  /**
+   * Records a single run of a file validator.
+   *
+   * @param validatorName canonical name of the validator class
+   * @param wallNanos wall time of the run
+   * @param cpuNanos CPU time of the thread that ran the validator
+   */
+  public synchronized void recordValidator(String validatorName, long wallNanos, long cpuNanos) {
+    ValidatorMetrics validator =
+        validators.computeIfAbsent(validatorName, unused -> new ValidatorMetrics());
+    ++validator.runCount;
+    validator.wallNanos += wallNanos;
+    validator.cpuNanos += cpuNanos;
+  }
+
+  /** Returns CPU time of the current thread or 0 if the JVM does not measure it. */
+  static long currentThreadCpuNanos() {
+    return THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported()
+        ? THREAD_MX_BEAN.getCurrentThreadCpuTime()
+        : 0;
+  }
+
+  /**
+   * Writes the metrics and the amount of validation notices of every code as JSON.
+   *
+   * <p>Tables and validators are sorted by name, so that metrics of two runs can be compared
+   * line by line. The writer is flushed but not closed.
+   *
+   * @param noticeContainer notices of the validation
+   * @param writer destination of the JSON
+   */
+  public synchronized void exportJson(NoticeContainer noticeContainer, Writer writer)
+      throws IOException {
+    JsonWriter jsonWriter = new JsonWriter(writer);
+    jsonWriter.setIndent("  ");
+    jsonWriter.beginObject();
+
+    jsonWriter.name("tables").beginArray();
+    for (Map.Entry<String, TableMetrics> entry : tables.entrySet()) {
+      final TableMetrics table = entry.getValue();
+      jsonWriter.beginObject();
+      jsonWriter.name("filename").value(entry.getKey());
+      jsonWriter.name("bytesRead").value(table.bytesRead);
+      jsonWriter.name("rowCount").value(table.rowCount);
+      jsonWriter.name("parseMillis").value(toMillis(table.parseNanos));
+      jsonWriter
+          .name("rowsPerSecond")
+          .value(table.parseNanos > 0 ? Math.round(table.rowCount * 1e9 / table.parseNanos) : 0);
+      jsonWriter
+          .name("singleEntityValidatorMillis")
+          .value(toMillis(table.singleEntityValidatorNanos));
+      jsonWriter.name("indexMillis").value(toMillis(table.indexNanos));
+      jsonWriter.endObject();
+    }
+    jsonWriter.endArray();
+
+    jsonWriter.name("validators").beginArray();
+    for (Map.Entry<String, ValidatorMetrics> entry : validators.entrySet()) {
+      final ValidatorMetrics validator = entry.getValue();
+      jsonWriter.beginObject();
+      jsonWriter.name("validator").value(entry.getKey());
+      jsonWriter.name("runCount").value(validator.runCount);
+      jsonWriter.name("wallMillis").value(toMillis(validator.wallNanos));
+      jsonWriter.name("cpuMillis").value(toMillis(validator.cpuNanos));
+      jsonWriter.endObject();
+    }
+    jsonWriter.endArray();
+
+    jsonWriter.name("noticeCounts").beginObject();
+    for (Map.Entry<String, Long> entry :
+        noticeContainer.countValidationNoticesByCode().entrySet()) {
+      jsonWriter.name(entry.getKey()).value(entry.getValue());
+    }
+    jsonWriter.endObject();
+
+    jsonWriter.endObject();
+    jsonWriter.flush();
+  }
+
+  /** Converts nanoseconds to milliseconds rounded to microseconds. */
+  private static double toMillis(long nanos) {
+    return Math.round(nanos / 1e3) / 1e3;
+  }
+
+  private static final class TableMetrics {
+    long bytesRead;
+    long rowCount;
+    long parseNanos;
+    long singleEntityValidatorNanos;
+    long indexNanos;
+  }
+
+  private static final class ValidatorMetrics {
+    int runCount;
+    long wallNanos;
+    long cpuNanos;
+  }
+}
@@ -18,17 +18,27 @@ package org.mobilitydata.gtfsvalidator.validator;
 
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Sets;
 import com.google.common.flogger.FluentLogger;
 import com.google.common.reflect.ClassPath;
 import java.io.IOException;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.function.Predicate;
+import javax.annotation.Nullable;
 import javax.inject.Inject;
+import org.mobilitydata.gtfsvalidator.annotation.ForeignKeyValidator;
 import org.mobilitydata.gtfsvalidator.annotation.GtfsValidator;
 import org.mobilitydata.gtfsvalidator.notice.NoticeContainer;
 import org.mobilitydata.gtfsvalidator.table.GtfsEntity;
@@ -47,8 +57,19 @@ public class ValidatorLoader {
   private final ListMultimap<Class<? extends GtfsTableContainer>, Class<? extends FileValidator>>
       singleFileValidators = ArrayListMultimap.create();
   private final List<Class<? extends FileValidator>> multiFileValidators = new ArrayList<>();
+  private final ListMultimap<Class<? extends GtfsEntity>, Class<? extends SequenceVisitor<?>>>
+      sequenceVisitors = ArrayListMultimap.create();
 
   public ValidatorLoader() {
+    this(validatorClass -> true);
+  }
+
+  /**
+   * Loads only the validators accepted by a filter, e.g., for quick pre-flight checks.
+   *
+   * @param validatorFilter tells if a class annotated with {@code @GtfsValidator} is enabled
+   */
+  public ValidatorLoader(Predicate<Class<?>> validatorFilter) {
     List<Class<? extends SingleEntityValidator>> singleEntityValidatorClasses = new ArrayList<>();
     List<Class<? extends FileValidator>> fileValidatorClasses = new ArrayList<>();
     ClassPath classPath;
@@ -60,11 +81,13 @@ public class ValidatorLoader {
     for (ClassPath.ClassInfo classInfo :
         classPath.getTopLevelClassesRecursive("org.mobilitydata.gtfsvalidator.validator")) {
       Class<?> clazz = classInfo.load();
-      if (clazz.isAnnotationPresent(GtfsValidator.class)) {
+      if (clazz.isAnnotationPresent(GtfsValidator.class) && validatorFilter.test(clazz)) {
         if (SingleEntityValidator.class.isAssignableFrom(clazz)) {
           singleEntityValidatorClasses.add((Class<? extends SingleEntityValidator>) clazz);
         } else if (FileValidator.class.isAssignableFrom(clazz)) {
           fileValidatorClasses.add((Class<? extends FileValidator>) clazz);
+        } else if (SequenceVisitor.class.isAssignableFrom(clazz)) {
+          addSequenceVisitor((Class<? extends SequenceVisitor<?>>) clazz);
         }
       }
     }
@@ -106,6 +129,56 @@ public class ValidatorLoader {
     }
   }
 
+  /**
+   * Loads the validators accepted by a filter and the generated foreign key validators of the
+   * tables that they read.
+   *
+   * <p>A foreign key validator is enabled if its child table is read by an accepted validator, so
+   * that references of every checked table are still verified. Its parent table is then read as
+   * well. Foreign key validators are recognized by {@link ForeignKeyValidator}, the filter is not
+   * applied to them.
+   *
+   * @param validatorFilter tells if a validator that is not generated for a foreign key is enabled
+   * @param tableContainerClasses classes of table containers keyed by class of their entities
+   * @return the loader
+   */
+  public static ValidatorLoader createWithForeignKeyValidators(
+      Predicate<Class<?>> validatorFilter,
+      Map<Class<? extends GtfsEntity>, Class<? extends GtfsTableContainer>>
+          tableContainerClasses) {
+    final Set<Class<? extends GtfsTableContainer>> readTables =
+        new ValidatorLoader(
+                validatorClass ->
+                    !isForeignKeyValidator(validatorClass)
+                        && validatorFilter.test(validatorClass))
+            .getReferencedTables(tableContainerClasses);
+    return new ValidatorLoader(
+        validatorClass ->
+            isForeignKeyValidator(validatorClass)
+                ? readTables.contains(
+                    validatorClass.getAnnotation(ForeignKeyValidator.class).childTable())
+                : validatorFilter.test(validatorClass));
+  }
+
+  private static boolean isForeignKeyValidator(Class<?> validatorClass) {
+    return validatorClass.isAnnotationPresent(ForeignKeyValidator.class);
+  }
+
+  /** Registers a visitor for the entity class that it extends {@code SequenceVisitor} with. */
+  private void addSequenceVisitor(Class<? extends SequenceVisitor<?>> visitorClass) {
+    Type superclass = visitorClass.getGenericSuperclass();
+    if (!(superclass instanceof ParameterizedType)
+        || ((ParameterizedType) superclass).getRawType() != SequenceVisitor.class) {
+      logger.atSevere().log(
+          "Sequence visitor %s must extend SequenceVisitor<T> directly",
+          visitorClass.getCanonicalName());
+      return;
+    }
+    sequenceVisitors.put(
+        (Class<? extends GtfsEntity>) ((ParameterizedType) superclass).getActualTypeArguments()[0],
+        visitorClass);
+  }
+
   private static boolean isTableInjectableField(Field field) {
     return field.isAnnotationPresent(Inject.class)
         && GtfsTableContainer.class.isAssignableFrom(field.getType());
@@ -163,7 +236,8 @@ public class ValidatorLoader {
   }
 
   /**
-   * Invokes single-file validators on a given table.
+   * Invokes single-file validators on a given table and records their time in {@link
+   * ValidationContext#metrics()}.
    *
    * @param table GTFS table to validate
    * @param validationContext context to pass to all validators
@@ -184,7 +258,7 @@ public class ValidatorLoader {
             "Cannot instantiate validator %s", validatorClass.getCanonicalName());
         continue;
       }
-      validator.validate(noticeContainer);
+      validationContext.metrics().runFileValidator(validator, noticeContainer);
     }
   }
 
@@ -211,12 +285,10 @@ public class ValidatorLoader {
     return validator;
   }
 
-  private FileValidator createValidator(
-      Class<? extends FileValidator> clazz,
-      GtfsFeedContainer feed,
-      ValidationContext validationContext)
+  private <V> V createValidator(
+      Class<? extends V> clazz, GtfsFeedContainer feed, ValidationContext validationContext)
       throws ReflectiveOperationException {
-    FileValidator validator = clazz.getConstructor().newInstance();
+    V validator = clazz.getConstructor().newInstance();
     for (Field field : clazz.getDeclaredFields()) {
       if (maybeInjectValidatorContext(validator, field, validationContext)) {
         continue;
@@ -253,14 +325,135 @@ public class ValidatorLoader {
     ArrayList<FileValidator> validators = new ArrayList<>();
     validators.ensureCapacity(multiFileValidators.size());
     for (Class<? extends FileValidator> validatorClass : multiFileValidators) {
+      FileValidator validator = createMultiFileValidator(validatorClass, feed, validationContext);
+      if (validator != null) {
+        validators.add(validator);
+      }
+    }
+    return validators;
+  }
+
+  /** Returns classes of all validators that inject either several tables or none. */
+  public List<Class<? extends FileValidator>> getMultiFileValidators() {
+    return Collections.unmodifiableList(multiFileValidators);
+  }
+
+  /**
+   * Returns the tables that enabled validators read.
+   *
+   * <p>These are the tables injected into file validators and sequence visitors, and the tables
+   * whose entities are checked by single-entity validators or visited by sequence visitors. Other
+   * tables do not need to be loaded.
+   *
+   * @param tableContainerClasses classes of table containers keyed by class of their entities
+   * @return classes of table containers
+   */
+  public Set<Class<? extends GtfsTableContainer>> getReferencedTables(
+      Map<Class<? extends GtfsEntity>, Class<? extends GtfsTableContainer>>
+          tableContainerClasses) {
+    Set<Class<? extends GtfsTableContainer>> tables = new HashSet<>();
+    tables.addAll(singleFileValidators.keySet());
+    for (Class<? extends FileValidator> validatorClass : multiFileValidators) {
+      tables.addAll(getTableDependencies(validatorClass));
+    }
+    for (Class<? extends GtfsEntity> entityClass :
+        Sets.union(singleEntityValidators.keySet(), sequenceVisitors.keySet())) {
+      Class<? extends GtfsTableContainer> tableClass = tableContainerClasses.get(entityClass);
+      if (tableClass != null) {
+        tables.add(tableClass);
+      }
+      tables.addAll(getSequenceVisitorDependencies(entityClass));
+    }
+    return tables;
+  }
+
+  /**
+   * Returns the tables that a file validator or a sequence visitor depends on, i.e., the types of
+   * its fields that are annotated with {@code @Inject}.
+   *
+   * @param validatorClass class of the validator
+   * @return classes of table containers, one per injected field
+   */
+  public static List<Class<? extends GtfsTableContainer>> getTableDependencies(
+      Class<?> validatorClass) {
+    List<Class<? extends GtfsTableContainer>> dependencies = new ArrayList<>();
+    for (Field field : validatorClass.getDeclaredFields()) {
+      if (isTableInjectableField(field)) {
+        dependencies.add((Class<? extends GtfsTableContainer>) field.getType());
+      }
+    }
+    return dependencies;
+  }
+
+  /**
+   * Creates a single multi-file validator.
+   *
+   * @param validatorClass class of the validator
+   * @param feed container that has all tables the validator depends on, it may miss other tables
+   * @param validationContext context to pass to the validator
+   * @return the validator or null if it cannot be instantiated
+   */
+  @Nullable
+  public FileValidator createMultiFileValidator(
+      Class<? extends FileValidator> validatorClass,
+      GtfsFeedContainer feed,
+      ValidationContext validationContext) {
+    try {
+      return createValidator(validatorClass, feed, validationContext);
+    } catch (ReflectiveOperationException e) {
+      logger.atSevere().withCause(e).log(
+          "Cannot instantiate validator %s", validatorClass.getCanonicalName());
+      return null;
+    }
+  }
+
+  /** Returns classes of entities whose sequences are checked by at least one visitor. */
+  public List<Class<? extends GtfsEntity>> getVisitedEntityClasses() {
+    return new ArrayList<>(sequenceVisitors.keySet());
+  }
+
+  /**
+   * Returns the tables that visitors of an entity class inject, without the visited table itself.
+   *
+   * @param entityClass class of the visited entities, e.g., {@code GtfsStopTime}
+   * @return classes of table containers in the order of the visitors
+   */
+  public List<Class<? extends GtfsTableContainer>> getSequenceVisitorDependencies(
+      Class<? extends GtfsEntity> entityClass) {
+    LinkedHashSet<Class<? extends GtfsTableContainer>> dependencies = new LinkedHashSet<>();
+    for (Class<? extends SequenceVisitor<?>> visitorClass : sequenceVisitors.get(entityClass)) {
+      dependencies.addAll(getTableDependencies(visitorClass));
+    }
+    return new ArrayList<>(dependencies);
+  }
+
+  /**
+   * Creates a validator that runs all visitors of sequences of a table in a single pass, see
+   * {@link SequenceVisitorValidator}.
+   *
+   * <p>Visitors that cannot be instantiated are logged and skipped.
+   *
+   * @param table the visited table
+   * @param feed container that has all tables the visitors depend on, it may miss other tables
+   * @param validationContext context to pass to the visitors
+   * @param <T> type of the visited entities
+   * @return the validator
+   */
+  public <T extends GtfsEntity> FileValidator createSequenceVisitorValidator(
+      GtfsTableContainer<T> table, GtfsFeedContainer feed, ValidationContext validationContext) {
+    List<SequenceVisitor<T>> visitors = new ArrayList<>();
+    for (Class<? extends SequenceVisitor<?>> visitorClass :
+        sequenceVisitors.get(table.getEntityClass())) {
       try {
-        validators.add(createValidator(validatorClass, feed, validationContext));
+        visitors.add(
+            createValidator(
+                (Class<? extends SequenceVisitor<T>>) visitorClass, feed, validationContext));
       } catch (ReflectiveOperationException e) {
         logger.atSevere().withCause(e).log(
-            "Cannot instantiate validator %s", validatorClass.getCanonicalName());
+            "Cannot instantiate validator %s", visitorClass.getCanonicalName());
       }
     }
-    return validators;
+    return new SequenceVisitorValidator<>(table, visitors, validationContext.metrics());
   }
 
   public String listValidators() {
@@ -295,6 +488,17 @@ public class ValidatorLoader {
       }
       builder.append("\n");
     }
+    if (!sequenceVisitors.isEmpty()) {
+      builder.append("Sequence visitors\n");
+      for (Entry<Class<? extends GtfsEntity>, Collection<Class<? extends SequenceVisitor<?>>>>
+          entry : sequenceVisitors.asMap().entrySet()) {
+        builder.append("\t").append(entry.getKey().getSimpleName()).append(": ");
+        for (Class<? extends SequenceVisitor<?>> visitorClass : entry.getValue()) {
+          builder.append(visitorClass.getSimpleName()).append(" ");
+        }
+        builder.append("\n");
+      }
+    }
     return builder.toString();
   }
 }
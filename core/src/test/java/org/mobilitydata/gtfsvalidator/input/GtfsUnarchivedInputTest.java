@@ -20,6 +20,8 @@ import static com.google.common.truth.Truth.assertThat;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
@@ -51,4 +53,18 @@ public class GtfsUnarchivedInputTest {
     GtfsInput gtfsInput = GtfsInput.createFromPath(rootDir.toPath());
     assertThat(gtfsInput.getFilenames()).containsExactly("noext");
   }
+
+  @Test
+  public void fileRegion() throws IOException {
+    File rootDir = tmpDir.newFolder("unarchived");
+    Files.write(
+        tmpDir.newFile("unarchived/stops.txt").toPath(),
+        "stop_id\ns1\n".getBytes(StandardCharsets.UTF_8));
+
+    GtfsInput gtfsInput = GtfsInput.createFromPath(rootDir.toPath());
+    try (GtfsFileRegion region = gtfsInput.getFileRegion("stops.txt")) {
+      assertThat(region.getOffset()).isEqualTo(0);
+      assertThat(region.getSize()).isEqualTo(11);
+    }
+  }
 }
@@ -21,6 +21,10 @@ import static com.google.common.truth.Truth.assertThat;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 import org.junit.Rule;
@@ -64,4 +68,39 @@ public class GtfsZipFileInputTest {
     GtfsInput gtfsInput = GtfsInput.createFromPath(zipFile.toPath());
     assertThat(gtfsInput.getFilenames()).containsExactly("noext");
   }
+
+  @Test
+  public void storedEntryHasFileRegion() throws IOException {
+    byte[] stops = "stop_id\ns1\n".getBytes(StandardCharsets.UTF_8);
+    File zipFile = tmpDir.newFile("archived.zip");
+    ZipOutputStream out = new ZipOutputStream(new FileOutputStream(zipFile));
+
+    out.putNextEntry(new ZipEntry("agency.txt"));
+    out.write("agency_id\n".getBytes(StandardCharsets.UTF_8));
+    out.closeEntry();
+
+    ZipEntry stored = new ZipEntry("stops.txt");
+    stored.setMethod(ZipEntry.STORED);
+    stored.setSize(stops.length);
+    CRC32 crc = new CRC32();
+    crc.update(stops);
+    stored.setCrc(crc.getValue());
+    out.putNextEntry(stored);
+    out.write(stops);
+    out.closeEntry();
+
+    out.close();
+
+    GtfsInput gtfsInput = GtfsInput.createFromPath(zipFile.toPath());
+    // Compressed entries may be only streamed.
+    assertThat(gtfsInput.getFileRegion("agency.txt")).isNull();
+    try (GtfsFileRegion region = gtfsInput.getFileRegion("stops.txt")) {
+      assertThat(region.getSize()).isEqualTo(stops.length);
+      ByteBuffer mapped =
+          region.getChannel().map(MapMode.READ_ONLY, region.getOffset(), region.getSize());
+      byte[] actual = new byte[stops.length];
+      mapped.get(actual);
+      assertThat(actual).isEqualTo(stops);
+    }
+  }
 }
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.input;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.google.common.io.ByteStreams;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class GtfsZipStreamingInputTest {
+  @Rule public final TemporaryFolder tmpDir = new TemporaryFolder();
+
+  private static final String AGENCY = "agency_id,agency_name\nA1,Agency\n";
+  private static final String STOPS = "stop_id,stop_name\ns1,First stop\n";
+
+  /** Released by the test when it has read the first files of the archive. */
+  private final CountDownLatch firstFileVisited = new CountDownLatch(1);
+
+  /** Tells if the stub server was still sending the archive when agency.txt was read. */
+  private final AtomicBoolean visitedDuringDownload = new AtomicBoolean();
+
+  private HttpServer server;
+  private byte[] archive;
+
+  private static byte[] createArchive() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ZipOutputStream out = new ZipOutputStream(bytes)) {
+      out.putNextEntry(new ZipEntry("agency.txt"));
+      out.write(AGENCY.getBytes(StandardCharsets.UTF_8));
+      out.closeEntry();
+      out.putNextEntry(new ZipEntry("stops.txt"));
+      out.write(STOPS.getBytes(StandardCharsets.UTF_8));
+      out.closeEntry();
+      out.putNextEntry(new ZipEntry("nested/file.txt"));
+      out.closeEntry();
+      // Random bytes are not compressible, so the archive is large enough to be sent in parts.
+      byte[] filler = new byte[256 * 1024];
+      new Random(1).nextBytes(filler);
+      out.putNextEntry(new ZipEntry("shapes.txt"));
+      out.write(filler);
+      out.closeEntry();
+    }
+    return bytes.toByteArray();
+  }
+
+  @Before
+  public void startServer() throws IOException {
+    archive = createArchive();
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext(
+        "/gtfs.zip",
+        exchange -> {
+          exchange.sendResponseHeaders(200, archive.length);
+          try (OutputStream body = exchange.getResponseBody()) {
+            // Send the first half of the archive and wait until the client reads agency.txt.
+            int half = archive.length / 2;
+            body.write(archive, 0, half);
+            body.flush();
+            try {
+              visitedDuringDownload.set(firstFileVisited.await(10, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+            body.write(archive, half, archive.length - half);
+          }
+        });
+    server.createContext(
+        "/dropped.zip",
+        exchange -> {
+          exchange.sendResponseHeaders(200, archive.length);
+          // Send the first half of the archive and drop the connection when the client has read
+          // the files in that half.
+          OutputStream body = exchange.getResponseBody();
+          body.write(archive, 0, archive.length / 2);
+          body.flush();
+          try {
+            firstFileVisited.await(10, TimeUnit.SECONDS);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          exchange.close();
+        });
+    server.createContext(
+        "/missing.zip",
+        exchange -> {
+          byte[] page = "Not found".getBytes(StandardCharsets.UTF_8);
+          exchange.sendResponseHeaders(404, page.length);
+          try (OutputStream body = exchange.getResponseBody()) {
+            body.write(page);
+          }
+        });
+    server.start();
+  }
+
+  @After
+  public void stopServer() {
+    server.stop(0);
+  }
+
+  private URL archiveUrl() throws IOException {
+    return new URL("http://localhost:" + server.getAddress().getPort() + "/gtfs.zip");
+  }
+
+  @Test
+  public void visitFilesWhileDownloading() throws Exception {
+    GtfsInput gtfsInput =
+        GtfsInput.createFromUrlStreaming(
+            archiveUrl(), tmpDir.getRoot().toPath().resolve("gtfs.zip").toString());
+    assertThat(gtfsInput.isSequential()).isTrue();
+
+    Map<String, Integer> visited = new LinkedHashMap<>();
+    gtfsInput.visitFiles(
+        (filename, content) -> {
+          byte[] bytes = ByteStreams.toByteArray(content);
+          visited.put(filename, bytes.length);
+          if (filename.equals("agency.txt")) {
+            assertThat(new String(bytes, StandardCharsets.UTF_8)).isEqualTo(AGENCY);
+            firstFileVisited.countDown();
+          }
+        });
+
+    assertThat(visitedDuringDownload.get()).isTrue();
+    assertThat(visited)
+        .containsExactly(
+            "agency.txt", AGENCY.length(), "stops.txt", STOPS.length(), "shapes.txt", 256 * 1024)
+        .inOrder();
+    // The whole archive is spooled to disk.
+    assertThat(gtfsInput.getFilenames()).containsExactly("agency.txt", "stops.txt", "shapes.txt");
+    assertThat(ByteStreams.toByteArray(gtfsInput.getFile("stops.txt")))
+        .isEqualTo(STOPS.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void spoolToTemporaryFile() throws Exception {
+    firstFileVisited.countDown();
+    GtfsInput gtfsInput = GtfsInput.createFromUrlStreaming(archiveUrl(), null);
+
+    assertThat(gtfsInput.getFilenames()).containsExactly("agency.txt", "stops.txt", "shapes.txt");
+  }
+
+  @Test
+  public void droppedConnectionFailsDownload() throws Exception {
+    GtfsInput gtfsInput =
+        GtfsInput.createFromUrlStreaming(
+            new URL("http://localhost:" + server.getAddress().getPort() + "/dropped.zip"),
+            tmpDir.getRoot().toPath().resolve("gtfs.zip").toString());
+
+    List<String> visited = new ArrayList<>();
+    IOException e =
+        assertThrows(
+            IOException.class,
+            () ->
+                gtfsInput.visitFiles(
+                    (filename, content) -> {
+                      ByteStreams.toByteArray(content);
+                      visited.add(filename);
+                      if (filename.equals("stops.txt")) {
+                        firstFileVisited.countDown();
+                      }
+                    }));
+
+    // Files that were downloaded before the connection was dropped are read, but the truncated
+    // shapes.txt is not.
+    assertThat(e).hasMessageThat().contains("Cannot download");
+    assertThat(visited).containsExactly("agency.txt", "stops.txt").inOrder();
+  }
+
+  @Test
+  public void errorStatusFailsDownload() throws Exception {
+    GtfsInput gtfsInput =
+        GtfsInput.createFromUrlStreaming(
+            new URL("http://localhost:" + server.getAddress().getPort() + "/missing.zip"),
+            tmpDir.getRoot().toPath().resolve("gtfs.zip").toString());
+
+    IOException e = assertThrows(IOException.class, () -> gtfsInput.visitFiles((f, c) -> {}));
+    assertThat(e).hasCauseThat().hasMessageThat().contains("404");
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.notice;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class BinaryNoticeReportTest {
+
+  private static BinaryNoticeReport roundTrip(NoticeContainer container) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    container.exportValidationNoticesBinary(out);
+    return BinaryNoticeReport.read(new ByteArrayInputStream(out.toByteArray()));
+  }
+
+  @Test
+  public void roundTripMatchesJsonExport() throws IOException {
+    NoticeContainer container = new NoticeContainer();
+    container.addValidationNotice(new MissingRequiredFileError("stops.txt"));
+    container.addValidationNotice(
+        new ForeignKeyError("trips.txt", "route_id", "routes.txt", "route_id", "<r1&>", 2));
+    container.addValidationNotice(
+        new ForeignKeyError("trips.txt", "route_id", "routes.txt", "route_id", "r2", 30000000000L));
+    container.addValidationNotice(new UnknownFileNotice("stops.txt"));
+    Map<String, Object> context = new HashMap<>();
+    context.put("nullField", null);
+    context.put("negative", -5);
+    context.put("double", 2.5);
+    context.put("flag", true);
+    context.put("list", ImmutableList.of(1, "a"));
+    container.addValidationNotice(
+        new TestValidationNotice("test_notice", context, SeverityLevel.WARNING));
+    container.addValidationNotice(
+        new TestValidationNotice("test_notice", ImmutableMap.of("x", 1), SeverityLevel.ERROR));
+
+    BinaryNoticeReport report = roundTrip(container);
+
+    assertThat(report.toJson()).isEqualTo(container.exportValidationNotices());
+    assertThat(report.getGroups()).hasSize(5);
+    BinaryNoticeReport.NoticeGroup foreignKeys = report.getGroups().get(0);
+    assertThat(foreignKeys.getCode()).isEqualTo("foreign_key_error");
+    assertThat(foreignKeys.getSeverityLevel()).isEqualTo(SeverityLevel.ERROR);
+    assertThat(foreignKeys.getTotalNotices()).isEqualTo(2);
+    assertThat(foreignKeys.getNotices().get(1))
+        .containsExactly(
+            "childFilename", "trips.txt",
+            "childFieldName", "route_id",
+            "parentFilename", "routes.txt",
+            "parentFieldName", "route_id",
+            "fieldValue", "r2",
+            "csvRowNumber", 30000000000L)
+        .inOrder();
+  }
+
+  @Test
+  public void sampledGroupKeepsTotal() throws IOException {
+    NoticeContainer container = new NoticeContainer(3);
+    for (int i = 0; i < 10; ++i) {
+      container.addValidationNotice(new MissingRequiredFileError("file" + i));
+    }
+
+    BinaryNoticeReport report = roundTrip(container);
+
+    assertThat(report.toJson()).isEqualTo(container.exportValidationNotices());
+    assertThat(report.getGroups().get(0).getTotalNotices()).isEqualTo(10);
+    assertThat(report.getGroups().get(0).getNotices()).hasSize(3);
+  }
+
+  @Test
+  public void emptyReport() throws IOException {
+    NoticeContainer container = new NoticeContainer();
+
+    assertThat(roundTrip(container).toJson()).isEqualTo(container.exportValidationNotices());
+  }
+
+  @Test
+  public void malformedReportThrowsException() {
+    assertThrows(
+        IOException.class,
+        () ->
+            BinaryNoticeReport.read(
+                new ByteArrayInputStream("{\"notices\":[]}".getBytes(StandardCharsets.UTF_8))));
+    assertThrows(
+        IOException.class,
+        () -> BinaryNoticeReport.read(new ByteArrayInputStream(new byte[] {'G', 'T', 'N', 'R'})));
+  }
+}
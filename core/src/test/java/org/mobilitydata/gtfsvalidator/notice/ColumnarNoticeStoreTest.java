@@ -0,0 +1,251 @@
+/*
+ * Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.notice;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ColumnarNoticeStoreTest {
+  private static final Gson GSON = new GsonBuilder().serializeNulls().create();
+
+  private static List<ValidationNotice> sampleNotices() {
+    List<ValidationNotice> notices = new ArrayList<>();
+    notices.add(new MissingRequiredFileError("stops.txt"));
+    notices.add(new ForeignKeyError("trips.txt", "route_id", "routes.txt", "route_id", "r1", 2));
+    notices.add(new MissingRequiredFileError("agency.txt"));
+    notices.add(new ForeignKeyError("trips.txt", "route_id", "routes.txt", "route_id", "r2", 3));
+    notices.add(
+        new TestValidationNotice(
+            "test_notice", ImmutableMap.of("double", 1.5, "int", 7), SeverityLevel.WARNING));
+    return notices;
+  }
+
+  private static String exportJson(ColumnarNoticeStore<?> store) throws IOException {
+    StringWriter out = new StringWriter();
+    JsonWriter writer = GSON.newJsonWriter(out);
+    writer.beginArray();
+    store.writeJson(writer, Integer.MAX_VALUE, GSON);
+    writer.endArray();
+    writer.flush();
+    return out.toString();
+  }
+
+  @Test
+  public void materializedNoticesEqualAddedNotices() {
+    ColumnarNoticeStore<ValidationNotice> store = new ColumnarNoticeStore<>(Integer.MAX_VALUE);
+    List<ValidationNotice> notices = sampleNotices();
+    for (ValidationNotice notice : notices) {
+      store.add(notice);
+    }
+
+    assertThat(store.size()).isEqualTo(notices.size());
+    assertThat(store.asList()).containsExactlyElementsIn(notices).inOrder();
+    for (int i = 0; i < notices.size(); ++i) {
+      ValidationNotice notice = store.get(i);
+      assertThat(notice.getClass()).isEqualTo(notices.get(i).getClass());
+      assertThat(notice.getCode()).isEqualTo(notices.get(i).getCode());
+      assertThat(notice.getSeverityLevel()).isEqualTo(notices.get(i).getSeverityLevel());
+      assertThat(notice.getContext())
+          .containsExactlyEntriesIn(notices.get(i).getContext())
+          .inOrder();
+    }
+  }
+
+  @Test
+  public void mixedTypesAndNullsArePreserved() {
+    ColumnarNoticeStore<ValidationNotice> store = new ColumnarNoticeStore<>(Integer.MAX_VALUE);
+    List<ValidationNotice> notices = new ArrayList<>();
+    notices.add(new TestValidationNotice("test", ImmutableMap.of("v", 1), SeverityLevel.ERROR));
+    notices.add(new TestValidationNotice("test", ImmutableMap.of("v", 2L), SeverityLevel.ERROR));
+    notices.add(
+        new TestValidationNotice("test", ImmutableMap.of("v", "text"), SeverityLevel.ERROR));
+    Map<String, Object> nullContext = new HashMap<>();
+    nullContext.put("v", null);
+    notices.add(new TestValidationNotice("test", nullContext, SeverityLevel.ERROR));
+    for (ValidationNotice notice : notices) {
+      store.add(notice);
+    }
+
+    assertThat(store.asList()).containsExactlyElementsIn(notices).inOrder();
+    assertThat(store.get(0).getContext().get("v")).isInstanceOf(Integer.class);
+    assertThat(store.get(1).getContext().get("v")).isInstanceOf(Long.class);
+  }
+
+  @Test
+  public void manyDistinctStrings() {
+    ColumnarNoticeStore<ValidationNotice> store = new ColumnarNoticeStore<>(Integer.MAX_VALUE);
+    for (int i = 0; i < 5000; ++i) {
+      store.add(new MissingRequiredFileError("file" + i % 3000 + ".txt"));
+    }
+
+    for (int i = 0; i < 5000; ++i) {
+      assertThat(store.get(i).getContext()).containsExactly("filename", "file" + i % 3000 + ".txt");
+    }
+  }
+
+  @Test
+  public void addAllKeepsOrder() {
+    ColumnarNoticeStore<ValidationNotice> first = new ColumnarNoticeStore<>(Integer.MAX_VALUE);
+    ColumnarNoticeStore<ValidationNotice> second = new ColumnarNoticeStore<>(Integer.MAX_VALUE);
+    List<ValidationNotice> notices = sampleNotices();
+    first.add(notices.get(0));
+    first.add(notices.get(1));
+    for (ValidationNotice notice : notices.subList(2, notices.size())) {
+      second.add(notice);
+    }
+
+    first.addAll(second);
+
+    assertThat(first.asList()).containsExactlyElementsIn(notices).inOrder();
+  }
+
+  private static Set<Object> storedFilenames(ColumnarNoticeStore<ValidationNotice> store) {
+    Set<Object> filenames = new HashSet<>();
+    for (ValidationNotice notice : store.asList()) {
+      filenames.add(notice.getContext().get("filename"));
+    }
+    return filenames;
+  }
+
+  private static void addFiles(ColumnarNoticeStore<ValidationNotice> store, String prefix, int n) {
+    for (int i = 0; i < n; ++i) {
+      store.add(new MissingRequiredFileError(prefix + i));
+    }
+  }
+
+  @Test
+  public void capKeepsCountAndSample() throws IOException {
+    ColumnarNoticeStore<ValidationNotice> store = new ColumnarNoticeStore<>(10);
+    addFiles(store, "a", 1000);
+    store.add(new UnknownFileNotice("unknown.txt"));
+
+    assertThat(store.size()).isEqualTo(11);
+    Set<Object> filenames = storedFilenames(store);
+    assertThat(filenames).hasSize(11);
+    assertThat(filenames).contains("unknown.txt");
+    // Reservoir sampling replaces some of the first notices.
+    assertThat(filenames)
+        .isNotEqualTo(
+            ImmutableSet.of(
+                "a0", "a1", "a2", "a3", "a4", "a5", "a6", "a7", "a8", "a9", "unknown.txt"));
+    assertThat(exportJson(store)).contains("\"totalNotices\":1000,");
+  }
+
+  @Test
+  public void samplesAreReproducibleAndDifferByCode() {
+    ColumnarNoticeStore<ValidationNotice> first = new ColumnarNoticeStore<>(10);
+    ColumnarNoticeStore<ValidationNotice> second = new ColumnarNoticeStore<>(10);
+    ColumnarNoticeStore<ValidationNotice> unknownFiles = new ColumnarNoticeStore<>(10);
+    addFiles(first, "a", 1000);
+    addFiles(second, "a", 1000);
+    for (int i = 0; i < 1000; ++i) {
+      unknownFiles.add(new UnknownFileNotice("a" + i));
+    }
+
+    assertThat(storedFilenames(first)).isEqualTo(storedFilenames(second));
+    assertThat(storedFilenames(first)).isNotEqualTo(storedFilenames(unknownFiles));
+  }
+
+  @Test
+  public void zeroCapKeepsOnlyCounts() throws IOException {
+    ColumnarNoticeStore<ValidationNotice> first = new ColumnarNoticeStore<>(0);
+    ColumnarNoticeStore<ValidationNotice> second = new ColumnarNoticeStore<>(0);
+    addFiles(first, "a", 3);
+    addFiles(second, "b", 4);
+
+    first.addAll(second);
+
+    assertThat(first.size()).isEqualTo(0);
+    assertThat(exportJson(first))
+        .isEqualTo(
+            "[{\"code\":\"missing_required_file\",\"severity\":\"ERROR\","
+                + "\"totalNotices\":7,\"notices\":[]}]");
+  }
+
+  @Test
+  public void addAllMergesSamples() throws IOException {
+    ColumnarNoticeStore<ValidationNotice> first = new ColumnarNoticeStore<>(10);
+    ColumnarNoticeStore<ValidationNotice> second = new ColumnarNoticeStore<>(10);
+    ColumnarNoticeStore<ValidationNotice> third = new ColumnarNoticeStore<>(10);
+    addFiles(first, "a", 500);
+    addFiles(second, "b", 300);
+    addFiles(third, "c", 5);
+
+    first.addAll(second);
+    first.addAll(third);
+
+    assertThat(first.size()).isEqualTo(10);
+    Set<Object> filenames = storedFilenames(first);
+    assertThat(filenames).hasSize(10);
+    for (Object filename : filenames) {
+      assertThat(filename.toString()).matches("a[0-9]+|b[0-9]+|c[0-4]");
+    }
+    assertThat(exportJson(first)).contains("\"totalNotices\":805,");
+  }
+
+  @Test
+  public void addAllBelowCapKeepsAllNotices() {
+    ColumnarNoticeStore<ValidationNotice> first = new ColumnarNoticeStore<>(10);
+    ColumnarNoticeStore<ValidationNotice> second = new ColumnarNoticeStore<>(10);
+    addFiles(first, "a", 4);
+    addFiles(second, "b", 6);
+
+    first.addAll(second);
+
+    assertThat(storedFilenames(first))
+        .containsExactly("a0", "a1", "a2", "a3", "b0", "b1", "b2", "b3", "b4", "b5");
+  }
+
+  @Test
+  public void exportJsonMatchesContextMaps() throws IOException {
+    ColumnarNoticeStore<ValidationNotice> store = new ColumnarNoticeStore<>(Integer.MAX_VALUE);
+    for (ValidationNotice notice : sampleNotices()) {
+      store.add(notice);
+    }
+
+    assertThat(exportJson(store))
+        .isEqualTo(
+            "[{\"code\":\"foreign_key_error\",\"severity\":\"ERROR\",\"totalNotices\":2,"
+                + "\"notices\":[{\"childFilename\":\"trips.txt\",\"childFieldName\":\"route_id\","
+                + "\"parentFilename\":\"routes.txt\",\"parentFieldName\":\"route_id\","
+                + "\"fieldValue\":\"r1\",\"csvRowNumber\":2},"
+                + "{\"childFilename\":\"trips.txt\",\"childFieldName\":\"route_id\","
+                + "\"parentFilename\":\"routes.txt\",\"parentFieldName\":\"route_id\","
+                + "\"fieldValue\":\"r2\",\"csvRowNumber\":3}]},"
+                + "{\"code\":\"missing_required_file\",\"severity\":\"ERROR\",\"totalNotices\":2,"
+                + "\"notices\":[{\"filename\":\"stops.txt\"},{\"filename\":\"agency.txt\"}]},"
+                + "{\"code\":\"test_notice\",\"severity\":\"WARNING\",\"totalNotices\":1,"
+                + "\"notices\":[{\"double\":1.5,\"int\":7}]}]");
+  }
+}
@@ -19,6 +19,8 @@ package org.mobilitydata.gtfsvalidator.notice;
 import static com.google.common.truth.Truth.assertThat;
 
 import com.google.common.collect.ImmutableMap;
+import java.io.IOException;
+import java.io.StringWriter;
 import java.util.HashMap;
 import java.util.Map;
 import org.junit.Test;
@@ -87,6 +89,64 @@ public class NoticeContainerTest {
                 + "\"notices\":[{\"keyB\":2}]}]}");
   }
 
+  @Test
+  public void exportToWriter() throws IOException {
+    NoticeContainer container = new NoticeContainer();
+    container.addValidationNotice(new MissingRequiredFileError("stops.txt"));
+    container.addValidationNotice(
+        new ForeignKeyError("trips.txt", "route_id", "routes.txt", "route_id", "<r1&>", 2));
+    container.addSystemError(
+        new RuntimeExceptionInValidatorError(
+            "FaultyValidator", "java.lang.IndexOutOfBoundsException", "Index 0 out of bounds"));
+
+    StringWriter notices = new StringWriter();
+    container.exportValidationNotices(notices);
+    StringWriter systemErrors = new StringWriter();
+    container.exportSystemErrors(systemErrors);
+
+    assertThat(notices.toString()).isEqualTo(container.exportValidationNotices());
+    assertThat(notices.toString()).contains("\\u003cr1\\u0026\\u003e");
+    assertThat(systemErrors.toString()).isEqualTo(container.exportSystemErrors());
+  }
+
+  @Test
+  public void capKeepsExactTotal() {
+    NoticeContainer container = new NoticeContainer(2);
+    for (int i = 0; i < 5; ++i) {
+      container.addValidationNotice(new MissingRequiredFileError("file" + i));
+    }
+    NoticeContainer other = new NoticeContainer(2);
+    other.addValidationNotice(new MissingRequiredFileError("other"));
+    container.addAll(other);
+
+    assertThat(container.getValidationNotices()).hasSize(2);
+    assertThat(container.exportValidationNotices())
+        .startsWith(
+            "{\"notices\":[{\"code\":\"missing_required_file\",\"severity\":\"ERROR\","
+                + "\"totalNotices\":6,");
+  }
+
+  @Test
+  public void countValidationNoticesByCode() {
+    NoticeContainer container = new NoticeContainer(1);
+    container.addValidationNotice(
+        new TestValidationNotice("notice_b", ImmutableMap.of("key", 1), SeverityLevel.ERROR));
+    container.addValidationNotice(
+        new TestValidationNotice("notice_a", ImmutableMap.of("key", 2), SeverityLevel.ERROR));
+    container.addValidationNotice(
+        new TestValidationNotice("notice_a", ImmutableMap.of("key", 3), SeverityLevel.INFO));
+    container.addValidationNotice(
+        new TestValidationNotice("notice_a", ImmutableMap.of("key", 4), SeverityLevel.INFO));
+    container.addSystemError(
+        new RuntimeExceptionInValidatorError(
+            "FaultyValidator", "java.lang.IndexOutOfBoundsException", "Index 0 out of bounds"));
+
+    // Notices past the cap and of all severities are counted.
+    assertThat(container.countValidationNoticesByCode())
+        .containsExactly("notice_a", 3L, "notice_b", 1L)
+        .inOrder();
+  }
+
   @Test
   public void addAll() {
     ValidationNotice n1 = new MissingRequiredFileError("stops.txt");
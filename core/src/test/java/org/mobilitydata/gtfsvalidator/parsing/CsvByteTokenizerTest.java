@@ -0,0 +1,191 @@
+/*
+ * Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.parsing;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.Truth.assertWithMessage;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Checks that {@link CsvByteTokenizer} produces the same rows as Univocity parser. */
+@RunWith(JUnit4.class)
+public class CsvByteTokenizerTest {
+  private static final byte[][] TOKENS = {
+    "a".getBytes(StandardCharsets.UTF_8),
+    "12".getBytes(StandardCharsets.UTF_8),
+    "é".getBytes(StandardCharsets.UTF_8),
+    {(byte) 0xe2, (byte) 0x82},
+    {(byte) 0xff},
+    {0},
+    {','},
+    {','},
+    {'"'},
+    {'"'},
+    {'\n'},
+    {'\n'},
+    {'\r'},
+    {' '},
+    {'\t'},
+    {'#'},
+    {(byte) 0xef, (byte) 0xbb, (byte) 0xbf},
+  };
+
+  /** Returns headers and a description of every row: row number and values. */
+  private static List<String> readRows(CsvFile csvFile) {
+    List<String> rows = new ArrayList<>();
+    rows.add(csvFile.isEmpty() + ":" + Arrays.toString(csvFile.getColumnNames()));
+    for (CsvRow row : csvFile) {
+      rows.add(describe(row));
+    }
+    return rows;
+  }
+
+  private static String describe(CsvRow row) {
+    List<String> values = new ArrayList<>();
+    for (int i = 0; i < row.getColumnCount(); ++i) {
+      values.add(row.asString(i));
+    }
+    return row.getRowNumber() + ":" + values;
+  }
+
+  private static List<String> readWithUnivocity(byte[] content) {
+    return readRows(new CsvFile(new ByteArrayInputStream(content), "stops.txt"));
+  }
+
+  private static List<String> readWithTokenizer(byte[] content) {
+    return readRows(new CsvFile(ByteBuffer.wrap(content), "stops.txt"));
+  }
+
+  private static List<String> readChunksWithTokenizer(byte[] content, int chunkSize) {
+    CsvChunkReader reader =
+        new CsvChunkReader(new ByteArrayInputStream(content), "stops.txt", chunkSize, true);
+    CsvFile chunk = reader.nextChunk();
+    List<String> rows = readRows(chunk);
+    while ((chunk = reader.nextChunk()) != null) {
+      for (CsvRow row : chunk) {
+        rows.add(describe(row));
+      }
+    }
+    return rows;
+  }
+
+  private static byte[] bytes(String s) {
+    return s.getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void simpleFile() {
+    byte[] content =
+        bytes(
+            "stop_id,stop_name,stop_lat\n"
+                + "s1,First stop,3.21\n"
+                + "\n"
+                + "  s2 , \" Second \"\"stop\"\"\n\" ,1.31\r\n"
+                + ",,\n");
+
+    assertThat(readWithTokenizer(content))
+        .containsExactly(
+            "false:[stop_id, stop_name, stop_lat]",
+            "2:[s1, First stop, 3.21]",
+            "5:[s2,  Second \"stop\"\n, 1.31]",
+            "6:[null, null, null]")
+        .inOrder();
+    assertThat(readWithTokenizer(content)).isEqualTo(readWithUnivocity(content));
+  }
+
+  @Test
+  public void emptyFile() {
+    CsvFile csvFile = new CsvFile(ByteBuffer.wrap(new byte[0]), "stops.txt");
+
+    assertThat(csvFile.isEmpty()).isTrue();
+    assertThat(csvFile.getColumnCount()).isEqualTo(0);
+    assertThat(csvFile.iterator().hasNext()).isFalse();
+  }
+
+  @Test
+  public void whitespacesAtEndOfFile() {
+    // Univocity returns a row with a single empty cell.
+    byte[] content = bytes("stop_id,stop_name\ns1,First stop\n  ");
+
+    assertThat(readWithTokenizer(content))
+        .containsExactly("false:[stop_id, stop_name]", "2:[s1, First stop]", "3:[null]")
+        .inOrder();
+    assertThat(readWithTokenizer(content)).isEqualTo(readWithUnivocity(content));
+  }
+
+  @Test
+  public void malformedContentFallsBackToUnivocity() {
+    String[] contents = {
+      "stop_id\n#comment\ns1\n",
+      "#stop_id\nstop_id\ns1\n",
+      "stop_id\ns1\n\"s\"2\n",
+      "stop_id\ns1\ns\"2\n",
+      "stop_id\n\"s1",
+      "stop_id,stop_name\ns1,a\0b\n",
+    };
+    for (String content : contents) {
+      assertWithMessage(content)
+          .that(readWithTokenizer(bytes(content)))
+          .isEqualTo(readWithUnivocity(bytes(content)));
+    }
+  }
+
+  @Test
+  public void rawCells() {
+    CsvFile csvFile =
+        new CsvFile(ByteBuffer.wrap(bytes("a,b,c\n 12 ,\"3\",\"x\"\"y\"\n")), "stops.txt");
+    CsvRow row = csvFile.iterator().next();
+
+    assertThat(row.hasRawCell(0)).isTrue();
+    assertThat(row.hasRawCell(3)).isFalse();
+    assertThat(row.getRawEnd(0) - row.getRawStart(0)).isEqualTo(2);
+    assertThat(row.getRawData().get(row.getRawStart(0))).isEqualTo((byte) '1');
+    assertThat(row.getRawEnd(1) - row.getRawStart(1)).isEqualTo(1);
+    assertThat(row.getRawEnd(2) - row.getRawStart(2)).isEqualTo(4);
+    assertThat(row.asString(2)).isEqualTo("x\"y");
+  }
+
+  @Test
+  public void randomContentMatchesUnivocity() {
+    Random random = new Random(20201117);
+    for (int iteration = 0; iteration < 5000; ++iteration) {
+      int tokenCount = random.nextInt(40);
+      ByteArrayOutputStream builder = new ByteArrayOutputStream();
+      for (int i = 0; i < tokenCount; ++i) {
+        byte[] token = TOKENS[random.nextInt(TOKENS.length)];
+        builder.write(token, 0, token.length);
+      }
+      byte[] content = builder.toByteArray();
+      List<String> expected = readWithUnivocity(content);
+      String message = Arrays.toString(content);
+      assertWithMessage(message).that(readWithTokenizer(content)).isEqualTo(expected);
+      assertWithMessage(message)
+          .that(readChunksWithTokenizer(content, 1 + random.nextInt(8)))
+          .isEqualTo(expected);
+    }
+  }
+}
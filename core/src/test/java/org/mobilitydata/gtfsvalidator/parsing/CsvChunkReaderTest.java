@@ -0,0 +1,184 @@
+/*
+ * Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.parsing;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.primitives.Bytes;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.commons.io.ByteOrderMark;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class CsvChunkReaderTest {
+  @Rule public final TemporaryFolder tmpDir = new TemporaryFolder();
+
+  private static final String CONTENT =
+      "stop_id,stop_name\n"
+          + "s1,First stop\n"
+          + "s2,\"Multi\nline\"\n"
+          + "\n"
+          + "s3,\"Quoted \"\"name\"\", with comma\"\n"
+          + "  \"s4\"  ,  Fourth stop\n"
+          + "s5,Fifth stop";
+
+  /** Returns a description of every row as a string: row number and values. */
+  private static List<String> readRows(CsvFile csvFile) {
+    List<String> rows = new ArrayList<>();
+    for (CsvRow row : csvFile) {
+      List<String> values = new ArrayList<>();
+      for (int i = 0; i < row.getColumnCount(); ++i) {
+        values.add(row.asString(i));
+      }
+      rows.add(row.getRowNumber() + ":" + values);
+    }
+    return rows;
+  }
+
+  private static List<String> readChunkedRows(byte[] content, int chunkSize) {
+    return readChunkedRows(
+        new CsvChunkReader(new ByteArrayInputStream(content), "stops.txt", chunkSize));
+  }
+
+  private static List<String> readChunkedRows(CsvChunkReader reader) {
+    List<String> rows = new ArrayList<>();
+    for (CsvFile chunk = reader.nextChunk(); chunk != null; chunk = reader.nextChunk()) {
+      assertThat(chunk.getFileName()).isEqualTo("stops.txt");
+      assertThat(chunk.getColumnNames()).isEqualTo(new String[] {"stop_id", "stop_name"});
+      rows.addAll(readRows(chunk));
+    }
+    return rows;
+  }
+
+  @Test
+  public void chunksMatchWholeFile() {
+    byte[] content = CONTENT.getBytes();
+    List<String> expected = readRows(new CsvFile(new ByteArrayInputStream(content), "stops.txt"));
+    assertThat(expected).hasSize(5);
+
+    for (int chunkSize = 1; chunkSize <= content.length + 1; ++chunkSize) {
+      assertThat(readChunkedRows(content, chunkSize)).isEqualTo(expected);
+    }
+  }
+
+  @Test
+  public void chunksWithBom() {
+    byte[] content = Bytes.concat(ByteOrderMark.UTF_8.getBytes(), CONTENT.getBytes());
+    List<String> expected = readRows(new CsvFile(new ByteArrayInputStream(content), "stops.txt"));
+
+    assertThat(readChunkedRows(content, 1)).isEqualTo(expected);
+  }
+
+  @Test
+  public void bytesReadCoverWholeFile() {
+    byte[] content = Bytes.concat(ByteOrderMark.UTF_8.getBytes(), CONTENT.getBytes());
+
+    for (int chunkSize = 1; chunkSize <= content.length + 1; ++chunkSize) {
+      CsvChunkReader reader =
+          new CsvChunkReader(new ByteArrayInputStream(content), "stops.txt", chunkSize);
+      readChunkedRows(reader);
+      assertThat(reader.getBytesRead()).isEqualTo(content.length);
+    }
+  }
+
+  @Test
+  public void malformedQuotesDisableSplitting() {
+    byte[] content = "stop_id,stop_name\ns1,\"a\"b\ns2,c\ns3,d\n".getBytes();
+    CsvChunkReader reader =
+        new CsvChunkReader(new ByteArrayInputStream(content), "stops.txt", 1);
+
+    assertThat(reader.nextChunk().isEmpty()).isFalse();
+    // The rest of the file follows the malformed row in a single chunk.
+    CsvFile rest = reader.nextChunk();
+    assertThat(rest).isNotNull();
+    assertThat(readRows(rest)).hasSize(3);
+    assertThat(reader.nextChunk()).isNull();
+  }
+
+  @Test
+  public void emptyFile() {
+    CsvChunkReader reader =
+        new CsvChunkReader(new ByteArrayInputStream(new byte[0]), "stops.txt", 1);
+
+    CsvFile chunk = reader.nextChunk();
+    assertThat(chunk.isEmpty()).isTrue();
+    assertThat(Arrays.asList(chunk.getColumnNames())).isEmpty();
+    assertThat(reader.nextChunk()).isNull();
+  }
+
+  @Test
+  public void headersOnlyFile() {
+    CsvChunkReader reader =
+        new CsvChunkReader(
+            new ByteArrayInputStream("stop_id,stop_name\n".getBytes()), "stops.txt", 1);
+
+    CsvFile chunk = reader.nextChunk();
+    assertThat(chunk.isEmpty()).isFalse();
+    assertThat(chunk.getColumnNames()).isEqualTo(new String[] {"stop_id", "stop_name"});
+    assertThat(chunk.iterator().hasNext()).isFalse();
+    assertThat(reader.nextChunk()).isNull();
+  }
+
+  @Test
+  public void mappedChunksMatchWholeFile() throws IOException {
+    byte[] content = CONTENT.getBytes();
+    List<String> expected = readRows(new CsvFile(new ByteArrayInputStream(content), "stops.txt"));
+    // Surround the content with other bytes, as in a ZIP archive.
+    File file = tmpDir.newFile("archive.zip");
+    Files.write(file.toPath(), Bytes.concat("prefix".getBytes(), content, "suffix".getBytes()));
+
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      for (int chunkSize = 1; chunkSize <= content.length + 1; ++chunkSize) {
+        for (boolean byteTokenizerEnabled : new boolean[] {false, true}) {
+          assertThat(
+                  readChunkedRows(
+                      new CsvChunkReader(
+                          channel,
+                          6,
+                          content.length,
+                          "stops.txt",
+                          chunkSize,
+                          byteTokenizerEnabled)))
+              .isEqualTo(expected);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void mappedEmptyFile() throws IOException {
+    File file = tmpDir.newFile("stops.txt");
+
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      CsvChunkReader reader = new CsvChunkReader(channel, 0, 0, "stops.txt", 1, true);
+      assertThat(reader.nextChunk().isEmpty()).isTrue();
+      assertThat(reader.nextChunk()).isNull();
+    }
+  }
+}
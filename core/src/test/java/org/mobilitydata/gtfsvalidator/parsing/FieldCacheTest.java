@@ -124,6 +124,23 @@ public class FieldCacheTest {
     assertThat(cache.getLookupCount()).isEqualTo(4);
   }
 
+  @Test
+  public void cacheByIntKey() {
+    FieldCache<GtfsTime> cache = new FieldCache<>();
+    GtfsTime t1 = cache.addIfAbsent(1, GtfsTime::fromSecondsSinceMidnight);
+    assertThat(t1).isEqualTo(GtfsTime.fromSecondsSinceMidnight(1));
+    assertThat(cache.addIfAbsent(1, GtfsTime::fromSecondsSinceMidnight)).isSameInstanceAs(t1);
+    // Add enough keys to grow the table several times.
+    for (int seconds = 0; seconds < 1000; ++seconds) {
+      assertThat(cache.addIfAbsent(seconds * 60, GtfsTime::fromSecondsSinceMidnight))
+          .isEqualTo(GtfsTime.fromSecondsSinceMidnight(seconds * 60));
+    }
+    assertThat(cache.addIfAbsent(1, GtfsTime::fromSecondsSinceMidnight)).isSameInstanceAs(t1);
+    // Check cache size and efficiency.
+    assertThat(cache.getCacheSize()).isEqualTo(1001);
+    assertThat(cache.getLookupCount()).isEqualTo(1003);
+  }
+
   @Test
   public void cacheColor() {
     FieldCache<GtfsColor> cache = new FieldCache<>();
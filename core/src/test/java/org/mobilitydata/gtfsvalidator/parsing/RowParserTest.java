@@ -17,19 +17,25 @@
 package org.mobilitydata.gtfsvalidator.parsing;
 
 import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.Truth.assertWithMessage;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 import org.mobilitydata.gtfsvalidator.input.GtfsFeedName;
 import org.mobilitydata.gtfsvalidator.notice.EmptyRowNotice;
+import org.mobilitydata.gtfsvalidator.notice.InvalidDateNotice;
 import org.mobilitydata.gtfsvalidator.notice.InvalidEmailNotice;
 import org.mobilitydata.gtfsvalidator.notice.InvalidPhoneNumberNotice;
 import org.mobilitydata.gtfsvalidator.notice.InvalidRowLengthError;
@@ -224,6 +230,31 @@ public class RowParserTest {
     assertThat(createParser("invalid").asDate(0, true)).isNull();
   }
 
+  @Test
+  public void asDateNonExistingDay() {
+    RowParser parser = createParser("19990229");
+
+    assertThat(parser.asDate(0, true)).isNull();
+    assertThat(parser.getNoticeContainer().getValidationNotices())
+        .containsExactly(new InvalidDateNotice(TEST_FILENAME, 8, "column name", "19990229"));
+  }
+
+  @Test
+  public void asDateAndTimeWithCache() {
+    FieldCache<GtfsDate> dateCache = new FieldCache<>();
+    GtfsDate date = createParser("20200901").asDate(0, true, dateCache);
+    assertThat(date).isEqualTo(GtfsDate.fromLocalDate(LocalDate.of(2020, 9, 1)));
+    assertThat(createParser("20200901").asDate(0, true, dateCache)).isSameInstanceAs(date);
+    assertThat(createParser("invalid").asDate(0, true, dateCache)).isNull();
+
+    FieldCache<GtfsTime> timeCache = new FieldCache<>();
+    GtfsTime time = createParser("12:20:30").asTime(0, true, timeCache);
+    assertThat(time).isEqualTo(GtfsTime.fromHourMinuteSecond(12, 20, 30));
+    assertThat(createParser("12:20:30").asTime(0, true, timeCache)).isSameInstanceAs(time);
+    assertThat(createParser("invalid").asTime(0, true, timeCache)).isNull();
+    assertThat(timeCache.getCacheSize()).isEqualTo(1);
+  }
+
   @Test
   public void asTime() {
     assertThat(createParser("12:20:30").asTime(0, true))
@@ -360,4 +391,78 @@ public class RowParserTest {
 
     inputStream.close();
   }
+
+  /** Parses the only cell of the file as every type that may be parsed from raw bytes. */
+  private static List<Object> parseAsNumbers(CsvFile csvFile) {
+    CsvRow csvRow = csvFile.iterator().next();
+    List<Object> results = new ArrayList<>();
+    RowParser parser =
+        new RowParser(GtfsFeedName.parseString(TEST_FEED_NAME), new NoticeContainer());
+    parser.setRow(csvRow);
+    results.add(parser.asInteger(0, true));
+    results.add(parser.asFloat(0, true));
+    results.add(parser.asColor(0, true));
+    results.add(parser.asTime(0, true));
+    results.add(parser.asDate(0, true));
+    results.add(parser.hasParseErrorsInRow());
+    results.addAll(parser.getNoticeContainer().getValidationNotices());
+    return results;
+  }
+
+  @Test
+  public void rawBytesAndStringsGiveSameResults() {
+    String[] values = {
+      "0",
+      "12345",
+      "-12",
+      "+12",
+      "007",
+      "2147483647",
+      "2147483648",
+      "-2147483648",
+      "12345678901234567890",
+      "12.5",
+      "-0",
+      "-0.0",
+      ".5",
+      "1.",
+      ".",
+      "1e5",
+      "NaN",
+      "0.1234567890123456789",
+      "9007199254740993",
+      "123456789.123456789",
+      "FFFFFF",
+      "ff00aa",
+      "+FFFFF",
+      "12:34:56",
+      "1:02:03",
+      "123:00:00",
+      "12:60:00",
+      "12:00:60",
+      "1234:00:00",
+      "12:3a:00",
+      "20201231",
+      "20200229",
+      "19990229",
+      "20201301",
+      "00010101",
+      "2020123",
+      "abcdefgh",
+      "1 2",
+      "\" 42 \"",
+      "\"4\"\"2\"",
+      "\"1\n2\"",
+      "\"12:00:00\"",
+      "\u00e9"
+    };
+    for (String value : values) {
+      String content = "column name\n" + value + "\n";
+      CsvFile bytesFile = new CsvFile(ByteBuffer.wrap(content.getBytes(UTF_8)), TEST_FILENAME);
+      CsvFile stringsFile = new CsvFile(toInputStream(content), TEST_FILENAME);
+      assertWithMessage(value)
+          .that(parseAsNumbers(bytesFile))
+          .isEqualTo(parseAsNumbers(stringsFile));
+    }
+  }
 }
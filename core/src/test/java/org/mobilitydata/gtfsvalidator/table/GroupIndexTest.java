@@ -0,0 +1,113 @@
+/*
+ * Copyright 2021 MobilityData IO
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.table;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class GroupIndexTest {
+  /** A row with a key and a sequence number, printed as "key:sequence". */
+  private static String row(String key, int sequence) {
+    return key + ":" + sequence;
+  }
+
+  private static String key(String row) {
+    return row.substring(0, row.indexOf(':'));
+  }
+
+  private static int sequence(String row) {
+    return Integer.parseInt(row.substring(row.indexOf(':') + 1));
+  }
+
+  @Test
+  public void groupsKeepOrderOfFirstRows() {
+    List<String> rows =
+        ImmutableList.of(row("b", 2), row("a", 1), row("b", 1), row("c", 5), row("a", 0));
+
+    GroupIndex<String, String> index = GroupIndex.create(rows, GroupIndexTest::key);
+
+    assertThat(index.groupCount()).isEqualTo(3);
+    assertThat(index.get("b")).containsExactly(row("b", 2), row("b", 1)).inOrder();
+    assertThat(index.get("a")).containsExactly(row("a", 1), row("a", 0)).inOrder();
+    assertThat(index.get("missing")).isEmpty();
+    assertThat(index.asMap().keySet()).containsExactly("b", "a", "c").inOrder();
+    assertThat(index.groups())
+        .containsExactly(
+            ImmutableList.of(row("b", 2), row("b", 1)),
+            ImmutableList.of(row("a", 1), row("a", 0)),
+            ImmutableList.of(row("c", 5)))
+        .inOrder();
+  }
+
+  @Test
+  public void createSortedSortsGroupsStably() {
+    String first = new String("t:1");
+    String duplicate = new String("t:1");
+    List<String> rows = ImmutableList.of(row("t", 3), first, row("t", -2), duplicate);
+
+    GroupIndex<String, String> index =
+        GroupIndex.createSorted(rows, GroupIndexTest::key, GroupIndexTest::sequence);
+
+    List<String> group = index.get("t");
+    assertThat(group).containsExactly(row("t", -2), "t:1", "t:1", row("t", 3)).inOrder();
+    assertThat(group.get(1)).isSameInstanceAs(first);
+    assertThat(group.get(2)).isSameInstanceAs(duplicate);
+  }
+
+  @Test
+  public void asMapLooksUpKeys() {
+    List<String> rows = new ArrayList<>();
+    for (int i = 0; i < 1000; ++i) {
+      rows.add(row("k" + (i % 100), i));
+    }
+
+    Map<String, List<String>> map = GroupIndex.create(rows, GroupIndexTest::key).asMap();
+
+    assertThat(map).hasSize(100);
+    assertThat(map.containsKey("k42")).isTrue();
+    assertThat(map.get("k42")).hasSize(10);
+    assertThat(map.get("k42").get(9)).isEqualTo(row("k42", 942));
+    assertThat(map.get("k100")).isNull();
+  }
+
+  @Test
+  public void nullKeyIsAGroup() {
+    List<String> rows = ImmutableList.of("x", "y");
+
+    GroupIndex<String, String> index = GroupIndex.create(rows, row -> null);
+
+    assertThat(index.get(null)).containsExactly("x", "y").inOrder();
+  }
+
+  @Test
+  public void emptyIndex() {
+    GroupIndex<String, String> index = GroupIndex.empty();
+
+    assertThat(index.groupCount()).isEqualTo(0);
+    assertThat(index.get("a")).isEmpty();
+    assertThat(index.asMap()).isEmpty();
+    assertThat(index.groups()).isEmpty();
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.table;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class IdDictionaryTest {
+
+  @Test
+  public void encodeAssignsDenseOrdinals() {
+    IdDictionary dictionary = new IdDictionary();
+
+    assertThat(dictionary.encode("trip1")).isEqualTo(0);
+    assertThat(dictionary.encode("trip2")).isEqualTo(1);
+    assertThat(dictionary.encode(new String("trip1"))).isEqualTo(0);
+
+    assertThat(dictionary.size()).isEqualTo(2);
+    assertThat(dictionary.decode(1)).isEqualTo("trip2");
+    assertThat(dictionary.find("trip2")).isEqualTo(1);
+    assertThat(dictionary.find("trip3")).isEqualTo(IdDictionary.NO_ID);
+    assertThat(dictionary.size()).isEqualTo(2);
+  }
+
+  @Test
+  public void internReturnsFirstInstance() {
+    IdDictionary dictionary = new IdDictionary();
+    String first = new String("stop1");
+
+    assertThat(dictionary.intern(first)).isSameInstanceAs(first);
+    assertThat(dictionary.intern(new String("stop1"))).isSameInstanceAs(first);
+  }
+
+  @Test
+  public void nullId() {
+    IdDictionary dictionary = new IdDictionary();
+
+    assertThat(dictionary.encode(null)).isEqualTo(IdDictionary.NO_ID);
+    assertThat(dictionary.decode(IdDictionary.NO_ID)).isNull();
+    assertThat(dictionary.intern(null)).isNull();
+    assertThat(dictionary.size()).isEqualTo(0);
+  }
+
+  @Test
+  public void concurrentEncode() throws InterruptedException, ExecutionException {
+    IdDictionary dictionary = new IdDictionary();
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    List<Future<int[]>> futures = new ArrayList<>();
+    for (int thread = 0; thread < 4; ++thread) {
+      futures.add(
+          executor.submit(
+              () -> {
+                int[] ordinals = new int[5000];
+                for (int i = 0; i < ordinals.length; ++i) {
+                  ordinals[i] = dictionary.encode("id" + i);
+                }
+                return ordinals;
+              }));
+    }
+    List<int[]> results = new ArrayList<>();
+    for (Future<int[]> future : futures) {
+      results.add(future.get());
+    }
+    executor.shutdown();
+
+    assertThat(dictionary.size()).isEqualTo(5000);
+    Set<Integer> distinct = new HashSet<>();
+    for (int i = 0; i < 5000; ++i) {
+      int ordinal = results.get(0)[i];
+      for (int[] result : results) {
+        assertThat(result[i]).isEqualTo(ordinal);
+      }
+      assertThat(dictionary.decode(ordinal)).isEqualTo("id" + i);
+      distinct.add(ordinal);
+    }
+    assertThat(distinct).hasSize(5000);
+  }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.table;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import java.util.Arrays;
+import java.util.function.Function;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class KeySetTest {
+
+  @Test
+  public void containsKeysOfAllRows() {
+    IdDictionary dictionary = new IdDictionary();
+    dictionary.encode("other");
+
+    KeySet keySet =
+        KeySet.create(dictionary, Arrays.asList("s1", null, "s2", "s1"), Function.identity());
+
+    assertThat(keySet.size()).isEqualTo(2);
+    assertThat(keySet.contains("s1")).isTrue();
+    assertThat(keySet.contains("s2")).isTrue();
+    assertThat(keySet.contains("other")).isFalse();
+    assertThat(keySet.contains("unknown")).isFalse();
+    assertThat(keySet.contains(null)).isFalse();
+    assertThat(keySet.containsOrdinal(dictionary.find("s2"))).isTrue();
+    assertThat(keySet.containsOrdinal(IdDictionary.NO_ID)).isFalse();
+  }
+
+  @Test
+  public void emptyTable() {
+    KeySet keySet = KeySet.create(new IdDictionary(), ImmutableList.<String>of(), key -> key);
+
+    assertThat(keySet.size()).isEqualTo(0);
+    assertThat(keySet.contains("s1")).isFalse();
+  }
+}
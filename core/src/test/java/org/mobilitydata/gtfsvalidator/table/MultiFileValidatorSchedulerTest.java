@@ -0,0 +1,253 @@
+/*
+ * Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.table;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mobilitydata.gtfsvalidator.notice.NoticeContainer;
+import org.mobilitydata.gtfsvalidator.notice.SeverityLevel;
+import org.mobilitydata.gtfsvalidator.notice.TestValidationNotice;
+import org.mobilitydata.gtfsvalidator.validator.FileValidator;
+import org.mobilitydata.gtfsvalidator.validator.ValidationMetrics;
+
+@RunWith(JUnit4.class)
+public class MultiFileValidatorSchedulerTest {
+
+  private abstract static class TestTableContainer extends GtfsTableContainer<GtfsEntity> {
+    TestTableContainer(TableStatus tableStatus) {
+      super(tableStatus);
+    }
+
+    @Override
+    public Class<GtfsEntity> getEntityClass() {
+      return GtfsEntity.class;
+    }
+
+    @Override
+    public List<GtfsEntity> getEntities() {
+      return ImmutableList.of();
+    }
+
+    @Override
+    public boolean isRequired() {
+      return false;
+    }
+  }
+
+  private static class StopsContainer extends TestTableContainer {
+    StopsContainer(TableStatus tableStatus) {
+      super(tableStatus);
+    }
+
+    @Override
+    public String gtfsFilename() {
+      return "stops.txt";
+    }
+  }
+
+  private static class RoutesContainer extends TestTableContainer {
+    RoutesContainer(TableStatus tableStatus) {
+      super(tableStatus);
+    }
+
+    @Override
+    public String gtfsFilename() {
+      return "routes.txt";
+    }
+  }
+
+  private static class StopTimesContainer extends TestTableContainer {
+    StopTimesContainer(TableStatus tableStatus) {
+      super(tableStatus);
+    }
+
+    @Override
+    public String gtfsFilename() {
+      return "stop_times.txt";
+    }
+  }
+
+  /** Validators that report their name as a notice code. */
+  static class StopsAndRoutesValidator extends FileValidator {
+    @Override
+    public void validate(NoticeContainer noticeContainer) {
+      noticeContainer.addValidationNotice(
+          new TestValidationNotice("stops_and_routes", ImmutableMap.of(), SeverityLevel.INFO));
+    }
+  }
+
+  static class StopTimesValidator extends FileValidator {
+    @Override
+    public void validate(NoticeContainer noticeContainer) {
+      noticeContainer.addValidationNotice(
+          new TestValidationNotice("stop_times", ImmutableMap.of(), SeverityLevel.INFO));
+    }
+  }
+
+  static class ContextOnlyValidator extends FileValidator {
+    @Override
+    public void validate(NoticeContainer noticeContainer) {
+      noticeContainer.addValidationNotice(
+          new TestValidationNotice("context_only", ImmutableMap.of(), SeverityLevel.INFO));
+    }
+  }
+
+  static class ThrowingValidator extends FileValidator {
+    @Override
+    public void validate(NoticeContainer noticeContainer) {
+      throw new IllegalStateException("broken validator");
+    }
+  }
+
+  private final List<GtfsFeedContainer> createdWith = new ArrayList<>();
+  private final ValidationMetrics metrics = new ValidationMetrics();
+
+  private MultiFileValidatorScheduler.ScheduledValidator schedule(
+      Class<? extends FileValidator> validatorClass,
+      List<Class<? extends GtfsTableContainer>> dependencies) {
+    return new MultiFileValidatorScheduler.ScheduledValidator() {
+      @Override
+      public List<Class<? extends GtfsTableContainer>> getDependencies() {
+        return dependencies;
+      }
+
+      @Override
+      public FileValidator create(GtfsFeedContainer tables) {
+        createdWith.add(tables);
+        try {
+          return validatorClass.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+          return null;
+        }
+      }
+    };
+  }
+
+  private MultiFileValidatorScheduler createScheduler() {
+    return new MultiFileValidatorScheduler(
+        ImmutableList.of(
+            schedule(
+                StopsAndRoutesValidator.class,
+                ImmutableList.of(StopsContainer.class, RoutesContainer.class)),
+            schedule(StopTimesValidator.class, ImmutableList.of(StopTimesContainer.class)),
+            schedule(ContextOnlyValidator.class, ImmutableList.of()),
+            schedule(ThrowingValidator.class, ImmutableList.of(StopTimesContainer.class))),
+        MoreExecutors.newDirectExecutorService(),
+        metrics,
+        NoticeContainer.DEFAULT_MAX_NOTICES_PER_TYPE);
+  }
+
+  private static List<String> getNoticeCodes(MultiFileValidatorScheduler scheduler)
+      throws ExecutionException, InterruptedException {
+    List<String> codes = new ArrayList<>();
+    for (Future<NoticeContainer> result : scheduler.getStartedValidators()) {
+      NoticeContainer notices = result.get();
+      notices.getValidationNotices().forEach(notice -> codes.add(notice.getCode()));
+      notices.getSystemErrors().forEach(error -> codes.add(error.getCode()));
+    }
+    return codes;
+  }
+
+  @Test
+  public void startsValidatorWhenItsTablesAreLoaded() throws Exception {
+    MultiFileValidatorScheduler scheduler = createScheduler();
+    scheduler.start();
+    assertThat(getNoticeCodes(scheduler)).containsExactly("context_only");
+
+    StopsContainer stops = new StopsContainer(GtfsTableContainer.TableStatus.EMPTY_FILE);
+    scheduler.tableLoaded(stops);
+    assertThat(getNoticeCodes(scheduler)).containsExactly("context_only");
+
+    scheduler.tableLoaded(new RoutesContainer(GtfsTableContainer.TableStatus.MISSING_FILE));
+    // stop_times.txt is not loaded yet.
+    assertThat(getNoticeCodes(scheduler))
+        .containsExactly("stops_and_routes", "context_only")
+        .inOrder();
+    assertThat(createdWith.get(1).getTable(StopsContainer.class)).isSameInstanceAs(stops);
+
+    scheduler.tableLoaded(
+        new StopTimesContainer(GtfsTableContainer.TableStatus.PARSABLE_HEADERS_AND_ROWS));
+    assertThat(getNoticeCodes(scheduler))
+        .containsExactly(
+            "stops_and_routes", "stop_times", "context_only", "runtime_exception_in_validator")
+        .inOrder();
+  }
+
+  @Test
+  public void recordsTimeOfStartedValidators() throws IOException {
+    MultiFileValidatorScheduler scheduler = createScheduler();
+    scheduler.start();
+    scheduler.tableLoaded(
+        new StopTimesContainer(GtfsTableContainer.TableStatus.PARSABLE_HEADERS_AND_ROWS));
+
+    StringWriter writer = new StringWriter();
+    metrics.exportJson(new NoticeContainer(), writer);
+    List<String> validators = new ArrayList<>();
+    for (JsonElement validator :
+        JsonParser.parseString(writer.toString()).getAsJsonObject().getAsJsonArray("validators")) {
+      validators.add(validator.getAsJsonObject().get("validator").getAsString());
+      assertThat(validator.getAsJsonObject().get("runCount").getAsInt()).isEqualTo(1);
+    }
+    // A validator that throws is recorded as well.
+    assertThat(validators)
+        .containsExactly(
+            ContextOnlyValidator.class.getCanonicalName(),
+            StopTimesValidator.class.getCanonicalName(),
+            ThrowingValidator.class.getCanonicalName())
+        .inOrder();
+  }
+
+  @Test
+  public void skipsValidatorWithFailedDependency() throws Exception {
+    MultiFileValidatorScheduler scheduler = createScheduler();
+    scheduler.start();
+    scheduler.tableLoaded(new StopsContainer(GtfsTableContainer.TableStatus.EMPTY_FILE));
+    scheduler.tableLoaded(new RoutesContainer(GtfsTableContainer.TableStatus.INVALID_HEADERS));
+    scheduler.tableLoaded(
+        new StopTimesContainer(GtfsTableContainer.TableStatus.PARSABLE_HEADERS_AND_ROWS));
+
+    assertThat(getNoticeCodes(scheduler))
+        .containsExactly("stop_times", "context_only", "runtime_exception_in_validator")
+        .inOrder();
+  }
+
+  @Test
+  public void cancelStopsScheduling() throws Exception {
+    MultiFileValidatorScheduler scheduler = createScheduler();
+    scheduler.start();
+    scheduler.cancel();
+    scheduler.tableLoaded(
+        new StopTimesContainer(GtfsTableContainer.TableStatus.PARSABLE_HEADERS_AND_ROWS));
+
+    assertThat(scheduler.getStartedValidators()).hasSize(1);
+    assertThat(createdWith).hasSize(1);
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2021 MobilityData IO
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.table;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class UniqueIndexTest {
+
+  @Test
+  public void putIfAbsentReturnsFirstEntityWithKey() {
+    List<String> rows = ImmutableList.of("stop1 first", "stop2", "stop1 second");
+    UniqueIndex<String, String> index = new UniqueIndex<>(rows);
+
+    assertThat(index.putIfAbsent("stop1", 0)).isNull();
+    assertThat(index.putIfAbsent("stop2", 1)).isNull();
+    assertThat(index.putIfAbsent("stop1", 2)).isEqualTo("stop1 first");
+
+    assertThat(index.size()).isEqualTo(2);
+    assertThat(index.get("stop1")).isEqualTo("stop1 first");
+    assertThat(index.get("stop2")).isEqualTo("stop2");
+    assertThat(index.get("stop3")).isNull();
+  }
+
+  @Test
+  public void growsBeyondTableSize() {
+    List<String> rows = new ArrayList<>();
+    for (int i = 0; i < 10000; ++i) {
+      rows.add("id" + i);
+    }
+    // The index is sized for an empty table, so it grows while keys are added.
+    UniqueIndex<String, String> index = new UniqueIndex<>(ImmutableList.of());
+    UniqueIndex<String, String> sizedIndex = new UniqueIndex<>(rows);
+    for (int i = 0; i < rows.size(); ++i) {
+      sizedIndex.putIfAbsent(rows.get(i), i);
+    }
+
+    for (int i = 0; i < 100; ++i) {
+      assertThat(index.putIfAbsent("id" + i, 0)).isNull();
+    }
+    assertThat(index.size()).isEqualTo(100);
+    assertThat(sizedIndex.size()).isEqualTo(10000);
+    for (int i = 0; i < rows.size(); ++i) {
+      assertThat(sizedIndex.get("id" + i)).isEqualTo(rows.get(i));
+    }
+  }
+
+  @Test
+  public void emptyIndex() {
+    assertThat(UniqueIndex.empty().get("stop1")).isNull();
+    assertThat(UniqueIndex.empty().size()).isEqualTo(0);
+  }
+}
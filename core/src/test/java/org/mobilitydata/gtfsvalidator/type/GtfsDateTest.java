@@ -19,6 +19,8 @@ package org.mobilitydata.gtfsvalidator.type;
 import static com.google.common.truth.Truth.assertThat;
 import static org.junit.Assert.assertThrows;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -34,6 +36,34 @@ public class GtfsDateTest {
     assertThrows(IllegalArgumentException.class, () -> GtfsDate.fromString("0"));
     assertThrows(IllegalArgumentException.class, () -> GtfsDate.fromString("qwerty"));
     assertThrows(IllegalArgumentException.class, () -> GtfsDate.fromString("today"));
+    assertThrows(IllegalArgumentException.class, () -> GtfsDate.fromString("19990229"));
+  }
+
+  @Test
+  public void parseEpochDayMatchesLocalDate() {
+    LocalDate end = LocalDate.of(2101, 1, 1);
+    for (LocalDate date = LocalDate.of(1899, 1, 1); date.isBefore(end); date = date.plusDays(1)) {
+      String yyyymmdd =
+          String.format("%04d%02d%02d", date.getYear(), date.getMonthValue(), date.getDayOfMonth());
+      assertThat(GtfsDate.parseEpochDay(yyyymmdd)).isEqualTo(date.toEpochDay());
+      byte[] bytes = yyyymmdd.getBytes(StandardCharsets.US_ASCII);
+      assertThat(GtfsDate.parseEpochDay(ByteBuffer.wrap(bytes), 0, bytes.length))
+          .isEqualTo(date.toEpochDay());
+    }
+    assertThat(GtfsDate.parseEpochDay("00000101")).isEqualTo(LocalDate.of(0, 1, 1).toEpochDay());
+    assertThat(GtfsDate.parseEpochDay("99991231"))
+        .isEqualTo(LocalDate.of(9999, 12, 31).toEpochDay());
+  }
+
+  @Test
+  public void parseEpochDayInvalid() {
+    String[] invalidDates = {
+      "", "2020091", "202009011", "2020-9-1", "20200001", "20201301", "20200900", "20200931",
+      "19000229", "20210229"
+    };
+    for (String date : invalidDates) {
+      assertThat(GtfsDate.parseEpochDay(date)).isEqualTo(GtfsDate.INVALID_EPOCH_DAY);
+    }
   }
 
   @Test
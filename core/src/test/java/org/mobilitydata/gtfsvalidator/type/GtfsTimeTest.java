@@ -19,6 +19,8 @@ package org.mobilitydata.gtfsvalidator.type;
 import static com.google.common.truth.Truth.assertThat;
 import static org.junit.Assert.assertThrows;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
@@ -41,6 +43,29 @@ public class GtfsTimeTest {
     assertThrows(IllegalArgumentException.class, () -> GtfsTime.fromString("prefix4:00:12suffix"));
   }
 
+  @Test
+  public void parseSecondsSinceMidnight() {
+    assertThat(GtfsTime.parseSecondsSinceMidnight("12:20:30"))
+        .isEqualTo(12 * 3600 + 20 * 60 + 30);
+    assertThat(GtfsTime.parseSecondsSinceMidnight("0:00:00")).isEqualTo(0);
+    assertThat(GtfsTime.parseSecondsSinceMidnight("999:59:59"))
+        .isEqualTo(999 * 3600 + 59 * 60 + 59);
+    assertThat(
+            GtfsTime.parseSecondsSinceMidnight(
+                ByteBuffer.wrap("x25:01:02".getBytes(StandardCharsets.US_ASCII)), 1, 9))
+        .isEqualTo(25 * 3600 + 60 + 2);
+
+    String[] invalidTimes = {
+      "", "1:2:3", "12:60:00", "12:00:60", "1a:00:00", "12-00-00", "12:0:000", "1234:00:00"
+    };
+    for (String time : invalidTimes) {
+      assertThat(GtfsTime.parseSecondsSinceMidnight(time)).isEqualTo(GtfsTime.INVALID_SECONDS);
+      byte[] bytes = time.getBytes(StandardCharsets.US_ASCII);
+      assertThat(GtfsTime.parseSecondsSinceMidnight(ByteBuffer.wrap(bytes), 0, bytes.length))
+          .isEqualTo(GtfsTime.INVALID_SECONDS);
+    }
+  }
+
   @Test
   public void fromHourMinuteSecondShouldReturnEntityWithCorrectData() {
     assertThat(GtfsTime.fromHourMinuteSecond(12, 20, 20).getSecond()).isEqualTo(20);
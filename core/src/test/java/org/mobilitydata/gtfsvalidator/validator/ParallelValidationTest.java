@@ -0,0 +1,56 @@
+/*
+ * Copyright 2021 MobilityData IO
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.validator;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.util.stream.Collectors.toList;
+
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ParallelValidationTest {
+  private static final List<Integer> ITEMS = ImmutableList.of(1, 2, 3, 4, 5);
+
+  @Test
+  public void sequentialOutsideOfForkJoinPool() {
+    assertThat(ParallelValidation.isEnabled()).isFalse();
+    assertThat(ParallelValidation.stream(ITEMS).isParallel()).isFalse();
+    assertThat(ParallelValidation.range(0, 5).isParallel()).isFalse();
+  }
+
+  @Test
+  public void parallelInForkJoinPoolKeepsOrder() throws InterruptedException, ExecutionException {
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      assertThat(pool.submit(() -> ParallelValidation.stream(ITEMS).isParallel()).get()).isTrue();
+      assertThat(pool.submit(() -> ParallelValidation.range(0, 5).isParallel()).get()).isTrue();
+      assertThat(
+              pool.submit(() -> ParallelValidation.stream(ITEMS).map(i -> i * 2).collect(toList()))
+                  .get())
+          .containsExactly(2, 4, 6, 8, 10)
+          .inOrder();
+    } finally {
+      pool.shutdown();
+    }
+  }
+}
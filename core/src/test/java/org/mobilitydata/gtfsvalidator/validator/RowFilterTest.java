@@ -0,0 +1,52 @@
+/*
+ * Copyright 2021 MobilityData IO
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.validator;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class RowFilterTest {
+  private static final int ROW_COUNT = RowFilter.CHUNK_SIZE * 5 + 17;
+
+  private static int[] expectedRows() {
+    return IntStream.range(0, ROW_COUNT).filter(row -> row % 7 == 3).toArray();
+  }
+
+  @Test
+  public void findRowsInCallingThread() {
+    assertThat(RowFilter.findRows(ROW_COUNT, row -> row % 7 == 3)).isEqualTo(expectedRows());
+    assertThat(RowFilter.findRows(0, row -> true)).isEmpty();
+  }
+
+  @Test
+  public void findRowsInParallelKeepsOrder() throws InterruptedException, ExecutionException {
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      assertThat(pool.submit(() -> RowFilter.findRows(ROW_COUNT, row -> row % 7 == 3)).get())
+          .isEqualTo(expectedRows());
+    } finally {
+      pool.shutdown();
+    }
+  }
+}
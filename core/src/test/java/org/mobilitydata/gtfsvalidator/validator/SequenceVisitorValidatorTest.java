@@ -0,0 +1,194 @@
+/*
+ * Copyright 2021 MobilityData IO
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.validator;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonParser;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mobilitydata.gtfsvalidator.notice.NoticeContainer;
+import org.mobilitydata.gtfsvalidator.notice.SeverityLevel;
+import org.mobilitydata.gtfsvalidator.notice.TestValidationNotice;
+import org.mobilitydata.gtfsvalidator.notice.ValidationNotice;
+import org.mobilitydata.gtfsvalidator.table.GtfsEntity;
+import org.mobilitydata.gtfsvalidator.table.GtfsTableContainer;
+
+@RunWith(JUnit4.class)
+public class SequenceVisitorValidatorTest {
+  /** More sequences than fit into a single batch. */
+  private static final int SEQUENCE_COUNT = SequenceVisitorValidator.BATCH_SIZE * 3 + 1;
+
+  private static class SequenceTableContainer extends GtfsTableContainer<GtfsEntity> {
+    private final List<List<GtfsEntity>> sequences = new ArrayList<>();
+
+    SequenceTableContainer(int sequenceCount) {
+      super(TableStatus.PARSABLE_HEADERS_AND_ROWS);
+      for (int i = 0; i < sequenceCount; ++i) {
+        final long csvRowNumber = i + 2;
+        sequences.add(ImmutableList.of(() -> csvRowNumber));
+      }
+    }
+
+    @Override
+    public Class<GtfsEntity> getEntityClass() {
+      return GtfsEntity.class;
+    }
+
+    @Override
+    public List<GtfsEntity> getEntities() {
+      List<GtfsEntity> entities = new ArrayList<>();
+      sequences.forEach(entities::addAll);
+      return entities;
+    }
+
+    @Override
+    public Collection<List<GtfsEntity>> getSequences() {
+      return sequences;
+    }
+
+    @Override
+    public String gtfsFilename() {
+      return "sequences.txt";
+    }
+
+    @Override
+    public boolean isRequired() {
+      return false;
+    }
+  }
+
+  /** Reports the row of the first entity of every sequence. */
+  private static class RowVisitor extends SequenceVisitor<GtfsEntity> {
+    private final String code;
+
+    RowVisitor(String code) {
+      this.code = code;
+    }
+
+    @Override
+    public void visit(List<GtfsEntity> sequence, NoticeContainer noticeContainer) {
+      noticeContainer.addValidationNotice(
+          new TestValidationNotice(
+              code,
+              ImmutableMap.of("csvRowNumber", sequence.get(0).csvRowNumber()),
+              SeverityLevel.INFO));
+    }
+  }
+
+  private static class ThrowingVisitor extends SequenceVisitor<GtfsEntity> {
+    @Override
+    public void visit(List<GtfsEntity> sequence, NoticeContainer noticeContainer) {
+      throw new IllegalStateException("broken visitor");
+    }
+  }
+
+  private static SequenceVisitorValidator<GtfsEntity> createValidator(
+      List<SequenceVisitor<GtfsEntity>> visitors) {
+    return new SequenceVisitorValidator<>(
+        new SequenceTableContainer(SEQUENCE_COUNT), visitors, new ValidationMetrics());
+  }
+
+  private static List<Long> getRows(NoticeContainer noticeContainer, String code) {
+    List<Long> rows = new ArrayList<>();
+    for (ValidationNotice notice : noticeContainer.getValidationNotices()) {
+      if (notice.getCode().equals(code)) {
+        rows.add((Long) notice.getContext().get("csvRowNumber"));
+      }
+    }
+    return rows;
+  }
+
+  private static List<Long> getAllRows() {
+    List<Long> rows = new ArrayList<>();
+    for (int i = 0; i < SEQUENCE_COUNT; ++i) {
+      rows.add((long) i + 2);
+    }
+    return rows;
+  }
+
+  @Test
+  public void visitsSequencesInOrder() {
+    NoticeContainer noticeContainer = new NoticeContainer();
+
+    createValidator(ImmutableList.of(new RowVisitor("first"), new RowVisitor("second")))
+        .validate(noticeContainer);
+
+    assertThat(getRows(noticeContainer, "first")).containsExactlyElementsIn(getAllRows()).inOrder();
+    assertThat(getRows(noticeContainer, "second"))
+        .containsExactlyElementsIn(getAllRows())
+        .inOrder();
+  }
+
+  @Test
+  public void visitsSequencesInOrderInForkJoinPool() throws Exception {
+    NoticeContainer noticeContainer = new NoticeContainer();
+    SequenceVisitorValidator<GtfsEntity> validator =
+        createValidator(ImmutableList.of(new RowVisitor("first")));
+
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      pool.submit(() -> validator.validate(noticeContainer)).get();
+    } finally {
+      pool.shutdown();
+    }
+
+    assertThat(getRows(noticeContainer, "first")).containsExactlyElementsIn(getAllRows()).inOrder();
+  }
+
+  @Test
+  public void throwingVisitorIsReportedOnce() {
+    NoticeContainer noticeContainer = new NoticeContainer();
+
+    createValidator(ImmutableList.of(new ThrowingVisitor(), new RowVisitor("first")))
+        .validate(noticeContainer);
+
+    assertThat(noticeContainer.getSystemErrors()).hasSize(1);
+    assertThat(noticeContainer.getSystemErrors().get(0).getCode())
+        .isEqualTo("runtime_exception_in_validator");
+    assertThat(getRows(noticeContainer, "first")).hasSize(SEQUENCE_COUNT);
+  }
+
+  @Test
+  public void recordsOneRunPerVisitor() throws Exception {
+    ValidationMetrics metrics = new ValidationMetrics();
+    NoticeContainer noticeContainer = new NoticeContainer();
+
+    new SequenceVisitorValidator<>(
+            new SequenceTableContainer(SEQUENCE_COUNT),
+            ImmutableList.of(new RowVisitor("first")),
+            metrics)
+        .validate(noticeContainer);
+
+    StringWriter writer = new StringWriter();
+    metrics.exportJson(noticeContainer, writer);
+    JsonArray validators =
+        JsonParser.parseString(writer.toString()).getAsJsonObject().getAsJsonArray("validators");
+    assertThat(validators.size()).isEqualTo(1);
+    // Batches of a visitor are recorded as a single run.
+    assertThat(validators.get(0).getAsJsonObject().get("runCount").getAsInt()).isEqualTo(1);
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2021 MobilityData IO
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.validator;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.io.IOException;
+import java.io.StringWriter;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mobilitydata.gtfsvalidator.notice.MissingRequiredFileError;
+import org.mobilitydata.gtfsvalidator.notice.NoticeContainer;
+
+@RunWith(JUnit4.class)
+public class ValidationMetricsTest {
+
+  private static class NoticeValidator extends FileValidator {
+    @Override
+    public void validate(NoticeContainer noticeContainer) {
+      noticeContainer.addValidationNotice(new MissingRequiredFileError("stops.txt"));
+    }
+  }
+
+  private static JsonObject export(ValidationMetrics metrics, NoticeContainer noticeContainer)
+      throws IOException {
+    StringWriter writer = new StringWriter();
+    metrics.exportJson(noticeContainer, writer);
+    return JsonParser.parseString(writer.toString()).getAsJsonObject();
+  }
+
+  @Test
+  public void exportTables() throws IOException {
+    ValidationMetrics metrics = new ValidationMetrics();
+    metrics.recordTableParsed("stops.txt", 1000, 20, 2_000_000, 500_000);
+    metrics.recordTableIndexed("stops.txt", 300_000);
+    metrics.recordTableParsed("agency.txt", 100, 1, 0, 0);
+
+    JsonArray tables = export(metrics, new NoticeContainer()).getAsJsonArray("tables");
+
+    assertThat(tables.size()).isEqualTo(2);
+    JsonObject agency = tables.get(0).getAsJsonObject();
+    assertThat(agency.get("filename").getAsString()).isEqualTo("agency.txt");
+    assertThat(agency.get("rowsPerSecond").getAsLong()).isEqualTo(0);
+    JsonObject stops = tables.get(1).getAsJsonObject();
+    assertThat(stops.get("filename").getAsString()).isEqualTo("stops.txt");
+    assertThat(stops.get("bytesRead").getAsLong()).isEqualTo(1000);
+    assertThat(stops.get("rowCount").getAsLong()).isEqualTo(20);
+    assertThat(stops.get("parseMillis").getAsDouble()).isEqualTo(2.0);
+    assertThat(stops.get("rowsPerSecond").getAsLong()).isEqualTo(10000);
+    assertThat(stops.get("singleEntityValidatorMillis").getAsDouble()).isEqualTo(0.5);
+    assertThat(stops.get("indexMillis").getAsDouble()).isEqualTo(0.3);
+  }
+
+  @Test
+  public void runFileValidatorRecordsEveryRun() throws IOException {
+    ValidationMetrics metrics = new ValidationMetrics();
+    NoticeContainer noticeContainer = new NoticeContainer();
+    metrics.runFileValidator(new NoticeValidator(), noticeContainer);
+    metrics.runFileValidator(new NoticeValidator(), noticeContainer);
+
+    JsonObject json = export(metrics, noticeContainer);
+
+    JsonArray validators = json.getAsJsonArray("validators");
+    assertThat(validators.size()).isEqualTo(1);
+    JsonObject validator = validators.get(0).getAsJsonObject();
+    assertThat(validator.get("validator").getAsString())
+        .isEqualTo(NoticeValidator.class.getCanonicalName());
+    assertThat(validator.get("runCount").getAsInt()).isEqualTo(2);
+    assertThat(validator.get("wallMillis").getAsDouble()).isAtLeast(0.0);
+    assertThat(validator.get("cpuMillis").getAsDouble()).isAtLeast(0.0);
+    assertThat(json.getAsJsonObject("noticeCounts").get("missing_required_file").getAsLong())
+        .isEqualTo(2);
+  }
+}
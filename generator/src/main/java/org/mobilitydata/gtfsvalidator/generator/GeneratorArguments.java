@@ -0,0 +1,151 @@
+/*
+ * Copyright 2021 MobilityData IO
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mobilitydata.gtfsvalidator.generator;
+
+import com.beust.jcommander.Parameter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Command-line arguments for {@link SyntheticFeedMain}. Knobs that are not given keep their
+ * defaults from {@link SyntheticFeedConfig}.
+ */
+public class GeneratorArguments {
+
+  @Parameter(
+      names = {"-o", "--output"},
+      description = "Directory for the feed, or a path ending with .zip for an archive",
+      required = true)
+  private String output;
+
+  @Parameter(
+      names = {"--seed"},
+      description = "Seed of the pseudo-random generator")
+  private Long seed;
+
+  @Parameter(
+      names = {"--stops"},
+      description = "Number of stops")
+  private Integer stopCount;
+
+  @Parameter(
+      names = {"--routes"},
+      description = "Number of routes")
+  private Integer routeCount;
+
+  @Parameter(
+      names = {"--trips"},
+      description = "Number of trips")
+  private Integer tripCount;
+
+  @Parameter(
+      names = {"--stop_times_per_trip"},
+      description = "Number of stop times of every trip")
+  private Integer stopTimesPerTrip;
+
+  @Parameter(
+      names = {"--shape_points_between_stops"},
+      description = "Number of shape points between two consecutive stops")
+  private Integer shapePointsBetweenStops;
+
+  @Parameter(
+      names = {"--services"},
+      description = "Number of services in calendar.txt")
+  private Integer serviceCount;
+
+  @Parameter(
+      names = {"--calendar_dates_per_service"},
+      description = "Number of exceptions in calendar_dates.txt per service")
+  private Integer calendarDatesPerService;
+
+  @Parameter(
+      names = {"--trips_per_block"},
+      description = "Number of trips in a block, 0 leaves block_id out")
+  private Integer tripsPerBlock;
+
+  @Parameter(
+      names = {"--stations"},
+      description = "Number of stations with an entrance and a pathway")
+  private Integer stationCount;
+
+  @Parameter(
+      names = {"--frequency_trips"},
+      description = "Number of trips that also run by frequencies")
+  private Integer frequencyTripCount;
+
+  @Parameter(
+      names = {"--error_rate"},
+      description =
+          "Share of rows with an injected error as notice_code=rate, e.g., invalid_time=0.01. "
+              + "May be repeated")
+  private List<String> errorRates = new ArrayList<>();
+
+  public String getOutput() {
+    return output;
+  }
+
+  /**
+   * Returns the config with the given knobs and defaults for the others.
+   *
+   * @throws IllegalArgumentException if a knob is invalid
+   */
+  public SyntheticFeedConfig toConfig() {
+    SyntheticFeedConfig.Builder builder = SyntheticFeedConfig.builder();
+    if (seed != null) {
+      builder.setSeed(seed);
+    }
+    if (stopCount != null) {
+      builder.setStopCount(stopCount);
+    }
+    if (routeCount != null) {
+      builder.setRouteCount(routeCount);
+    }
+    if (tripCount != null) {
+      builder.setTripCount(tripCount);
+    }
+    if (stopTimesPerTrip != null) {
+      builder.setStopTimesPerTrip(stopTimesPerTrip);
+    }
+    if (shapePointsBetweenStops != null) {
+      builder.setShapePointsBetweenStops(shapePointsBetweenStops);
+    }
+    if (serviceCount != null) {
+      builder.setServiceCount(serviceCount);
+    }
+    if (calendarDatesPerService != null) {
+      builder.setCalendarDatesPerService(calendarDatesPerService);
+    }
+    if (tripsPerBlock != null) {
+      builder.setTripsPerBlock(tripsPerBlock);
+    }
+    if (stationCount != null) {
+      builder.setStationCount(stationCount);
+    }
+    if (frequencyTripCount != null) {
+      builder.setFrequencyTripCount(frequencyTripCount);
+    }
+    for (String errorRate : errorRates) {
+      final int separator = errorRate.indexOf('=');
+      if (separator < 0) {
+        throw new IllegalArgumentException("Expected notice_code=rate: " + errorRate);
+      }
+      builder.setErrorRate(
+          InjectedError.forNoticeCode(errorRate.substring(0, separator)),
+          Double.parseDouble(errorRate.substring(separator + 1)));
+    }
+    return builder.build();
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2021 MobilityData IO
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mobilitydata.gtfsvalidator.generator;
+
+/**
+ * Errors that {@link SyntheticFeedGenerator} can inject into a feed.
+ *
+ * <p>The rate of an error is the probability that a row which can carry it is corrupted. Every
+ * corrupted row makes the validator report at least one notice with {@link #noticeCode()}.
+ */
+public enum InjectedError {
+  /** A row of stops.txt is written twice. */
+  DUPLICATE_KEY("duplicate_key"),
+  /** A row of stop_times.txt refers to a stop that does not exist. */
+  FOREIGN_KEY_ERROR("foreign_key_error"),
+  /** Arrival and departure times of an intermediate stop time have 60 minutes. */
+  INVALID_TIME("invalid_time"),
+  /** A row of routes.txt has a route_color that is not a hexadecimal color. */
+  INVALID_COLOR("invalid_color"),
+  /** A row of routes.txt has neither route_short_name nor route_long_name. */
+  ROUTE_BOTH_SHORT_AND_LONG_NAME_MISSING("route_both_short_and_long_name_missing"),
+  /** A stop time other than the first one of a trip arrives before the previous departure. */
+  STOP_TIME_WITH_ARRIVAL_BEFORE_PREVIOUS_DEPARTURE_TIME(
+      "stop_time_with_arrival_before_previous_departure_time");
+
+  private final String noticeCode;
+
+  InjectedError(String noticeCode) {
+    this.noticeCode = noticeCode;
+  }
+
+  /** Returns the code of the notice that the error produces, e.g., "foreign_key_error". */
+  public String noticeCode() {
+    return noticeCode;
+  }
+
+  /**
+   * Returns the error that produces a notice with a given code.
+   *
+   * @throws IllegalArgumentException if no error produces such notices
+   */
+  public static InjectedError forNoticeCode(String noticeCode) {
+    for (InjectedError error : values()) {
+      if (error.noticeCode.equals(noticeCode)) {
+        return error;
+      }
+    }
+    throw new IllegalArgumentException("Cannot inject notice " + noticeCode);
+  }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2021 MobilityData IO
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mobilitydata.gtfsvalidator.generator;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Knobs of {@link SyntheticFeedGenerator}.
+ *
+ * <p>The same config always produces the same feed, byte for byte.
+ */
+@AutoValue
+public abstract class SyntheticFeedConfig {
+  /** Returns a builder with defaults for a small valid feed of about 20,000 stop times. */
+  public static Builder builder() {
+    return new AutoValue_SyntheticFeedConfig.Builder()
+        .setSeed(1)
+        .setStopCount(1000)
+        .setRouteCount(20)
+        .setTripCount(1000)
+        .setStopTimesPerTrip(20)
+        .setShapePointsBetweenStops(2)
+        .setServiceCount(2)
+        .setCalendarDatesPerService(5)
+        .setTripsPerBlock(0)
+        .setStationCount(10)
+        .setFrequencyTripCount(10);
+  }
+
+  public abstract Builder toBuilder();
+
+  /** Seed of the pseudo-random generator. */
+  public abstract long seed();
+
+  /** Number of rows in stops.txt. Stops are laid out on a jittered grid with 400 m spacing. */
+  public abstract int stopCount();
+
+  /** Number of rows in routes.txt. Every route has its own pattern of stops. */
+  public abstract int routeCount();
+
+  /** Number of rows in trips.txt. Trips are spread evenly over routes and over the day. */
+  public abstract int tripCount();
+
+  /** Number of rows in stop_times.txt per trip. */
+  public abstract int stopTimesPerTrip();
+
+  /** Number of additional shape points between two consecutive stops of a pattern. */
+  public abstract int shapePointsBetweenStops();
+
+  /**
+   * Number of rows in calendar.txt. The first two services run on weekdays and on weekends, the
+   * others on random days of week. Trips take services in turns.
+   */
+  public abstract int serviceCount();
+
+  /** Number of rows in calendar_dates.txt per service, at most 365. */
+  public abstract int calendarDatesPerService();
+
+  /**
+   * Number of trips that a vehicle runs in one block, or 0 to leave block_id out. Trips of a block
+   * never overlap in time.
+   */
+  public abstract int tripsPerBlock();
+
+  /**
+   * Number of stops that become platforms of a station. Every station has an entrance and a
+   * pathway from the entrance to the platform.
+   */
+  public abstract int stationCount();
+
+  /** Number of trips that also run by frequencies. */
+  public abstract int frequencyTripCount();
+
+  /** Rates of injected errors, see {@link InjectedError}. Absent errors are not injected. */
+  public abstract ImmutableMap<InjectedError, Double> errorRates();
+
+  /** Returns the rate of an injected error, 0 if it is not injected. */
+  public double errorRate(InjectedError error) {
+    return errorRates().getOrDefault(error, 0.0);
+  }
+
+  @AutoValue.Builder
+  public abstract static class Builder {
+    public abstract Builder setSeed(long seed);
+
+    public abstract Builder setStopCount(int stopCount);
+
+    public abstract Builder setRouteCount(int routeCount);
+
+    public abstract Builder setTripCount(int tripCount);
+
+    public abstract Builder setStopTimesPerTrip(int stopTimesPerTrip);
+
+    public abstract Builder setShapePointsBetweenStops(int shapePointsBetweenStops);
+
+    public abstract Builder setServiceCount(int serviceCount);
+
+    public abstract Builder setCalendarDatesPerService(int calendarDatesPerService);
+
+    public abstract Builder setTripsPerBlock(int tripsPerBlock);
+
+    public abstract Builder setStationCount(int stationCount);
+
+    public abstract Builder setFrequencyTripCount(int frequencyTripCount);
+
+    abstract ImmutableMap.Builder<InjectedError, Double> errorRatesBuilder();
+
+    /** Injects an error into a given share of rows, from 0 to 1. */
+    public Builder setErrorRate(InjectedError error, double rate) {
+      errorRatesBuilder().put(error, rate);
+      return this;
+    }
+
+    abstract SyntheticFeedConfig autoBuild();
+
+    public SyntheticFeedConfig build() {
+      SyntheticFeedConfig config = autoBuild();
+      if (config.stopCount() < 2
+          || config.routeCount() < 1
+          || config.tripCount() < 0
+          || config.stopTimesPerTrip() < 2
+          || config.shapePointsBetweenStops() < 0
+          || config.serviceCount() < 1
+          || config.calendarDatesPerService() < 0
+          || config.calendarDatesPerService() > 365
+          || config.tripsPerBlock() < 0
+          || config.stationCount() < 0
+          || config.stationCount() > config.stopCount()
+          || config.frequencyTripCount() < 0
+          || !config.errorRates().values().stream().allMatch(rate -> rate >= 0 && rate <= 1)) {
+        throw new IllegalArgumentException("Invalid synthetic feed config: " + config);
+      }
+      return config;
+    }
+  }
+}
@@ -0,0 +1,689 @@
+/*
+ * Copyright 2021 MobilityData IO
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mobilitydata.gtfsvalidator.generator;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Generates a synthetic GTFS feed of a configurable size.
+ *
+ * <p>Stops are laid out on a jittered grid. Every route follows a random walk over neighbouring
+ * stops, and its trips run the walk back and forth over the day. Shapes follow the stops of the
+ * walk, and stop times follow the distance between stops at a bus speed, so a generated feed is
+ * valid and validators have to do their usual amount of work on it. Every table that the validator
+ * knows is generated; the small ones, such as fares or pathways, have a few rows per route or per
+ * station.
+ *
+ * <p>The feed only depends on {@link SyntheticFeedConfig}, so benchmarks and tests can reproduce
+ * it offline instead of shipping agency data. Tables are streamed row by row, so a feed with
+ * millions of stop times does not need to fit into memory.
+ */
+public final class SyntheticFeedGenerator {
+  /** Names of generated tables in the order they are written. */
+  public static final List<String> TABLE_NAMES =
+      Collections.unmodifiableList(
+          Arrays.asList(
+              "agency.txt",
+              "levels.txt",
+              "stops.txt",
+              "routes.txt",
+              "calendar.txt",
+              "calendar_dates.txt",
+              "shapes.txt",
+              "trips.txt",
+              "stop_times.txt",
+              "frequencies.txt",
+              "transfers.txt",
+              "pathways.txt",
+              "fare_attributes.txt",
+              "fare_rules.txt",
+              "feed_info.txt",
+              "translations.txt",
+              "attributions.txt"));
+
+  private static final double ORIGIN_LAT = 45.45;
+  private static final double ORIGIN_LON = -73.75;
+  private static final double METERS_PER_DEGREE = 111_195;
+  private static final double STOP_SPACING_METERS = 400;
+  private static final double SPEED_METERS_PER_SECOND = 10;
+  private static final int DWELL_SECONDS = 20;
+  private static final int LAYOVER_SECONDS = 60;
+  private static final int FIRST_DEPARTURE_SECONDS = 5 * 3600;
+  private static final int SERVICE_SPAN_SECONDS = 19 * 3600;
+  private static final LocalDate SERVICE_START = LocalDate.of(2021, 1, 1);
+  private static final int SERVICE_DAYS = 365;
+  private static final String[] NAMED_SERVICE_IDS = {"weekday", "weekend"};
+
+  /** Days of week of named services, bit 0 is Monday. */
+  private static final int[] NAMED_SERVICE_DAYS = {0b0011111, 0b1100000};
+
+  private static final String[] ROUTE_COLORS = {"003366", "8B0000", "006400", "4B0082"};
+
+  private final SyntheticFeedConfig config;
+  private final double[] stopLats;
+  private final double[] stopLons;
+
+  /** Indices of stops that every route visits in direction 0. */
+  private final int[][] patterns;
+
+  /** Seconds from the first departure to the arrival at every stop of a pattern. */
+  private final int[][] arrivalOffsets;
+
+  /** Number of vehicles that every route needs, so that trips of a vehicle do not overlap. */
+  private final int[] vehiclesPerRoute;
+
+  /** Days of week of every service, bit 0 is Monday. */
+  private final int[] serviceDays;
+
+  /** Index of the station that a stop is a platform of, or -1. */
+  private final int[] stationOfStop;
+
+  public SyntheticFeedGenerator(SyntheticFeedConfig config) {
+    this.config = config;
+    Random random = new Random(config.seed());
+    final int stopCount = config.stopCount();
+    final int gridWidth = (int) Math.ceil(Math.sqrt(stopCount));
+    final double latSpacing = STOP_SPACING_METERS / METERS_PER_DEGREE;
+    final double lonSpacing = latSpacing / Math.cos(Math.toRadians(ORIGIN_LAT));
+    stopLats = new double[stopCount];
+    stopLons = new double[stopCount];
+    for (int i = 0; i < stopCount; ++i) {
+      stopLats[i] = ORIGIN_LAT + (i / gridWidth + (random.nextDouble() - 0.5) * 0.5) * latSpacing;
+      stopLons[i] = ORIGIN_LON + (i % gridWidth + (random.nextDouble() - 0.5) * 0.5) * lonSpacing;
+    }
+
+    patterns = new int[config.routeCount()][];
+    arrivalOffsets = new int[config.routeCount()][];
+    vehiclesPerRoute = new int[config.routeCount()];
+    final int[] neighbours = new int[4];
+    for (int r = 0; r < config.routeCount(); ++r) {
+      final int[] pattern = new int[config.stopTimesPerTrip()];
+      pattern[0] = random.nextInt(stopCount);
+      for (int i = 1; i < pattern.length; ++i) {
+        final int current = pattern[i - 1];
+        final int previous = i > 1 ? pattern[i - 2] : -1;
+        int n = 0;
+        for (int candidate :
+            new int[] {
+              current % gridWidth > 0 ? current - 1 : -1,
+              current % gridWidth < gridWidth - 1 ? current + 1 : -1,
+              current - gridWidth,
+              current + gridWidth
+            }) {
+          if (candidate >= 0 && candidate < stopCount && candidate != previous) {
+            neighbours[n++] = candidate;
+          }
+        }
+        pattern[i] = n > 0 ? neighbours[random.nextInt(n)] : previous;
+      }
+      patterns[r] = pattern;
+      final int[] offsets = new int[pattern.length];
+      for (int i = 1; i < pattern.length; ++i) {
+        final double meters = distanceInMeters(pattern[i - 1], pattern[i]);
+        offsets[i] =
+            offsets[i - 1] + DWELL_SECONDS + (int) Math.ceil(meters / SPEED_METERS_PER_SECOND);
+      }
+      arrivalOffsets[r] = offsets;
+      // Departures of consecutive trips of a vehicle are more than a layover apart from its
+      // arrival, see departureOfTrip().
+      final double headway = (double) SERVICE_SPAN_SECONDS / Math.max(1, tripsOfRoute(r));
+      vehiclesPerRoute[r] =
+          (int) Math.ceil((offsets[offsets.length - 1] + LAYOVER_SECONDS) / headway) + 1;
+    }
+
+    serviceDays = new int[config.serviceCount()];
+    for (int i = 0; i < serviceDays.length; ++i) {
+      serviceDays[i] =
+          i < NAMED_SERVICE_DAYS.length ? NAMED_SERVICE_DAYS[i] : 1 + random.nextInt(0b1111111);
+    }
+
+    stationOfStop = new int[stopCount];
+    Arrays.fill(stationOfStop, -1);
+    for (int i = 0; i < config.stationCount(); ++i) {
+      stationOfStop[platformOfStation(i)] = i;
+    }
+  }
+
+  private double distanceInMeters(int fromStop, int toStop) {
+    final double y = stopLats[toStop] - stopLats[fromStop];
+    final double x =
+        (stopLons[toStop] - stopLons[fromStop]) * Math.cos(Math.toRadians(stopLats[fromStop]));
+    return Math.sqrt(x * x + y * y) * METERS_PER_DEGREE;
+  }
+
+  public SyntheticFeedConfig getConfig() {
+    return config;
+  }
+
+  /**
+   * Writes all tables to a directory, one file per table.
+   *
+   * @param directory existing directory for the feed
+   * @throws IOException if a file cannot be written
+   */
+  public void writeDirectory(Path directory) throws IOException {
+    for (String filename : TABLE_NAMES) {
+      try (Writer out = Files.newBufferedWriter(directory.resolve(filename))) {
+        writeTable(filename, out);
+      }
+    }
+  }
+
+  /**
+   * Writes all tables to a ZIP archive.
+   *
+   * @param zipFile path to the archive; it is overwritten if it exists
+   * @throws IOException if the archive cannot be written
+   */
+  public void writeZip(Path zipFile) throws IOException {
+    try (OutputStream file = Files.newOutputStream(zipFile);
+        ZipOutputStream zip = new ZipOutputStream(file)) {
+      // Closing the writer would close the archive, so it is only flushed after every table.
+      Writer out = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8));
+      for (String filename : TABLE_NAMES) {
+        zip.putNextEntry(new ZipEntry(filename));
+        writeTable(filename, out);
+        out.flush();
+        zip.closeEntry();
+      }
+    }
+  }
+
+  /**
+   * Returns the content of a table as UTF-8 bytes. Useful for small feeds in benchmarks and tests.
+   *
+   * @param filename name of the table, one of {@link #TABLE_NAMES}
+   * @return content of the table
+   */
+  public byte[] tableBytes(String filename) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (Writer out = new BufferedWriter(new OutputStreamWriter(bytes, StandardCharsets.UTF_8))) {
+      writeTable(filename, out);
+    } catch (IOException e) {
+      // Writing to memory does not fail.
+      throw new UncheckedIOException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Writes a table in CSV format.
+   *
+   * <p>Every table has its own pseudo-random generator for injected errors, so a table is the same
+   * no matter in which order the tables are written.
+   *
+   * @param filename name of the table, one of {@link #TABLE_NAMES}
+   * @param out writer for the table
+   * @throws IOException if writing fails
+   */
+  public void writeTable(String filename, Writer out) throws IOException {
+    final Random random = new Random(config.seed() * 31 + filename.hashCode());
+    switch (filename) {
+      case "agency.txt":
+        out.write("agency_id,agency_name,agency_url,agency_timezone\n");
+        out.write("agency1,Synthetic Transit,https://www.example.com,America/Montreal\n");
+        break;
+      case "levels.txt":
+        out.write("level_id,level_index,level_name\n");
+        out.write("l0,0,Street\n");
+        out.write("l1,-1,Platforms\n");
+        break;
+      case "stops.txt":
+        writeStops(out, random);
+        break;
+      case "routes.txt":
+        writeRoutes(out, random);
+        break;
+      case "calendar.txt":
+        writeCalendar(out);
+        break;
+      case "calendar_dates.txt":
+        writeCalendarDates(out, random);
+        break;
+      case "shapes.txt":
+        writeShapes(out);
+        break;
+      case "trips.txt":
+        writeTrips(out);
+        break;
+      case "stop_times.txt":
+        writeStopTimes(out, random);
+        break;
+      case "frequencies.txt":
+        writeFrequencies(out);
+        break;
+      case "transfers.txt":
+        writeTransfers(out);
+        break;
+      case "pathways.txt":
+        writePathways(out);
+        break;
+      case "fare_attributes.txt":
+        out.write("fare_id,price,currency_type,payment_method,transfers,agency_id\n");
+        out.write("f1,2.50,CAD,0,,agency1\n");
+        break;
+      case "fare_rules.txt":
+        out.write("fare_id,route_id\n");
+        for (int r = 0; r < patterns.length; ++r) {
+          out.write("f1,");
+          out.write(routeId(r));
+          out.write('\n');
+        }
+        break;
+      case "feed_info.txt":
+        out.write("feed_publisher_name,feed_publisher_url,feed_lang,feed_version\n");
+        out.write("Synthetic Transit,https://www.example.com,en,seed");
+        out.write(Long.toString(config.seed()));
+        out.write('\n');
+        break;
+      case "translations.txt":
+        out.write("table_name,field_name,language,translation,record_id\n");
+        for (int i = 0; i < config.stationCount(); ++i) {
+          out.write("stops,stop_name,fr,Gare ");
+          out.write(Integer.toString(i));
+          out.write(',');
+          out.write(stationId(i));
+          out.write('\n');
+        }
+        break;
+      case "attributions.txt":
+        out.write("attribution_id,organization_name,is_producer\n");
+        out.write("attribution1,Synthetic Transit,1\n");
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown table " + filename);
+    }
+  }
+
+  /** Tells whether to corrupt the next row that can carry a given error. */
+  private boolean inject(Random random, InjectedError error) {
+    final double rate = config.errorRate(error);
+    // Do not advance the generator if the error is not injected, so that other errors stay put.
+    return rate > 0 && random.nextDouble() < rate;
+  }
+
+  private void writeStops(Writer out, Random random) throws IOException {
+    out.write("stop_id,stop_name,stop_lat,stop_lon,location_type,parent_station,level_id\n");
+    for (int i = 0; i < stopLats.length; ++i) {
+      final int copies = inject(random, InjectedError.DUPLICATE_KEY) ? 2 : 1;
+      for (int copy = 0; copy < copies; ++copy) {
+        out.write(stopId(i));
+        out.write(",Stop ");
+        out.write(Integer.toString(i));
+        out.write(',');
+        writeCoordinate(out, stopLats[i]);
+        out.write(',');
+        writeCoordinate(out, stopLons[i]);
+        if (stationOfStop[i] < 0) {
+          out.write(",,,\n");
+        } else {
+          out.write(",0,");
+          out.write(stationId(stationOfStop[i]));
+          out.write(",l1\n");
+        }
+      }
+    }
+    // Stations and their entrances are next to their platforms.
+    for (int i = 0; i < config.stationCount(); ++i) {
+      final int platform = platformOfStation(i);
+      out.write(stationId(i));
+      out.write(",Station ");
+      out.write(Integer.toString(i));
+      out.write(',');
+      writeCoordinate(out, stopLats[platform]);
+      out.write(',');
+      writeCoordinate(out, stopLons[platform]);
+      out.write(",1,,\n");
+      out.write(entranceId(i));
+      out.write(",Station ");
+      out.write(Integer.toString(i));
+      out.write(" entrance,");
+      writeCoordinate(out, stopLats[platform] + 50 / METERS_PER_DEGREE);
+      out.write(',');
+      writeCoordinate(out, stopLons[platform]);
+      out.write(",2,");
+      out.write(stationId(i));
+      out.write(",l0\n");
+    }
+  }
+
+  private void writeRoutes(Writer out, Random random) throws IOException {
+    out.write(
+        "route_id,agency_id,route_short_name,route_long_name,route_type,route_color,"
+            + "route_text_color\n");
+    for (int r = 0; r < patterns.length; ++r) {
+      out.write(routeId(r));
+      out.write(",agency1,");
+      if (!inject(random, InjectedError.ROUTE_BOTH_SHORT_AND_LONG_NAME_MISSING)) {
+        out.write(Integer.toString(r + 1));
+        out.write(",Route ");
+        out.write(Integer.toString(r + 1));
+      } else {
+        out.write(',');
+      }
+      out.write(",3,");
+      out.write(
+          inject(random, InjectedError.INVALID_COLOR)
+              ? "GGGGGG"
+              : ROUTE_COLORS[r % ROUTE_COLORS.length]);
+      out.write(",FFFFFF\n");
+    }
+  }
+
+  private void writeCalendar(Writer out) throws IOException {
+    out.write(
+        "service_id,monday,tuesday,wednesday,thursday,friday,saturday,sunday,"
+            + "start_date,end_date\n");
+    for (int i = 0; i < serviceDays.length; ++i) {
+      out.write(serviceId(i));
+      for (int day = 0; day < 7; ++day) {
+        out.write((serviceDays[i] & (1 << day)) != 0 ? ",1" : ",0");
+      }
+      out.write(',');
+      writeDate(out, SERVICE_START);
+      out.write(',');
+      writeDate(out, SERVICE_START.plusDays(SERVICE_DAYS - 1));
+      out.write('\n');
+    }
+  }
+
+  /**
+   * Adds or removes every service on a few distinct days. A day is removed if the service runs on
+   * its day of week, otherwise it is added.
+   */
+  private void writeCalendarDates(Writer out, Random random) throws IOException {
+    out.write("service_id,date,exception_type\n");
+    final int datesPerService = config.calendarDatesPerService();
+    for (int i = 0; i < serviceDays.length; ++i) {
+      for (int j = 0; j < datesPerService; ++j) {
+        // Every date falls into its own slice of the year.
+        final int day =
+            j * SERVICE_DAYS / datesPerService
+                + random.nextInt(Math.max(1, SERVICE_DAYS / datesPerService));
+        final LocalDate date = SERVICE_START.plusDays(day);
+        final boolean runs = (serviceDays[i] & (1 << (date.getDayOfWeek().getValue() - 1))) != 0;
+        out.write(serviceId(i));
+        out.write(',');
+        writeDate(out, date);
+        out.write(runs ? ",2\n" : ",1\n");
+      }
+    }
+  }
+
+  private void writeShapes(Writer out) throws IOException {
+    out.write("shape_id,shape_pt_lat,shape_pt_lon,shape_pt_sequence\n");
+    final int steps = config.shapePointsBetweenStops() + 1;
+    for (int r = 0; r < patterns.length; ++r) {
+      for (int direction = 0; direction < 2; ++direction) {
+        final String shapeId = shapeId(r, direction);
+        final int[] stops = directedPattern(r, direction);
+        int sequence = 0;
+        for (int i = 0; i < stops.length; ++i) {
+          final int stop = stops[i];
+          // The last stop has no points after it.
+          final int next = i + 1 < stops.length ? stops[i + 1] : stop;
+          for (int step = 0; step < (i + 1 < stops.length ? steps : 1); ++step) {
+            final double t = (double) step / steps;
+            out.write(shapeId);
+            out.write(',');
+            writeCoordinate(out, stopLats[stop] + (stopLats[next] - stopLats[stop]) * t);
+            out.write(',');
+            writeCoordinate(out, stopLons[stop] + (stopLons[next] - stopLons[stop]) * t);
+            out.write(',');
+            out.write(Integer.toString(sequence++));
+            out.write('\n');
+          }
+        }
+      }
+    }
+  }
+
+  private void writeTrips(Writer out) throws IOException {
+    final boolean hasBlocks = config.tripsPerBlock() > 0;
+    out.write(
+        hasBlocks
+            ? "route_id,service_id,trip_id,shape_id,direction_id,block_id\n"
+            : "route_id,service_id,trip_id,shape_id,direction_id\n");
+    for (int t = 0; t < config.tripCount(); ++t) {
+      final int route = routeOfTrip(t);
+      final int direction = directionOfTrip(t);
+      out.write(routeId(route));
+      out.write(',');
+      out.write(serviceId((t / patterns.length / 2) % serviceDays.length));
+      out.write(',');
+      out.write(tripId(t));
+      out.write(',');
+      out.write(shapeId(route, direction));
+      out.write(',');
+      out.write(Integer.toString(direction));
+      if (hasBlocks) {
+        // A vehicle runs every vehiclesPerRoute-th trip of its route.
+        final int tripOfRoute = t / patterns.length;
+        final int vehicles = vehiclesPerRoute[route];
+        out.write(",b");
+        out.write(Integer.toString(route));
+        out.write('_');
+        out.write(Integer.toString(tripOfRoute % vehicles));
+        out.write('_');
+        out.write(Integer.toString(tripOfRoute / vehicles / config.tripsPerBlock()));
+      }
+      out.write('\n');
+    }
+  }
+
+  private void writeStopTimes(Writer out, Random random) throws IOException {
+    out.write("trip_id,arrival_time,departure_time,stop_id,stop_sequence\n");
+    for (int t = 0; t < config.tripCount(); ++t) {
+      final int route = routeOfTrip(t);
+      final int direction = directionOfTrip(t);
+      final int[] stops = directedPattern(route, direction);
+      final int[] offsets = arrivalOffsets[route];
+      final int last = stops.length - 1;
+      final int start = departureOfTrip(t);
+      final String tripId = tripId(t);
+      for (int i = 0; i < stops.length; ++i) {
+        // Travel times between stops are the same in both directions.
+        final int time = start + (direction == 0 ? offsets[i] : offsets[last] - offsets[last - i]);
+        out.write(tripId);
+        out.write(',');
+        if (i > 0 && i < last && inject(random, InjectedError.INVALID_TIME)) {
+          writeTwoDigits(out, time / 3600);
+          out.write(":60:00,");
+          writeTwoDigits(out, time / 3600);
+          out.write(":60:00,");
+        } else {
+          int arrival = time;
+          if (i > 0
+              && inject(
+                  random, InjectedError.STOP_TIME_WITH_ARRIVAL_BEFORE_PREVIOUS_DEPARTURE_TIME)) {
+            // Earlier than any departure of the trip, even if the previous time is invalid.
+            arrival = start - 1;
+          }
+          writeTime(out, arrival);
+          out.write(',');
+          writeTime(out, time);
+          out.write(',');
+        }
+        if (inject(random, InjectedError.FOREIGN_KEY_ERROR)) {
+          out.write("missing_");
+        }
+        out.write(stopId(stops[i]));
+        out.write(',');
+        out.write(Integer.toString(i + 1));
+        out.write('\n');
+      }
+    }
+  }
+
+  private void writeFrequencies(Writer out) throws IOException {
+    out.write("trip_id,start_time,end_time,headway_secs\n");
+    for (int t = 0; t < Math.min(config.frequencyTripCount(), config.tripCount()); ++t) {
+      final String tripId = tripId(t);
+      out.write(tripId);
+      out.write(",05:00:00,12:00:00,600\n");
+      out.write(tripId);
+      out.write(",12:00:00,24:00:00,900\n");
+    }
+  }
+
+  /** Adds a timed transfer from the first stop of every route to the first stop of the next one. */
+  private void writeTransfers(Writer out) throws IOException {
+    out.write("from_stop_id,to_stop_id,transfer_type,min_transfer_time\n");
+    if (patterns.length < 2) {
+      return;
+    }
+    for (int r = 0; r < patterns.length; ++r) {
+      out.write(stopId(patterns[r][0]));
+      out.write(',');
+      out.write(stopId(patterns[(r + 1) % patterns.length][0]));
+      out.write(",2,180\n");
+    }
+  }
+
+  private void writePathways(Writer out) throws IOException {
+    out.write("pathway_id,from_stop_id,to_stop_id,pathway_mode,is_bidirectional,traversal_time\n");
+    for (int i = 0; i < config.stationCount(); ++i) {
+      out.write("pw");
+      out.write(Integer.toString(i));
+      out.write(',');
+      out.write(entranceId(i));
+      out.write(',');
+      out.write(stopId(platformOfStation(i)));
+      out.write(",1,1,60\n");
+    }
+  }
+
+  /** Returns stops of a route in the order of the given direction. */
+  private int[] directedPattern(int route, int direction) {
+    if (direction == 0) {
+      return patterns[route];
+    }
+    final int[] pattern = patterns[route];
+    final int[] reversed = new int[pattern.length];
+    for (int i = 0; i < pattern.length; ++i) {
+      reversed[i] = pattern[pattern.length - 1 - i];
+    }
+    return reversed;
+  }
+
+  private int routeOfTrip(int trip) {
+    return trip % patterns.length;
+  }
+
+  private int directionOfTrip(int trip) {
+    return (trip / patterns.length) % 2;
+  }
+
+  private int tripsOfRoute(int route) {
+    return config.tripCount() / config.routeCount()
+        + (route < config.tripCount() % config.routeCount() ? 1 : 0);
+  }
+
+  /** Trips of a route depart at a regular headway over the service span. */
+  private int departureOfTrip(int trip) {
+    final int tripsOfRoute = tripsOfRoute(routeOfTrip(trip));
+    return FIRST_DEPARTURE_SECONDS
+        + (int) ((long) (trip / patterns.length) * SERVICE_SPAN_SECONDS / tripsOfRoute);
+  }
+
+  /** Stations take platforms evenly spread over stops. */
+  private int platformOfStation(int station) {
+    return (int) ((long) station * config.stopCount() / config.stationCount());
+  }
+
+  private static String stopId(int stop) {
+    return "s" + stop;
+  }
+
+  private static String stationId(int station) {
+    return "st" + station;
+  }
+
+  private static String entranceId(int station) {
+    return "st" + station + "_e";
+  }
+
+  private static String routeId(int route) {
+    return "r" + route;
+  }
+
+  private static String serviceId(int service) {
+    return service < NAMED_SERVICE_IDS.length ? NAMED_SERVICE_IDS[service] : "service" + service;
+  }
+
+  private static String tripId(int trip) {
+    return "t" + trip;
+  }
+
+  private static String shapeId(int route, int direction) {
+    return "shp" + route + "_" + direction;
+  }
+
+  /** Writes a coordinate with 6 digits after the decimal point, i.e., about 10 cm. */
+  private static void writeCoordinate(Writer out, double degrees) throws IOException {
+    long micro = Math.round(degrees * 1e6);
+    if (micro < 0) {
+      out.write('-');
+      micro = -micro;
+    }
+    out.write(Long.toString(micro / 1_000_000));
+    out.write('.');
+    final String fraction = Long.toString(micro % 1_000_000);
+    for (int i = fraction.length(); i < 6; ++i) {
+      out.write('0');
+    }
+    out.write(fraction);
+  }
+
+  /** Writes time in HH:MM:SS format. */
+  private static void writeTime(Writer out, int seconds) throws IOException {
+    writeTwoDigits(out, seconds / 3600);
+    out.write(':');
+    writeTwoDigits(out, seconds / 60 % 60);
+    out.write(':');
+    writeTwoDigits(out, seconds % 60);
+  }
+
+  /** Writes date in YYYYMMDD format. */
+  private static void writeDate(Writer out, LocalDate date) throws IOException {
+    out.write(Integer.toString(date.getYear()));
+    writeTwoDigits(out, date.getMonthValue());
+    writeTwoDigits(out, date.getDayOfMonth());
+  }
+
+  private static void writeTwoDigits(Writer out, int value) throws IOException {
+    if (value < 10) {
+      out.write('0');
+    }
+    out.write(Integer.toString(value));
+  }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2021 MobilityData IO
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mobilitydata.gtfsvalidator.generator;
+
+import com.beust.jcommander.JCommander;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Writes a synthetic feed to a directory or a ZIP archive, e.g.:
+ *
+ * <pre>
+ *   ./gradlew :generator:run --args="-o /tmp/large.zip --trips 1000000 --stops 100000"
+ * </pre>
+ */
+public class SyntheticFeedMain {
+
+  public static void main(String[] argv) throws IOException {
+    GeneratorArguments args = new GeneratorArguments();
+    new JCommander(args).parse(argv);
+    final SyntheticFeedConfig config = args.toConfig();
+    final Path output = Paths.get(args.getOutput());
+
+    final long startNanos = System.nanoTime();
+    SyntheticFeedGenerator generator = new SyntheticFeedGenerator(config);
+    if (output.getFileName().toString().toLowerCase().endsWith(".zip")) {
+      generator.writeZip(output);
+    } else {
+      Files.createDirectories(output);
+      generator.writeDirectory(output);
+    }
+    System.out.printf(
+        "Generated %s in %.3f seconds: %s%n",
+        output, (System.nanoTime() - startNanos) / 1e9, config);
+  }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2021 MobilityData IO
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mobilitydata.gtfsvalidator.generator;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.io.ByteStreams;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mobilitydata.gtfsvalidator.input.GtfsFeedName;
+import org.mobilitydata.gtfsvalidator.input.GtfsInput;
+import org.mobilitydata.gtfsvalidator.notice.Notice;
+import org.mobilitydata.gtfsvalidator.notice.NoticeContainer;
+import org.mobilitydata.gtfsvalidator.table.GtfsFeedLoader;
+import org.mobilitydata.gtfsvalidator.validator.ValidationContext;
+import org.mobilitydata.gtfsvalidator.validator.ValidatorLoader;
+
+@RunWith(JUnit4.class)
+public class SyntheticFeedGeneratorTest {
+  @Rule public final TemporaryFolder tmpDir = new TemporaryFolder();
+
+  private static final SyntheticFeedConfig CONFIG =
+      SyntheticFeedConfig.builder()
+          .setStopCount(50)
+          .setRouteCount(3)
+          .setTripCount(10)
+          .setStopTimesPerTrip(5)
+          .setShapePointsBetweenStops(1)
+          .setServiceCount(3)
+          .setCalendarDatesPerService(4)
+          .setStationCount(2)
+          .setFrequencyTripCount(1)
+          .build();
+
+  /** A feed that has enough trips for several blocks and for every injected error. */
+  private static final SyntheticFeedConfig LARGER_CONFIG =
+      SyntheticFeedConfig.builder()
+          .setStopCount(200)
+          .setRouteCount(10)
+          .setTripCount(200)
+          .setStopTimesPerTrip(10)
+          .setTripsPerBlock(4)
+          .build();
+
+  private static List<String> lines(SyntheticFeedGenerator generator, String filename) {
+    return Arrays.asList(
+        new String(generator.tableBytes(filename), StandardCharsets.UTF_8).split("\n"));
+  }
+
+  @Test
+  public void sameConfigGivesSameFeed() {
+    SyntheticFeedGenerator first = new SyntheticFeedGenerator(CONFIG);
+    SyntheticFeedGenerator second = new SyntheticFeedGenerator(CONFIG);
+    SyntheticFeedGenerator otherSeed =
+        new SyntheticFeedGenerator(CONFIG.toBuilder().setSeed(2).build());
+
+    for (String filename : SyntheticFeedGenerator.TABLE_NAMES) {
+      assertThat(first.tableBytes(filename)).isEqualTo(second.tableBytes(filename));
+    }
+    assertThat(otherSeed.tableBytes("stops.txt")).isNotEqualTo(first.tableBytes("stops.txt"));
+  }
+
+  @Test
+  public void rowCounts() {
+    SyntheticFeedGenerator generator = new SyntheticFeedGenerator(CONFIG);
+
+    // Every table has a header.
+    // 50 stops and a station with an entrance for 2 of them.
+    assertThat(lines(generator, "stops.txt")).hasSize(55);
+    assertThat(lines(generator, "routes.txt")).hasSize(4);
+    assertThat(lines(generator, "trips.txt")).hasSize(11);
+    assertThat(lines(generator, "stop_times.txt")).hasSize(51);
+    // 3 routes, 2 directions, 5 stops and 1 point between every pair of consecutive stops.
+    assertThat(lines(generator, "shapes.txt")).hasSize(3 * 2 * 9 + 1);
+    assertThat(lines(generator, "calendar.txt")).hasSize(4);
+    assertThat(lines(generator, "calendar_dates.txt")).hasSize(3 * 4 + 1);
+    assertThat(lines(generator, "frequencies.txt")).hasSize(3);
+    assertThat(lines(generator, "pathways.txt")).hasSize(3);
+  }
+
+  @Test
+  public void writeZip() throws IOException {
+    SyntheticFeedGenerator generator = new SyntheticFeedGenerator(CONFIG);
+    Path zipFile = tmpDir.getRoot().toPath().resolve("feed.zip");
+
+    generator.writeZip(zipFile);
+
+    List<String> entries = new ArrayList<>();
+    try (ZipInputStream zip = new ZipInputStream(Files.newInputStream(zipFile))) {
+      for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+        entries.add(entry.getName());
+        assertThat(ByteStreams.toByteArray(zip)).isEqualTo(generator.tableBytes(entry.getName()));
+      }
+    }
+    assertThat(entries).containsExactlyElementsIn(SyntheticFeedGenerator.TABLE_NAMES).inOrder();
+  }
+
+  private static Set<String> validateAndGetNoticeCodes(SyntheticFeedConfig config, Path zipFile)
+      throws IOException {
+    new SyntheticFeedGenerator(config).writeZip(zipFile);
+    NoticeContainer noticeContainer = new NoticeContainer();
+    try (GtfsInput gtfsInput = GtfsInput.createFromPath(zipFile)) {
+      new GtfsFeedLoader()
+          .loadAndValidate(
+              gtfsInput,
+              ValidationContext.builder()
+                  .setFeedName(GtfsFeedName.parseString("ca-synthetic"))
+                  .setNow(ZonedDateTime.of(2021, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC))
+                  .build(),
+              new ValidatorLoader(),
+              noticeContainer);
+    }
+    assertThat(noticeContainer.getSystemErrors()).isEmpty();
+    Set<String> codes = new HashSet<>();
+    for (Notice notice : noticeContainer.getValidationNotices()) {
+      codes.add(notice.getCode());
+    }
+    return codes;
+  }
+
+  @Test
+  public void generatesAllTablesThatValidatorLoads() {
+    Set<String> loadedTables =
+        new HashSet<>(Arrays.asList(new GtfsFeedLoader().listTableLoaders().split(" ")));
+
+    assertThat(SyntheticFeedGenerator.TABLE_NAMES).containsExactlyElementsIn(loadedTables);
+  }
+
+  @Test
+  public void generatedFeedIsValid() throws IOException {
+    Path zipFile = tmpDir.getRoot().toPath().resolve("feed.zip");
+
+    assertThat(validateAndGetNoticeCodes(CONFIG, zipFile)).isEmpty();
+    assertThat(validateAndGetNoticeCodes(LARGER_CONFIG, zipFile)).isEmpty();
+  }
+
+  @Test
+  public void injectedErrorsAreReported() throws IOException {
+    for (InjectedError error : InjectedError.values()) {
+      Set<String> codes =
+          validateAndGetNoticeCodes(
+              LARGER_CONFIG.toBuilder().setErrorRate(error, 0.3).build(),
+              tmpDir.getRoot().toPath().resolve(error + ".zip"));
+
+      assertThat(codes).contains(error.noticeCode());
+    }
+  }
+
+  @Test
+  public void stopTimesOfTripIncrease() {
+    List<String> stopTimes = lines(new SyntheticFeedGenerator(CONFIG), "stop_times.txt");
+
+    assertThat(stopTimes.get(0))
+        .isEqualTo("trip_id,arrival_time,departure_time,stop_id,stop_sequence");
+    for (int trip = 0; trip < 10; ++trip) {
+      String previousTime = "";
+      for (int i = 0; i < 5; ++i) {
+        final String[] row = stopTimes.get(1 + trip * 5 + i).split(",");
+        assertThat(row[0]).isEqualTo("t" + trip);
+        assertThat(row[1]).isGreaterThan(previousTime);
+        assertThat(row[4]).isEqualTo(Integer.toString(i + 1));
+        previousTime = row[1];
+      }
+    }
+  }
+}
@@ -17,6 +17,9 @@
 package org.mobilitydata.gtfsvalidator.cli;
 
 import com.beust.jcommander.Parameter;
+import java.util.ArrayList;
+import java.util.List;
+import org.mobilitydata.gtfsvalidator.notice.NoticeContainer;
 
 /** Command-line arguments for GTFS Validator CLI. */
 public class Arguments {
@@ -56,6 +59,64 @@ public class Arguments {
               + "downloaded from network (if not provided, the ZIP will be stored in memory)")
   private String storageDirectory;
 
+  @Parameter(
+      names = {"--byte_tokenizer"},
+      description =
+          "Parse CSV files with a tokenizer that works directly on UTF-8 bytes "
+              + "instead of Univocity parser")
+  private boolean byteTokenizerEnabled = false;
+
+  @Parameter(
+      names = {"--memory_map"},
+      description =
+          "Memory-map files of an unarchived feed and uncompressed entries of a ZIP archive "
+              + "instead of reading them into heap")
+  private boolean memoryMappingEnabled = false;
+
+  @Parameter(
+      names = {"--stream_download"},
+      description =
+          "Validate files of the GTFS archive given by --url while it is being downloaded. "
+              + "The archive is spooled to --storage_directory or to a temporary file")
+  private boolean streamDownloadEnabled = false;
+
+  @Parameter(
+      names = {"--batch_input_dir"},
+      description =
+          "Directory with GTFS ZIP archives or unarchived feeds to validate in a single run. "
+              + "Reports of every feed are stored in a subdirectory of --output_base")
+  private String batchInputDir;
+
+  @Parameter(
+      names = {"--binary_report"},
+      description =
+          "Also store validation notices in report.bin, a compact binary format that is faster "
+              + "to parse than report.json")
+  private boolean binaryReportEnabled = false;
+
+  @Parameter(
+      names = {"--validators"},
+      description =
+          "Comma-separated class names of validators to run, e.g., TripUsageValidator. "
+              + "Foreign key validators run for the tables that these validators read. "
+              + "If not set, all validators run")
+  private List<String> validators = new ArrayList<>();
+
+  @Parameter(
+      names = {"--referenced_tables_only"},
+      description =
+          "Load only the tables that the validators read. Other files are only checked for "
+              + "valid headers and row lengths")
+  private boolean referencedTablesOnly = false;
+
+  @Parameter(
+      names = {"--max_notices_per_type"},
+      description =
+          "Maximum number of notices of a single code and severity in the report. "
+              + "Past the cap, the report contains a random sample of the notices and their "
+              + "exact total count")
+  private int maxNoticesPerType = NoticeContainer.DEFAULT_MAX_NOTICES_PER_TYPE;
+
   public String getInput() {
     return input;
   }
@@ -79,4 +140,36 @@ public class Arguments {
   public String getStorageDirectory() {
     return storageDirectory;
   }
+
+  public boolean isByteTokenizerEnabled() {
+    return byteTokenizerEnabled;
+  }
+
+  public boolean isMemoryMappingEnabled() {
+    return memoryMappingEnabled;
+  }
+
+  public boolean isStreamDownloadEnabled() {
+    return streamDownloadEnabled;
+  }
+
+  public String getBatchInputDir() {
+    return batchInputDir;
+  }
+
+  public boolean isBinaryReportEnabled() {
+    return binaryReportEnabled;
+  }
+
+  public List<String> getValidators() {
+    return validators;
+  }
+
+  public boolean isReferencedTablesOnly() {
+    return referencedTablesOnly;
+  }
+
+  public int getMaxNoticesPerType() {
+    return maxNoticesPerType;
+  }
 }
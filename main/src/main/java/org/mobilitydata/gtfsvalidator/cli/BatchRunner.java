@@ -0,0 +1,227 @@
+/*
+ * Copyright 2020 Google LLC, MobilityData IO
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.cli;
+
+import com.google.common.flogger.FluentLogger;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import javax.annotation.Nullable;
+import org.mobilitydata.gtfsvalidator.input.GtfsFeedName;
+import org.mobilitydata.gtfsvalidator.input.GtfsInput;
+import org.mobilitydata.gtfsvalidator.notice.IOError;
+import org.mobilitydata.gtfsvalidator.notice.NoticeContainer;
+import org.mobilitydata.gtfsvalidator.table.GtfsFeedContainer;
+import org.mobilitydata.gtfsvalidator.table.GtfsFeedLoader;
+import org.mobilitydata.gtfsvalidator.validator.ValidationContext;
+import org.mobilitydata.gtfsvalidator.validator.ValidatorLoader;
+
+/**
+ * Validates all feeds of a directory in a single run.
+ *
+ * <p>Every ZIP archive and every subdirectory of the input directory is a feed. Tables, chunks of
+ * large files and multi-file validators of all feeds run on a single {@link ForkJoinPool}. Feeds
+ * are submitted from the smallest to the largest, so that small feeds are not queued behind large
+ * ones, and workers that are idle steal chunks and validators of the large feeds in progress.
+ *
+ * <p>Reports of a feed are stored in a subdirectory of the output base that has the name of the
+ * feed archive without the .zip extension.
+ */
+public class BatchRunner {
+  private static final FluentLogger logger = FluentLogger.forEnclosingClass();
+  private static final String ZIP_EXTENSION = ".zip";
+
+  private final ValidatorLoader validatorLoader;
+  private final GtfsFeedLoader feedLoader;
+  private boolean binaryReportEnabled = false;
+  private int maxNoticesPerType = NoticeContainer.DEFAULT_MAX_NOTICES_PER_TYPE;
+
+  public BatchRunner(ValidatorLoader validatorLoader, GtfsFeedLoader feedLoader) {
+    this.validatorLoader = validatorLoader;
+    this.feedLoader = feedLoader;
+  }
+
+  /** Tells whether to store report.bin next to report.json of every feed. */
+  public void setBinaryReportEnabled(boolean binaryReportEnabled) {
+    this.binaryReportEnabled = binaryReportEnabled;
+  }
+
+  /** Sets the maximum amount of notices of a single type in the report of every feed. */
+  public void setMaxNoticesPerType(int maxNoticesPerType) {
+    this.maxNoticesPerType = maxNoticesPerType;
+  }
+
+  /**
+   * Validates all feeds in a directory and prints the aggregate throughput.
+   *
+   * @param inputDir directory with feeds
+   * @param outputBase base directory for reports
+   * @param defaultFeedName feed name for archives whose name is not a valid feed name, may be null
+   * @param numThreads parallelism of the shared pool
+   * @throws IOException if the input directory cannot be listed
+   */
+  public void run(
+      Path inputDir, String outputBase, @Nullable String defaultFeedName, int numThreads)
+      throws IOException {
+    final List<Path> feeds = discoverFeeds(inputDir);
+    System.out.printf("Validating %d feeds in %d threads%n", feeds.size(), numThreads);
+
+    final long startNanos = System.nanoTime();
+    final ForkJoinPool pool = new ForkJoinPool(numThreads);
+    final AtomicLong totalRows = new AtomicLong();
+    final List<ForkJoinTask<?>> tasks = new ArrayList<>();
+    for (Path feed : feeds) {
+      tasks.add(
+          pool.submit(
+              () -> totalRows.addAndGet(validateFeed(feed, outputBase, defaultFeedName, pool))));
+    }
+    int failedFeeds = 0;
+    for (int i = 0; i < tasks.size(); ++i) {
+      try {
+        tasks.get(i).join();
+      } catch (RuntimeException e) {
+        // Loaders and validators report their exceptions as notices, so this is not expected.
+        logger.atSevere().withCause(e).log("Cannot validate %s", feeds.get(i));
+        ++failedFeeds;
+      }
+    }
+    pool.shutdown();
+    final double seconds = (System.nanoTime() - startNanos) / 1e9;
+
+    System.out.printf(
+        "Validated %d feeds (%d failed) in %.3f seconds: %.1f feeds/min, %.0f rows/s%n",
+        feeds.size(),
+        failedFeeds,
+        seconds,
+        feeds.size() * 60 / seconds,
+        totalRows.get() / seconds);
+  }
+
+  /**
+   * Loads and validates a single feed on the shared pool and exports its reports.
+   *
+   * @return amount of loaded rows
+   */
+  private long validateFeed(
+      Path feed, String outputBase, @Nullable String defaultFeedName, ForkJoinPool pool) {
+    final String feedId = getFeedId(feed);
+    final GtfsFeedName feedName = parseFeedName(feedId, defaultFeedName);
+    if (feedName == null) {
+      logger.atWarning().log(
+          "Skipping %s: its name is not a valid feed name and --feed_name is not provided", feed);
+      return 0;
+    }
+    ValidationContext validationContext =
+        ValidationContext.builder()
+            .setFeedName(feedName)
+            .setNow(ZonedDateTime.now(ZoneId.systemDefault()))
+            .setMaxNoticesPerType(maxNoticesPerType)
+            .build();
+    NoticeContainer noticeContainer = validationContext.newNoticeContainer();
+    long rows = 0;
+    try (GtfsInput gtfsInput = GtfsInput.createFromPath(feed)) {
+      GtfsFeedContainer feedContainer =
+          feedLoader.loadAndValidate(
+              gtfsInput, validationContext, validatorLoader, noticeContainer, pool);
+      rows = feedContainer.totalEntityCount();
+    } catch (IOException e) {
+      logger.atSevere().withCause(e).log("Cannot load GTFS feed %s", feed);
+      noticeContainer.addSystemError(new IOError(e.getMessage()));
+    }
+    final String feedOutputBase = Paths.get(outputBase, feedId).toString();
+    Main.exportReport(feedOutputBase, noticeContainer, binaryReportEnabled);
+    Main.exportMetrics(feedOutputBase, validationContext.metrics(), noticeContainer);
+    return rows;
+  }
+
+  /**
+   * Returns ZIP archives and subdirectories of a directory, ordered by size from the smallest.
+   *
+   * @param inputDir directory with feeds
+   * @return paths to feeds
+   * @throws IOException if the directory cannot be listed
+   */
+  static List<Path> discoverFeeds(Path inputDir) throws IOException {
+    final Map<Path, Long> sizes = new HashMap<>();
+    try (DirectoryStream<Path> entries = Files.newDirectoryStream(inputDir)) {
+      for (Path entry : entries) {
+        if (Files.isDirectory(entry)) {
+          sizes.put(entry, getDirectorySize(entry));
+        } else if (entry.getFileName().toString().toLowerCase().endsWith(ZIP_EXTENSION)) {
+          sizes.put(entry, Files.size(entry));
+        }
+      }
+    }
+    final List<Path> feeds = new ArrayList<>(sizes.keySet());
+    feeds.sort(Comparator.comparing((Path feed) -> sizes.get(feed)).thenComparing(feed -> feed));
+    return feeds;
+  }
+
+  private static long getDirectorySize(Path directory) throws IOException {
+    try (Stream<Path> files = Files.walk(directory)) {
+      long size = 0;
+      for (Path file : (Iterable<Path>) files::iterator) {
+        if (Files.isRegularFile(file)) {
+          size += Files.size(file);
+        }
+      }
+      return size;
+    }
+  }
+
+  /** Returns the name of a feed file without the .zip extension, e.g., "ca-myFeedName". */
+  static String getFeedId(Path feed) {
+    final String filename = feed.getFileName().toString();
+    return filename.toLowerCase().endsWith(ZIP_EXTENSION)
+        ? filename.substring(0, filename.length() - ZIP_EXTENSION.length())
+        : filename;
+  }
+
+  /**
+   * Parses the feed name from the feed ID, e.g., "ca-myFeedName", or falls back to the default
+   * name.
+   *
+   * @return the feed name or null if neither name is valid
+   */
+  @Nullable
+  static GtfsFeedName parseFeedName(String feedId, @Nullable String defaultFeedName) {
+    for (String candidate : new String[] {feedId, defaultFeedName}) {
+      if (candidate == null) {
+        continue;
+      }
+      try {
+        return GtfsFeedName.parseString(candidate);
+      } catch (IllegalArgumentException e) {
+        // Try the next candidate.
+      }
+    }
+    return null;
+  }
+}
@@ -29,6 +29,19 @@ public class CliParametersAnalyzer {
    * @return true if CLI parameter combination is legal, otherwise return false
    */
   public boolean isValid(Arguments args) {
+    if (args.getMaxNoticesPerType() < 0) {
+      logger.atSevere().log("CLI parameter '--max_notices_per_type' must not be negative");
+      return false;
+    }
+    if (args.getBatchInputDir() != null) {
+      if (args.getInput() != null || args.getUrl() != null) {
+        logger.atSevere().log(
+            "CLI parameter '--batch_input_dir' must not be provided together with '--input' or"
+                + " '--url'");
+        return false;
+      }
+      return true;
+    }
     if (args.getInput() == null && args.getUrl() == null) {
       logger.atSevere().log(
           "One of the two following CLI parameter must be provided: '--input' and '--url'");
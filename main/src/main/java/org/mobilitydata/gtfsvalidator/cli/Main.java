@@ -18,9 +18,13 @@ package org.mobilitydata.gtfsvalidator.cli;
 
 import com.beust.jcommander.JCommander;
 import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.flogger.FluentLogger;
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
@@ -28,6 +32,9 @@ import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
 import org.mobilitydata.gtfsvalidator.input.GtfsFeedName;
 import org.mobilitydata.gtfsvalidator.input.GtfsInput;
 import org.mobilitydata.gtfsvalidator.notice.IOError;
@@ -37,6 +44,7 @@ import org.mobilitydata.gtfsvalidator.notice.URISyntaxError;
 import org.mobilitydata.gtfsvalidator.table.GtfsFeedContainer;
 import org.mobilitydata.gtfsvalidator.table.GtfsFeedLoader;
 import org.mobilitydata.gtfsvalidator.validator.ValidationContext;
+import org.mobilitydata.gtfsvalidator.validator.ValidationMetrics;
 import org.mobilitydata.gtfsvalidator.validator.ValidatorLoader;
 
 /** The main entry point for GTFS Validator CLI. */
@@ -44,6 +52,10 @@ public class Main {
   private static final FluentLogger logger = FluentLogger.forEnclosingClass();
 
   public static void main(String[] argv) {
+    if (argv.length > 0 && argv[0].equals(ValidationServer.COMMAND)) {
+      runServer(Arrays.copyOfRange(argv, 1, argv.length));
+      return;
+    }
     Arguments args = new Arguments();
     CliParametersAnalyzer cliParametersAnalyzer = new CliParametersAnalyzer();
     new JCommander(args).parse(argv);
@@ -51,8 +63,28 @@ public class Main {
       System.exit(1);
     }
 
-    ValidatorLoader validatorLoader = new ValidatorLoader();
     GtfsFeedLoader feedLoader = new GtfsFeedLoader();
+    ValidatorLoader validatorLoader = createValidatorLoader(args.getValidators(), feedLoader);
+    feedLoader.setReferencedTablesOnly(args.isReferencedTablesOnly());
+
+    if (args.getBatchInputDir() != null) {
+      feedLoader.setByteTokenizerEnabled(args.isByteTokenizerEnabled());
+      feedLoader.setMemoryMappingEnabled(args.isMemoryMappingEnabled());
+      try {
+        BatchRunner batchRunner = new BatchRunner(validatorLoader, feedLoader);
+        batchRunner.setBinaryReportEnabled(args.isBinaryReportEnabled());
+        batchRunner.setMaxNoticesPerType(args.getMaxNoticesPerType());
+        batchRunner.run(
+            Paths.get(args.getBatchInputDir()),
+            args.getOutputBase(),
+            args.getFeedName(),
+            args.getNumThreads());
+      } catch (IOException e) {
+        logger.atSevere().withCause(e).log("Cannot list feeds in %s", args.getBatchInputDir());
+        System.exit(1);
+      }
+      return;
+    }
 
     GtfsFeedName feedName = GtfsFeedName.parseString(args.getFeedName());
     System.out.println("Feed name: " + feedName.getCountryFirstName());
@@ -67,12 +99,17 @@ public class Main {
     final long startNanos = System.nanoTime();
     // Input.
     feedLoader.setNumThreads(args.getNumThreads());
-    NoticeContainer noticeContainer = new NoticeContainer();
+    feedLoader.setByteTokenizerEnabled(args.isByteTokenizerEnabled());
+    feedLoader.setMemoryMappingEnabled(args.isMemoryMappingEnabled());
+    NoticeContainer noticeContainer = new NoticeContainer(args.getMaxNoticesPerType());
     GtfsFeedContainer feedContainer;
     GtfsInput gtfsInput = null;
     try {
       if (args.getInput() == null) {
-        if (Strings.isNullOrEmpty(args.getStorageDirectory())) {
+        if (args.isStreamDownloadEnabled()) {
+          gtfsInput =
+              GtfsInput.createFromUrlStreaming(new URL(args.getUrl()), args.getStorageDirectory());
+        } else if (Strings.isNullOrEmpty(args.getStorageDirectory())) {
           gtfsInput = GtfsInput.createFromUrlInMemory(new URL(args.getUrl()));
         } else {
           gtfsInput = GtfsInput.createFromUrl(new URL(args.getUrl()), args.getStorageDirectory());
@@ -91,19 +128,21 @@ public class Main {
       noticeContainer.addSystemError(new ThreadInterruptedError(e.getMessage()));
     }
     if (gtfsInput == null) {
-      exportReport(args.getOutputBase(), noticeContainer);
+      exportReport(args.getOutputBase(), noticeContainer, args.isBinaryReportEnabled());
       return;
     }
     ValidationContext validationContext =
         ValidationContext.builder()
             .setFeedName(feedName)
             .setNow(ZonedDateTime.now(ZoneId.systemDefault()))
+            .setMaxNoticesPerType(args.getMaxNoticesPerType())
             .build();
     feedContainer =
         feedLoader.loadAndValidate(gtfsInput, validationContext, validatorLoader, noticeContainer);
 
     // Output
-    exportReport(args.getOutputBase(), noticeContainer);
+    exportReport(args.getOutputBase(), noticeContainer, args.isBinaryReportEnabled());
+    exportMetrics(args.getOutputBase(), validationContext.metrics(), noticeContainer);
     final long endNanos = System.nanoTime();
     if (!feedContainer.isParsedSuccessfully()) {
       System.out.println(" ----------------------------------------- ");
@@ -116,18 +155,104 @@ public class Main {
     System.out.println(feedContainer.tableTotals());
   }
 
-  /** Generates and exports reports for both validation notices and system errors reports. */
-  private static void exportReport(final String outputBase, final NoticeContainer noticeContainer) {
-    new File(outputBase).mkdirs();
+  /**
+   * Loads the validators with the given class names and the foreign key validators of the tables
+   * they read, or all validators if no names are given.
+   */
+  private static ValidatorLoader createValidatorLoader(
+      List<String> validatorNames, GtfsFeedLoader feedLoader) {
+    if (validatorNames.isEmpty()) {
+      return new ValidatorLoader();
+    }
+    final Set<String> names = ImmutableSet.copyOf(validatorNames);
+    return ValidatorLoader.createWithForeignKeyValidators(
+        validatorClass -> names.contains(validatorClass.getSimpleName()),
+        feedLoader.getTableContainerClasses());
+  }
+
+  /**
+   * Starts a {@link ValidationServer} that shares a single set of table loaders and validators
+   * between all requests. The server runs until the process is terminated.
+   */
+  private static void runServer(String[] argv) {
+    ServerArguments args = new ServerArguments();
+    new JCommander(args).parse(argv);
+
+    ValidatorLoader validatorLoader = new ValidatorLoader();
+    GtfsFeedLoader feedLoader = new GtfsFeedLoader();
+    feedLoader.setNumThreads(args.getNumThreads());
+    feedLoader.setByteTokenizerEnabled(args.isByteTokenizerEnabled());
+    feedLoader.setMemoryMappingEnabled(args.isMemoryMappingEnabled());
+    System.out.println("Table loaders: " + feedLoader.listTableLoaders());
+    System.out.println("Validators:");
+    System.out.println(validatorLoader.listValidators());
+
+    final ValidationServer server;
     try {
-      Files.write(
-          Paths.get(outputBase, "report.json"),
-          noticeContainer.exportValidationNotices().getBytes(StandardCharsets.UTF_8));
-      Files.write(
-          Paths.get(outputBase, "system_errors.json"),
-          noticeContainer.exportSystemErrors().getBytes(StandardCharsets.UTF_8));
+      server =
+          new ValidationServer(
+              args,
+              (gtfsInput, validationContext) -> {
+                NoticeContainer noticeContainer = validationContext.newNoticeContainer();
+                feedLoader.loadAndValidate(
+                    gtfsInput, validationContext, validatorLoader, noticeContainer);
+                return noticeContainer;
+              });
+    } catch (IOException e) {
+      logger.atSevere().withCause(e).log("Cannot start validation server");
+      System.exit(1);
+      return;
+    }
+    Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+    server.start();
+    System.out.printf(
+        "Listening on http://localhost:%d%s%n", server.getPort(), ValidationServer.VALIDATE_PATH);
+  }
+
+  /**
+   * Generates and exports reports for both validation notices and system errors reports.
+   *
+   * <p>Reports are streamed to the files, so a large report is never held in memory as a whole.
+   * If {@code binaryReport} is set, validation notices are also stored in report.bin, see {@link
+   * org.mobilitydata.gtfsvalidator.notice.BinaryNoticeReport}.
+   */
+  static void exportReport(
+      final String outputBase, final NoticeContainer noticeContainer, boolean binaryReport) {
+    new File(outputBase).mkdirs();
+    try (Writer report =
+            Files.newBufferedWriter(Paths.get(outputBase, "report.json"), StandardCharsets.UTF_8);
+        Writer systemErrors =
+            Files.newBufferedWriter(
+                Paths.get(outputBase, "system_errors.json"), StandardCharsets.UTF_8)) {
+      noticeContainer.exportValidationNotices(report);
+      noticeContainer.exportSystemErrors(systemErrors);
     } catch (IOException e) {
       logger.atSevere().withCause(e).log("Cannot store report files");
+      return;
+    }
+    if (!binaryReport) {
+      return;
+    }
+    try (OutputStream out =
+        new BufferedOutputStream(Files.newOutputStream(Paths.get(outputBase, "report.bin")))) {
+      noticeContainer.exportValidationNoticesBinary(out);
+    } catch (IOException e) {
+      logger.atSevere().withCause(e).log("Cannot store report files");
+    }
+  }
+
+  /**
+   * Exports timing and throughput of tables and validators along with notice counts to
+   * metrics.json, see {@link ValidationMetrics#exportJson}.
+   */
+  static void exportMetrics(
+      final String outputBase, ValidationMetrics metrics, NoticeContainer noticeContainer) {
+    new File(outputBase).mkdirs();
+    try (Writer writer =
+        Files.newBufferedWriter(Paths.get(outputBase, "metrics.json"), StandardCharsets.UTF_8)) {
+      metrics.exportJson(noticeContainer, writer);
+    } catch (IOException e) {
+      logger.atSevere().withCause(e).log("Cannot store metrics file");
     }
   }
 }
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2020 Google LLC, MobilityData IO
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.cli;
+
+import com.beust.jcommander.Parameter;
+import org.mobilitydata.gtfsvalidator.notice.NoticeContainer;
+
+/** Command-line arguments for the {@code server} subcommand of GTFS Validator CLI. */
+public class ServerArguments {
+
+  @Parameter(
+      names = {"-p", "--port"},
+      description = "Port to listen on localhost, 0 picks a free port")
+  private int port = 8080;
+
+  @Parameter(
+      names = {"-t", "--threads"},
+      description = "Number of threads to use for a single validation")
+  private int numThreads = 1;
+
+  @Parameter(
+      names = {"--max_concurrent_validations"},
+      description = "Number of feeds that are validated at the same time")
+  private int maxConcurrentValidations = 2;
+
+  @Parameter(
+      names = {"--max_queued_validations"},
+      description =
+          "Number of uploaded feeds that wait for validation, "
+              + "further requests are rejected with HTTP 503")
+  private int maxQueuedValidations = 4;
+
+  @Parameter(
+      names = {"--max_request_size_mb"},
+      description =
+          "Maximum size of an uploaded GTFS archive in megabytes, "
+              + "larger requests are rejected with HTTP 413")
+  private int maxRequestSizeMb = 256;
+
+  @Parameter(
+      names = {"--timeout_seconds"},
+      description =
+          "Maximum time for a single validation in seconds, "
+              + "slower validations are cancelled and reported with HTTP 504")
+  private int timeoutSeconds = 600;
+
+  @Parameter(
+      names = {"--byte_tokenizer"},
+      description =
+          "Parse CSV files with a tokenizer that works directly on UTF-8 bytes "
+              + "instead of Univocity parser")
+  private boolean byteTokenizerEnabled = false;
+
+  @Parameter(
+      names = {"--memory_map"},
+      description = "Memory-map uncompressed entries of uploaded ZIP archives")
+  private boolean memoryMappingEnabled = false;
+
+  @Parameter(
+      names = {"--max_notices_per_type"},
+      description =
+          "Maximum number of notices of a single code and severity in the report. "
+              + "Past the cap, the report contains a random sample of the notices and their "
+              + "exact total count")
+  private int maxNoticesPerType = NoticeContainer.DEFAULT_MAX_NOTICES_PER_TYPE;
+
+  public int getPort() {
+    return port;
+  }
+
+  public int getNumThreads() {
+    return numThreads;
+  }
+
+  public int getMaxConcurrentValidations() {
+    return maxConcurrentValidations;
+  }
+
+  public int getMaxQueuedValidations() {
+    return maxQueuedValidations;
+  }
+
+  public int getMaxRequestSizeMb() {
+    return maxRequestSizeMb;
+  }
+
+  public int getTimeoutSeconds() {
+    return timeoutSeconds;
+  }
+
+  public boolean isByteTokenizerEnabled() {
+    return byteTokenizerEnabled;
+  }
+
+  public boolean isMemoryMappingEnabled() {
+    return memoryMappingEnabled;
+  }
+
+  public int getMaxNoticesPerType() {
+    return maxNoticesPerType;
+  }
+}
@@ -0,0 +1,287 @@
+/*
+ * Copyright 2020 Google LLC, MobilityData IO
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.cli;
+
+import com.google.common.base.Splitter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import javax.annotation.Nullable;
+import org.mobilitydata.gtfsvalidator.input.GtfsFeedName;
+import org.mobilitydata.gtfsvalidator.input.GtfsInput;
+import org.mobilitydata.gtfsvalidator.notice.NoticeContainer;
+import org.mobilitydata.gtfsvalidator.validator.ValidationContext;
+
+/**
+ * Validates GTFS archives that are uploaded over HTTP.
+ *
+ * <p>The server listens on localhost and accepts {@code POST /validate?feed_name=ca-myFeedName}
+ * requests with a GTFS ZIP archive in the body. The response body is the content of report.json;
+ * the amount of system errors is returned in the {@value #SYSTEM_ERRORS_HEADER} header.
+ *
+ * <p>Table loaders and validators are created once for the lifetime of the server. Validations run
+ * on a bounded pool: requests that find the pool and its queue full are rejected with HTTP 503. An
+ * uploaded archive is spooled to a temporary file, so the heap never holds it, and archives that
+ * exceed the size limit are rejected with HTTP 413. A validation that exceeds the time limit is
+ * cancelled and reported with HTTP 504.
+ */
+public class ValidationServer {
+  /** Name of the subcommand that starts the server. */
+  public static final String COMMAND = "server";
+
+  public static final String VALIDATE_PATH = "/validate";
+  public static final String SYSTEM_ERRORS_HEADER = "X-Gtfs-System-Errors";
+
+  private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+  /** Validates a single feed. Implementations must be safe to call from several threads. */
+  @FunctionalInterface
+  public interface FeedValidation {
+    NoticeContainer validate(GtfsInput gtfsInput, ValidationContext validationContext);
+  }
+
+  private final HttpServer httpServer;
+  private final ExecutorService requestExecutor;
+  private final ThreadPoolExecutor validationExecutor;
+  private final FeedValidation feedValidation;
+  private final long maxRequestBytes;
+  private final long timeoutMillis;
+  private final int maxNoticesPerType;
+
+  /**
+   * Creates a server on localhost. The server does not accept requests until {@link #start()}.
+   *
+   * @param args server options
+   * @param feedValidation validates uploaded feeds with shared loaders
+   * @throws IOException if the port cannot be bound
+   */
+  public ValidationServer(ServerArguments args, FeedValidation feedValidation)
+      throws IOException {
+    this.feedValidation = feedValidation;
+    this.maxRequestBytes = args.getMaxRequestSizeMb() * 1024L * 1024L;
+    this.timeoutMillis = TimeUnit.SECONDS.toMillis(args.getTimeoutSeconds());
+    this.maxNoticesPerType = args.getMaxNoticesPerType();
+    final BlockingQueue<Runnable> queue =
+        args.getMaxQueuedValidations() > 0
+            ? new ArrayBlockingQueue<>(args.getMaxQueuedValidations())
+            : new SynchronousQueue<>();
+    validationExecutor =
+        new ThreadPoolExecutor(
+            args.getMaxConcurrentValidations(),
+            args.getMaxConcurrentValidations(),
+            0L,
+            TimeUnit.MILLISECONDS,
+            queue);
+    // Request threads only upload archives and wait for validation results.
+    requestExecutor = Executors.newCachedThreadPool();
+    httpServer =
+        HttpServer.create(
+            new InetSocketAddress(InetAddress.getLoopbackAddress(), args.getPort()), 0);
+    httpServer.setExecutor(requestExecutor);
+    httpServer.createContext(VALIDATE_PATH, this::handle);
+  }
+
+  public void start() {
+    httpServer.start();
+  }
+
+  /** Stops accepting requests and cancels running validations. */
+  public void stop() {
+    httpServer.stop(0);
+    validationExecutor.shutdownNow();
+    requestExecutor.shutdownNow();
+  }
+
+  /** Returns the port that the server listens on. */
+  public int getPort() {
+    return httpServer.getAddress().getPort();
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    try {
+      if (!exchange.getRequestMethod().equals("POST")) {
+        respond(exchange, 405, "Only POST requests are supported");
+        return;
+      }
+      final String feedNameParameter = getQueryParameter(exchange, "feed_name");
+      if (feedNameParameter == null) {
+        respond(exchange, 400, "Query parameter feed_name is missing");
+        return;
+      }
+      final GtfsFeedName feedName;
+      try {
+        feedName = GtfsFeedName.parseString(feedNameParameter);
+      } catch (IllegalArgumentException e) {
+        respond(exchange, 400, e.getMessage());
+        return;
+      }
+      if (isBusy()) {
+        // Do not spool an upload that will be rejected anyway.
+        respond(exchange, 503, "Too many validations in progress");
+        return;
+      }
+      final String contentLength = exchange.getRequestHeaders().getFirst("Content-Length");
+      if (contentLength != null && Long.parseLong(contentLength) > maxRequestBytes) {
+        respond(exchange, 413, "GTFS archive exceeds " + maxRequestBytes + " bytes");
+        return;
+      }
+      final Path archive = Files.createTempFile("gtfs-upload-", ".zip");
+      try {
+        if (!spool(exchange.getRequestBody(), archive)) {
+          respond(exchange, 413, "GTFS archive exceeds " + maxRequestBytes + " bytes");
+          return;
+        }
+        validate(exchange, archive, feedName);
+      } finally {
+        Files.deleteIfExists(archive);
+      }
+    } catch (NumberFormatException e) {
+      respond(exchange, 400, "Invalid Content-Length");
+    } finally {
+      exchange.close();
+    }
+  }
+
+  private void validate(HttpExchange exchange, Path archive, GtfsFeedName feedName)
+      throws IOException {
+    final Future<NoticeContainer> future;
+    try {
+      future =
+          validationExecutor.submit(
+              () -> {
+                try (GtfsInput gtfsInput = GtfsInput.createFromPath(archive)) {
+                  return feedValidation.validate(
+                      gtfsInput,
+                      ValidationContext.builder()
+                          .setFeedName(feedName)
+                          .setNow(ZonedDateTime.now(ZoneId.systemDefault()))
+                          .setMaxNoticesPerType(maxNoticesPerType)
+                          .build());
+                }
+              });
+    } catch (RejectedExecutionException e) {
+      respond(exchange, 503, "Too many validations in progress");
+      return;
+    }
+    final NoticeContainer noticeContainer;
+    try {
+      noticeContainer = future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      future.cancel(true);
+      respond(exchange, 504, "Validation exceeded " + timeoutMillis + " ms");
+      return;
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      respond(exchange, 503, "Server is shutting down");
+      return;
+    } catch (ExecutionException e) {
+      final Throwable cause = e.getCause();
+      respond(
+          exchange,
+          cause instanceof IOException ? 400 : 500,
+          "Cannot validate GTFS archive: " + cause.getMessage());
+      return;
+    }
+    exchange
+        .getResponseHeaders()
+        .set(SYSTEM_ERRORS_HEADER, Integer.toString(noticeContainer.getSystemErrors().size()));
+    exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+    sendBody(exchange, 200, noticeContainer.exportValidationNotices());
+  }
+
+  /** Tells if all validation threads are busy and the queue is full. */
+  private boolean isBusy() {
+    return validationExecutor.getActiveCount() >= validationExecutor.getMaximumPoolSize()
+        && validationExecutor.getQueue().remainingCapacity() == 0;
+  }
+
+  /**
+   * Copies the request body to a file.
+   *
+   * @return false if the body exceeds the size limit
+   */
+  private boolean spool(InputStream body, Path archive) throws IOException {
+    long total = 0;
+    try (OutputStream out = Files.newOutputStream(archive)) {
+      byte[] buffer = new byte[COPY_BUFFER_SIZE];
+      int n;
+      while ((n = body.read(buffer)) >= 0) {
+        total += n;
+        if (total > maxRequestBytes) {
+          return false;
+        }
+        out.write(buffer, 0, n);
+      }
+    }
+    return true;
+  }
+
+  @Nullable
+  private static String getQueryParameter(HttpExchange exchange, String name)
+      throws UnsupportedEncodingException {
+    final String query = exchange.getRequestURI().getRawQuery();
+    if (query == null) {
+      return null;
+    }
+    for (String pair : Splitter.on('&').split(query)) {
+      List<String> parts = Splitter.on('=').limit(2).splitToList(pair);
+      if (parts.size() == 2 && parts.get(0).equals(name)) {
+        return URLDecoder.decode(parts.get(1), StandardCharsets.UTF_8.name());
+      }
+    }
+    return null;
+  }
+
+  private static void respond(HttpExchange exchange, int status, String message)
+      throws IOException {
+    exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+    sendBody(exchange, status, message);
+  }
+
+  private static void sendBody(HttpExchange exchange, int status, String body)
+      throws IOException {
+    final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+    exchange.sendResponseHeaders(status, bytes.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(bytes);
+    }
+  }
+}
@@ -23,8 +23,9 @@ import org.mobilitydata.gtfsvalidator.annotation.GtfsTable;
 import org.mobilitydata.gtfsvalidator.annotation.NonNegative;
 import org.mobilitydata.gtfsvalidator.annotation.Required;
 import org.mobilitydata.gtfsvalidator.annotation.SequenceKey;
+import org.mobilitydata.gtfsvalidator.annotation.TableStorageEnum;
 
-@GtfsTable("shapes.txt")
+@GtfsTable(value = "shapes.txt", storage = TableStorageEnum.COLUMNAR)
 public interface GtfsShapeSchema extends GtfsEntity {
   @FieldType(FieldTypeEnum.ID)
   @Required
@@ -27,9 +27,10 @@ import org.mobilitydata.gtfsvalidator.annotation.GtfsTable;
 import org.mobilitydata.gtfsvalidator.annotation.NonNegative;
 import org.mobilitydata.gtfsvalidator.annotation.Required;
 import org.mobilitydata.gtfsvalidator.annotation.SequenceKey;
+import org.mobilitydata.gtfsvalidator.annotation.TableStorageEnum;
 import org.mobilitydata.gtfsvalidator.type.GtfsTime;
 
-@GtfsTable("stop_times.txt")
+@GtfsTable(value = "stop_times.txt", storage = TableStorageEnum.COLUMNAR)
 @Required
 public interface GtfsStopTimeSchema extends GtfsEntity {
   @FieldType(FieldTypeEnum.ID)
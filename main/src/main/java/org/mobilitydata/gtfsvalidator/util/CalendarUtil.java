@@ -1,7 +1,6 @@
 package org.mobilitydata.gtfsvalidator.util;
 
 import com.google.common.base.Preconditions;
-import com.google.common.collect.Multimaps;
 import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -92,8 +91,7 @@ public final class CalendarUtil {
           calendar.serviceId(),
           createServicePeriod(calendar, calendarDateTable.byServiceId(calendar.serviceId())));
     }
-    for (List<GtfsCalendarDate> calendarDates :
-        Multimaps.asMap(calendarDateTable.byServiceIdMap()).values()) {
+    for (List<GtfsCalendarDate> calendarDates : calendarDateTable.byServiceIdMap().values()) {
       if (!servicePeriods.containsKey(calendarDates.get(0).serviceId())) {
         servicePeriods.put(
             calendarDates.get(0).serviceId(), createServicePeriod(null, calendarDates));
@@ -156,4 +154,33 @@ public final class CalendarUtil {
       }
     }
   }
+
+  /**
+   * Finds the first day that is set in both bitsets of service days. Returns -1 if there is no
+   * intersection.
+   *
+   * <p>Days are counted from a common origin. Bit {@code i} of {@code days1[w]} stands for day
+   * {@code 64 * (firstWord1 + w) + i}, and the same holds for {@code days2}, so that bitsets of
+   * services that run in different years do not need to span the whole range.
+   *
+   * <p>Time complexity: O(number of words that both bitsets cover).
+   *
+   * @param days1 the first bitset of service days
+   * @param firstWord1 index of the first word of {@code days1}
+   * @param days2 the second bitset of service days
+   * @param firstWord2 index of the first word of {@code days2}
+   * @return the first intersecting day or -1 if there is no intersection
+   */
+  public static int firstIntersectingDay(
+      @Nonnull long[] days1, int firstWord1, @Nonnull long[] days2, int firstWord2) {
+    final int fromWord = Math.max(firstWord1, firstWord2);
+    final int toWord = Math.min(firstWord1 + days1.length, firstWord2 + days2.length);
+    for (int w = fromWord; w < toWord; ++w) {
+      final long common = days1[w - firstWord1] & days2[w - firstWord2];
+      if (common != 0) {
+        return (w << 6) + Long.numberOfTrailingZeros(common);
+      }
+    }
+    return -1;
+  }
 }
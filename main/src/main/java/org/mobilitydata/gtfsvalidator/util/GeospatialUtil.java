@@ -18,9 +18,7 @@ package org.mobilitydata.gtfsvalidator.util;
 
 import static org.locationtech.spatial4j.context.SpatialContext.GEO;
 
-import org.locationtech.spatial4j.distance.DistanceCalculator;
 import org.locationtech.spatial4j.distance.DistanceUtils;
-import org.locationtech.spatial4j.shape.Point;
 import org.locationtech.spatial4j.shape.ShapeFactory;
 
 public class GeospatialUtil {
@@ -29,6 +27,16 @@ public class GeospatialUtil {
   public static final double METER_TO_KILOMETER_CONVERSION_FACTOR =
       1 / 1000.0d; // conversion factor from kilometers to meters
 
+  /** Mean radius of Earth, the same as used by {@code SpatialContext.GEO}. */
+  public static final double EARTH_MEAN_RADIUS_METERS =
+      DistanceUtils.EARTH_MEAN_RADIUS_KM * KILOMETER_TO_METER_CONVERSION_FACTOR;
+
+  /**
+   * Differences of latitude and longitude in radians below which the equirectangular approximation
+   * is used. This is about 6.4 km.
+   */
+  private static final double SHORT_HOP_RADIANS = 1e-3;
+
   private GeospatialUtil() {}
 
   /**
@@ -41,35 +49,69 @@ public class GeospatialUtil {
   }
 
   /**
-   * Method returning a {@code DistanceCalculator}
+   * Return the distance between two points given there lat/lon positions in meters. the distance is
+   * computed following the haversine formula on a sphere with the mean radius of Earth, which is
+   * what {@code SpatialContext.GEO} of Spatial4j does. Note that points of origin (from) and
+   * destination (to) can be swapped. Result is expressed in meters.
+   *
+   * <p>This method does not allocate objects. Callers that compute distances for the same point
+   * several times should use {@link #distanceInMeterBetween(double, double, double, double,
+   * double, double)} with the cosine of latitude computed once by {@link #cosLatitude(double)}.
    *
-   * @return a {@link DistanceCalculator}
+   * @param fromLat latitude of the first coordinates
+   * @param fromLng longitude of the first coordinates
+   * @param toLat latitude of the second coordinates
+   * @param toLng longitude of the second coordinates
+   * @return the calculation result in meters
    */
-  private static DistanceCalculator getDistanceCalculator() {
-    return GEO.getDistCalc();
+  public static double distanceInMeterBetween(
+      double fromLat, double fromLng, double toLat, double toLng) {
+    return distanceInMeterBetween(
+        fromLat, fromLng, cosLatitude(fromLat), toLat, toLng, cosLatitude(toLat));
   }
 
   /**
-   * Return the distance between two points given there lat/lon positions in meters. the distance is
-   * computed following the haversine formula. See
-   * https://locationtech.github.io/spatial4j/apidocs/org/locationtech/spatial4j/context/SpatialContext.html
-   * Note that points of origin (from) and destination (to) can be swapped. Result is expressed in
-   * meters.
+   * Returns the cosine of a latitude, to be passed to {@link #distanceInMeterBetween(double,
+   * double, double, double, double, double)}.
+   *
+   * @param lat latitude in degrees
+   * @return cosine of the latitude
+   */
+  public static double cosLatitude(double lat) {
+    return Math.cos(Math.toRadians(lat));
+  }
+
+  /**
+   * Returns the distance in meters between two points whose cosines of latitude are known.
+   *
+   * <p>Hops shorter than about 6 km use the equirectangular approximation with the mean cosine of
+   * both latitudes, which needs a single square root. Its relative error against the haversine
+   * formula is below 1e-6 for such hops. Longer hops use the haversine formula.
    *
    * @param fromLat latitude of the first coordinates
    * @param fromLng longitude of the first coordinates
+   * @param fromCosLat cosine of {@code fromLat}, see {@link #cosLatitude(double)}
    * @param toLat latitude of the second coordinates
    * @param toLng longitude of the second coordinates
+   * @param toCosLat cosine of {@code toLat}, see {@link #cosLatitude(double)}
    * @return the calculation result in meters
    */
   public static double distanceInMeterBetween(
-      double fromLat, double fromLng, double toLat, double toLng) {
-    final ShapeFactory shapeFactory = getShapeFactory();
-    final DistanceCalculator distanceCalculator = getDistanceCalculator();
-    final Point origin = shapeFactory.pointXY(fromLng, fromLat);
-    final Point destination = shapeFactory.pointXY(toLng, toLat);
-    return DistanceUtils.DEG_TO_KM
-        * distanceCalculator.distance(origin, destination)
-        * KILOMETER_TO_METER_CONVERSION_FACTOR;
+      double fromLat,
+      double fromLng,
+      double fromCosLat,
+      double toLat,
+      double toLng,
+      double toCosLat) {
+    final double deltaLat = Math.toRadians(toLat - fromLat);
+    double deltaLng = Math.toRadians(toLng - fromLng);
+    if (Math.abs(deltaLat) < SHORT_HOP_RADIANS && Math.abs(deltaLng) < SHORT_HOP_RADIANS) {
+      final double x = deltaLng * 0.5 * (fromCosLat + toCosLat);
+      return EARTH_MEAN_RADIUS_METERS * Math.sqrt(x * x + deltaLat * deltaLat);
+    }
+    final double sinHalfLat = Math.sin(0.5 * deltaLat);
+    final double sinHalfLng = Math.sin(0.5 * deltaLng);
+    final double h = sinHalfLat * sinHalfLat + fromCosLat * toCosLat * sinHalfLng * sinHalfLng;
+    return EARTH_MEAN_RADIUS_METERS * 2 * Math.atan2(Math.sqrt(h), Math.sqrt(Math.max(0, 1 - h)));
   }
 }
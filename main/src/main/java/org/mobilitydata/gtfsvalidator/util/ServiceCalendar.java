@@ -0,0 +1,219 @@
+/*
+ * Copyright 2021 MobilityData IO
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.util;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import javax.annotation.Nonnull;
+
+/**
+ * Active dates of all services of a feed, stored as bitsets.
+ *
+ * <p>Days are counted from the earliest active date of all services, so bit {@code i} stands for
+ * {@code getOrigin().plusDays(i)}. Every service stores only the words between its own first and
+ * last active days, so a service that runs in a different year than the rest of the feed does not
+ * make all bitsets larger.
+ *
+ * <p>Checking if a service is active on a date and counting its active days take O(1). Finding the
+ * first date when two services are both active takes an AND of words that both services cover,
+ * e.g., 6 words for a year.
+ *
+ * <p>The calendar is immutable and may be queried from several threads.
+ */
+public final class ServiceCalendar {
+  private static final int BITS_PER_WORD = 64;
+
+  private final long originEpochDay;
+  private final Map<String, ServiceDays> services;
+
+  private ServiceCalendar(long originEpochDay, Map<String, ServiceDays> services) {
+    this.originEpochDay = originEpochDay;
+    this.services = services;
+  }
+
+  /**
+   * Builds a calendar from service periods.
+   *
+   * @param servicePeriods mapping from service id to {@link ServicePeriod}
+   * @return the calendar
+   */
+  public static ServiceCalendar create(@Nonnull Map<String, ServicePeriod> servicePeriods) {
+    long origin = Long.MAX_VALUE;
+    for (ServicePeriod period : servicePeriods.values()) {
+      origin = Math.min(origin, firstCandidateDay(period));
+    }
+    Map<String, ServiceDays> services = new HashMap<>(servicePeriods.size() * 2);
+    for (Map.Entry<String, ServicePeriod> entry : servicePeriods.entrySet()) {
+      services.put(entry.getKey(), ServiceDays.create(entry.getValue(), origin));
+    }
+    return new ServiceCalendar(origin, services);
+  }
+
+  /**
+   * Returns the first day that may be active in the period: the start of the weekly pattern or the
+   * first added day. Returns {@code Long.MAX_VALUE} if the period has no such day.
+   */
+  private static long firstCandidateDay(ServicePeriod period) {
+    long first = Long.MAX_VALUE;
+    if (period.getWeeklyPattern() != 0) {
+      first = period.getServiceStart().toEpochDay();
+    }
+    for (LocalDate added : period.getAddedDays()) {
+      first = Math.min(first, added.toEpochDay());
+    }
+    return first;
+  }
+
+  private static long lastCandidateDay(ServicePeriod period) {
+    long last = Long.MIN_VALUE;
+    if (period.getWeeklyPattern() != 0) {
+      last = period.getServiceEnd().toEpochDay();
+    }
+    for (LocalDate added : period.getAddedDays()) {
+      last = Math.max(last, added.toEpochDay());
+    }
+    return last;
+  }
+
+  /**
+   * Returns the earliest active date of all services, or {@code Optional.empty()} if no service is
+   * ever active.
+   *
+   * @return the date that corresponds to day 0 of the bitsets
+   */
+  public Optional<LocalDate> getOrigin() {
+    return originEpochDay == Long.MAX_VALUE
+        ? Optional.empty()
+        : Optional.of(LocalDate.ofEpochDay(originEpochDay));
+  }
+
+  /**
+   * Tells if a service is active on a given date.
+   *
+   * @param serviceId the service id
+   * @param date the date
+   * @return true if the service is active on the date, false otherwise or for unknown services
+   */
+  public boolean isActiveOn(String serviceId, LocalDate date) {
+    final ServiceDays days = services.get(serviceId);
+    if (days == null) {
+      return false;
+    }
+    final long day = date.toEpochDay() - originEpochDay;
+    if (day < 0) {
+      return false;
+    }
+    final long word = (day >>> 6) - days.firstWord;
+    return word >= 0 && word < days.words.length && (days.words[(int) word] & (1L << day)) != 0;
+  }
+
+  /**
+   * Returns the amount of days when a service is active.
+   *
+   * @param serviceId the service id
+   * @return the amount of active days, or 0 for unknown services
+   */
+  public int activeDayCount(String serviceId) {
+    final ServiceDays days = services.get(serviceId);
+    return days == null ? 0 : days.dayCount;
+  }
+
+  /**
+   * Finds the first date when both services are active, if any. Returns {@code Optional.empty()}
+   * if there is no intersection.
+   *
+   * <p>Note that if either service has no active service dates, then the method always returns
+   * {@code Optional.empty()}, even if the service ids are the same.
+   *
+   * @param serviceId1 the first service id
+   * @param serviceId2 the second service id
+   * @return the first intersecting date or {@code Optional.empty()} for no intersection
+   */
+  public Optional<LocalDate> firstIntersectingDate(String serviceId1, String serviceId2) {
+    final ServiceDays days1 = services.get(serviceId1);
+    final ServiceDays days2 = services.get(serviceId2);
+    if (days1 == null || days2 == null) {
+      return Optional.empty();
+    }
+    final int day =
+        CalendarUtil.firstIntersectingDay(
+            days1.words, days1.firstWord, days2.words, days2.firstWord);
+    return day < 0 ? Optional.empty() : Optional.of(LocalDate.ofEpochDay(originEpochDay + day));
+  }
+
+  /** Active days of a single service. */
+  private static final class ServiceDays {
+    private static final ServiceDays EMPTY = new ServiceDays(0, new long[0], 0);
+
+    /** Index of the word that {@code words[0]} stands for. */
+    final int firstWord;
+
+    final long[] words;
+    final int dayCount;
+
+    private ServiceDays(int firstWord, long[] words, int dayCount) {
+      this.firstWord = firstWord;
+      this.words = words;
+      this.dayCount = dayCount;
+    }
+
+    static ServiceDays create(ServicePeriod period, long originEpochDay) {
+      final long first = firstCandidateDay(period);
+      final long last = lastCandidateDay(period);
+      if (first > last) {
+        return EMPTY;
+      }
+      final int firstWord = Math.toIntExact((first - originEpochDay) / BITS_PER_WORD);
+      final int lastWord = Math.toIntExact((last - originEpochDay) / BITS_PER_WORD);
+      final long[] words = new long[lastWord - firstWord + 1];
+      final long base = originEpochDay + (long) firstWord * BITS_PER_WORD;
+
+      final byte weeklyPattern = period.getWeeklyPattern();
+      if (weeklyPattern != 0) {
+        final long end = period.getServiceEnd().toEpochDay();
+        // 1970-01-01 is a Thursday, so epoch day 0 has the bit 3 of the pattern.
+        int dayOfWeek = (int) Math.floorMod(period.getServiceStart().toEpochDay() + 3, 7L);
+        for (long day = period.getServiceStart().toEpochDay(); day <= end; ++day) {
+          if ((weeklyPattern & (1 << dayOfWeek)) != 0) {
+            set(words, day - base);
+          }
+          dayOfWeek = dayOfWeek == 6 ? 0 : dayOfWeek + 1;
+        }
+      }
+      for (LocalDate added : period.getAddedDays()) {
+        set(words, added.toEpochDay() - base);
+      }
+      for (LocalDate removed : period.getRemovedDays()) {
+        final long bit = removed.toEpochDay() - base;
+        if (bit >= 0 && bit < (long) words.length * BITS_PER_WORD) {
+          words[(int) (bit >>> 6)] &= ~(1L << bit);
+        }
+      }
+      int dayCount = 0;
+      for (long word : words) {
+        dayCount += Long.bitCount(word);
+      }
+      return new ServiceDays(firstWord, words, dayCount);
+    }
+
+    private static void set(long[] words, long bit) {
+      words[(int) (bit >>> 6)] |= 1L << bit;
+    }
+  }
+}
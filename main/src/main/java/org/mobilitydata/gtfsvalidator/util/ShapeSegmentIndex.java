@@ -0,0 +1,186 @@
+/*
+ * Copyright 2021 MobilityData IO
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.util;
+
+import static org.locationtech.spatial4j.context.SpatialContext.GEO;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.locationtech.spatial4j.shape.Point;
+import org.locationtech.spatial4j.shape.Rectangle;
+import org.locationtech.spatial4j.shape.impl.BufferedLine;
+import org.locationtech.spatial4j.shape.impl.BufferedLineString;
+
+/**
+ * A buffered polyline whose segments are put into a uniform grid, so that a point is tested only
+ * against the segments near it instead of all segments of the polyline.
+ *
+ * <p>The polyline is buffered exactly as {@code ShapeFactory.lineString().buffer(...)} does with
+ * the geographic context: every segment is a spatial4j {@link BufferedLine} with Euclidean
+ * operations on degrees and without expanding the buffer for longitude skew. So {@link
+ * #contains(double, double)} gives the same result as {@code relate(point) == CONTAINS} of the
+ * buffered line string.
+ *
+ * <p>The index is immutable and may be queried from several threads.
+ */
+public final class ShapeSegmentIndex {
+  private final List<BufferedLine> segments;
+
+  /** Tells if a segment crosses the antimeridian, so that the grid is not used. */
+  private final boolean crossesDateLine;
+
+  private final double minX;
+  private final double minY;
+  private final double maxX;
+  private final double maxY;
+  private final double cellSize;
+  private final int columns;
+  private final int rows;
+
+  /** Segments of cell {@code i} are {@code cellSegments[cellStarts[i]..cellStarts[i + 1]]}. */
+  private final int[] cellStarts;
+
+  private final int[] cellSegments;
+
+  /**
+   * Builds an index for a polyline.
+   *
+   * @param lons longitudes of polyline points in degrees
+   * @param lats latitudes of polyline points in degrees
+   * @param bufferDegrees buffer distance around the polyline in degrees
+   */
+  public ShapeSegmentIndex(double[] lons, double[] lats, double bufferDegrees) {
+    if (lons.length != lats.length) {
+      throw new IllegalArgumentException("Different number of longitudes and latitudes");
+    }
+    List<Point> points = new ArrayList<>(lons.length);
+    for (int i = 0; i < lons.length; ++i) {
+      points.add(GEO.getShapeFactory().pointXY(lons[i], lats[i]));
+    }
+    // The line string builder of spatial4j does not expand the buffer for longitude skew either.
+    segments =
+        new BufferedLineString(points, bufferDegrees, /* expandBufForLongitudeSkew= */ false, GEO)
+            .getSegments();
+
+    double minX = Double.POSITIVE_INFINITY;
+    double minY = Double.POSITIVE_INFINITY;
+    double maxX = Double.NEGATIVE_INFINITY;
+    double maxY = Double.NEGATIVE_INFINITY;
+    boolean crossesDateLine = false;
+    for (BufferedLine segment : segments) {
+      final Rectangle box = segment.getBoundingBox();
+      crossesDateLine |= box.getCrossesDateLine();
+      minX = Math.min(minX, box.getMinX());
+      minY = Math.min(minY, box.getMinY());
+      maxX = Math.max(maxX, box.getMaxX());
+      maxY = Math.max(maxY, box.getMaxY());
+    }
+    this.crossesDateLine = crossesDateLine;
+    this.minX = minX;
+    this.minY = minY;
+    this.maxX = maxX;
+    this.maxY = maxY;
+    if (segments.isEmpty() || crossesDateLine) {
+      cellSize = 1;
+      columns = 0;
+      rows = 0;
+      cellStarts = new int[1];
+      cellSegments = new int[0];
+      return;
+    }
+
+    // About one cell per segment, and at most n + 1 cells along the longer side of the box.
+    final int n = segments.size();
+    final double width = maxX - minX;
+    final double height = maxY - minY;
+    final double size = Math.max(Math.sqrt(width * height / n), Math.max(width, height) / n);
+    cellSize = size > 0 ? size : 1;
+    columns = (int) (width / cellSize) + 1;
+    rows = (int) (height / cellSize) + 1;
+
+    cellStarts = new int[columns * rows + 1];
+    for (BufferedLine segment : segments) {
+      forEachCell(segment.getBoundingBox(), cell -> ++cellStarts[cell + 1]);
+    }
+    for (int i = 0; i < columns * rows; ++i) {
+      cellStarts[i + 1] += cellStarts[i];
+    }
+    cellSegments = new int[cellStarts[columns * rows]];
+    final int[] fill = new int[columns * rows];
+    for (int i = 0; i < n; ++i) {
+      final int segmentIndex = i;
+      forEachCell(
+          segments.get(i).getBoundingBox(),
+          cell -> cellSegments[cellStarts[cell] + fill[cell]++] = segmentIndex);
+    }
+  }
+
+  private interface CellConsumer {
+    void accept(int cell);
+  }
+
+  private void forEachCell(Rectangle box, CellConsumer consumer) {
+    final int fromColumn = column(box.getMinX());
+    final int toColumn = column(box.getMaxX());
+    final int fromRow = row(box.getMinY());
+    final int toRow = row(box.getMaxY());
+    for (int r = fromRow; r <= toRow; ++r) {
+      for (int c = fromColumn; c <= toColumn; ++c) {
+        consumer.accept(r * columns + c);
+      }
+    }
+  }
+
+  private int column(double x) {
+    return Math.min(columns - 1, Math.max(0, (int) ((x - minX) / cellSize)));
+  }
+
+  private int row(double y) {
+    return Math.min(rows - 1, Math.max(0, (int) ((y - minY) / cellSize)));
+  }
+
+  /** Returns the amount of segments of the buffered polyline. */
+  public int segmentCount() {
+    return segments.size();
+  }
+
+  /** Tells if a point lies within the buffer of the polyline. */
+  public boolean contains(double lon, double lat) {
+    if (segments.isEmpty()) {
+      return false;
+    }
+    final Point point = GEO.getShapeFactory().pointXY(lon, lat);
+    if (crossesDateLine) {
+      for (BufferedLine segment : segments) {
+        if (segment.contains(point)) {
+          return true;
+        }
+      }
+      return false;
+    }
+    if (lon < minX || lon > maxX || lat < minY || lat > maxY) {
+      return false;
+    }
+    final int cell = row(lat) * columns + column(lon);
+    for (int i = cellStarts[cell]; i < cellStarts[cell + 1]; ++i) {
+      if (segments.get(cellSegments[i]).contains(point)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
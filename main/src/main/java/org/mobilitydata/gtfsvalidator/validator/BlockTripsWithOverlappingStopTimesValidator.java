@@ -1,11 +1,15 @@
 package org.mobilitydata.gtfsvalidator.validator;
 
-import com.google.common.collect.Multimaps;
+import static java.util.stream.Collectors.toList;
+
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import javax.inject.Inject;
 import org.mobilitydata.gtfsvalidator.annotation.GtfsValidator;
@@ -20,7 +24,7 @@ import org.mobilitydata.gtfsvalidator.table.GtfsTripTableContainer;
 import org.mobilitydata.gtfsvalidator.type.GtfsDate;
 import org.mobilitydata.gtfsvalidator.type.GtfsTime;
 import org.mobilitydata.gtfsvalidator.util.CalendarUtil;
-import org.mobilitydata.gtfsvalidator.util.ServiceIdIntersectionCache;
+import org.mobilitydata.gtfsvalidator.util.ServiceCalendar;
 
 /**
  * Checks to see if any trips with the same block id have overlapping stop times.
@@ -48,26 +52,35 @@ public class BlockTripsWithOverlappingStopTimesValidator extends FileValidator {
     // date is to:
     // 1) iterate over groups of trips grouped by their block id;
     // 2) sort the trips within the block by stop times;
-    // 3) iterate over each trip, looking for subsequent trips that
-    //   (a) are active on the same service date and
-    //   (b) have overlapping stop times.
+    // 3) split the trips of the block by service id and skip pairs of services that have no
+    //    common date;
+    // 4) sweep over the trips of each remaining pair of services, looking for subsequent trips
+    //    that have overlapping stop times.
     // Because the trips will be ordered by stop times, we shouldn't have to look too far down the
     // list.
-    final ServiceIdIntersectionCache serviceIdIntersectionCache =
-        new ServiceIdIntersectionCache(
-            CalendarUtil.servicePeriodToServiceDatesMap(
-                CalendarUtil.buildServicePeriodMap(calendarTable, calendarDateTable)));
-    for (List<GtfsTrip> tripsInBlock : Multimaps.asMap(tripTable.byBlockIdMap()).values()) {
+    final ServiceCalendar serviceCalendar =
+        ServiceCalendar.create(
+            CalendarUtil.buildServicePeriodMap(calendarTable, calendarDateTable));
+    List<List<GtfsTrip>> blocks = new ArrayList<>();
+    for (List<GtfsTrip> tripsInBlock : tripTable.byBlockIdMap().values()) {
       // We don't care about trips without a block id.
-      if (!tripsInBlock.get(0).hasBlockId()) {
-        continue;
+      if (tripsInBlock.get(0).hasBlockId()) {
+        blocks.add(tripsInBlock);
       }
-      // We need a first arrival time and a last departure time for each trip in the block to
-      // properly judge trip
-      // overlap.
-      for (GtfsTripOverlap overlap :
-          findOverlapIntervals(
-              constructOrderedTripIntervals(tripsInBlock), serviceIdIntersectionCache)) {
+    }
+    // Blocks are independent, so they are checked in parallel. Notices are collected per block and
+    // added in the order of blocks, since NoticeContainer is not thread-safe.
+    List<List<GtfsTripOverlap>> overlapsByBlock =
+        ParallelValidation.stream(blocks)
+            .map(
+                // We need a first arrival time and a last departure time for each trip in the
+                // block to properly judge trip overlap.
+                tripsInBlock ->
+                    findOverlapIntervals(
+                        constructOrderedTripIntervals(tripsInBlock), serviceCalendar))
+            .collect(toList());
+    for (List<GtfsTripOverlap> overlaps : overlapsByBlock) {
+      for (GtfsTripOverlap overlap : overlaps) {
         final GtfsTrip tripA = overlap.getTripA();
         final GtfsTrip tripB = overlap.getTripB();
         noticeContainer.addValidationNotice(
@@ -127,17 +140,91 @@ public class BlockTripsWithOverlappingStopTimesValidator extends FileValidator {
   }
 
   /**
-   * Iterates over each trip intervals, looking for subsequent trips that: (a) are active on the
-   * same service date and (b) have overlapping stop times.
+   * Finds pairs of trip intervals that: (a) are active on the same service date and (b) have
+   * overlapping stop times.
+   *
+   * <p>Intervals are split into groups by service id. Every pair of groups whose services have a
+   * common date is swept once, and pairs of groups without a common date are never compared. This
+   * takes O(g * n + k), where g is the number of service ids in the block, n is the number of
+   * intervals and k is the number of pairs that overlap in time.
+   *
+   * @param intervals intervals sorted by {@link #constructOrderedTripIntervals(List)}
+   * @return overlaps ordered by the positions of the first and then the second trip in {@code
+   *     intervals}
    */
   private List<GtfsTripOverlap> findOverlapIntervals(
-      List<GtfsTripInterval> intervals, ServiceIdIntersectionCache serviceIdIntersectionCache) {
-    List<GtfsTripOverlap> overlaps = new ArrayList<>();
-    // Iterate over each trip, looking for subsequent trips that have
-    // overlapping time ranges.
+      List<GtfsTripInterval> intervals, ServiceCalendar serviceCalendar) {
+    // Positions of intervals of group g are groupPositions[groupStarts[g]..groupStarts[g + 1]],
+    // in increasing order.
+    final Map<String, Integer> groupByServiceId = new LinkedHashMap<>();
+    final int[] groupOfInterval = new int[intervals.size()];
     for (int i = 0; i < intervals.size(); ++i) {
+      final String serviceId = intervals.get(i).getTrip().serviceId();
+      Integer group = groupByServiceId.get(serviceId);
+      if (group == null) {
+        group = groupByServiceId.size();
+        groupByServiceId.put(serviceId, group);
+      }
+      groupOfInterval[i] = group;
+    }
+    final int groupCount = groupByServiceId.size();
+    final String[] serviceIds = groupByServiceId.keySet().toArray(new String[0]);
+    final int[] groupStarts = new int[groupCount + 1];
+    for (int group : groupOfInterval) {
+      ++groupStarts[group + 1];
+    }
+    for (int g = 0; g < groupCount; ++g) {
+      groupStarts[g + 1] += groupStarts[g];
+    }
+    final int[] groupPositions = new int[intervals.size()];
+    final int[] fill = Arrays.copyOf(groupStarts, groupCount);
+    for (int i = 0; i < intervals.size(); ++i) {
+      groupPositions[fill[groupOfInterval[i]]++] = i;
+    }
+
+    List<GtfsTripOverlap> overlaps = new ArrayList<>();
+    for (int g1 = 0; g1 < groupCount; ++g1) {
+      for (int g2 = g1; g2 < groupCount; ++g2) {
+        final Optional<LocalDate> intersection =
+            serviceCalendar.firstIntersectingDate(serviceIds[g1], serviceIds[g2]);
+        if (!intersection.isPresent()) {
+          continue;
+        }
+        sweep(intervals, groupPositions, groupStarts, g1, g2, intersection.get(), overlaps);
+        if (g1 != g2) {
+          sweep(intervals, groupPositions, groupStarts, g2, g1, intersection.get(), overlaps);
+        }
+      }
+    }
+    overlaps.sort(
+        Comparator.comparingInt(GtfsTripOverlap::getPositionA)
+            .thenComparingInt(GtfsTripOverlap::getPositionB));
+    return overlaps;
+  }
+
+  /**
+   * Looks for intervals of group {@code to} that follow an interval of group {@code from} and
+   * overlap with it.
+   */
+  private static void sweep(
+      List<GtfsTripInterval> intervals,
+      int[] groupPositions,
+      int[] groupStarts,
+      int from,
+      int to,
+      LocalDate intersection,
+      List<GtfsTripOverlap> overlaps) {
+    final int toEnd = groupStarts[to + 1];
+    int firstNext = groupStarts[to];
+    for (int p = groupStarts[from]; p < groupStarts[from + 1]; ++p) {
+      final int i = groupPositions[p];
       final GtfsTripInterval interval = intervals.get(i);
-      for (int j = i + 1; j < intervals.size(); ++j) {
+      // Only the intervals after the current one in the sorted list are checked.
+      while (firstNext < toEnd && groupPositions[firstNext] <= i) {
+        ++firstNext;
+      }
+      for (int q = firstNext; q < toEnd; ++q) {
+        final int j = groupPositions[q];
         final GtfsTripInterval nextInterval = intervals.get(j);
 
         // We can stop searching for overlapping intervals if there is
@@ -155,16 +242,10 @@ public class BlockTripsWithOverlappingStopTimesValidator extends FileValidator {
             && interval.getLastDeparture().equals(nextInterval.getFirstDeparture())) {
           continue;
         }
-        final Optional<LocalDate> intersection =
-            serviceIdIntersectionCache.findIntersectingDate(
-                interval.getTrip().serviceId(), nextInterval.getTrip().serviceId());
-        if (intersection.isPresent()) {
-          overlaps.add(
-              new GtfsTripOverlap(interval.getTrip(), nextInterval.getTrip(), intersection.get()));
-        }
+        overlaps.add(
+            new GtfsTripOverlap(i, interval.getTrip(), j, nextInterval.getTrip(), intersection));
       }
     }
-    return overlaps;
   }
 
   /**
@@ -216,16 +297,31 @@ public class BlockTripsWithOverlappingStopTimesValidator extends FileValidator {
    * first intersection.
    */
   private static class GtfsTripOverlap {
+    private final int positionA;
     private final GtfsTrip tripA;
+    private final int positionB;
     private final GtfsTrip tripB;
     private final LocalDate intersection;
 
-    public GtfsTripOverlap(GtfsTrip tripA, GtfsTrip tripB, LocalDate intersection) {
+    public GtfsTripOverlap(
+        int positionA, GtfsTrip tripA, int positionB, GtfsTrip tripB, LocalDate intersection) {
+      this.positionA = positionA;
       this.tripA = tripA;
+      this.positionB = positionB;
       this.tripB = tripB;
       this.intersection = intersection;
     }
 
+    /** Returns the position of trip A in the sorted list of trip intervals of the block. */
+    public int getPositionA() {
+      return positionA;
+    }
+
+    /** Returns the position of trip B in the sorted list of trip intervals of the block. */
+    public int getPositionB() {
+      return positionB;
+    }
+
     public GtfsTrip getTripA() {
       return tripA;
     }
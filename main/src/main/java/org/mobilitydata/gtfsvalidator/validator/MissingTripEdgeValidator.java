@@ -19,15 +19,11 @@ package org.mobilitydata.gtfsvalidator.validator;
 import static org.mobilitydata.gtfsvalidator.table.GtfsStopTimeTableLoader.ARRIVAL_TIME_FIELD_NAME;
 import static org.mobilitydata.gtfsvalidator.table.GtfsStopTimeTableLoader.DEPARTURE_TIME_FIELD_NAME;
 
-import com.google.common.collect.Multimaps;
 import java.util.List;
-import java.util.Map.Entry;
-import javax.inject.Inject;
 import org.mobilitydata.gtfsvalidator.annotation.GtfsValidator;
 import org.mobilitydata.gtfsvalidator.notice.MissingTripEdgeNotice;
 import org.mobilitydata.gtfsvalidator.notice.NoticeContainer;
 import org.mobilitydata.gtfsvalidator.table.GtfsStopTime;
-import org.mobilitydata.gtfsvalidator.table.GtfsStopTimeTableContainer;
 
 /**
  * Validates: the first and last stop times (when ordering by `stop_sequence` value) of a trip
@@ -36,49 +32,43 @@ import org.mobilitydata.gtfsvalidator.table.GtfsStopTimeTableContainer;
  * <p>Generated notice: {@link MissingTripEdgeNotice}.
  */
 @GtfsValidator
-public class MissingTripEdgeValidator extends FileValidator {
-  @Inject GtfsStopTimeTableContainer stopTimeTable;
-
+public class MissingTripEdgeValidator extends SequenceVisitor<GtfsStopTime> {
   @Override
-  public void validate(NoticeContainer noticeContainer) {
-    for (Entry<String, List<GtfsStopTime>> entry :
-        Multimaps.asMap(stopTimeTable.byTripIdMap()).entrySet()) {
-      String tripId = entry.getKey();
-      List<GtfsStopTime> stopTimesForTrip = entry.getValue();
-      GtfsStopTime tripFirstStop = stopTimesForTrip.get(0);
-      GtfsStopTime tripLastStop = stopTimesForTrip.get(stopTimesForTrip.size() - 1);
-      if (!tripFirstStop.hasArrivalTime()) {
-        noticeContainer.addValidationNotice(
-            new MissingTripEdgeNotice(
-                tripFirstStop.csvRowNumber(),
-                tripFirstStop.stopSequence(),
-                tripId,
-                ARRIVAL_TIME_FIELD_NAME));
-      }
-      if (!tripFirstStop.hasDepartureTime()) {
-        noticeContainer.addValidationNotice(
-            new MissingTripEdgeNotice(
-                tripFirstStop.csvRowNumber(),
-                tripFirstStop.stopSequence(),
-                tripId,
-                DEPARTURE_TIME_FIELD_NAME));
-      }
-      if (!tripLastStop.hasArrivalTime()) {
-        noticeContainer.addValidationNotice(
-            new MissingTripEdgeNotice(
-                tripLastStop.csvRowNumber(),
-                tripLastStop.stopSequence(),
-                tripId,
-                ARRIVAL_TIME_FIELD_NAME));
-      }
-      if (!tripLastStop.hasDepartureTime()) {
-        noticeContainer.addValidationNotice(
-            new MissingTripEdgeNotice(
-                tripLastStop.csvRowNumber(),
-                tripLastStop.stopSequence(),
-                tripId,
-                DEPARTURE_TIME_FIELD_NAME));
-      }
+  public void visit(List<GtfsStopTime> stopTimesForTrip, NoticeContainer noticeContainer) {
+    GtfsStopTime tripFirstStop = stopTimesForTrip.get(0);
+    GtfsStopTime tripLastStop = stopTimesForTrip.get(stopTimesForTrip.size() - 1);
+    String tripId = tripFirstStop.tripId();
+    if (!tripFirstStop.hasArrivalTime()) {
+      noticeContainer.addValidationNotice(
+          new MissingTripEdgeNotice(
+              tripFirstStop.csvRowNumber(),
+              tripFirstStop.stopSequence(),
+              tripId,
+              ARRIVAL_TIME_FIELD_NAME));
+    }
+    if (!tripFirstStop.hasDepartureTime()) {
+      noticeContainer.addValidationNotice(
+          new MissingTripEdgeNotice(
+              tripFirstStop.csvRowNumber(),
+              tripFirstStop.stopSequence(),
+              tripId,
+              DEPARTURE_TIME_FIELD_NAME));
+    }
+    if (!tripLastStop.hasArrivalTime()) {
+      noticeContainer.addValidationNotice(
+          new MissingTripEdgeNotice(
+              tripLastStop.csvRowNumber(),
+              tripLastStop.stopSequence(),
+              tripId,
+              ARRIVAL_TIME_FIELD_NAME));
+    }
+    if (!tripLastStop.hasDepartureTime()) {
+      noticeContainer.addValidationNotice(
+          new MissingTripEdgeNotice(
+              tripLastStop.csvRowNumber(),
+              tripLastStop.stopSequence(),
+              tripId,
+              DEPARTURE_TIME_FIELD_NAME));
     }
   }
 }
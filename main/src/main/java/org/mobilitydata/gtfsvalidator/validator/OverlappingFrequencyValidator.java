@@ -1,6 +1,5 @@
 package org.mobilitydata.gtfsvalidator.validator;
 
-import com.google.common.collect.Multimaps;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
@@ -29,7 +28,7 @@ public class OverlappingFrequencyValidator extends FileValidator {
 
   @Override
   public void validate(NoticeContainer noticeContainer) {
-    for (List<GtfsFrequency> unorderedList : Multimaps.asMap(table.byTripIdMap()).values()) {
+    for (List<GtfsFrequency> unorderedList : table.byTripIdMap().values()) {
       List<GtfsFrequency> frequencyList = new ArrayList<>(unorderedList);
       Collections.sort(
           frequencyList,
@@ -16,7 +16,6 @@
 
 package org.mobilitydata.gtfsvalidator.validator;
 
-import com.google.common.collect.Multimaps;
 import java.util.List;
 import javax.inject.Inject;
 import org.mobilitydata.gtfsvalidator.annotation.GtfsValidator;
@@ -36,7 +35,7 @@ public class ShapeIncreasingDistanceValidator extends FileValidator {
 
   @Override
   public void validate(NoticeContainer noticeContainer) {
-    for (List<GtfsShape> shapeList : Multimaps.asMap(table.byShapeIdMap()).values()) {
+    for (List<GtfsShape> shapeList : table.byShapeIdMap().values()) {
       // GtfsShape objects are sorted based on @SequenceKey annotation on shape_pt_sequence field.
       for (int i = 1; i < shapeList.size(); ++i) {
         GtfsShape prev = shapeList.get(i - 1);
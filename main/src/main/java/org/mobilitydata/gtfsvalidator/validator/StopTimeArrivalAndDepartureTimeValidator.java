@@ -16,16 +16,13 @@
 
 package org.mobilitydata.gtfsvalidator.validator;
 
-import com.google.common.collect.Multimaps;
 import java.util.List;
-import javax.inject.Inject;
 import org.mobilitydata.gtfsvalidator.annotation.GtfsValidator;
 import org.mobilitydata.gtfsvalidator.notice.NoticeContainer;
 import org.mobilitydata.gtfsvalidator.notice.StopTimeWithArrivalBeforePreviousDepartureTimeNotice;
 import org.mobilitydata.gtfsvalidator.notice.StopTimeWithDepartureBeforeArrivalTimeNotice;
 import org.mobilitydata.gtfsvalidator.notice.StopTimeWithOnlyArrivalOrDepartureTimeNotice;
 import org.mobilitydata.gtfsvalidator.table.GtfsStopTime;
-import org.mobilitydata.gtfsvalidator.table.GtfsStopTimeTableContainer;
 import org.mobilitydata.gtfsvalidator.table.GtfsStopTimeTableLoader;
 
 /**
@@ -42,55 +39,52 @@ import org.mobilitydata.gtfsvalidator.table.GtfsStopTimeTableLoader;
  * </ul>
  */
 @GtfsValidator
-public class StopTimeArrivalAndDepartureTimeValidator extends FileValidator {
-  @Inject GtfsStopTimeTableContainer table;
-
+public class StopTimeArrivalAndDepartureTimeValidator extends SequenceVisitor<GtfsStopTime> {
   @Override
-  public void validate(NoticeContainer noticeContainer) {
-    for (List<GtfsStopTime> stopTimeList : Multimaps.asMap(table.byTripIdMap()).values()) {
-      int previousDepartureRow = -1;
-      for (int i = 0; i < stopTimeList.size(); ++i) {
-        GtfsStopTime stopTime = stopTimeList.get(i);
-        final boolean hasDeparture = stopTime.hasDepartureTime();
-        final boolean hasArrival = stopTime.hasArrivalTime();
-        if (hasArrival != hasDeparture) {
+  public void visit(List<GtfsStopTime> stopTimeList, NoticeContainer noticeContainer) {
+    int previousDepartureRow = -1;
+    for (int i = 0; i < stopTimeList.size(); ++i) {
+      GtfsStopTime stopTime = stopTimeList.get(i);
+      final boolean hasDeparture = stopTime.hasDepartureTime();
+      final boolean hasArrival = stopTime.hasArrivalTime();
+      if (hasArrival != hasDeparture) {
+        noticeContainer.addValidationNotice(
+            new StopTimeWithOnlyArrivalOrDepartureTimeNotice(
+                stopTime.csvRowNumber(),
+                stopTime.tripId(),
+                stopTime.stopSequence(),
+                hasArrival
+                    ? GtfsStopTimeTableLoader.ARRIVAL_TIME_FIELD_NAME
+                    : GtfsStopTimeTableLoader.DEPARTURE_TIME_FIELD_NAME));
+      }
+      if (hasDeparture && hasArrival) {
+        // Times are compared in seconds, GtfsTime objects are only created for notices.
+        if (stopTime.departureTimeSecondsSinceMidnight()
+            < stopTime.arrivalTimeSecondsSinceMidnight()) {
           noticeContainer.addValidationNotice(
-              new StopTimeWithOnlyArrivalOrDepartureTimeNotice(
+              new StopTimeWithDepartureBeforeArrivalTimeNotice(
                   stopTime.csvRowNumber(),
                   stopTime.tripId(),
                   stopTime.stopSequence(),
-                  hasArrival
-                      ? GtfsStopTimeTableLoader.ARRIVAL_TIME_FIELD_NAME
-                      : GtfsStopTimeTableLoader.DEPARTURE_TIME_FIELD_NAME));
-        }
-        if (hasDeparture && hasArrival) {
-          if (stopTime.departureTime().isBefore(stopTime.arrivalTime())) {
-            noticeContainer.addValidationNotice(
-                new StopTimeWithDepartureBeforeArrivalTimeNotice(
-                    stopTime.csvRowNumber(),
-                    stopTime.tripId(),
-                    stopTime.stopSequence(),
-                    stopTime.departureTime(),
-                    stopTime.arrivalTime()));
-          }
-        }
-        if (hasArrival
-            && previousDepartureRow != -1
-            && stopTime
-                .arrivalTime()
-                .isBefore(stopTimeList.get(previousDepartureRow).departureTime())) {
-          noticeContainer.addValidationNotice(
-              new StopTimeWithArrivalBeforePreviousDepartureTimeNotice(
-                  stopTime.csvRowNumber(),
-                  stopTimeList.get(previousDepartureRow).csvRowNumber(),
-                  stopTime.tripId(),
-                  stopTime.arrivalTime(),
-                  stopTimeList.get(previousDepartureRow).departureTime()));
-        }
-        if (hasDeparture) {
-          previousDepartureRow = i;
+                  stopTime.departureTime(),
+                  stopTime.arrivalTime()));
         }
       }
+      if (hasArrival
+          && previousDepartureRow != -1
+          && stopTime.arrivalTimeSecondsSinceMidnight()
+              < stopTimeList.get(previousDepartureRow).departureTimeSecondsSinceMidnight()) {
+        noticeContainer.addValidationNotice(
+            new StopTimeWithArrivalBeforePreviousDepartureTimeNotice(
+                stopTime.csvRowNumber(),
+                stopTimeList.get(previousDepartureRow).csvRowNumber(),
+                stopTime.tripId(),
+                stopTime.arrivalTime(),
+                stopTimeList.get(previousDepartureRow).departureTime()));
+      }
+      if (hasDeparture) {
+        previousDepartureRow = i;
+      }
     }
   }
 }
@@ -16,15 +16,12 @@
 
 package org.mobilitydata.gtfsvalidator.validator;
 
-import com.google.common.collect.Multimaps;
 import java.util.List;
-import javax.inject.Inject;
 import org.mobilitydata.gtfsvalidator.annotation.GtfsValidator;
 import org.mobilitydata.gtfsvalidator.notice.DecreasingOrEqualShapeDistanceNotice;
 import org.mobilitydata.gtfsvalidator.notice.DecreasingOrEqualStopTimeDistanceNotice;
 import org.mobilitydata.gtfsvalidator.notice.NoticeContainer;
 import org.mobilitydata.gtfsvalidator.table.GtfsStopTime;
-import org.mobilitydata.gtfsvalidator.table.GtfsStopTimeTableContainer;
 
 /**
  * Validates: stop times of a trip have increasing distance (stops.shape_dist_traveled)
@@ -32,29 +29,25 @@ import org.mobilitydata.gtfsvalidator.table.GtfsStopTimeTableContainer;
  * <p>Generated notice: {@link DecreasingOrEqualShapeDistanceNotice}.
  */
 @GtfsValidator
-public class StopTimeIncreasingDistanceValidator extends FileValidator {
-  @Inject GtfsStopTimeTableContainer stopTimeTable;
-
+public class StopTimeIncreasingDistanceValidator extends SequenceVisitor<GtfsStopTime> {
   @Override
-  public void validate(NoticeContainer noticeContainer) {
-    for (List<GtfsStopTime> stopTimeList : Multimaps.asMap(stopTimeTable.byTripIdMap()).values()) {
-      // GtfsStopTime objects are sorted based on @SequenceKey annotation on stop_sequence field.
-      for (int i = 1; i < stopTimeList.size(); ++i) {
-        GtfsStopTime prev = stopTimeList.get(i - 1);
-        GtfsStopTime curr = stopTimeList.get(i);
-        if (prev.hasShapeDistTraveled()
-            && curr.hasShapeDistTraveled()
-            && prev.shapeDistTraveled() >= curr.shapeDistTraveled()) {
-          noticeContainer.addValidationNotice(
-              new DecreasingOrEqualStopTimeDistanceNotice(
-                  curr.tripId(),
-                  curr.csvRowNumber(),
-                  curr.shapeDistTraveled(),
-                  curr.stopSequence(),
-                  prev.csvRowNumber(),
-                  prev.shapeDistTraveled(),
-                  prev.stopSequence()));
-        }
+  public void visit(List<GtfsStopTime> stopTimeList, NoticeContainer noticeContainer) {
+    // GtfsStopTime objects are sorted based on @SequenceKey annotation on stop_sequence field.
+    for (int i = 1; i < stopTimeList.size(); ++i) {
+      GtfsStopTime prev = stopTimeList.get(i - 1);
+      GtfsStopTime curr = stopTimeList.get(i);
+      if (prev.hasShapeDistTraveled()
+          && curr.hasShapeDistTraveled()
+          && prev.shapeDistTraveled() >= curr.shapeDistTraveled()) {
+        noticeContainer.addValidationNotice(
+            new DecreasingOrEqualStopTimeDistanceNotice(
+                curr.tripId(),
+                curr.csvRowNumber(),
+                curr.shapeDistTraveled(),
+                curr.stopSequence(),
+                prev.csvRowNumber(),
+                prev.shapeDistTraveled(),
+                prev.stopSequence()));
       }
     }
   }
@@ -16,18 +16,17 @@
 
 package org.mobilitydata.gtfsvalidator.validator;
 
-import com.google.common.collect.Multimaps;
+import static java.util.stream.Collectors.toList;
+
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map.Entry;
-import java.util.Set;
+import java.util.Map;
 import javax.inject.Inject;
 import org.locationtech.spatial4j.distance.DistanceUtils;
-import org.locationtech.spatial4j.shape.Point;
-import org.locationtech.spatial4j.shape.Shape;
-import org.locationtech.spatial4j.shape.ShapeFactory;
-import org.locationtech.spatial4j.shape.SpatialRelation;
 import org.mobilitydata.gtfsvalidator.annotation.GtfsValidator;
 import org.mobilitydata.gtfsvalidator.notice.NoticeContainer;
 import org.mobilitydata.gtfsvalidator.notice.StopTooFarFromTripShapeNotice;
@@ -40,43 +39,31 @@ import org.mobilitydata.gtfsvalidator.table.GtfsStopTimeTableContainer;
 import org.mobilitydata.gtfsvalidator.table.GtfsTrip;
 import org.mobilitydata.gtfsvalidator.table.GtfsTripTableContainer;
 import org.mobilitydata.gtfsvalidator.util.GeospatialUtil;
+import org.mobilitydata.gtfsvalidator.util.ShapeSegmentIndex;
 
 /**
  * Validates: a {@link GtfsStop} is within a distance threshold for a trip shape.
  *
  * <p>Generated notice: {@link StopTooFarFromTripShapeNotice}.
  *
- * <p>Time complexity: <i>O(n * p)</i>, where <i>n</i> is the number of records in
- * <i>stop_times.txt</i> and <i>p</i> is the number of points in a trip shape. This assumes that the
- * time complexity to check if the stop location lies within the buffered trip shape is <i>O(p)</i>
- * (see below).
+ * <p>Trips are grouped by shape_id. The buffered polyline of every shape is built once and its
+ * segments are put into a uniform grid, see {@link ShapeSegmentIndex}. Every pair of shape and
+ * stop is checked once, for the first trip (in the order of stop_times.txt) that visits the stop
+ * along the shape; the check only tests the segments in the grid cell of the stop. Notices are
+ * reported in the order of trips in stop_times.txt.
  *
- * <p>In an extreme, not-very-likely case where a GTFS file consists of entirely of trips that reuse
- * the same shape but all have disjoint sets of stops along that shape, <i>p</i> may be the number
- * of records in <i>shapes.txt</i>. This is because every stop time must be compared against every
- * trip shape point.
+ * <p>Time complexity: <i>O(n + p)</i> in a typical case, where <i>n</i> is the number of records in
+ * <i>stop_times.txt</i> and <i>p</i> is the number of records in <i>shapes.txt</i>: building the
+ * index of a shape is linear in its points and a stop is compared with a few segments near it.
  *
- * <p>However, in a typical case where most trips have independent shapes and the trips that do
- * re-use shapes share most of the same stops, the time complexity has a tighter bound of
- * <i>O(n)</i>, where <i>n</i> is the number of records in <i>stop_times.txt</i>. This is because
- * <i>p</i> is a fixed constant less than the number of records in <i>shapes.txt</i> and each point
- * is not processed more than once. Note that this point-in-polygon operation can still take a
- * reasonable amount of time to execute (the constant/overhead can be large) and should be
- * considered expensive. A cache is used to avoid calculating the distance between the same stop and
- * shape more than once when multiple trips share the same shape.
+ * <p>Shapes are independent of each other, so they are checked in parallel, see {@link
+ * ParallelValidation}.
  *
  * <p>This validator uses spatial4j Euclidean operations to check if the stop location lies within
- * the buffered trip shape, which as mentioned above has a time complexity of <i>O(p)</i>, where p
- * is the number of points in a trip shape. See: *
+ * the buffered trip shape. See:
  * https://github.com/locationtech/spatial4j/blob/1f6e2047f0574a430fc711cf2cd5adf141a8bda9/src/main/java/org/locationtech/spatial4j/shape/impl/BufferedLineString.java#L107
- * *
  * https://github.com/locationtech/spatial4j/blob/1f6e2047f0574a430fc711cf2cd5adf141a8bda9/src/main/java/org/locationtech/spatial4j/shape/impl/InfBufLine.java#L81
  *
- * <p>A future running time optimization could be caching the buffered line for each shape when it
- * is first constructed. However, this is not currently implemented because shapes.txt is typically
- * a large file and this would have negative memory implications. This would help reduce the
- * initialization overhead for each shape IFF multiple trips share the same shape.
- *
  * <p>If additional accuracy is desired geodesic calculations may be use instead of Euclidean
  * calculations, although this comes at a performance cost - see
  * https://github.com/MobilityData/gtfs-validator/pull/750#discussion_r578667817.
@@ -98,94 +85,108 @@ public class StopTooFarFromTripShapeValidator extends FileValidator {
 
   @Override
   public void validate(NoticeContainer noticeContainer) {
-    // Cache for previously tested shape_id and stop_id pairs - we don't need to test them more than
-    // once
-    final Set<String> testedCache = new HashSet<>();
-
-    for (Entry<String, List<GtfsStopTime>> entry :
-        Multimaps.asMap(stopTimeTable.byTripIdMap()).entrySet()) {
-      String tripId = entry.getKey();
-      List<GtfsStopTime> stopTimesForTrip = entry.getValue();
+    // Trips that have stop times and shapes, in the order of stop_times.txt.
+    final List<String> tripIds = new ArrayList<>();
+    // The same trips grouped by shape_id.
+    final Map<String, List<String>> tripIdsByShapeId = new LinkedHashMap<>();
+    for (String tripId : stopTimeTable.byTripIdMap().keySet()) {
       GtfsTrip trip = tripTable.byTripId(tripId);
       if (trip == null || !trip.hasShapeId()) {
         // No shape for this trip - skip to the next trip
         continue;
       }
-      // Check for possible errors for this combination of stop times and shape points for
-      // this trip_id
-      List<StopTooFarFromTripShapeNotice> noticesForTrip =
-          checkStopsWithinTripShape(
-              tripId,
-              stopTimesForTrip,
-              trip.shapeId(),
-              shapeTable.byShapeId(trip.shapeId()),
-              stopTable,
-              testedCache);
-      for (StopTooFarFromTripShapeNotice notice : noticesForTrip) {
+      tripIds.add(tripId);
+      tripIdsByShapeId.computeIfAbsent(trip.shapeId(), k -> new ArrayList<>()).add(tripId);
+    }
+
+    final List<List<List<StopTooFarFromTripShapeNotice>>> noticesByShape =
+        ParallelValidation.stream(tripIdsByShapeId.entrySet())
+            .map(
+                entry ->
+                    checkStopsWithinShape(
+                        entry.getKey(), shapeTable.byShapeId(entry.getKey()), entry.getValue()))
+            .collect(toList());
+    // Notices are added in the order of trips, as if trips were checked one by one, and in the
+    // calling thread, since NoticeContainer is not thread-safe.
+    final Map<String, List<StopTooFarFromTripShapeNotice>> noticesByTripId = new HashMap<>();
+    int shapeIndex = 0;
+    for (List<String> shapeTripIds : tripIdsByShapeId.values()) {
+      final List<List<StopTooFarFromTripShapeNotice>> noticesByTrip =
+          noticesByShape.get(shapeIndex++);
+      for (int i = 0; i < shapeTripIds.size(); ++i) {
+        noticesByTripId.put(shapeTripIds.get(i), noticesByTrip.get(i));
+      }
+    }
+    for (String tripId : tripIds) {
+      for (StopTooFarFromTripShapeNotice notice : noticesByTripId.get(tripId)) {
         noticeContainer.addValidationNotice(notice);
       }
     }
   }
 
   /**
-   * Returns a list of notices for the given input, one for each stop that is too far from the trip
-   * shapePoints
+   * Returns notices for trips that share a shape, one for each stop that is too far from the shape.
    *
-   * @param tripId trip_id for this GTFS trip
-   * @param stopTimes a list of StopTimes for a trip, sorted by stop_sequence
-   * @param shapeId the shape_id for this GTFS trip
-   * @param shapePoints a list of ShapePoints for a trip, sorted by shape_pt_sequence
-   * @param stopTable a container for all stops (keyed on stop_id), needed to obtain the latitude
-   *     and longitude for each stop on the trip
-   * @param testedCache a cache for previously tested shape_id and stop_id pairs (keyed on
-   *     shape_id+stop_id). If the combination of shape_id and stop_id appears in this set, we
-   *     shouldn't test it again. Shapes and stops tested in this method execution will be added to
-   *     this testedCache.
-   * @return a list of notices, one for each stop that is too far from the trip shape
+   * <p>Every stop is tested once even if several trips visit it. The notice refers to the first
+   * trip that visits the stop.
+   *
+   * @param shapeId the shape_id of the trips
+   * @param shapePoints a list of ShapePoints for the shape, sorted by shape_pt_sequence
+   * @param tripIds trip_ids of trips with this shape, in the order of validation
+   * @return lists of notices of every trip, in the order of {@code tripIds}
    */
-  List<StopTooFarFromTripShapeNotice> checkStopsWithinTripShape(
-      final String tripId,
-      final List<GtfsStopTime> stopTimes,
-      final String shapeId,
-      final List<GtfsShape> shapePoints,
-      final GtfsStopTableContainer stopTable,
-      final Set<String> testedCache) {
-    List<StopTooFarFromTripShapeNotice> notices = new ArrayList<>();
-    if (stopTimes == null || stopTimes.isEmpty() || shapePoints == null || shapePoints.isEmpty()) {
-      // Nothing to do - return empty list
-      return notices;
-    }
-
-    // Create a buffered polyline from the GTFS shapes data - uses Euclidean operations (not
-    // geodesic)
-    ShapeFactory.LineStringBuilder lineBuilder = GeospatialUtil.getShapeFactory().lineString();
-    for (GtfsShape shapePoint : shapePoints) {
-      lineBuilder.pointXY(shapePoint.shapePtLon(), shapePoint.shapePtLat());
-    }
-    lineBuilder.buffer(TRIP_BUFFER_DEGREES);
-    Shape shapeBuffer = lineBuilder.build();
-
-    // Check if each stop is within the buffer polygon
-    for (GtfsStopTime stopTime : stopTimes) {
-      GtfsStop stop = stopTable.byStopId(stopTime.stopId());
-      if (stop == null || !stop.hasStopLat() || !stop.hasStopLon()) {
-        // Skip to the next stop on invalid data (stop_times.stop_id stops must have locations)
-        continue;
+  List<List<StopTooFarFromTripShapeNotice>> checkStopsWithinShape(
+      final String shapeId, final List<GtfsShape> shapePoints, final List<String> tripIds) {
+    List<List<StopTooFarFromTripShapeNotice>> noticesByTrip = new ArrayList<>(tripIds.size());
+    if (shapePoints == null || shapePoints.isEmpty()) {
+      // Nothing to do - return empty lists
+      for (int i = 0; i < tripIds.size(); ++i) {
+        noticesByTrip.add(Collections.emptyList());
       }
-      if (testedCache.contains(shapeId + stop.stopId())) {
-        // We've already tested this combination of shape ID and stop ID - skip to next stop to
-        // avoid spamming multiple duplicate notices and as a performance optimization
-        continue;
-      }
-      testedCache.add(shapeId + stop.stopId());
-      Point p = GeospatialUtil.getShapeFactory().pointXY(stop.stopLon(), stop.stopLat());
-      if (!shapeBuffer.relate(p).equals(SpatialRelation.CONTAINS)) {
-        notices.add(
-            new StopTooFarFromTripShapeNotice(
-                stopTime.stopId(), stopTime.stopSequence(), tripId, shapeId, TRIP_BUFFER_METERS));
+      return noticesByTrip;
+    }
+    // The index is built when the first stop with a location is tested.
+    ShapeSegmentIndex shapeIndex = null;
+    // Stops tested against this shape, keyed by their row number in stops.txt.
+    final BitSet testedStops = new BitSet();
+    for (String tripId : tripIds) {
+      List<StopTooFarFromTripShapeNotice> notices = new ArrayList<>();
+      noticesByTrip.add(notices);
+      for (GtfsStopTime stopTime : stopTimeTable.byTripId(tripId)) {
+        GtfsStop stop = stopTable.byStopId(stopTime.stopId());
+        if (stop == null || !stop.hasStopLat() || !stop.hasStopLon()) {
+          // Skip to the next stop on invalid data (stop_times.stop_id stops must have locations)
+          continue;
+        }
+        final int stopKey = (int) stop.csvRowNumber();
+        if (testedStops.get(stopKey)) {
+          // We've already tested this combination of shape ID and stop ID - skip to next stop to
+          // avoid spamming multiple duplicate notices and as a performance optimization
+          continue;
+        }
+        testedStops.set(stopKey);
+        if (shapeIndex == null) {
+          shapeIndex = createShapeIndex(shapePoints);
+        }
+        if (!shapeIndex.contains(stop.stopLon(), stop.stopLat())) {
+          notices.add(
+              new StopTooFarFromTripShapeNotice(
+                  stopTime.stopId(), stopTime.stopSequence(), tripId, shapeId, TRIP_BUFFER_METERS));
+        }
       }
     }
+    return noticesByTrip;
+  }
 
-    return notices;
+  /** Builds the buffered polyline of a shape - uses Euclidean operations (not geodesic). */
+  private static ShapeSegmentIndex createShapeIndex(List<GtfsShape> shapePoints) {
+    final double[] lons = new double[shapePoints.size()];
+    final double[] lats = new double[shapePoints.size()];
+    for (int i = 0; i < lons.length; ++i) {
+      GtfsShape shapePoint = shapePoints.get(i);
+      lons[i] = shapePoint.shapePtLon();
+      lats[i] = shapePoint.shapePtLat();
+    }
+    return new ShapeSegmentIndex(lons, lats, TRIP_BUFFER_DEGREES);
   }
 }
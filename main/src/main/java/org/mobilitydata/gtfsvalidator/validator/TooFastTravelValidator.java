@@ -16,10 +16,8 @@
 
 package org.mobilitydata.gtfsvalidator.validator;
 
-import com.google.common.collect.Multimaps;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map.Entry;
 import javax.inject.Inject;
 import org.mobilitydata.gtfsvalidator.annotation.GtfsValidator;
 import org.mobilitydata.gtfsvalidator.notice.NoticeContainer;
@@ -27,9 +25,6 @@ import org.mobilitydata.gtfsvalidator.notice.TooFastTravelNotice;
 import org.mobilitydata.gtfsvalidator.table.GtfsStop;
 import org.mobilitydata.gtfsvalidator.table.GtfsStopTableContainer;
 import org.mobilitydata.gtfsvalidator.table.GtfsStopTime;
-import org.mobilitydata.gtfsvalidator.table.GtfsStopTimeTableContainer;
-import org.mobilitydata.gtfsvalidator.table.GtfsTripTableContainer;
-import org.mobilitydata.gtfsvalidator.type.GtfsTime;
 import org.mobilitydata.gtfsvalidator.util.GeospatialUtil;
 
 /**
@@ -43,23 +38,16 @@ import org.mobilitydata.gtfsvalidator.util.GeospatialUtil;
  * <p>Generated notice: {@link TooFastTravelNotice}.
  */
 @GtfsValidator
-public class TooFastTravelValidator extends FileValidator {
+public class TooFastTravelValidator extends SequenceVisitor<GtfsStopTime> {
 
   private static final double METER_PER_SECOND_TO_KMH_CONVERSION_FACTOR = 3.6d;
   private static final int MAX_SPEED_METERS_PER_HOUR = 42; // 150 km/h or 93.2 mph
-  @Inject GtfsTripTableContainer tripTable;
-  @Inject GtfsStopTimeTableContainer stopTimeTable;
   @Inject GtfsStopTableContainer stopTable;
 
   @Override
-  public void validate(NoticeContainer noticeContainer) {
-    for (Entry<String, List<GtfsStopTime>> entry :
-        Multimaps.asMap(stopTimeTable.byTripIdMap()).entrySet()) {
-      List<TooFastTravelNotice> noticesForTrip =
-          checkSpeedAlongTrip(entry.getKey(), entry.getValue());
-      for (TooFastTravelNotice notice : noticesForTrip) {
-        noticeContainer.addValidationNotice(notice);
-      }
+  public void visit(List<GtfsStopTime> stopTimes, NoticeContainer noticeContainer) {
+    for (TooFastTravelNotice notice : checkSpeedAlongTrip(stopTimes.get(0).tripId(), stopTimes)) {
+      noticeContainer.addValidationNotice(notice);
     }
   }
 
@@ -80,31 +68,43 @@ public class TooFastTravelValidator extends FileValidator {
   private List<TooFastTravelNotice> checkSpeedAlongTrip(
       String tripId, List<GtfsStopTime> tripStopTimes) {
     int beginStopSequence = tripStopTimes.get(0).stopSequence();
-    GtfsTime prevDepartureTime = null;
+    // Times are compared in seconds since midnight so that no GtfsTime is created per stop time.
+    boolean hasPrevDepartureTime = false;
+    int prevDepartureSeconds = 0;
     double prevStopLat = 0d;
     double prevStopLon = 0d;
+    double prevStopCosLat = 1d;
     // used to accumulate distance between stops with same arrival and departure
     // times
     double accumulatedDistanceMeter = 0;
     List<TooFastTravelNotice> notices = new ArrayList<>();
     for (GtfsStopTime stopTime : tripStopTimes) { // prepare data for current iteration
       GtfsStop currentStop = stopTable.byStopId(stopTime.stopId());
-      GtfsTime currentArrivalTime = stopTime.arrivalTime();
+      if (currentStop == null) {
+        // Abort here: the unknown stop_id is reported as a ForeignKeyError.
+        return notices;
+      }
+      int currentArrivalSeconds = stopTime.arrivalTimeSecondsSinceMidnight();
+      // The cosine of latitude is computed once per stop time and reused for the next hop.
+      double currentStopCosLat = GeospatialUtil.cosLatitude(currentStop.stopLat());
       double distanceFromPreviousStopMeters =
           GeospatialUtil.distanceInMeterBetween(
-              prevStopLat, prevStopLon, currentStop.stopLat(), currentStop.stopLon());
+              prevStopLat,
+              prevStopLon,
+              prevStopCosLat,
+              currentStop.stopLat(),
+              currentStop.stopLon(),
+              currentStopCosLat);
       boolean sameArrivalAndDeparture = false;
-      if (prevDepartureTime != null && stopTime.hasArrivalTime() && stopTime.hasDepartureTime()) {
-        if (stopTime.arrivalTime().isBefore(prevDepartureTime)) {
+      if (hasPrevDepartureTime && stopTime.hasArrivalTime() && stopTime.hasDepartureTime()) {
+        if (currentArrivalSeconds < prevDepartureSeconds) {
           // Abort here if there is a StopTimeWithArrivalBeforePreviousDepartureTimeNotice for this
           // trip
           return notices;
         }
-        sameArrivalAndDeparture = currentArrivalTime.equals(prevDepartureTime);
+        sameArrivalAndDeparture = currentArrivalSeconds == prevDepartureSeconds;
         if (!sameArrivalAndDeparture) {
-          int durationSecond =
-              currentArrivalTime.getSecondsSinceMidnight()
-                  - prevDepartureTime.getSecondsSinceMidnight();
+          int durationSecond = currentArrivalSeconds - prevDepartureSeconds;
           double distanceMeter = distanceFromPreviousStopMeters + accumulatedDistanceMeter;
           double speedMeterPerSecond = distanceMeter / durationSecond;
           if (speedMeterPerSecond > MAX_SPEED_METERS_PER_HOUR) {
@@ -126,10 +126,12 @@ public class TooFastTravelValidator extends FileValidator {
         beginStopSequence = stopTime.stopSequence();
       }
       if (stopTime.hasDepartureTime()) {
-        prevDepartureTime = stopTime.departureTime();
+        hasPrevDepartureTime = true;
+        prevDepartureSeconds = stopTime.departureTimeSecondsSinceMidnight();
       }
       prevStopLat = currentStop.stopLat();
       prevStopLon = currentStop.stopLon();
+      prevStopCosLat = currentStopCosLat;
     }
     return notices;
   }
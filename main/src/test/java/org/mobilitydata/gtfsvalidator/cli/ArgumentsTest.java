@@ -20,6 +20,7 @@ import static com.google.common.truth.Truth.assertThat;
 
 import com.beust.jcommander.JCommander;
 import org.junit.Test;
+import org.mobilitydata.gtfsvalidator.notice.NoticeContainer;
 
 public class ArgumentsTest {
 
@@ -103,4 +104,41 @@ public class ArgumentsTest {
     assertThat(underTest.getFeedName()).matches("feed name value");
     assertThat(underTest.getNumThreads()).isEqualTo(1);
   }
+
+  @Test
+  public void validatorsAndReferencedTablesOnly() {
+    String[] commandLineArgumentAsStringArray = {
+      "--input", "input value",
+      "--output_base", "output value",
+      "--validators", "TripUsageValidator,ShapeUsageValidator",
+      "--referenced_tables_only"
+    };
+    Arguments underTest = new Arguments();
+    new JCommander(underTest).parse(commandLineArgumentAsStringArray);
+    assertThat(underTest.getValidators())
+        .containsExactly("TripUsageValidator", "ShapeUsageValidator")
+        .inOrder();
+    assertThat(underTest.isReferencedTablesOnly()).isTrue();
+
+    underTest = new Arguments();
+    new JCommander(underTest).parse("--input", "input value", "--output_base", "output value");
+    assertThat(underTest.getValidators()).isEmpty();
+    assertThat(underTest.isReferencedTablesOnly()).isFalse();
+  }
+
+  @Test
+  public void maxNoticesPerType() {
+    Arguments underTest = new Arguments();
+    new JCommander(underTest).parse("--input", "input value", "--output_base", "output value");
+    assertThat(underTest.getMaxNoticesPerType())
+        .isEqualTo(NoticeContainer.DEFAULT_MAX_NOTICES_PER_TYPE);
+
+    String[] commandLineArgumentAsStringArray = {
+      "--input", "input value",
+      "--output_base", "output value",
+      "--max_notices_per_type", "50"
+    };
+    new JCommander(underTest).parse(commandLineArgumentAsStringArray);
+    assertThat(underTest.getMaxNoticesPerType()).isEqualTo(50);
+  }
 }
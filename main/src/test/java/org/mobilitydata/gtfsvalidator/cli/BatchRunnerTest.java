@@ -0,0 +1,139 @@
+/*
+ * Copyright 2020 Google LLC, MobilityData IO
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.cli;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableMap;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mobilitydata.gtfsvalidator.table.GtfsFeedLoader;
+import org.mobilitydata.gtfsvalidator.validator.ValidatorLoader;
+
+@RunWith(JUnit4.class)
+public class BatchRunnerTest {
+  @Rule public final TemporaryFolder tmpDir = new TemporaryFolder();
+
+  private static final Map<String, String> FEED_FILES =
+      ImmutableMap.of(
+          "agency.txt",
+          "agency_id,agency_name,agency_url,agency_timezone\n"
+              + "a1,Agency,https://example.com,Europe/Amsterdam\n",
+          "routes.txt",
+          "route_id,agency_id,route_short_name,route_type\nr1,a1,1,3\n",
+          "trips.txt",
+          "route_id,service_id,trip_id\nr1,c1,t1\n",
+          "stop_times.txt",
+          "trip_id,arrival_time,departure_time,stop_id,stop_sequence\n"
+              + "t1,08:00:00,08:00:00,s1,1\n"
+              + "t1,08:10:00,08:10:00,s2,2\n",
+          "calendar_dates.txt",
+          "service_id,date,exception_type\nc1,20210101,1\n");
+
+  private static final String STOPS =
+      "stop_id,stop_name,stop_lat,stop_lon\ns1,First,52.0,4.0\ns2,Second,52.01,4.01\n";
+
+  private static String readFile(Path path) throws IOException {
+    return new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+  }
+
+  private Path writeFile(String name, int size) throws IOException {
+    Path path = tmpDir.getRoot().toPath().resolve(name);
+    Files.createDirectories(path.getParent());
+    return Files.write(path, new byte[size]);
+  }
+
+  @Test
+  public void discoverFeedsFromSmallestToLargest() throws IOException {
+    writeFile("us-large.zip", 300);
+    writeFile("ca-small.ZIP", 10);
+    writeFile("nl-unarchived/stops.txt", 100);
+    writeFile("nl-unarchived/agency.txt", 100);
+    writeFile("readme.txt", 1);
+    Path root = tmpDir.getRoot().toPath();
+
+    assertThat(BatchRunner.discoverFeeds(root))
+        .containsExactly(
+            root.resolve("ca-small.ZIP"),
+            root.resolve("nl-unarchived"),
+            root.resolve("us-large.zip"))
+        .inOrder();
+  }
+
+  @Test(timeout = 60000)
+  public void runStoresReportsOfEveryFeed() throws IOException {
+    Path inputDir = tmpDir.newFolder("input").toPath();
+    // A directory with all required files.
+    Path directoryFeed = Files.createDirectory(inputDir.resolve("nl-complete"));
+    for (Map.Entry<String, String> file : FEED_FILES.entrySet()) {
+      Files.write(
+          directoryFeed.resolve(file.getKey()), file.getValue().getBytes(StandardCharsets.UTF_8));
+    }
+    Files.write(directoryFeed.resolve("stops.txt"), STOPS.getBytes(StandardCharsets.UTF_8));
+    // An archive without stops.txt.
+    try (OutputStream archive = Files.newOutputStream(inputDir.resolve("nl-without-stops.zip"));
+        ZipOutputStream out = new ZipOutputStream(archive)) {
+      for (Map.Entry<String, String> file : FEED_FILES.entrySet()) {
+        out.putNextEntry(new ZipEntry(file.getKey()));
+        out.write(file.getValue().getBytes(StandardCharsets.UTF_8));
+        out.closeEntry();
+      }
+    }
+    Path outputBase = tmpDir.getRoot().toPath().resolve("output");
+
+    // Both feeds share a pool with fewer threads than feeds.
+    new BatchRunner(new ValidatorLoader(), new GtfsFeedLoader())
+        .run(inputDir, outputBase.toString(), null, 1);
+
+    for (String feedId : new String[] {"nl-complete", "nl-without-stops"}) {
+      assertThat(readFile(outputBase.resolve(feedId).resolve("system_errors.json")))
+          .isEqualTo("{\"notices\":[]}");
+    }
+    assertThat(readFile(outputBase.resolve("nl-complete").resolve("report.json")))
+        .doesNotContain("missing_required_file");
+    assertThat(readFile(outputBase.resolve("nl-without-stops").resolve("report.json")))
+        .contains("{\"code\":\"missing_required_file\"");
+  }
+
+  @Test
+  public void getFeedId() {
+    assertThat(BatchRunner.getFeedId(Paths.get("feeds", "ca-myFeedName.zip")))
+        .isEqualTo("ca-myFeedName");
+    assertThat(BatchRunner.getFeedId(Paths.get("feeds", "nl-openov"))).isEqualTo("nl-openov");
+  }
+
+  @Test
+  public void parseFeedName() {
+    assertThat(BatchRunner.parseFeedName("ca-myfeed", "us-default").getCountryFirstName())
+        .isEqualTo("ca-myfeed");
+    assertThat(BatchRunner.parseFeedName("feed", "us-default").getCountryFirstName())
+        .isEqualTo("us-default");
+    assertThat(BatchRunner.parseFeedName("feed", null)).isNull();
+  }
+}
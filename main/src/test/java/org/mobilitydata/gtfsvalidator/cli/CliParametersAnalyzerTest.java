@@ -83,6 +83,8 @@ public class CliParametersAnalyzerTest {
     verify(mockArguments, times(1)).getUrl();
     //noinspection ResultOfMethodCallIgnored because object is mocked
     verify(mockArguments, times(1)).getInput();
+    //noinspection ResultOfMethodCallIgnored because object is mocked
+    verify(mockArguments, times(1)).getBatchInputDir();
     verifyNoMoreInteractions(mockArguments, mockHandler);
   }
 
@@ -101,6 +103,8 @@ public class CliParametersAnalyzerTest {
     verify(mockArguments, times(2)).getInput();
     //noinspection ResultOfMethodCallIgnored because object is mocked
     verify(mockArguments, times(1)).getStorageDirectory();
+    //noinspection ResultOfMethodCallIgnored because object is mocked
+    verify(mockArguments, times(1)).getBatchInputDir();
     verifyNoMoreInteractions(mockArguments, mockHandler);
   }
 
@@ -141,6 +145,26 @@ public class CliParametersAnalyzerTest {
     verify(mockArguments, times(2)).getInput();
     //noinspection ResultOfMethodCallIgnored because object is mocked
     verify(mockArguments, times(1)).getStorageDirectory();
+    //noinspection ResultOfMethodCallIgnored because object is mocked
+    verify(mockArguments, times(1)).getBatchInputDir();
+    verifyNoMoreInteractions(mockArguments, mockHandler);
+  }
+
+  @Test
+  public void provideBatchInputDirAndNoInputCliParameterShouldReturnTrue() {
+    Arguments mockArguments = mock(Arguments.class);
+    when(mockArguments.getBatchInputDir()).thenReturn("feeds");
+    when(mockArguments.getUrl()).thenReturn(null);
+    when(mockArguments.getInput()).thenReturn(null);
+
+    CliParametersAnalyzer underTest = new CliParametersAnalyzer();
+    assertThat(underTest.isValid(mockArguments)).isTrue();
+    //noinspection ResultOfMethodCallIgnored because object is mocked
+    verify(mockArguments, times(1)).getBatchInputDir();
+    //noinspection ResultOfMethodCallIgnored because object is mocked
+    verify(mockArguments, times(1)).getUrl();
+    //noinspection ResultOfMethodCallIgnored because object is mocked
+    verify(mockArguments, times(1)).getInput();
     verifyNoMoreInteractions(mockArguments, mockHandler);
   }
 }
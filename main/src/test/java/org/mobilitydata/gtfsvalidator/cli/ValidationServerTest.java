@@ -0,0 +1,220 @@
+/*
+ * Copyright 2020 Google LLC, MobilityData IO
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.cli;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.beust.jcommander.JCommander;
+import com.google.common.io.ByteStreams;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mobilitydata.gtfsvalidator.notice.NoticeContainer;
+import org.mobilitydata.gtfsvalidator.notice.UnknownFileNotice;
+
+@RunWith(JUnit4.class)
+public class ValidationServerTest {
+  private ValidationServer server;
+
+  @After
+  public void stopServer() {
+    if (server != null) {
+      server.stop();
+    }
+  }
+
+  private void startServer(ValidationServer.FeedValidation feedValidation, String... argv)
+      throws IOException {
+    ServerArguments args = new ServerArguments();
+    new JCommander(args).parse(argv);
+    server = new ValidationServer(args, feedValidation);
+    server.start();
+  }
+
+  private static byte[] createArchive() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ZipOutputStream out = new ZipOutputStream(bytes)) {
+      out.putNextEntry(new ZipEntry("agency.txt"));
+      out.write("agency_id,agency_name\nA1,Agency\n".getBytes(StandardCharsets.UTF_8));
+      out.closeEntry();
+    }
+    return bytes.toByteArray();
+  }
+
+  private HttpURLConnection post(String query, byte[] body) throws IOException {
+    HttpURLConnection connection =
+        (HttpURLConnection)
+            new URL(
+                    "http://localhost:"
+                        + server.getPort()
+                        + ValidationServer.VALIDATE_PATH
+                        + query)
+                .openConnection();
+    connection.setRequestMethod("POST");
+    connection.setDoOutput(true);
+    try (OutputStream out = connection.getOutputStream()) {
+      out.write(body);
+    }
+    return connection;
+  }
+
+  private static String readBody(HttpURLConnection connection) throws IOException {
+    try (InputStream in =
+        connection.getResponseCode() < 400
+            ? connection.getInputStream()
+            : connection.getErrorStream()) {
+      return new String(ByteStreams.toByteArray(in), StandardCharsets.UTF_8);
+    }
+  }
+
+  @Test
+  public void validatesUploadedArchive() throws Exception {
+    startServer(
+        (gtfsInput, validationContext) -> {
+          NoticeContainer noticeContainer = new NoticeContainer();
+          assertThat(validationContext.feedName().getCountryFirstName()).isEqualTo("ca-test");
+          for (String filename : gtfsInput.getFilenames()) {
+            noticeContainer.addValidationNotice(new UnknownFileNotice(filename));
+          }
+          return noticeContainer;
+        },
+        "--port",
+        "0");
+    NoticeContainer expected = new NoticeContainer();
+    expected.addValidationNotice(new UnknownFileNotice("agency.txt"));
+
+    HttpURLConnection connection = post("?feed_name=ca-test", createArchive());
+
+    assertThat(connection.getResponseCode()).isEqualTo(200);
+    assertThat(connection.getHeaderField(ValidationServer.SYSTEM_ERRORS_HEADER)).isEqualTo("0");
+    assertThat(readBody(connection)).isEqualTo(expected.exportValidationNotices());
+  }
+
+  @Test
+  public void rejectsInvalidRequests() throws Exception {
+    startServer((gtfsInput, validationContext) -> new NoticeContainer(), "--port", "0");
+
+    assertThat(post("", createArchive()).getResponseCode()).isEqualTo(400);
+    assertThat(post("?feed_name=test", createArchive()).getResponseCode()).isEqualTo(400);
+    assertThat(post("?feed_name=ca-test", new byte[] {1, 2, 3}).getResponseCode())
+        .isEqualTo(400);
+    HttpURLConnection get =
+        (HttpURLConnection)
+            new URL("http://localhost:" + server.getPort() + ValidationServer.VALIDATE_PATH)
+                .openConnection();
+    assertThat(get.getResponseCode()).isEqualTo(405);
+  }
+
+  @Test
+  public void rejectsLargeArchive() throws Exception {
+    startServer(
+        (gtfsInput, validationContext) -> new NoticeContainer(),
+        "--port",
+        "0",
+        "--max_request_size_mb",
+        "1");
+
+    // The server must reject the request before reading the body, so none is sent.
+    try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+      OutputStream out = socket.getOutputStream();
+      out.write(
+          ("POST "
+                  + ValidationServer.VALIDATE_PATH
+                  + "?feed_name=ca-test HTTP/1.1\r\n"
+                  + "Host: localhost\r\n"
+                  + "Content-Length: 2000000\r\n\r\n")
+              .getBytes(StandardCharsets.US_ASCII));
+      out.flush();
+      byte[] statusLine = new byte["HTTP/1.1 413".length()];
+      ByteStreams.readFully(socket.getInputStream(), statusLine);
+      assertThat(new String(statusLine, StandardCharsets.US_ASCII)).isEqualTo("HTTP/1.1 413");
+    }
+  }
+
+  @Test
+  public void cancelsSlowValidation() throws Exception {
+    CountDownLatch interrupted = new CountDownLatch(1);
+    startServer(
+        (gtfsInput, validationContext) -> {
+          try {
+            Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+          } catch (InterruptedException e) {
+            interrupted.countDown();
+          }
+          return new NoticeContainer();
+        },
+        "--port",
+        "0",
+        "--timeout_seconds",
+        "1");
+
+    assertThat(post("?feed_name=ca-test", createArchive()).getResponseCode()).isEqualTo(504);
+    assertThat(interrupted.await(10, TimeUnit.SECONDS)).isTrue();
+  }
+
+  @Test
+  public void rejectsRequestsWhenBusy() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    startServer(
+        (gtfsInput, validationContext) -> {
+          started.countDown();
+          try {
+            release.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          return new NoticeContainer();
+        },
+        "--port",
+        "0",
+        "--max_concurrent_validations",
+        "1",
+        "--max_queued_validations",
+        "0");
+
+    Thread first =
+        new Thread(
+            () -> {
+              try {
+                post("?feed_name=ca-test", createArchive()).getResponseCode();
+              } catch (IOException e) {
+                throw new IllegalStateException(e);
+              }
+            });
+    first.start();
+    assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+
+    assertThat(post("?feed_name=ca-test", createArchive()).getResponseCode()).isEqualTo(503);
+    release.countDown();
+    first.join();
+  }
+}
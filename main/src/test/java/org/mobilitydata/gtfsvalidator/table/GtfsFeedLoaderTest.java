@@ -0,0 +1,197 @@
+/*
+ * Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.table;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mobilitydata.gtfsvalidator.input.GtfsFeedName;
+import org.mobilitydata.gtfsvalidator.input.GtfsInput;
+import org.mobilitydata.gtfsvalidator.notice.ForeignKeyError;
+import org.mobilitydata.gtfsvalidator.notice.IOError;
+import org.mobilitydata.gtfsvalidator.notice.NoticeContainer;
+import org.mobilitydata.gtfsvalidator.notice.ValidationNotice;
+import org.mobilitydata.gtfsvalidator.validator.ConcurrentStopTimeVisitProbe;
+import org.mobilitydata.gtfsvalidator.validator.ValidationContext;
+import org.mobilitydata.gtfsvalidator.validator.ValidatorLoader;
+
+/** Loads and validates feeds, e.g., a feed that is streamed from a stub HTTP server. */
+@RunWith(JUnit4.class)
+public class GtfsFeedLoaderTest {
+  @Rule public final TemporaryFolder tmpDir = new TemporaryFolder();
+
+  private static final ValidationContext VALIDATION_CONTEXT =
+      ValidationContext.builder()
+          .setFeedName(GtfsFeedName.parseString("nl-test"))
+          .setNow(ZonedDateTime.of(2021, 1, 1, 14, 30, 0, 0, ZoneOffset.UTC))
+          .build();
+
+  private HttpServer server;
+
+  /** Writes a file to the archive and returns the size of the archive so far. */
+  private static int putEntry(
+      ZipOutputStream out, ByteArrayOutputStream bytes, String filename, String content)
+      throws IOException {
+    out.putNextEntry(new ZipEntry(filename));
+    out.write(content.getBytes(StandardCharsets.UTF_8));
+    out.closeEntry();
+    return bytes.size();
+  }
+
+  @Before
+  public void startServer() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    final int truncatedLength;
+    try (ZipOutputStream out = new ZipOutputStream(bytes)) {
+      putEntry(
+          out,
+          bytes,
+          "agency.txt",
+          "agency_id,agency_name,agency_url,agency_timezone\n"
+              + "a1,Agency,https://example.com,Europe/Amsterdam\n");
+      putEntry(
+          out,
+          bytes,
+          "stops.txt",
+          "stop_id,stop_name,stop_lat,stop_lon\ns1,First,52.0,4.0\ns2,Second,52.01,4.01\n");
+      putEntry(
+          out,
+          bytes,
+          "routes.txt",
+          "route_id,agency_id,route_short_name,route_type\nr1,a1,1,3\n");
+      putEntry(out, bytes, "trips.txt", "route_id,service_id,trip_id,shape_id\nr1,c1,t1,sh1\n");
+      final int requiredLength =
+          putEntry(
+              out,
+              bytes,
+              "stop_times.txt",
+              "trip_id,arrival_time,departure_time,stop_id,stop_sequence\n"
+                  + "t1,08:00:00,08:00:00,s1,1\n"
+                  + "t1,08:10:00,08:10:00,s2,2\n");
+      StringBuilder shapes =
+          new StringBuilder("shape_id,shape_pt_lat,shape_pt_lon,shape_pt_sequence\n");
+      for (int i = 0; i < 10000; ++i) {
+        shapes.append(String.format("sh1,%.6f,4.0,%d\n", 52.0 + i * 1e-5, i));
+      }
+      putEntry(out, bytes, "shapes.txt", shapes.toString());
+      // The connection is dropped after the required files are sent.
+      truncatedLength = requiredLength + 1024;
+    }
+    final byte[] archive = bytes.toByteArray();
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext(
+        "/gtfs.zip",
+        exchange -> {
+          exchange.sendResponseHeaders(200, archive.length);
+          OutputStream body = exchange.getResponseBody();
+          body.write(archive, 0, truncatedLength);
+          body.flush();
+          exchange.close();
+        });
+    server.start();
+  }
+
+  @After
+  public void stopServer() {
+    server.stop(0);
+  }
+
+  @Test
+  public void truncatedDownloadSkipsFileValidators() throws Exception {
+    NoticeContainer noticeContainer = new NoticeContainer();
+    try (GtfsInput gtfsInput =
+        GtfsInput.createFromUrlStreaming(
+            new URL("http://localhost:" + server.getAddress().getPort() + "/gtfs.zip"),
+            tmpDir.getRoot().toPath().resolve("gtfs.zip").toString())) {
+      new GtfsFeedLoader()
+          .loadAndValidate(gtfsInput, VALIDATION_CONTEXT, new ValidatorLoader(), noticeContainer);
+    }
+
+    assertThat(noticeContainer.getSystemErrors().stream().anyMatch(e -> e instanceof IOError))
+        .isTrue();
+    // Shapes were not downloaded, so trips that reference them are not reported.
+    for (ValidationNotice notice : noticeContainer.getValidationNotices()) {
+      assertThat(notice).isNotInstanceOf(ForeignKeyError.class);
+    }
+  }
+
+  @Test(timeout = 60000)
+  public void tripsAreVisitedConcurrently() throws Exception {
+    Path feedDir = tmpDir.newFolder("feed").toPath();
+    writeFile(
+        feedDir,
+        "agency.txt",
+        "agency_id,agency_name,agency_url,agency_timezone\n"
+            + "a1,Agency,https://example.com,Europe/Amsterdam\n");
+    writeFile(
+        feedDir,
+        "stops.txt",
+        "stop_id,stop_name,stop_lat,stop_lon\ns1,First,52.0,4.0\ns2,Second,52.01,4.01\n");
+    writeFile(feedDir, "routes.txt", "route_id,agency_id,route_short_name,route_type\nr1,a1,1,3\n");
+    StringBuilder trips = new StringBuilder("route_id,service_id,trip_id\n");
+    StringBuilder stopTimes =
+        new StringBuilder("trip_id,arrival_time,departure_time,stop_id,stop_sequence\n");
+    // Several batches of trips, so that they can be visited by several threads.
+    for (int i = 0; i < 4096; ++i) {
+      trips.append(String.format("r1,c1,t%d\n", i));
+      stopTimes.append(String.format("t%d,08:00:00,08:00:00,s1,1\n", i));
+      stopTimes.append(String.format("t%d,08:10:00,08:10:00,s2,2\n", i));
+    }
+    writeFile(feedDir, "trips.txt", trips.toString());
+    writeFile(feedDir, "stop_times.txt", stopTimes.toString());
+
+    // Validators run as in the command-line tool with several threads.
+    GtfsFeedLoader feedLoader = new GtfsFeedLoader();
+    feedLoader.setNumThreads(4);
+    ConcurrentStopTimeVisitProbe.arm();
+    boolean concurrent;
+    try (GtfsInput gtfsInput = GtfsInput.createFromPath(feedDir)) {
+      feedLoader.loadAndValidate(
+          gtfsInput,
+          VALIDATION_CONTEXT,
+          new ValidatorLoader(clazz -> clazz == ConcurrentStopTimeVisitProbe.class),
+          new NoticeContainer());
+    } finally {
+      concurrent = ConcurrentStopTimeVisitProbe.disarm();
+    }
+
+    assertThat(concurrent).isTrue();
+  }
+
+  private static void writeFile(Path dir, String filename, String content) throws IOException {
+    Files.write(dir.resolve(filename), content.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -29,6 +29,7 @@ import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 import org.mobilitydata.gtfsvalidator.input.GtfsFeedName;
 import org.mobilitydata.gtfsvalidator.notice.NoticeContainer;
+import org.mobilitydata.gtfsvalidator.parsing.CsvChunkReader;
 import org.mobilitydata.gtfsvalidator.validator.ValidationContext;
 import org.mobilitydata.gtfsvalidator.validator.ValidatorLoader;
 
@@ -98,4 +99,44 @@ public class GtfsLevelTableLoaderTest {
         .isEqualTo("EmptyFileNotice");
     inputStream.close();
   }
+
+  @Test
+  public void scanChecksRowLengthsWithoutEntities() throws IOException {
+    InputStream inputStream =
+        toInputStream("level_id,level_name,level_index\n" + "level1,Ground,1\n" + ",,x\n");
+    GtfsLevelTableLoader loader = new GtfsLevelTableLoader();
+    NoticeContainer noticeContainer = new NoticeContainer();
+    GtfsTableContainer<GtfsLevel> tableContainer =
+        loader.scan(
+            new CsvChunkReader(inputStream, loader.gtfsFilename()),
+            VALIDATION_CONTEXT,
+            noticeContainer);
+
+    // Values are not parsed, so the invalid level_index is not reported.
+    assertThat(noticeContainer.getValidationNotices()).isEmpty();
+    assertThat(tableContainer.getTableStatus())
+        .isEqualTo(GtfsTableContainer.TableStatus.SCANNED_WITHOUT_ENTITIES);
+    assertThat(tableContainer.isParsedSuccessfully()).isTrue();
+    assertThat(tableContainer.entityCount()).isEqualTo(0);
+    inputStream.close();
+  }
+
+  @Test
+  public void scanInvalidRowLength() throws IOException {
+    InputStream inputStream =
+        toInputStream("level_id,level_name,level_index\n" + "level1,Ground,1,extra\n");
+    GtfsLevelTableLoader loader = new GtfsLevelTableLoader();
+    NoticeContainer noticeContainer = new NoticeContainer();
+    GtfsTableContainer<GtfsLevel> tableContainer =
+        loader.scan(
+            new CsvChunkReader(inputStream, loader.gtfsFilename()),
+            VALIDATION_CONTEXT,
+            noticeContainer);
+
+    assertThat(noticeContainer.getValidationNotices()).hasSize(1);
+    assertThat(noticeContainer.getValidationNotices().get(0).getClass().getSimpleName())
+        .isEqualTo("InvalidRowLengthError");
+    assertThat(tableContainer.hasUnparsableRows()).isTrue();
+    inputStream.close();
+  }
 }
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.table;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mobilitydata.gtfsvalidator.input.GtfsFeedName;
+import org.mobilitydata.gtfsvalidator.notice.NoticeContainer;
+import org.mobilitydata.gtfsvalidator.parsing.CsvChunkReader;
+import org.mobilitydata.gtfsvalidator.type.GtfsTime;
+import org.mobilitydata.gtfsvalidator.validator.ValidationContext;
+import org.mobilitydata.gtfsvalidator.validator.ValidatorLoader;
+
+/** Runs GtfsStopTimeTableLoader with columnar storage on test CSV data. */
+@RunWith(JUnit4.class)
+public class GtfsStopTimeTableLoaderTest {
+  private static final GtfsFeedName TEST_FEED_NAME = GtfsFeedName.parseString("au-sydney-buses");
+  private static final ZonedDateTime TEST_NOW =
+      ZonedDateTime.of(2021, 1, 1, 14, 30, 0, 0, ZoneOffset.UTC);
+
+  private static final ValidationContext VALIDATION_CONTEXT =
+      ValidationContext.builder().setFeedName(TEST_FEED_NAME).setNow(TEST_NOW).build();
+
+  private static InputStream toInputStream(String s) {
+    return new ByteArrayInputStream(s.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String generateStopTimes(int tripCount, int stopCount) {
+    StringBuilder builder =
+        new StringBuilder(
+            "trip_id,stop_sequence,stop_id,arrival_time,departure_time,pickup_type\n");
+    for (int trip = 0; trip < tripCount; ++trip) {
+      for (int stop = 0; stop < stopCount; ++stop) {
+        builder.append(String.format("t%d,%d,s%d,", trip, stop, stop));
+        if (stop % 2 == 0) {
+          builder.append(String.format("08:%02d:00,08:%02d:30", stop, stop));
+        } else {
+          // Times are optional for intermediate stops.
+          builder.append(",");
+        }
+        builder.append(stop == 0 ? ",1\n" : ",\n");
+      }
+    }
+    return builder.toString();
+  }
+
+  private static GtfsStopTimeTableContainer load(String content, int chunkSize, int numThreads) {
+    return load(content, chunkSize, numThreads, false);
+  }
+
+  private static GtfsStopTimeTableContainer load(
+      String content, int chunkSize, int numThreads, boolean byteTokenizerEnabled) {
+    ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+    try {
+      NoticeContainer noticeContainer = new NoticeContainer();
+      GtfsStopTimeTableContainer table =
+          (GtfsStopTimeTableContainer)
+              new GtfsStopTimeTableLoader()
+                  .load(
+                      new CsvChunkReader(
+                          toInputStream(content),
+                          "stop_times.txt",
+                          chunkSize,
+                          byteTokenizerEnabled),
+                      VALIDATION_CONTEXT,
+                      new ValidatorLoader(),
+                      noticeContainer,
+                      executor);
+      assertThat(noticeContainer.getValidationNotices()).isEmpty();
+      return table;
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void columnarEntities() {
+    GtfsStopTimeTableContainer table = load(generateStopTimes(1, 3), 1 << 20, 1);
+
+    assertThat(table.getEntities()).isInstanceOf(GtfsStopTimeColumns.class);
+    assertThat(table.entityCount()).isEqualTo(3);
+
+    GtfsStopTime first = table.getEntities().get(0);
+    assertThat(first.csvRowNumber()).isEqualTo(2);
+    assertThat(first.tripId()).isEqualTo("t0");
+    assertThat(first.stopId()).isEqualTo("s0");
+    assertThat(first.stopSequence()).isEqualTo(0);
+    assertThat(first.hasArrivalTime()).isTrue();
+    assertThat(first.arrivalTime()).isEqualTo(GtfsTime.fromString("08:00:00"));
+    assertThat(first.departureTime()).isEqualTo(GtfsTime.fromString("08:00:30"));
+    assertThat(first.arrivalTimeSecondsSinceMidnight()).isEqualTo(8 * 3600);
+    assertThat(first.departureTimeSecondsSinceMidnight()).isEqualTo(8 * 3600 + 30);
+    assertThat(first.pickupType()).isEqualTo(GtfsPickupDropOff.NOT_AVAILABLE);
+    assertThat(first.hasPickupType()).isTrue();
+
+    GtfsStopTime second = table.getEntities().get(1);
+    assertThat(second.csvRowNumber()).isEqualTo(3);
+    assertThat(second.hasArrivalTime()).isFalse();
+    assertThat(second.arrivalTime()).isEqualTo(GtfsStopTime.DEFAULT_ARRIVAL_TIME);
+    assertThat(second.arrivalTimeSecondsSinceMidnight()).isEqualTo(0);
+    assertThat(second.hasPickupType()).isFalse();
+    assertThat(second.pickupType()).isEqualTo(GtfsPickupDropOff.ALLOWED);
+    assertThat(second.hasStopHeadsign()).isFalse();
+
+    // Views of the same row are equal.
+    assertThat(table.getEntities().get(2)).isEqualTo(table.byTripId("t0").get(2));
+  }
+
+  @Test
+  public void parallelChunksMatchSingleChunk() {
+    String content = generateStopTimes(20, 7);
+    GtfsStopTimeTableContainer expected = load(content, 1 << 20, 1);
+    GtfsStopTimeTableContainer actual = load(content, 64, 4);
+
+    assertThat(actual.entityCount()).isEqualTo(expected.entityCount());
+    for (int i = 0; i < expected.entityCount(); ++i) {
+      assertThat(describe(actual.getEntities().get(i)))
+          .isEqualTo(describe(expected.getEntities().get(i)));
+    }
+  }
+
+  @Test
+  public void byteTokenizerMatchesUnivocity() {
+    String content = generateStopTimes(20, 7);
+    GtfsStopTimeTableContainer expected = load(content, 1 << 20, 1);
+    GtfsStopTimeTableContainer actual = load(content, 64, 4, true);
+
+    assertThat(actual.entityCount()).isEqualTo(expected.entityCount());
+    for (int i = 0; i < expected.entityCount(); ++i) {
+      assertThat(describe(actual.getEntities().get(i)))
+          .isEqualTo(describe(expected.getEntities().get(i)));
+    }
+  }
+
+  @Test
+  public void noticesOfChunksAreCappedByValidationContext() {
+    StringBuilder content = new StringBuilder("trip_id,stop_sequence,stop_id,pickup_type\n");
+    for (int stop = 0; stop < 50; ++stop) {
+      // Every row has an unexpected value of pickup_type.
+      content.append(String.format("t0,%d,s%d,7\n", stop, stop));
+    }
+    ValidationContext validationContext =
+        ValidationContext.builder()
+            .setFeedName(TEST_FEED_NAME)
+            .setNow(TEST_NOW)
+            .setMaxNoticesPerType(3)
+            .build();
+    NoticeContainer noticeContainer = validationContext.newNoticeContainer();
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      new GtfsStopTimeTableLoader()
+          .load(
+              new CsvChunkReader(toInputStream(content.toString()), "stop_times.txt", 64, false),
+              validationContext,
+              new ValidatorLoader(),
+              noticeContainer,
+              executor);
+    } finally {
+      executor.shutdown();
+    }
+
+    assertThat(noticeContainer.countValidationNoticesByCode())
+        .containsExactly("unexpected_enum_value", 50L);
+    assertThat(noticeContainer.getValidationNotices()).hasSize(3);
+  }
+
+  @Test
+  public void builderCreatesStandaloneEntity() {
+    GtfsStopTime stopTime =
+        new GtfsStopTime.Builder()
+            .setCsvRowNumber(5)
+            .setTripId("t1")
+            .setStopSequence(2)
+            .setArrivalTime(GtfsTime.fromSecondsSinceMidnight(3600))
+            .build();
+    List<GtfsStopTime> entities = new ArrayList<>();
+    entities.add(stopTime);
+    GtfsStopTimeTableContainer table =
+        GtfsStopTimeTableContainer.forEntities(entities, new NoticeContainer());
+
+    assertThat(table.byTripId("t1")).containsExactly(stopTime);
+    assertThat(stopTime.csvRowNumber()).isEqualTo(5);
+    assertThat(stopTime.hasTripId()).isTrue();
+    assertThat(stopTime.hasStopId()).isFalse();
+    assertThat(stopTime.arrivalTime()).isEqualTo(GtfsTime.fromSecondsSinceMidnight(3600));
+  }
+
+  private static List<Object> describe(GtfsStopTime stopTime) {
+    List<Object> values = new ArrayList<>();
+    values.add(stopTime.csvRowNumber());
+    values.add(stopTime.tripId());
+    values.add(stopTime.hasTripId());
+    values.add(stopTime.stopId());
+    values.add(stopTime.stopSequence());
+    values.add(stopTime.arrivalTime());
+    values.add(stopTime.hasArrivalTime());
+    values.add(stopTime.departureTime());
+    values.add(stopTime.hasDepartureTime());
+    values.add(stopTime.pickupTypeValue());
+    values.add(stopTime.hasPickupType());
+    return values;
+  }
+}
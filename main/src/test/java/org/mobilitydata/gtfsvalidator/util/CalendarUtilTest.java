@@ -224,4 +224,17 @@ public class CalendarUtilTest {
     assertThat(CalendarUtil.firstIntersectingDate(ImmutableSortedSet.of(), ImmutableSortedSet.of()))
         .isEqualTo(Optional.empty());
   }
+
+  @Test
+  public void firstIntersectingDay() {
+    // Days 3, 64 and 130 from the origin.
+    final long[] days1 = {1L << 3, 1L, 1L << 2};
+    // Days 64 + 5, 128 + 2 and 130 from the origin, without the first word.
+    final long[] days2 = {1L << 5, 1L << 2};
+
+    assertThat(CalendarUtil.firstIntersectingDay(days1, 0, days2, 1)).isEqualTo(130);
+    assertThat(CalendarUtil.firstIntersectingDay(days2, 1, days1, 0)).isEqualTo(130);
+    assertThat(CalendarUtil.firstIntersectingDay(days1, 0, days2, 2)).isEqualTo(-1);
+    assertThat(CalendarUtil.firstIntersectingDay(days1, 0, new long[0], 0)).isEqualTo(-1);
+  }
 }
@@ -18,7 +18,11 @@ package org.mobilitydata.gtfsvalidator.util;
 
 import static com.google.common.truth.Truth.assertThat;
 
+import static org.locationtech.spatial4j.context.SpatialContext.GEO;
+
+import java.util.Random;
 import org.junit.Test;
+import org.locationtech.spatial4j.distance.DistanceUtils;
 
 public class GeospatialUtilTest {
 
@@ -36,4 +40,67 @@ public class GeospatialUtilTest {
         .isWithin(.01d)
         .of(148.69d);
   }
+
+  /** Distance computed by Spatial4j, which {@code distanceInMeterBetween} used before. */
+  private static double spatial4jDistance(
+      double fromLat, double fromLng, double toLat, double toLng) {
+    return DistanceUtils.DEG_TO_KM
+        * GEO.getDistCalc()
+            .distance(
+                GEO.getShapeFactory().pointXY(fromLng, fromLat),
+                GEO.getShapeFactory().pointXY(toLng, toLat))
+        * GeospatialUtil.KILOMETER_TO_METER_CONVERSION_FACTOR;
+  }
+
+  private static void assertCloseToSpatial4j(
+      Random random, double maxDeltaDegrees, double relativeTolerance) {
+    for (int i = 0; i < 10000; ++i) {
+      final double fromLat = (random.nextDouble() - 0.5) * 170;
+      final double fromLng = (random.nextDouble() - 0.5) * 360;
+      final double toLat =
+          Math.max(-90, Math.min(90, fromLat + (random.nextDouble() - 0.5) * maxDeltaDegrees));
+      double toLng = fromLng + (random.nextDouble() - 0.5) * maxDeltaDegrees;
+      if (toLng > 180) {
+        toLng -= 360;
+      } else if (toLng < -180) {
+        toLng += 360;
+      }
+      final double expected = spatial4jDistance(fromLat, fromLng, toLat, toLng);
+      assertThat(GeospatialUtil.distanceInMeterBetween(fromLat, fromLng, toLat, toLng))
+          .isWithin(expected * relativeTolerance + 1e-6)
+          .of(expected);
+    }
+  }
+
+  @Test
+  public void shortHopsCloseToSpatial4j() {
+    assertCloseToSpatial4j(new Random(1), 0.1, 1e-6);
+  }
+
+  @Test
+  public void longHopsCloseToSpatial4j() {
+    assertCloseToSpatial4j(new Random(1), 180, 1e-9);
+  }
+
+  @Test
+  public void precomputedCosLatitude() {
+    final double fromLat = 45.508888;
+    final double toLat = 45.507753;
+    assertThat(
+            GeospatialUtil.distanceInMeterBetween(
+                fromLat,
+                -73.561668,
+                GeospatialUtil.cosLatitude(fromLat),
+                toLat,
+                -73.562677,
+                GeospatialUtil.cosLatitude(toLat)))
+        .isEqualTo(GeospatialUtil.distanceInMeterBetween(fromLat, -73.561668, toLat, -73.562677));
+  }
+
+  @Test
+  public void antimeridian() {
+    assertThat(GeospatialUtil.distanceInMeterBetween(0, 179.9999, 0, -179.9999))
+        .isWithin(1e-3)
+        .of(spatial4jDistance(0, 179.9999, 0, -179.9999));
+  }
 }
@@ -0,0 +1,145 @@
+package org.mobilitydata.gtfsvalidator.util;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.SortedSet;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ServiceCalendarTest {
+  private static final byte WEEKDAYS = ServicePeriod.weeklyPatternFromMTWTFSS(1, 1, 1, 1, 1, 0, 0);
+
+  private static ServiceCalendar createCalendar() {
+    return ServiceCalendar.create(
+        ImmutableMap.of(
+            // Weekdays in January 2021 without Friday, January 1, and with Sunday, January 3.
+            "weekdays",
+            new ServicePeriod(
+                LocalDate.of(2021, 1, 1),
+                LocalDate.of(2021, 1, 31),
+                WEEKDAYS,
+                ImmutableSet.of(LocalDate.of(2021, 1, 3)),
+                ImmutableSet.of(LocalDate.of(2021, 1, 1))),
+            "s1",
+            new ServicePeriod(
+                ImmutableSet.of(
+                    LocalDate.of(2021, 1, 4), LocalDate.of(2021, 1, 5), LocalDate.of(2021, 1, 6))),
+            "s2",
+            new ServicePeriod(
+                ImmutableSet.of(
+                    LocalDate.of(2021, 1, 1),
+                    LocalDate.of(2021, 1, 5),
+                    LocalDate.of(2021, 1, 6),
+                    LocalDate.of(2021, 1, 7))),
+            "nextYear",
+            new ServicePeriod(ImmutableSet.of(LocalDate.of(2022, 1, 5))),
+            "never",
+            new ServicePeriod(
+                LocalDate.of(2021, 1, 1),
+                LocalDate.of(2021, 1, 31),
+                (byte) 0,
+                ImmutableSet.of(),
+                ImmutableSet.of())));
+  }
+
+  @Test
+  public void origin() {
+    assertThat(createCalendar().getOrigin()).isEqualTo(Optional.of(LocalDate.of(2021, 1, 1)));
+    assertThat(ServiceCalendar.create(ImmutableMap.of()).getOrigin()).isEqualTo(Optional.empty());
+  }
+
+  @Test
+  public void isActiveOn() {
+    final ServiceCalendar calendar = createCalendar();
+
+    assertThat(calendar.isActiveOn("weekdays", LocalDate.of(2021, 1, 1))).isFalse();
+    assertThat(calendar.isActiveOn("weekdays", LocalDate.of(2021, 1, 2))).isFalse();
+    assertThat(calendar.isActiveOn("weekdays", LocalDate.of(2021, 1, 3))).isTrue();
+    assertThat(calendar.isActiveOn("weekdays", LocalDate.of(2021, 1, 4))).isTrue();
+    assertThat(calendar.isActiveOn("weekdays", LocalDate.of(2021, 1, 29))).isTrue();
+    assertThat(calendar.isActiveOn("weekdays", LocalDate.of(2021, 2, 1))).isFalse();
+    assertThat(calendar.isActiveOn("weekdays", LocalDate.of(2020, 12, 31))).isFalse();
+    assertThat(calendar.isActiveOn("nextYear", LocalDate.of(2022, 1, 5))).isTrue();
+    assertThat(calendar.isActiveOn("nextYear", LocalDate.of(2021, 1, 5))).isFalse();
+    assertThat(calendar.isActiveOn("never", LocalDate.of(2021, 1, 4))).isFalse();
+    assertThat(calendar.isActiveOn("notFound", LocalDate.of(2021, 1, 4))).isFalse();
+  }
+
+  @Test
+  public void activeDayCount() {
+    final ServiceCalendar calendar = createCalendar();
+
+    // 21 weekdays in January 2021, minus Friday, January 1, plus Sunday, January 3.
+    assertThat(calendar.activeDayCount("weekdays")).isEqualTo(21);
+    assertThat(calendar.activeDayCount("s2")).isEqualTo(4);
+    assertThat(calendar.activeDayCount("never")).isEqualTo(0);
+    assertThat(calendar.activeDayCount("notFound")).isEqualTo(0);
+  }
+
+  @Test
+  public void firstIntersectingDate() {
+    final ServiceCalendar calendar = createCalendar();
+
+    assertThat(calendar.firstIntersectingDate("s1", "s2"))
+        .isEqualTo(Optional.of(LocalDate.of(2021, 1, 5)));
+    assertThat(calendar.firstIntersectingDate("s2", "s1"))
+        .isEqualTo(Optional.of(LocalDate.of(2021, 1, 5)));
+    assertThat(calendar.firstIntersectingDate("weekdays", "s2"))
+        .isEqualTo(Optional.of(LocalDate.of(2021, 1, 5)));
+    assertThat(calendar.firstIntersectingDate("weekdays", "nextYear")).isEqualTo(Optional.empty());
+    assertThat(calendar.firstIntersectingDate("never", "never")).isEqualTo(Optional.empty());
+    assertThat(calendar.firstIntersectingDate("s1", "notFound")).isEqualTo(Optional.empty());
+    assertThat(calendar.firstIntersectingDate("notFound", "notFound")).isEqualTo(Optional.empty());
+  }
+
+  @Test
+  public void sameAsServiceDates() {
+    Random random = new Random(1);
+    Map<String, ServicePeriod> servicePeriods = new HashMap<>();
+    for (int i = 0; i < 50; ++i) {
+      final LocalDate start = LocalDate.of(2020, 1, 1).plusDays(random.nextInt(1000));
+      Set<LocalDate> added = new HashSet<>();
+      Set<LocalDate> removed = new HashSet<>();
+      for (int j = 0; j < 10; ++j) {
+        added.add(start.plusDays(random.nextInt(400) - 100));
+        removed.add(start.plusDays(random.nextInt(400) - 100));
+      }
+      servicePeriods.put(
+          "s" + i,
+          new ServicePeriod(
+              start,
+              start.plusDays(random.nextInt(300)),
+              (byte) random.nextInt(128),
+              added,
+              removed));
+    }
+    final Map<String, SortedSet<LocalDate>> serviceDates =
+        CalendarUtil.servicePeriodToServiceDatesMap(servicePeriods);
+    final ServiceCalendar calendar = ServiceCalendar.create(servicePeriods);
+
+    for (String serviceId1 : servicePeriods.keySet()) {
+      final SortedSet<LocalDate> dates = serviceDates.get(serviceId1);
+      assertThat(calendar.activeDayCount(serviceId1)).isEqualTo(dates.size());
+      for (LocalDate date : dates) {
+        assertThat(calendar.isActiveOn(serviceId1, date)).isTrue();
+        assertThat(calendar.isActiveOn(serviceId1, date.minusDays(1)))
+            .isEqualTo(dates.contains(date.minusDays(1)));
+      }
+      for (String serviceId2 : servicePeriods.keySet()) {
+        assertThat(calendar.firstIntersectingDate(serviceId1, serviceId2))
+            .isEqualTo(CalendarUtil.firstIntersectingDate(dates, serviceDates.get(serviceId2)));
+      }
+    }
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2021 MobilityData IO
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.util;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.Random;
+import org.junit.Test;
+import org.locationtech.spatial4j.shape.Shape;
+import org.locationtech.spatial4j.shape.ShapeFactory;
+import org.locationtech.spatial4j.shape.SpatialRelation;
+
+public class ShapeSegmentIndexTest {
+  private static final double BUFFER = 0.0009;
+
+  private static Shape bufferedLineString(double[] lons, double[] lats, double buffer) {
+    ShapeFactory.LineStringBuilder lineBuilder = GeospatialUtil.getShapeFactory().lineString();
+    for (int i = 0; i < lons.length; ++i) {
+      lineBuilder.pointXY(lons[i], lats[i]);
+    }
+    lineBuilder.buffer(buffer);
+    return lineBuilder.build();
+  }
+
+  private static void assertSameAsLineString(double[] lons, double[] lats, Random random) {
+    ShapeSegmentIndex index = new ShapeSegmentIndex(lons, lats, BUFFER);
+    Shape lineString = bufferedLineString(lons, lats, BUFFER);
+    for (int i = 0; i < 2000; ++i) {
+      // Points near a random vertex, so that a good share of them is within the buffer.
+      final int vertex = random.nextInt(lons.length);
+      final double lon = lons[vertex] + (random.nextDouble() - 0.5) * 8 * BUFFER;
+      final double lat = lats[vertex] + (random.nextDouble() - 0.5) * 8 * BUFFER;
+      final boolean expected =
+          lineString
+              .relate(GeospatialUtil.getShapeFactory().pointXY(lon, lat))
+              .equals(SpatialRelation.CONTAINS);
+      assertThat(index.contains(lon, lat)).isEqualTo(expected);
+    }
+  }
+
+  @Test
+  public void sameAsBufferedLineString() {
+    Random random = new Random(1);
+    for (int shape = 0; shape < 20; ++shape) {
+      final int n = 1 + random.nextInt(300);
+      double[] lons = new double[n];
+      double[] lats = new double[n];
+      lons[0] = -82.4 + random.nextDouble();
+      lats[0] = 28 + random.nextDouble() * 40;
+      for (int i = 1; i < n; ++i) {
+        lons[i] = lons[i - 1] + (random.nextDouble() - 0.5) * 0.01;
+        lats[i] = lats[i - 1] + (random.nextDouble() - 0.5) * 0.01;
+      }
+      assertSameAsLineString(lons, lats, random);
+    }
+  }
+
+  @Test
+  public void straightLineAndSinglePoint() {
+    Random random = new Random(1);
+    assertSameAsLineString(
+        new double[] {10, 10.001, 10.002, 10.003}, new double[] {45, 45, 45, 45}, random);
+    assertSameAsLineString(new double[] {10}, new double[] {45}, random);
+    assertSameAsLineString(new double[] {10, 10}, new double[] {45, 45}, random);
+  }
+
+  @Test
+  public void crossesDateLine() {
+    final double[] lons = {179.9995, -179.9995, -179.999};
+    final double[] lats = {0, 0.0005, 0.001};
+    ShapeSegmentIndex index = new ShapeSegmentIndex(lons, lats, BUFFER);
+    Shape lineString = bufferedLineString(lons, lats, BUFFER);
+
+    for (double[] point : new double[][] {{179.9999, 0}, {0, 0}, {-179.999, 0.001}, {90, 10}}) {
+      assertThat(index.contains(point[0], point[1]))
+          .isEqualTo(
+              lineString
+                  .relate(GeospatialUtil.getShapeFactory().pointXY(point[0], point[1]))
+                  .equals(SpatialRelation.CONTAINS));
+    }
+  }
+
+  @Test
+  public void farPoint() {
+    ShapeSegmentIndex index =
+        new ShapeSegmentIndex(new double[] {10, 10.001}, new double[] {45, 45.001}, BUFFER);
+
+    assertThat(index.segmentCount()).isEqualTo(1);
+    assertThat(index.contains(10.0005, 45.0005)).isTrue();
+    assertThat(index.contains(-45.4569865, 17.456467)).isFalse();
+  }
+}
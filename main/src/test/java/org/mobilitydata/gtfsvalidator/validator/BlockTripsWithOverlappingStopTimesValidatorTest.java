@@ -9,6 +9,7 @@ import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
@@ -201,6 +202,46 @@ public class BlockTripsWithOverlappingStopTimesValidatorTest {
                 1, "t0", "WEEK", 2, "t1", "WEEK-ALT", "b1", GtfsDate.fromString("20210104")));
   }
 
+  @Test
+  public void overlapsWithManyServiceIdsAreOrderedByTime() {
+    final NoticeContainer noticeContainer = new NoticeContainer();
+
+    BlockTripsWithOverlappingStopTimesValidator validator =
+        new BlockTripsWithOverlappingStopTimesValidator();
+    validator.calendarTable = createCalendarTable(noticeContainer);
+    validator.calendarDateTable = new GtfsCalendarDateTableContainer(TableStatus.MISSING_FILE);
+    validator.tripTable =
+        createTripTable(
+            new String[] {"t0", "t1", "t2", "t3", "t4"},
+            new String[] {"WEEK", "SAT", "WEEK-ALT", "WEEK", "SUN"},
+            "b1",
+            noticeContainer);
+    validator.stopTimeTable =
+        createStopTimeTable(
+            new String[] {"t0", "t1", "t2", "t3", "t4"},
+            new String[] {"s0", "s1"},
+            new String[][] {
+              new String[] {"08:00:00", "09:30:00"},
+              new String[] {"08:10:00", "09:00:00"},
+              new String[] {"08:20:00", "09:10:00"},
+              new String[] {"09:00:00", "10:00:00"},
+              new String[] {"08:05:00", "08:50:00"},
+            },
+            noticeContainer);
+
+    validator.validate(noticeContainer);
+    // Trips on Saturday and Sunday overlap in time with other trips but never run on the same day.
+    assertThat(noticeContainer.getValidationNotices())
+        .containsExactly(
+            new BlockTripsWithOverlappingStopTimesNotice(
+                1, "t0", "WEEK", 3, "t2", "WEEK-ALT", "b1", GtfsDate.fromString("20210104")),
+            new BlockTripsWithOverlappingStopTimesNotice(
+                1, "t0", "WEEK", 4, "t3", "WEEK", "b1", GtfsDate.fromString("20210104")),
+            new BlockTripsWithOverlappingStopTimesNotice(
+                3, "t2", "WEEK-ALT", 4, "t3", "WEEK", "b1", GtfsDate.fromString("20210104")))
+        .inOrder();
+  }
+
   @Test
   public void tripsWith0or1Stop() {
     // Trips with 0 or 1 stop are not useful to end users and should be
@@ -225,4 +266,51 @@ public class BlockTripsWithOverlappingStopTimesValidatorTest {
     validator.validate(noticeContainer);
     assertThat(noticeContainer.getValidationNotices()).isEmpty();
   }
+
+  private static BlockTripsWithOverlappingStopTimesValidator createValidatorWithBlocks(
+      int blockCount, NoticeContainer noticeContainer) {
+    ArrayList<GtfsTrip> trips = new ArrayList<>();
+    ArrayList<GtfsStopTime> stopTimes = new ArrayList<>();
+    for (int block = 0; block < blockCount; ++block) {
+      // Two trips of every block overlap.
+      for (String[] trip :
+          new String[][] {
+            new String[] {"b" + block + "-t0", "08:00:00", "09:00:00"},
+            new String[] {"b" + block + "-t1", "08:30:00", "09:30:00"}
+          }) {
+        trips.add(createTrip(trips.size() + 1, trip[0], "WEEK", "b" + block));
+        stopTimes.add(createStopTime(stopTimes.size() + 1, trip[0], trip[1], "s0", 0));
+        stopTimes.add(createStopTime(stopTimes.size() + 1, trip[0], trip[2], "s1", 1));
+      }
+    }
+    BlockTripsWithOverlappingStopTimesValidator validator =
+        new BlockTripsWithOverlappingStopTimesValidator();
+    validator.calendarTable = createCalendarTable(noticeContainer);
+    validator.calendarDateTable = new GtfsCalendarDateTableContainer(TableStatus.MISSING_FILE);
+    validator.tripTable = GtfsTripTableContainer.forEntities(trips, noticeContainer);
+    validator.stopTimeTable = GtfsStopTimeTableContainer.forEntities(stopTimes, noticeContainer);
+    return validator;
+  }
+
+  @Test
+  public void blocksInForkJoinPoolKeepOrder() throws Exception {
+    final NoticeContainer expected = new NoticeContainer();
+    createValidatorWithBlocks(200, expected).validate(expected);
+
+    final NoticeContainer noticeContainer = new NoticeContainer();
+    BlockTripsWithOverlappingStopTimesValidator validator =
+        createValidatorWithBlocks(200, noticeContainer);
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      // Blocks are checked in parallel in the pool.
+      pool.submit(() -> validator.validate(noticeContainer)).get();
+    } finally {
+      pool.shutdown();
+    }
+
+    assertThat(expected.getValidationNotices()).hasSize(200);
+    assertThat(noticeContainer.getValidationNotices())
+        .containsExactlyElementsIn(expected.getValidationNotices())
+        .inOrder();
+  }
 }
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.validator;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.mobilitydata.gtfsvalidator.annotation.GtfsValidator;
+import org.mobilitydata.gtfsvalidator.notice.NoticeContainer;
+import org.mobilitydata.gtfsvalidator.table.GtfsStopTime;
+
+/**
+ * Tells if stop times are visited by several threads at once. The probe does nothing until a test
+ * arms it with {@link #arm}, so it does not affect other tests that load all validators.
+ */
+@GtfsValidator
+public class ConcurrentStopTimeVisitProbe extends SequenceVisitor<GtfsStopTime> {
+  private static volatile CountDownLatch twoThreadsVisited;
+  private static final Set<Thread> visitingThreads = ConcurrentHashMap.newKeySet();
+
+  /** Makes the first visiting thread wait until a second thread visits a trip. */
+  public static void arm() {
+    visitingThreads.clear();
+    twoThreadsVisited = new CountDownLatch(2);
+  }
+
+  /** Stops waiting and returns if two threads visited trips at the same time. */
+  public static boolean disarm() {
+    boolean concurrent = twoThreadsVisited.getCount() == 0;
+    twoThreadsVisited = null;
+    return concurrent;
+  }
+
+  @Override
+  public void visit(List<GtfsStopTime> stopTimesForTrip, NoticeContainer noticeContainer) {
+    CountDownLatch latch = twoThreadsVisited;
+    if (latch == null || !visitingThreads.add(Thread.currentThread())) {
+      return;
+    }
+    latch.countDown();
+    try {
+      // If trips are visited by a single thread, the wait times out and the count stays above 0.
+      latch.await(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
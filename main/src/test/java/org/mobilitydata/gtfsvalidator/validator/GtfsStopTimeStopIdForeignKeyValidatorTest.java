@@ -0,0 +1,141 @@
+/*
+ * Copyright 2021 MobilityData IO
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.validator;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mobilitydata.gtfsvalidator.input.GtfsFeedName;
+import org.mobilitydata.gtfsvalidator.notice.ForeignKeyError;
+import org.mobilitydata.gtfsvalidator.notice.NoticeContainer;
+import org.mobilitydata.gtfsvalidator.notice.ValidationNotice;
+import org.mobilitydata.gtfsvalidator.table.GtfsStop;
+import org.mobilitydata.gtfsvalidator.table.GtfsStopTableContainer;
+import org.mobilitydata.gtfsvalidator.table.GtfsStopTime;
+import org.mobilitydata.gtfsvalidator.table.GtfsStopTimeColumns;
+import org.mobilitydata.gtfsvalidator.table.GtfsStopTimeTableContainer;
+import org.mobilitydata.gtfsvalidator.table.GtfsTransferTableContainer;
+import org.mobilitydata.gtfsvalidator.table.IdDictionary;
+import org.mobilitydata.gtfsvalidator.table.KeySet;
+
+@RunWith(JUnit4.class)
+public class GtfsStopTimeStopIdForeignKeyValidatorTest {
+  private static final ValidationContext VALIDATION_CONTEXT =
+      ValidationContext.builder()
+          .setFeedName(GtfsFeedName.parseString("au-sydney-buses"))
+          .setNow(ZonedDateTime.of(2021, 1, 1, 14, 30, 0, 0, ZoneOffset.UTC))
+          .build();
+
+  private static GtfsStop createStop(long csvRowNumber, String stopId) {
+    return new GtfsStop.Builder().setCsvRowNumber(csvRowNumber).setStopId(stopId).build();
+  }
+
+  private static GtfsStopTime.Builder stopTime(long csvRowNumber, String stopId) {
+    GtfsStopTime.Builder builder =
+        new GtfsStopTime.Builder()
+            .setCsvRowNumber(csvRowNumber)
+            .setTripId("t1")
+            .setStopSequence((int) csvRowNumber);
+    if (stopId != null) {
+      builder.setStopId(stopId);
+    }
+    return builder;
+  }
+
+  private static GtfsStopTimeColumns createStopTimes(
+      IdDictionary dictionary, List<GtfsStopTime.Builder> builders) {
+    GtfsStopTimeColumns columns = new GtfsStopTimeColumns(dictionary);
+    for (GtfsStopTime.Builder builder : builders) {
+      columns.append(builder);
+    }
+    return columns;
+  }
+
+  private static List<ValidationNotice> validate(
+      GtfsStopTableContainer stops, List<GtfsStopTime> stopTimes) {
+    NoticeContainer noticeContainer = new NoticeContainer();
+    GtfsStopTimeStopIdForeignKeyValidator underTest = new GtfsStopTimeStopIdForeignKeyValidator();
+    underTest.parentContainer = stops;
+    underTest.childContainer = GtfsStopTimeTableContainer.forEntities(stopTimes, noticeContainer);
+    underTest.validationContext = VALIDATION_CONTEXT;
+    underTest.validate(noticeContainer);
+    return noticeContainer.getValidationNotices();
+  }
+
+  private static GtfsStopTableContainer createStops() {
+    return GtfsStopTableContainer.forEntities(
+        ImmutableList.of(createStop(2, "s1"), createStop(3, "s2")), new NoticeContainer());
+  }
+
+  private static ForeignKeyError missingStop(String stopId, long csvRowNumber) {
+    return new ForeignKeyError(
+        "stop_times.txt", "stop_id", "stops.txt", "stop_id", stopId, csvRowNumber);
+  }
+
+  @Test
+  public void columnarStopTimesAreCheckedByOrdinals() {
+    List<GtfsStopTime.Builder> builders =
+        ImmutableList.of(
+            stopTime(2, "s1"), stopTime(3, "unknown"), stopTime(4, null), stopTime(5, "s3"));
+
+    assertThat(
+            validate(
+                createStops(), createStopTimes(VALIDATION_CONTEXT.idDictionary(), builders)))
+        .containsExactly(missingStop("unknown", 3), missingStop("s3", 5))
+        .inOrder();
+    // Stop times from another dictionary are checked by their decoded IDs.
+    assertThat(validate(createStops(), createStopTimes(new IdDictionary(), builders)))
+        .containsExactly(missingStop("unknown", 3), missingStop("s3", 5))
+        .inOrder();
+  }
+
+  @Test
+  public void stopTimesInOtherListsAreCheckedByIds() {
+    assertThat(
+            validate(
+                createStops(),
+                ImmutableList.of(stopTime(2, "s2").build(), stopTime(3, "s4").build())))
+        .containsExactly(missingStop("s4", 3));
+  }
+
+  @Test
+  public void keySetIsSharedByValidatorsOfParentColumn() {
+    GtfsStopTableContainer stops = createStops();
+    validate(stops, ImmutableList.of(stopTime(2, "s1").build()));
+
+    KeySet keySet =
+        stops.getKeySet("stop_id", VALIDATION_CONTEXT.idDictionary(), GtfsStop::stopId);
+    assertThat(keySet.size()).isEqualTo(2);
+
+    GtfsTransferFromStopIdForeignKeyValidator transferValidator =
+        new GtfsTransferFromStopIdForeignKeyValidator();
+    transferValidator.parentContainer = stops;
+    transferValidator.childContainer =
+        GtfsTransferTableContainer.forEntities(ImmutableList.of(), new NoticeContainer());
+    transferValidator.validationContext = VALIDATION_CONTEXT;
+    transferValidator.validate(new NoticeContainer());
+
+    assertThat(stops.getKeySet("stop_id", VALIDATION_CONTEXT.idDictionary(), GtfsStop::stopId))
+        .isSameInstanceAs(keySet);
+  }
+}
@@ -69,7 +69,7 @@ public class MissingTripEdgeValidatorTest {
   public void tripWithFirstStopMissingArrivalTimeShouldGenerateNotice() {
     NoticeContainer noticeContainer = new NoticeContainer();
     MissingTripEdgeValidator underTest = new MissingTripEdgeValidator();
-    underTest.stopTimeTable =
+    GtfsStopTimeTableContainer stopTimeTable =
         createStopTimeTable(
             noticeContainer,
             ImmutableList.of(
@@ -82,7 +82,7 @@ public class MissingTripEdgeValidatorTest {
                     GtfsTime.fromSecondsSinceMidnight(28),
                     GtfsTime.fromSecondsSinceMidnight(35),
                     4)));
-    underTest.validate(noticeContainer);
+    underTest.visitAll(stopTimeTable, noticeContainer);
 
     assertThat(noticeContainer.getValidationNotices())
         .containsExactly(new MissingTripEdgeNotice(2, 1, "trip id value", "arrival_time"));
@@ -92,7 +92,7 @@ public class MissingTripEdgeValidatorTest {
   public void tripWithFirstStopMissingDepartureTimeShouldGenerateNotice() {
     NoticeContainer noticeContainer = new NoticeContainer();
     MissingTripEdgeValidator underTest = new MissingTripEdgeValidator();
-    underTest.stopTimeTable =
+    GtfsStopTimeTableContainer stopTimeTable =
         createStopTimeTable(
             noticeContainer,
             ImmutableList.of(
@@ -105,7 +105,7 @@ public class MissingTripEdgeValidatorTest {
                     GtfsTime.fromSecondsSinceMidnight(28),
                     GtfsTime.fromSecondsSinceMidnight(35),
                     5)));
-    underTest.validate(noticeContainer);
+    underTest.visitAll(stopTimeTable, noticeContainer);
 
     assertThat(noticeContainer.getValidationNotices())
         .containsExactly(new MissingTripEdgeNotice(2, 1, "trip id value", "departure_time"));
@@ -115,7 +115,7 @@ public class MissingTripEdgeValidatorTest {
   public void tripWithLastStopMissingArrivalTimeShouldGenerateNotices() {
     NoticeContainer noticeContainer = new NoticeContainer();
     MissingTripEdgeValidator underTest = new MissingTripEdgeValidator();
-    underTest.stopTimeTable =
+    GtfsStopTimeTableContainer stopTimeTable =
         createStopTimeTable(
             noticeContainer,
             ImmutableList.of(
@@ -129,7 +129,7 @@ public class MissingTripEdgeValidatorTest {
                 createStopTime(5, "trip id value", null, null, 3),
                 createStopTime(
                     10, "trip id value", null, GtfsTime.fromSecondsSinceMidnight(456), 5)));
-    underTest.validate(noticeContainer);
+    underTest.visitAll(stopTimeTable, noticeContainer);
 
     assertThat(noticeContainer.getValidationNotices())
         .containsExactly(new MissingTripEdgeNotice(10, 5, "trip id value", "arrival_time"));
@@ -139,7 +139,7 @@ public class MissingTripEdgeValidatorTest {
   public void tripWithLastStopMissingDepartureTimeShouldGenerateNotices() {
     NoticeContainer noticeContainer = new NoticeContainer();
     MissingTripEdgeValidator underTest = new MissingTripEdgeValidator();
-    underTest.stopTimeTable =
+    GtfsStopTimeTableContainer stopTimeTable =
         createStopTimeTable(
             noticeContainer,
             ImmutableList.of(
@@ -153,7 +153,7 @@ public class MissingTripEdgeValidatorTest {
                 createStopTime(5, "trip id value", null, null, 3),
                 createStopTime(
                     10, "trip id value", GtfsTime.fromSecondsSinceMidnight(456), null, 5)));
-    underTest.validate(noticeContainer);
+    underTest.visitAll(stopTimeTable, noticeContainer);
 
     assertThat(noticeContainer.getValidationNotices())
         .containsExactly(new MissingTripEdgeNotice(10, 5, "trip id value", "departure_time"));
@@ -163,7 +163,7 @@ public class MissingTripEdgeValidatorTest {
   public void tripWithValidEdgesShouldNotGenerateNotice() {
     NoticeContainer noticeContainer = new NoticeContainer();
     MissingTripEdgeValidator underTest = new MissingTripEdgeValidator();
-    underTest.stopTimeTable =
+    GtfsStopTimeTableContainer stopTimeTable =
         createStopTimeTable(
             noticeContainer,
             ImmutableList.of(
@@ -181,7 +181,7 @@ public class MissingTripEdgeValidatorTest {
                     GtfsTime.fromSecondsSinceMidnight(456),
                     GtfsTime.fromSecondsSinceMidnight(3556467),
                     4)));
-    underTest.validate(noticeContainer);
+    underTest.visitAll(stopTimeTable, noticeContainer);
 
     assertThat(noticeContainer.getValidationNotices()).isEmpty();
   }
@@ -57,12 +57,12 @@ public class StopTimeArrivalAndDepartureTimeValidatorTest {
     NoticeContainer noticeContainer = new NoticeContainer();
     StopTimeArrivalAndDepartureTimeValidator underTest =
         new StopTimeArrivalAndDepartureTimeValidator();
-    underTest.table =
+    GtfsStopTimeTableContainer stopTimeTable =
         createStopTimeTable(
             noticeContainer,
             ImmutableList.of(createStopTime(0, "first trip id", null, null, "stop id", 2)));
 
-    underTest.validate(noticeContainer);
+    underTest.visitAll(stopTimeTable, noticeContainer);
     assertThat(noticeContainer.getValidationNotices()).isEmpty();
   }
 
@@ -71,7 +71,7 @@ public class StopTimeArrivalAndDepartureTimeValidatorTest {
     NoticeContainer noticeContainer = new NoticeContainer();
     StopTimeArrivalAndDepartureTimeValidator underTest =
         new StopTimeArrivalAndDepartureTimeValidator();
-    underTest.table =
+    GtfsStopTimeTableContainer stopTimeTable =
         createStopTimeTable(
             noticeContainer,
             ImmutableList.of(
@@ -83,7 +83,7 @@ public class StopTimeArrivalAndDepartureTimeValidatorTest {
                     "stop id",
                     2)));
 
-    underTest.validate(noticeContainer);
+    underTest.visitAll(stopTimeTable, noticeContainer);
     assertThat(noticeContainer.getValidationNotices()).isEmpty();
   }
 
@@ -92,7 +92,7 @@ public class StopTimeArrivalAndDepartureTimeValidatorTest {
     NoticeContainer noticeContainer = new NoticeContainer();
     StopTimeArrivalAndDepartureTimeValidator underTest =
         new StopTimeArrivalAndDepartureTimeValidator();
-    underTest.table =
+    GtfsStopTimeTableContainer stopTimeTable =
         createStopTimeTable(
             noticeContainer,
             ImmutableList.of(
@@ -104,7 +104,7 @@ public class StopTimeArrivalAndDepartureTimeValidatorTest {
                     "stop id",
                     2)));
 
-    underTest.validate(noticeContainer);
+    underTest.visitAll(stopTimeTable, noticeContainer);
     assertThat(noticeContainer.getValidationNotices())
         .containsExactly(
             new StopTimeWithDepartureBeforeArrivalTimeNotice(
@@ -120,7 +120,7 @@ public class StopTimeArrivalAndDepartureTimeValidatorTest {
     NoticeContainer noticeContainer = new NoticeContainer();
     StopTimeArrivalAndDepartureTimeValidator underTest =
         new StopTimeArrivalAndDepartureTimeValidator();
-    underTest.table =
+    GtfsStopTimeTableContainer stopTimeTable =
         createStopTimeTable(
             noticeContainer,
             ImmutableList.of(
@@ -139,7 +139,7 @@ public class StopTimeArrivalAndDepartureTimeValidatorTest {
                     "stop id",
                     3)));
 
-    underTest.validate(noticeContainer);
+    underTest.visitAll(stopTimeTable, noticeContainer);
     assertThat(noticeContainer.getValidationNotices())
         .containsExactly(
             new StopTimeWithArrivalBeforePreviousDepartureTimeNotice(
@@ -155,7 +155,7 @@ public class StopTimeArrivalAndDepartureTimeValidatorTest {
     NoticeContainer noticeContainer = new NoticeContainer();
     StopTimeArrivalAndDepartureTimeValidator underTest =
         new StopTimeArrivalAndDepartureTimeValidator();
-    underTest.table =
+    GtfsStopTimeTableContainer stopTimeTable =
         createStopTimeTable(
             noticeContainer,
             ImmutableList.of(
@@ -174,7 +174,7 @@ public class StopTimeArrivalAndDepartureTimeValidatorTest {
                     "stop id",
                     3)));
 
-    underTest.validate(noticeContainer);
+    underTest.visitAll(stopTimeTable, noticeContainer);
     assertThat(noticeContainer.getValidationNotices()).isEmpty();
   }
 
@@ -183,7 +183,7 @@ public class StopTimeArrivalAndDepartureTimeValidatorTest {
     NoticeContainer noticeContainer = new NoticeContainer();
     StopTimeArrivalAndDepartureTimeValidator underTest =
         new StopTimeArrivalAndDepartureTimeValidator();
-    underTest.table =
+    GtfsStopTimeTableContainer stopTimeTable =
         createStopTimeTable(
             noticeContainer,
             ImmutableList.of(
@@ -195,7 +195,7 @@ public class StopTimeArrivalAndDepartureTimeValidatorTest {
                     "stop id",
                     2)));
 
-    underTest.validate(noticeContainer);
+    underTest.visitAll(stopTimeTable, noticeContainer);
     assertThat(noticeContainer.getValidationNotices())
         .containsExactly(
             new StopTimeWithOnlyArrivalOrDepartureTimeNotice(
@@ -207,7 +207,7 @@ public class StopTimeArrivalAndDepartureTimeValidatorTest {
     NoticeContainer noticeContainer = new NoticeContainer();
     StopTimeArrivalAndDepartureTimeValidator underTest =
         new StopTimeArrivalAndDepartureTimeValidator();
-    underTest.table =
+    GtfsStopTimeTableContainer stopTimeTable =
         createStopTimeTable(
             noticeContainer,
             ImmutableList.of(
@@ -219,7 +219,7 @@ public class StopTimeArrivalAndDepartureTimeValidatorTest {
                     "stop id",
                     2)));
 
-    underTest.validate(noticeContainer);
+    underTest.visitAll(stopTimeTable, noticeContainer);
     assertThat(noticeContainer.getValidationNotices())
         .containsExactly(
             new StopTimeWithOnlyArrivalOrDepartureTimeNotice(
@@ -47,7 +47,7 @@ public class StopTimeIncreasingDistanceValidatorTest {
   public void increasingDistanceAlongShapeShouldNotGenerateNotice() {
     StopTimeIncreasingDistanceValidator underTest = new StopTimeIncreasingDistanceValidator();
     NoticeContainer noticeContainer = new NoticeContainer();
-    underTest.stopTimeTable =
+    GtfsStopTimeTableContainer stopTimeTable =
         createStopTimeTable(
             noticeContainer,
             ImmutableList.of(
@@ -55,7 +55,7 @@ public class StopTimeIncreasingDistanceValidatorTest {
                 createStopTime(2, "first trip", "s1", 42, 45.0d),
                 createStopTime(3, "first trip", "s2", 46, 64.0d)));
 
-    underTest.validate(noticeContainer);
+    underTest.visitAll(stopTimeTable, noticeContainer);
     assertThat(noticeContainer.getValidationNotices().isEmpty());
   }
 
@@ -63,7 +63,7 @@ public class StopTimeIncreasingDistanceValidatorTest {
   public void lastShapeWithDecreasingDistanceAlongShapeShouldGenerateNotice() {
     StopTimeIncreasingDistanceValidator underTest = new StopTimeIncreasingDistanceValidator();
     NoticeContainer noticeContainer = new NoticeContainer();
-    underTest.stopTimeTable =
+    GtfsStopTimeTableContainer stopTimeTable =
         createStopTimeTable(
             noticeContainer,
             ImmutableList.of(
@@ -71,7 +71,7 @@ public class StopTimeIncreasingDistanceValidatorTest {
                 createStopTime(2, "first trip", "s1", 42, 45.0d),
                 createStopTime(3, "first trip", "s2", 46, 4.0d)));
 
-    underTest.validate(noticeContainer);
+    underTest.visitAll(stopTimeTable, noticeContainer);
     assertThat(noticeContainer.getValidationNotices())
         .containsExactly(
             new DecreasingOrEqualStopTimeDistanceNotice("first trip", 3, 4.0d, 46, 2, 45.0d, 42));
@@ -81,7 +81,7 @@ public class StopTimeIncreasingDistanceValidatorTest {
   public void twoShapesWithTheSameDistanceShouldGenerateNotice() {
     StopTimeIncreasingDistanceValidator underTest = new StopTimeIncreasingDistanceValidator();
     NoticeContainer noticeContainer = new NoticeContainer();
-    underTest.stopTimeTable =
+    GtfsStopTimeTableContainer stopTimeTable =
         createStopTimeTable(
             noticeContainer,
             ImmutableList.of(
@@ -89,7 +89,7 @@ public class StopTimeIncreasingDistanceValidatorTest {
                 createStopTime(2, "first trip", "s1", 42, 45.0d),
                 createStopTime(3, "first trip", "s2", 46, 45.0d)));
 
-    underTest.validate(noticeContainer);
+    underTest.visitAll(stopTimeTable, noticeContainer);
     assertThat(noticeContainer.getValidationNotices())
         .containsExactly(
             new DecreasingOrEqualStopTimeDistanceNotice("first trip", 3, 45.0d, 46, 2, 45.0d, 42));
@@ -99,7 +99,7 @@ public class StopTimeIncreasingDistanceValidatorTest {
   public void oneIntermediateShapeWithDecreasingDistanceAlongShapeShouldGenerateNotice() {
     StopTimeIncreasingDistanceValidator underTest = new StopTimeIncreasingDistanceValidator();
     NoticeContainer noticeContainer = new NoticeContainer();
-    underTest.stopTimeTable =
+    GtfsStopTimeTableContainer stopTimeTable =
         createStopTimeTable(
             noticeContainer,
             ImmutableList.of(
@@ -107,7 +107,7 @@ public class StopTimeIncreasingDistanceValidatorTest {
                 createStopTime(2, "first trip", "s1", 42, 8.6d),
                 createStopTime(3, "first trip", "s2", 46, 46.0d)));
 
-    underTest.validate(noticeContainer);
+    underTest.visitAll(stopTimeTable, noticeContainer);
     assertThat(noticeContainer.getValidationNotices())
         .containsExactly(
             new DecreasingOrEqualStopTimeDistanceNotice("first trip", 2, 8.6d, 42, 1, 10.0d, 2));
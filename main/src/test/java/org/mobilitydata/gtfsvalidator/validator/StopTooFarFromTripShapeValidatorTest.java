@@ -23,7 +23,6 @@ import static org.mockito.internal.verification.VerificationModeFactory.times;
 import com.google.common.collect.ImmutableList;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 import org.junit.Test;
 import org.mobilitydata.gtfsvalidator.notice.NoticeContainer;
 import org.mobilitydata.gtfsvalidator.notice.StopTooFarFromTripShapeNotice;
@@ -35,7 +34,6 @@ import org.mobilitydata.gtfsvalidator.table.GtfsStopTime;
 import org.mobilitydata.gtfsvalidator.table.GtfsStopTimeTableContainer;
 import org.mobilitydata.gtfsvalidator.table.GtfsTrip;
 import org.mobilitydata.gtfsvalidator.table.GtfsTripTableContainer;
-import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
 public class StopTooFarFromTripShapeValidatorTest {
@@ -578,7 +576,61 @@ public class StopTooFarFromTripShapeValidatorTest {
   }
 
   @Test
-  public void eachTripShouldOnlyBeProcessedOnce() {
+  public void tripsWithSameShapeShouldBeProcessedTogether() {
+    NoticeContainer noticeContainer = new NoticeContainer();
+    StopTooFarFromTripShapeValidator underTest =
+        Mockito.spy(new StopTooFarFromTripShapeValidator());
+
+    underTest.tripTable =
+        createTripTable(
+            noticeContainer,
+            ImmutableList.of(
+                createTrip(4, "r1", "service1", "t1", "shape1"),
+                createTrip(9, "r1", "service1", "t2", "shape1")));
+
+    underTest.stopTimeTable =
+        createStopTimeTable(
+            noticeContainer,
+            ImmutableList.of(
+                createStopTime(5, "t1", "1001", 1),
+                createStopTime(8, "t1", "1003", 2),
+                createStopTime(9, "t2", "1001", 1),
+                createStopTime(10, "t2", "1003", 2),
+                createStopTime(11, "t2", "1004", 3)));
+
+    underTest.shapeTable =
+        createShapeTable(
+            noticeContainer,
+            ImmutableList.of(
+                createShapePoint(5, "shape1", 28.05724310653972D, -82.41350776611507D, 1, 400f),
+                createShapePoint(6, "shape1", 28.05746701492806D, -82.41493135129478D, 2, 400f),
+                createShapePoint(7, "shape1", 28.05800068503469D, -82.4159394137605D, 3, 400f),
+                createShapePoint(8, "shape1", 28.05808869825447D, -82.41648754043338D, 4, 400f),
+                createShapePoint(9, "shape1", 28.05809979887893D, -82.41773971025437D, 5, 400f)));
+
+    underTest.stopTable =
+        createStopTable(
+            noticeContainer,
+            ImmutableList.of(
+                createStop(2, "1001", 28.05808869825447D, -82.41648754043338D, 0),
+                // these locations are outside buffer
+                createStop(5, "1003", 28.05673053256373D, -82.4170801432763D, 0),
+                createStop(6, "1004", 17.456467, -45.4569865, 0)));
+
+    underTest.validate(noticeContainer);
+
+    // Stop 1003 is reported once for the first trip, stop 1004 is visited only by the second trip.
+    assertThat(noticeContainer.getValidationNotices())
+        .containsExactly(
+            new StopTooFarFromTripShapeNotice("1003", 2, "t1", "shape1", 100),
+            new StopTooFarFromTripShapeNotice("1004", 3, "t2", "shape1", 100));
+    verify(underTest, times(1))
+        .checkStopsWithinShape(
+            "shape1", underTest.shapeTable.byShapeId("shape1"), ImmutableList.of("t1", "t2"));
+  }
+
+  @Test
+  public void eachShapeShouldOnlyBeProcessedOnce() {
     NoticeContainer noticeContainer = new NoticeContainer();
     StopTooFarFromTripShapeValidator underTest =
         Mockito.spy(new StopTooFarFromTripShapeValidator());
@@ -631,61 +683,63 @@ public class StopTooFarFromTripShapeValidatorTest {
               new StopTooFarFromTripShapeNotice("1005", 5, "t2", "shape2", 100),
             });
 
-    ArgumentCaptor<String> tripIdCapture = ArgumentCaptor.forClass(String.class);
-    ArgumentCaptor<List<GtfsStopTime>> stopTimeCapture = ArgumentCaptor.forClass(List.class);
-    ArgumentCaptor<String> shapeIdCapture = ArgumentCaptor.forClass(String.class);
-    ArgumentCaptor<List<GtfsShape>> shapesCapture = ArgumentCaptor.forClass(List.class);
-    ArgumentCaptor<GtfsStopTableContainer> stopTableCapture =
-        ArgumentCaptor.forClass(GtfsStopTableContainer.class);
-    ArgumentCaptor<Set<String>> cacheCapture = ArgumentCaptor.forClass(Set.class);
-
     verify(underTest, times(1)).validate(noticeContainer);
-    verify(underTest, times(2))
-        .checkStopsWithinTripShape(
-            tripIdCapture.capture(),
-            stopTimeCapture.capture(),
-            shapeIdCapture.capture(),
-            shapesCapture.capture(),
-            stopTableCapture.capture(),
-            cacheCapture.capture());
-
-    // Make sure we only captured 2 sets of input parameters, one for each invocation
-    assertThat(tripIdCapture.getAllValues().size()).isEqualTo(2);
-    assertThat(stopTimeCapture.getAllValues().size()).isEqualTo(2);
-    assertThat(shapeIdCapture.getAllValues().size()).isEqualTo(2);
-    assertThat(shapesCapture.getAllValues().size()).isEqualTo(2);
-    assertThat(stopTableCapture.getAllValues().size()).isEqualTo(2);
-    assertThat(cacheCapture.getAllValues().size()).isEqualTo(2);
-
-    // Check first execution parameters of checkStopsWithinTripShape()
-    assertThat(tripIdCapture.getAllValues().get(0)).isEqualTo("t1");
-    assertThat(stopTimeCapture.getAllValues().get(0))
-        .isEqualTo(underTest.stopTimeTable.byTripId("t1"));
-    assertThat(shapeIdCapture.getAllValues().get(0)).isEqualTo("shape1");
-    assertThat(shapesCapture.getAllValues().get(0))
-        .isEqualTo(underTest.shapeTable.byShapeId("shape1"));
-    assertThat(stopTableCapture.getAllValues().get(0)).isEqualTo(underTest.stopTable);
-
-    // Check 2nd execution parameters of checkStopsWithinTripShape()
-    assertThat(tripIdCapture.getAllValues().get(1)).isEqualTo("t2");
-    assertThat(stopTimeCapture.getAllValues().get(1))
-        .isEqualTo(underTest.stopTimeTable.byTripId("t2"));
-    assertThat(shapeIdCapture.getAllValues().get(1)).isEqualTo("shape2");
-    assertThat(shapesCapture.getAllValues().get(1))
-        .isEqualTo(underTest.shapeTable.byShapeId("shape2"));
-    assertThat(stopTableCapture.getAllValues().get(1)).isEqualTo(underTest.stopTable);
-
-    // Note that the contents of the cache are the final state, not the state at specific invocation
-    // because it's passed by reference and not value
-    Set<String> expected = new java.util.HashSet<>();
-    expected.add("shape11001");
-    expected.add("shape11002");
-    expected.add("shape11003");
-    expected.add("shape21005");
-    expected.add("shape21004");
-    assertThat(cacheCapture.getAllValues().get(0)).isEqualTo(expected);
-    assertThat(cacheCapture.getAllValues().get(1)).isEqualTo(expected);
-
+    verify(underTest, times(1))
+        .checkStopsWithinShape(
+            "shape1", underTest.shapeTable.byShapeId("shape1"), ImmutableList.of("t1"));
+    verify(underTest, times(1))
+        .checkStopsWithinShape(
+            "shape2", underTest.shapeTable.byShapeId("shape2"), ImmutableList.of("t2"));
     Mockito.verifyNoMoreInteractions(underTest);
   }
+
+  @Test
+  public void noticesShouldBeInOrderOfTrips() {
+    NoticeContainer noticeContainer = new NoticeContainer();
+    StopTooFarFromTripShapeValidator underTest = new StopTooFarFromTripShapeValidator();
+
+    // Trips of two shapes are interleaved in stop_times.txt.
+    underTest.tripTable =
+        createTripTable(
+            noticeContainer,
+            ImmutableList.of(
+                createTrip(2, "r1", "service1", "t1", "shape1"),
+                createTrip(3, "r2", "service1", "t2", "shape2"),
+                createTrip(4, "r1", "service1", "t3", "shape1")));
+
+    underTest.stopTimeTable =
+        createStopTimeTable(
+            noticeContainer,
+            ImmutableList.of(
+                createStopTime(2, "t1", "1003", 1),
+                createStopTime(3, "t2", "1005", 1),
+                createStopTime(4, "t3", "1006", 1)));
+
+    underTest.shapeTable =
+        createShapeTable(
+            noticeContainer,
+            ImmutableList.of(
+                createShapePoint(2, "shape1", 28.05724310653972D, -82.41350776611507D, 1, 400f),
+                createShapePoint(3, "shape1", 28.05746701492806D, -82.41493135129478D, 2, 400f),
+                createShapePoint(4, "shape2", 16.373032D, -61.459167D, 1, 400f),
+                createShapePoint(5, "shape2", 16.371539D, -61.459886D, 2, 400f)));
+
+    // All stops are outside of the buffers.
+    underTest.stopTable =
+        createStopTable(
+            noticeContainer,
+            ImmutableList.of(
+                createStop(2, "1003", 17.456467, -45.4569865, 0),
+                createStop(3, "1005", 17.456467, -45.4569865, 0),
+                createStop(4, "1006", 18.456467, -45.4569865, 0)));
+
+    underTest.validate(noticeContainer);
+
+    assertThat(noticeContainer.getValidationNotices())
+        .containsExactly(
+            new StopTooFarFromTripShapeNotice("1003", 1, "t1", "shape1", 100),
+            new StopTooFarFromTripShapeNotice("1005", 1, "t2", "shape2", 100),
+            new StopTooFarFromTripShapeNotice("1006", 1, "t3", "shape1", 100))
+        .inOrder();
+  }
 }
@@ -27,8 +27,6 @@ import org.mobilitydata.gtfsvalidator.table.GtfsStop;
 import org.mobilitydata.gtfsvalidator.table.GtfsStopTableContainer;
 import org.mobilitydata.gtfsvalidator.table.GtfsStopTime;
 import org.mobilitydata.gtfsvalidator.table.GtfsStopTimeTableContainer;
-import org.mobilitydata.gtfsvalidator.table.GtfsTrip;
-import org.mobilitydata.gtfsvalidator.table.GtfsTripTableContainer;
 import org.mobilitydata.gtfsvalidator.type.GtfsTime;
 
 public class TooFastTravelValidatorTest {
@@ -68,20 +66,6 @@ public class TooFastTravelValidatorTest {
     return GtfsStopTimeTableContainer.forEntities(entities, noticeContainer);
   }
 
-  private static GtfsTripTableContainer createTripTable(
-      NoticeContainer noticeContainer, List<GtfsTrip> entities) {
-    return GtfsTripTableContainer.forEntities(entities, noticeContainer);
-  }
-
-  private static GtfsTrip createTrip() {
-    return new GtfsTrip.Builder()
-        .setCsvRowNumber(34)
-        .setRouteId("route id")
-        .setServiceId("service id")
-        .setTripId("t1")
-        .build();
-  }
-
   @Test
   public void fastTravelContiguousStopsShouldGenerateNotice() {
     // sample table descriptions available at:
@@ -96,9 +80,7 @@ public class TooFastTravelValidatorTest {
                 createStop(3, "s1", 0.002),
                 createStop(4, "s2", 0.003)));
 
-    underTest.tripTable = createTripTable(noticeContainer, ImmutableList.of(createTrip()));
-
-    underTest.stopTimeTable =
+    GtfsStopTimeTableContainer stopTimeTable =
         createStopTimeTable(
             noticeContainer,
             ImmutableList.of(
@@ -121,7 +103,7 @@ public class TooFastTravelValidatorTest {
                     GtfsTime.fromSecondsSinceMidnight(15),
                     GtfsTime.fromSecondsSinceMidnight(20))));
 
-    underTest.validate(noticeContainer);
+    underTest.visitAll(stopTimeTable, noticeContainer);
 
     assertThat(noticeContainer.getValidationNotices())
         .containsExactly(new TooFastTravelNotice("t1", 200.15114352186376d, 0, 1));
@@ -142,9 +124,7 @@ public class TooFastTravelValidatorTest {
                 createStop(4, "s2", 0.002),
                 createStop(5, "s3", 0.003)));
 
-    underTest.tripTable = createTripTable(noticeContainer, ImmutableList.of(createTrip()));
-
-    underTest.stopTimeTable =
+    GtfsStopTimeTableContainer stopTimeTable =
         createStopTimeTable(
             noticeContainer,
             ImmutableList.of(
@@ -173,7 +153,7 @@ public class TooFastTravelValidatorTest {
                     GtfsTime.fromSecondsSinceMidnight(11),
                     GtfsTime.fromSecondsSinceMidnight(13))));
 
-    underTest.validate(noticeContainer);
+    underTest.visitAll(stopTimeTable, noticeContainer);
 
     assertThat(noticeContainer.getValidationNotices())
         .containsExactly(new TooFastTravelNotice("t1", 800.604574087455d, 1, 3));
@@ -193,9 +173,7 @@ public class TooFastTravelValidatorTest {
                 createStop(3, "s1", 0.002),
                 createStop(4, "s2", 0.003)));
 
-    underTest.tripTable = createTripTable(noticeContainer, ImmutableList.of(createTrip()));
-
-    underTest.stopTimeTable =
+    GtfsStopTimeTableContainer stopTimeTable =
         createStopTimeTable(
             noticeContainer,
             ImmutableList.of(
@@ -218,7 +196,7 @@ public class TooFastTravelValidatorTest {
                     GtfsTime.fromSecondsSinceMidnight(75),
                     GtfsTime.fromSecondsSinceMidnight(122))));
 
-    underTest.validate(noticeContainer);
+    underTest.visitAll(stopTimeTable, noticeContainer);
 
     assertThat(noticeContainer.getValidationNotices());
   }
@@ -237,9 +215,7 @@ public class TooFastTravelValidatorTest {
                 createStop(3, "s1", 0.001),
                 createStop(4, "s2", 0.002)));
 
-    underTest.tripTable = createTripTable(noticeContainer, ImmutableList.of(createTrip()));
-
-    underTest.stopTimeTable =
+    GtfsStopTimeTableContainer stopTimeTable =
         createStopTimeTable(
             noticeContainer,
             ImmutableList.of(
@@ -257,7 +233,7 @@ public class TooFastTravelValidatorTest {
                     GtfsTime.fromSecondsSinceMidnight(7),
                     GtfsTime.fromSecondsSinceMidnight(12))));
 
-    underTest.validate(noticeContainer);
+    underTest.visitAll(stopTimeTable, noticeContainer);
 
     assertThat(noticeContainer.getValidationNotices())
         .containsExactly(new TooFastTravelNotice("t1", 800.604574087455d, 0, 4));
@@ -277,9 +253,7 @@ public class TooFastTravelValidatorTest {
                 createStop(3, "s1", 0.001),
                 createStop(4, "s2", 0.002)));
 
-    underTest.tripTable = createTripTable(noticeContainer, ImmutableList.of(createTrip()));
-
-    underTest.stopTimeTable =
+    GtfsStopTimeTableContainer stopTimeTable =
         createStopTimeTable(
             noticeContainer,
             ImmutableList.of(
@@ -297,7 +271,7 @@ public class TooFastTravelValidatorTest {
                     GtfsTime.fromSecondsSinceMidnight(55),
                     GtfsTime.fromSecondsSinceMidnight(100))));
 
-    underTest.validate(noticeContainer);
+    underTest.visitAll(stopTimeTable, noticeContainer);
 
     assertThat(noticeContainer.getValidationNotices()).isEmpty();
   }
@@ -316,9 +290,7 @@ public class TooFastTravelValidatorTest {
                 createStop(3, "s1", 0.001),
                 createStop(4, "s2", 0.002)));
 
-    underTest.tripTable = createTripTable(noticeContainer, ImmutableList.of(createTrip()));
-
-    underTest.stopTimeTable =
+    GtfsStopTimeTableContainer stopTimeTable =
         createStopTimeTable(
             noticeContainer,
             ImmutableList.of(
@@ -336,7 +308,7 @@ public class TooFastTravelValidatorTest {
                     GtfsTime.fromSecondsSinceMidnight(7),
                     GtfsTime.fromSecondsSinceMidnight(12))));
 
-    underTest.validate(noticeContainer);
+    underTest.visitAll(stopTimeTable, noticeContainer);
 
     assertThat(noticeContainer.getValidationNotices())
         .containsExactly(new TooFastTravelNotice("t1", 400.3022870437275, 0, 4));
@@ -356,9 +328,7 @@ public class TooFastTravelValidatorTest {
                 createStop(3, "s1", 0.001),
                 createStop(4, "s2", 0.002)));
 
-    underTest.tripTable = createTripTable(noticeContainer, ImmutableList.of(createTrip()));
-
-    underTest.stopTimeTable =
+    GtfsStopTimeTableContainer stopTimeTable =
         createStopTimeTable(
             noticeContainer,
             ImmutableList.of(
@@ -376,7 +346,7 @@ public class TooFastTravelValidatorTest {
                     GtfsTime.fromSecondsSinceMidnight(15),
                     GtfsTime.fromSecondsSinceMidnight(20))));
 
-    underTest.validate(noticeContainer);
+    underTest.visitAll(stopTimeTable, noticeContainer);
 
     assertThat(noticeContainer.getValidationNotices()).isEmpty();
   }
@@ -396,9 +366,7 @@ public class TooFastTravelValidatorTest {
                 createStop(4, "s2", 0.002),
                 createStop(5, "s3", 0.003)));
 
-    underTest.tripTable = createTripTable(noticeContainer, ImmutableList.of(createTrip()));
-
-    underTest.stopTimeTable =
+    GtfsStopTimeTableContainer stopTimeTable =
         createStopTimeTable(
             noticeContainer,
             ImmutableList.of(
@@ -427,7 +395,7 @@ public class TooFastTravelValidatorTest {
                     GtfsTime.fromSecondsSinceMidnight(11),
                     GtfsTime.fromSecondsSinceMidnight(13))));
 
-    underTest.validate(noticeContainer);
+    underTest.visitAll(stopTimeTable, noticeContainer);
 
     assertThat(noticeContainer.getValidationNotices()).isEmpty();
   }
@@ -449,9 +417,7 @@ public class TooFastTravelValidatorTest {
                 createStop(6, "s4", 0.004),
                 createStop(7, "s5", 0.005)));
 
-    underTest.tripTable = createTripTable(noticeContainer, ImmutableList.of(createTrip()));
-
-    underTest.stopTimeTable =
+    GtfsStopTimeTableContainer stopTimeTable =
         createStopTimeTable(
             noticeContainer,
             ImmutableList.of(
@@ -477,7 +443,7 @@ public class TooFastTravelValidatorTest {
                     GtfsTime.fromSecondsSinceMidnight(20),
                     GtfsTime.fromSecondsSinceMidnight(28))));
 
-    underTest.validate(noticeContainer);
+    underTest.visitAll(stopTimeTable, noticeContainer);
 
     assertThat(noticeContainer.getValidationNotices())
         .containsExactly(new TooFastTravelNotice("t1", 600.4534305655912, 0, 3));
@@ -500,9 +466,7 @@ public class TooFastTravelValidatorTest {
                 createStop(6, "s4", 0.004),
                 createStop(7, "s5", 0.005)));
 
-    underTest.tripTable = createTripTable(noticeContainer, ImmutableList.of(createTrip()));
-
-    underTest.stopTimeTable =
+    GtfsStopTimeTableContainer stopTimeTable =
         createStopTimeTable(
             noticeContainer,
             ImmutableList.of(
@@ -528,7 +492,35 @@ public class TooFastTravelValidatorTest {
                     GtfsTime.fromSecondsSinceMidnight(39),
                     GtfsTime.fromSecondsSinceMidnight(44))));
 
-    underTest.validate(noticeContainer);
+    underTest.visitAll(stopTimeTable, noticeContainer);
+    assertThat(noticeContainer.getValidationNotices()).isEmpty();
+  }
+
+  @Test
+  public void unknownStopShouldNotThrow() {
+    NoticeContainer noticeContainer = new NoticeContainer();
+    TooFastTravelValidator underTest = new TooFastTravelValidator();
+    underTest.stopTable =
+        createStopTable(noticeContainer, ImmutableList.of(createStop(2, "s0", 0.001)));
+    GtfsStopTimeTableContainer stopTimeTable =
+        createStopTimeTable(
+            noticeContainer,
+            ImmutableList.of(
+                createStopTime(
+                    4,
+                    "s0",
+                    0,
+                    GtfsTime.fromSecondsSinceMidnight(0),
+                    GtfsTime.fromSecondsSinceMidnight(5)),
+                createStopTime(
+                    5,
+                    "unknown",
+                    1,
+                    GtfsTime.fromSecondsSinceMidnight(7),
+                    GtfsTime.fromSecondsSinceMidnight(9))));
+
+    underTest.visitAll(stopTimeTable, noticeContainer);
+
     assertThat(noticeContainer.getValidationNotices()).isEmpty();
   }
 }
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2021 MobilityData IO
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.validator;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Map;
+import java.util.Set;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mobilitydata.gtfsvalidator.input.GtfsFeedName;
+import org.mobilitydata.gtfsvalidator.input.GtfsInput;
+import org.mobilitydata.gtfsvalidator.notice.NoticeContainer;
+import org.mobilitydata.gtfsvalidator.table.GtfsAgencyTableContainer;
+import org.mobilitydata.gtfsvalidator.table.GtfsEntity;
+import org.mobilitydata.gtfsvalidator.table.GtfsFeedContainer;
+import org.mobilitydata.gtfsvalidator.table.GtfsFeedLoader;
+import org.mobilitydata.gtfsvalidator.table.GtfsRoute;
+import org.mobilitydata.gtfsvalidator.table.GtfsRouteTableContainer;
+import org.mobilitydata.gtfsvalidator.table.GtfsShapeTableContainer;
+import org.mobilitydata.gtfsvalidator.table.GtfsStopTableContainer;
+import org.mobilitydata.gtfsvalidator.table.GtfsStopTime;
+import org.mobilitydata.gtfsvalidator.table.GtfsStopTimeTableContainer;
+import org.mobilitydata.gtfsvalidator.table.GtfsTableContainer;
+import org.mobilitydata.gtfsvalidator.table.GtfsTableContainer.TableStatus;
+import org.mobilitydata.gtfsvalidator.table.GtfsTranslation;
+import org.mobilitydata.gtfsvalidator.table.GtfsTranslationTableContainer;
+
+@RunWith(JUnit4.class)
+public class ValidatorLoaderTest {
+  @Rule public final TemporaryFolder tmpDir = new TemporaryFolder();
+
+  private static final Map<Class<? extends GtfsEntity>, Class<? extends GtfsTableContainer>>
+      TABLE_CONTAINER_CLASSES =
+          ImmutableMap.of(
+              GtfsRoute.class, GtfsRouteTableContainer.class,
+              GtfsStopTime.class, GtfsStopTimeTableContainer.class,
+              GtfsTranslation.class, GtfsTranslationTableContainer.class);
+
+  @Test
+  public void referencedTablesOfEnabledValidators() {
+    Set<String> names = ImmutableSet.of("RouteNameValidator", "TooFastTravelValidator");
+    ValidatorLoader underTest =
+        new ValidatorLoader(validatorClass -> names.contains(validatorClass.getSimpleName()));
+
+    // Routes are checked by a single-entity validator, stop times are visited and stops are
+    // injected into the visitor.
+    assertThat(underTest.getReferencedTables(TABLE_CONTAINER_CLASSES))
+        .containsExactly(
+            GtfsRouteTableContainer.class,
+            GtfsStopTimeTableContainer.class,
+            GtfsStopTableContainer.class);
+    assertThat(underTest.getMultiFileValidators()).isEmpty();
+  }
+
+  @Test
+  public void allValidatorsDoNotReadTranslations() {
+    assertThat(new ValidatorLoader().getReferencedTables(TABLE_CONTAINER_CLASSES))
+        .doesNotContain(GtfsTranslationTableContainer.class);
+  }
+
+  @Test
+  public void foreignKeyValidatorsOfReadTables() {
+    ValidatorLoader underTest =
+        ValidatorLoader.createWithForeignKeyValidators(
+            validatorClass -> validatorClass == RouteNameValidator.class,
+            new GtfsFeedLoader().getTableContainerClasses());
+
+    // Routes are read, so their references to agencies are checked, but shapes are not read.
+    assertThat(underTest.getMultiFileValidators())
+        .containsExactly(GtfsRouteAgencyIdForeignKeyValidator.class);
+    assertThat(underTest.getReferencedTables(TABLE_CONTAINER_CLASSES))
+        .containsExactly(GtfsRouteTableContainer.class, GtfsAgencyTableContainer.class);
+  }
+
+  @Test
+  public void unreadShapesAreNotLoaded() throws IOException {
+    writeFile(
+        "agency.txt",
+        "agency_id,agency_name,agency_url,agency_timezone\n"
+            + "a1,Agency,https://example.com,Europe/Amsterdam\n");
+    writeFile("routes.txt", "route_id,agency_id,route_short_name,route_type\nr1,a1,1,3\n");
+    writeFile(
+        "shapes.txt", "shape_id,shape_pt_lat,shape_pt_lon,shape_pt_sequence\nsh1,52.0,4.0,1\n");
+    GtfsFeedLoader feedLoader = new GtfsFeedLoader();
+    feedLoader.setReferencedTablesOnly(true);
+    ValidatorLoader validatorLoader =
+        ValidatorLoader.createWithForeignKeyValidators(
+            validatorClass -> validatorClass == RouteNameValidator.class,
+            feedLoader.getTableContainerClasses());
+
+    GtfsFeedContainer feedContainer;
+    try (GtfsInput gtfsInput = GtfsInput.createFromPath(tmpDir.getRoot().toPath())) {
+      feedContainer =
+          feedLoader.loadAndValidate(
+              gtfsInput,
+              ValidationContext.builder()
+                  .setFeedName(GtfsFeedName.parseString("nl-test"))
+                  .setNow(ZonedDateTime.of(2021, 1, 1, 14, 30, 0, 0, ZoneOffset.UTC))
+                  .build(),
+              validatorLoader,
+              new NoticeContainer());
+    }
+
+    assertThat(feedContainer.getTable(GtfsRouteTableContainer.class).entityCount()).isEqualTo(1);
+    assertThat(feedContainer.getTable(GtfsShapeTableContainer.class).getTableStatus())
+        .isEqualTo(TableStatus.SCANNED_WITHOUT_ENTITIES);
+    assertThat(feedContainer.getTable(GtfsShapeTableContainer.class).entityCount()).isEqualTo(0);
+  }
+
+  private void writeFile(String filename, String content) throws IOException {
+    Files.write(
+        tmpDir.getRoot().toPath().resolve(filename), content.getBytes(StandardCharsets.UTF_8));
+  }
+}
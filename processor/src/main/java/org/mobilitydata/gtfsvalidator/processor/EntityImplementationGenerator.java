@@ -19,6 +19,7 @@ package org.mobilitydata.gtfsvalidator.processor;
 import static org.mobilitydata.gtfsvalidator.processor.FieldNameConverter.fieldDefaultName;
 import static org.mobilitydata.gtfsvalidator.processor.FieldNameConverter.getValueMethodName;
 import static org.mobilitydata.gtfsvalidator.processor.FieldNameConverter.getterMethodName;
+import static org.mobilitydata.gtfsvalidator.processor.FieldNameConverter.gtfsColumnName;
 import static org.mobilitydata.gtfsvalidator.processor.FieldNameConverter.hasMethodName;
 import static org.mobilitydata.gtfsvalidator.processor.FieldNameConverter.setterMethodName;
 import static org.mobilitydata.gtfsvalidator.processor.GtfsEntityClasses.TABLE_PACKAGE_NAME;
@@ -197,6 +198,13 @@ public class EntityImplementationGenerator {
       typeSpec.addSuperinterface(superinterface);
     }
 
+    if (fileDescriptor.columnar()) {
+      addDefaultValueFields(typeSpec);
+      addColumnarViewMembers(typeSpec);
+      typeSpec.addType(generateGtfsEntityBuilderClass());
+      return typeSpec.build();
+    }
+
     addEntityOrBuilderFields(typeSpec);
     addDefaultValueFields(typeSpec);
 
@@ -221,6 +229,100 @@ public class EntityImplementationGenerator {
     return typeSpec.build();
   }
 
+  /**
+   * Adds fields, getters and {@code equals}/{@code hashCode} for an entity of a columnar table.
+   * Such an entity is a view of a single row in a {@code Columns} storage.
+   */
+  private void addColumnarViewMembers(TypeSpec.Builder typeSpec) {
+    TypeName columnsType = classNames.columnsTypeName();
+    typeSpec.addField(columnsType, "columns", Modifier.PRIVATE, Modifier.FINAL);
+    typeSpec.addField(int.class, "row", Modifier.PRIVATE, Modifier.FINAL);
+    typeSpec.addMethod(
+        MethodSpec.constructorBuilder()
+            .addParameter(columnsType, "columns")
+            .addParameter(int.class, "row")
+            .addStatement("this.columns = columns")
+            .addStatement("this.row = row")
+            .build());
+
+    typeSpec.addMethod(
+        MethodSpec.methodBuilder(getterMethodName(CSV_ROW_NUMBER))
+            .addModifiers(Modifier.PUBLIC)
+            .returns(long.class)
+            .addAnnotation(Override.class)
+            .addStatement("return columns.$L(row)", CSV_ROW_NUMBER)
+            .build());
+    for (GtfsFieldDescriptor field : fileDescriptor.fields()) {
+      MethodSpec.Builder getter =
+          MethodSpec.methodBuilder(getterMethodName(field.name()))
+              .addModifiers(Modifier.PUBLIC)
+              .returns(TypeName.get(field.javaType()))
+              .addAnnotation(Override.class);
+      if (field.type() == FieldTypeEnum.ENUM) {
+        getter
+            .addStatement(
+                "$T result = $T.forNumber(columns.$L(row))",
+                field.javaType(),
+                field.javaType(),
+                getValueMethodName(field.name()))
+            .addStatement("return result == null ? $T.UNRECOGNIZED : result", field.javaType());
+        typeSpec.addMethod(getter.build());
+        typeSpec.addMethod(
+            MethodSpec.methodBuilder(getValueMethodName(field.name()))
+                .addModifiers(Modifier.PUBLIC)
+                .returns(int.class)
+                .addStatement("return columns.$L(row)", getValueMethodName(field.name()))
+                .build());
+      } else {
+        getter.addStatement("return columns.$L(row)", field.name());
+        typeSpec.addMethod(getter.build());
+      }
+      String primitiveMethodName = TableColumnsGenerator.primitiveMethodName(field);
+      if (primitiveMethodName != null) {
+        typeSpec.addMethod(
+            MethodSpec.methodBuilder(primitiveMethodName)
+                .addJavadoc(
+                    "Returns $L as it is stored in the table, without creating a $T.\n",
+                    gtfsColumnName(field.name()),
+                    field.javaType())
+                .addModifiers(Modifier.PUBLIC)
+                .returns(int.class)
+                .addStatement("return columns.$L(row)", primitiveMethodName)
+                .build());
+      }
+      typeSpec.addMethod(
+          MethodSpec.methodBuilder(hasMethodName(field.name()))
+              .addModifiers(Modifier.PUBLIC)
+              .returns(boolean.class)
+              .addStatement("return columns.$L(row)", hasMethodName(field.name()))
+              .build());
+    }
+
+    typeSpec.addMethod(
+        MethodSpec.methodBuilder("equals")
+            .addAnnotation(Override.class)
+            .addModifiers(Modifier.PUBLIC)
+            .addParameter(Object.class, "obj")
+            .returns(boolean.class)
+            .beginControlFlow(
+                "if (!(obj instanceof $T))", classNames.entityImplementationTypeName())
+            .addStatement("return false")
+            .endControlFlow()
+            .addStatement(
+                "$T other = ($T) obj",
+                classNames.entityImplementationTypeName(),
+                classNames.entityImplementationTypeName())
+            .addStatement("return columns == other.columns && row == other.row")
+            .build());
+    typeSpec.addMethod(
+        MethodSpec.methodBuilder("hashCode")
+            .addAnnotation(Override.class)
+            .addModifiers(Modifier.PUBLIC)
+            .returns(int.class)
+            .addStatement("return 31 * System.identityHashCode(columns) + row")
+            .build());
+  }
+
   private MethodSpec generateGetterMethod(GtfsFieldDescriptor field) {
     MethodSpec.Builder method =
         MethodSpec.methodBuilder(getterMethodName(field.name()))
@@ -307,6 +409,7 @@ public class EntityImplementationGenerator {
                   "$L |= $L", bitFieldForFieldNumber(fieldNumber), maskForFieldNumber(fieldNumber))
               .addStatement("return this")
               .build());
+      typeSpec.addMethod(generateHasMethod(field, fieldNumber));
       ++fieldNumber;
     }
 
@@ -318,6 +421,15 @@ public class EntityImplementationGenerator {
 
   private MethodSpec generateBuilderBuildMethod() {
     TypeName gtfsEntityType = classNames.entityImplementationTypeName();
+    if (fileDescriptor.columnar()) {
+      // A standalone entity of a columnar table is backed by its own single-row storage. Table
+      // loaders do not call this method: they append builders to the table storage directly.
+      return MethodSpec.methodBuilder("build")
+          .addModifiers(Modifier.PUBLIC)
+          .returns(gtfsEntityType)
+          .addStatement("return new $T(1).append(this)", classNames.columnsTypeName())
+          .build();
+    }
     MethodSpec.Builder buildMethod =
         MethodSpec.methodBuilder("build")
             .addModifiers(Modifier.PUBLIC)
@@ -44,8 +44,8 @@ public final class FieldNameConverter {
     return "by" + StringUtils.capitalize(field);
   }
 
-  public static String byKeyMapName(String field) {
-    return "by" + StringUtils.capitalize(field) + "Map";
+  public static String byKeyIndexName(String field) {
+    return "by" + StringUtils.capitalize(field) + "Index";
   }
 
   public static String gtfsColumnName(String javaFieldName) {
@@ -16,9 +16,13 @@
 
 package org.mobilitydata.gtfsvalidator.processor;
 
+import com.squareup.javapoet.AnnotationSpec;
+import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.JavaFile;
 import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -27,16 +31,26 @@ import java.util.Map;
 import javax.inject.Inject;
 import javax.lang.model.element.Modifier;
 import org.apache.commons.lang3.StringUtils;
+import org.mobilitydata.gtfsvalidator.annotation.FieldTypeEnum;
+import org.mobilitydata.gtfsvalidator.annotation.ForeignKeyValidator;
 import org.mobilitydata.gtfsvalidator.annotation.Generated;
 import org.mobilitydata.gtfsvalidator.annotation.GtfsValidator;
 import org.mobilitydata.gtfsvalidator.notice.ForeignKeyError;
 import org.mobilitydata.gtfsvalidator.notice.NoticeContainer;
+import org.mobilitydata.gtfsvalidator.table.IdDictionary;
+import org.mobilitydata.gtfsvalidator.table.KeySet;
 import org.mobilitydata.gtfsvalidator.validator.FileValidator;
+import org.mobilitydata.gtfsvalidator.validator.RowFilter;
+import org.mobilitydata.gtfsvalidator.validator.ValidationContext;
 
 /**
  * Generates a validator class to check reference integrity for a foreign key.
  *
  * <p>A foreign key constraint is added with {@code @ForeignKey} annotation in GTFS schema.
+ *
+ * <p>The validator looks child keys up in a {@code KeySet} of the parent column that is shared by
+ * all validators of that column. Child rows are checked with {@code RowFilter}, so large tables
+ * are checked in parallel chunks, and IDs of columnar tables are checked by their ordinals.
  */
 public class ForeignKeyValidatorGenerator {
   private static final String VALIDATOR_PACKAGE_NAME = "org.mobilitydata.gtfsvalidator.validator";
@@ -89,6 +103,11 @@ public class ForeignKeyValidatorGenerator {
             .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
             .addAnnotation(Generated.class)
             .addAnnotation(GtfsValidator.class)
+            .addAnnotation(
+                AnnotationSpec.builder(ForeignKeyValidator.class)
+                    .addMember("parentTable", "$T.class", parentClasses.tableContainerTypeName())
+                    .addMember("childTable", "$T.class", childClasses.tableContainerTypeName())
+                    .build())
             .superclass(FileValidator.class);
 
     typeSpec.addField(
@@ -99,57 +118,96 @@ public class ForeignKeyValidatorGenerator {
         FieldSpec.builder(childClasses.tableContainerTypeName(), "childContainer")
             .addAnnotation(Inject.class)
             .build());
+    typeSpec.addField(
+        FieldSpec.builder(ValidationContext.class, "validationContext")
+            .addAnnotation(Inject.class)
+            .build());
 
+    if (!parentField.primaryKey() && !parentField.firstKey() && !parentField.index()) {
+      reportWarning(
+          "Parent field "
+              + FieldNameConverter.gtfsColumnName(parentField.name())
+              + " in "
+              + parentFile.filename()
+              + " must be annotated with @PrimaryKey, @FirstKey or @Index");
+    }
+
+    TypeName childEntityType = childClasses.entityImplementationTypeName();
     MethodSpec.Builder validateMethod =
         MethodSpec.methodBuilder("validate")
             .addModifiers(Modifier.PUBLIC)
             .addAnnotation(Override.class)
             .returns(void.class)
             .addParameter(NoticeContainer.class, "noticeContainer")
-            .beginControlFlow(
-                "for ($T childEntity: childContainer.getEntities())",
-                childClasses.entityImplementationTypeName())
-            .beginControlFlow(
-                "if (!childEntity.$L())", FieldNameConverter.hasMethodName(childField.name()))
-            .addStatement("continue")
-            .endControlFlow()
-            .addStatement("String childKey = childEntity.$L()", childField.name())
-            .beginControlFlow("if (!hasReferencedKey(childKey, parentContainer))")
+            .addCode(
+                "// The key set is shared by all validators that refer to the same parent"
+                    + " column.\n")
+            .addStatement(
+                "final $T parentKeys = parentContainer.getKeySet($S,"
+                    + " validationContext.idDictionary(), $T::$L)",
+                KeySet.class,
+                FieldNameConverter.gtfsColumnName(parentField.name()),
+                parentClasses.entityImplementationTypeName(),
+                parentField.name())
             .addStatement(
-                "noticeContainer.addValidationNotice(new $T($S, $S, $S, $S, childKey,"
-                    + " childEntity.csvRowNumber()))",
-                ForeignKeyError.class,
-                childFile.filename(),
-                FieldNameConverter.gtfsColumnName(childField.name()),
-                parentFile.filename(),
-                FieldNameConverter.gtfsColumnName(parentField.name()))
-            .endControlFlow()
-            .endControlFlow();
+                "final $T children = childContainer.getEntities()",
+                ParameterizedTypeName.get(ClassName.get(List.class), childEntityType));
+    if (childFile.columnar() && childField.type() == FieldTypeEnum.ID) {
+      TypeName columnsType = childClasses.columnsTypeName();
+      validateMethod
+          .addStatement("final int[] missingRows")
+          .beginControlFlow(
+              "if (children instanceof $T && (($T) children).idDictionary() =="
+                  + " parentKeys.getDictionary())",
+              columnsType,
+              columnsType)
+          .addCode("// Check ordinals of IDs without decoding them.\n")
+          .addStatement("final $T columns = ($T) children", columnsType, columnsType)
+          .addStatement(
+              "missingRows = $T.findRows(children.size(), row -> {"
+                  + " final int ordinal = columns.$L(row);"
+                  + " return ordinal != $T.NO_ID && !parentKeys.containsOrdinal(ordinal); })",
+              RowFilter.class,
+              TableColumnsGenerator.ordinalMethodName(childField),
+              IdDictionary.class)
+          .nextControlFlow("else")
+          .addStatement(
+              "missingRows = $T.findRows(children.size(), row -> isMissing(children.get(row),"
+                  + " parentKeys))",
+              RowFilter.class)
+          .endControlFlow();
+    } else {
+      validateMethod.addStatement(
+          "final int[] missingRows = $T.findRows(children.size(),"
+              + " row -> isMissing(children.get(row), parentKeys))",
+          RowFilter.class);
+    }
+    validateMethod
+        .beginControlFlow("for (int row : missingRows)")
+        .addStatement("final $T childEntity = children.get(row)", childEntityType)
+        .addStatement(
+            "noticeContainer.addValidationNotice(new $T($S, $S, $S, $S, childEntity.$L(),"
+                + " childEntity.csvRowNumber()))",
+            ForeignKeyError.class,
+            childFile.filename(),
+            FieldNameConverter.gtfsColumnName(childField.name()),
+            parentFile.filename(),
+            FieldNameConverter.gtfsColumnName(parentField.name()),
+            childField.name())
+        .endControlFlow();
     typeSpec.addMethod(validateMethod.build());
 
-    MethodSpec.Builder hasReferencedKeyMethod =
-        MethodSpec.methodBuilder("hasReferencedKey")
-            .addModifiers(Modifier.PRIVATE, Modifier.FINAL)
+    typeSpec.addMethod(
+        MethodSpec.methodBuilder("isMissing")
+            .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
             .returns(boolean.class)
-            .addParameter(String.class, "key")
-            .addParameter(parentClasses.tableContainerTypeName(), "parentContainer");
-    if (parentField.primaryKey()) {
-      hasReferencedKeyMethod.addStatement(
-          "return parentContainer.$L(key) != null",
-          FieldNameConverter.byKeyMethodName(parentField.name()));
-    } else if (parentField.firstKey() || parentField.index()) {
-      hasReferencedKeyMethod.addStatement(
-          "return !parentContainer.$L(key).isEmpty()",
-          FieldNameConverter.byKeyMethodName(parentField.name()));
-    } else {
-      reportWarning(
-          "Parent field "
-              + FieldNameConverter.gtfsColumnName(parentField.name())
-              + " in "
-              + parentFile.filename()
-              + " must be annotated with @PrimaryKey, @FirstKey or @Index");
-    }
-    typeSpec.addMethod(hasReferencedKeyMethod.build());
+            .addParameter(childEntityType, "childEntity")
+            .addParameter(KeySet.class, "parentKeys")
+            .addStatement(
+                "return childEntity.$L() && !parentKeys.contains(childEntity.$L())",
+                FieldNameConverter.hasMethodName(childField.name()),
+                childField.name())
+            .build());
 
     return JavaFile.builder(VALIDATOR_PACKAGE_NAME, typeSpec.build()).build();
   }
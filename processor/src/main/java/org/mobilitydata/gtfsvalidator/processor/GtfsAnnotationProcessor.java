@@ -99,6 +99,9 @@ public class GtfsAnnotationProcessor extends AbstractProcessor {
       writeJavaFile(new EntityImplementationGenerator(fileDescriptor).generateGtfsEntityJavaFile());
       writeJavaFile(new TableLoaderGenerator(fileDescriptor).generateGtfsTableLoaderJavaFile());
       writeJavaFile(new TableContainerGenerator(fileDescriptor).generateGtfsContainerJavaFile());
+      if (fileDescriptor.columnar()) {
+        writeJavaFile(new TableColumnsGenerator(fileDescriptor).generateColumnsJavaFile());
+      }
     }
     ForeignKeyValidatorGenerator foreignKeyValidatorGenerator =
         new ForeignKeyValidatorGenerator(fileDescriptors);
@@ -58,6 +58,10 @@ public final class GtfsEntityClasses {
     return className + "TableContainer";
   }
 
+  public String columnsSimpleName() {
+    return className + "Columns";
+  }
+
   public TypeName entityImplementationTypeName() {
     return ClassName.get(TABLE_PACKAGE_NAME, entityImplementationSimpleName());
   }
@@ -66,6 +70,10 @@ public final class GtfsEntityClasses {
     return ClassName.get(TABLE_PACKAGE_NAME, entityImplementationSimpleName() + ".Builder");
   }
 
+  public TypeName columnsTypeName() {
+    return ClassName.get(TABLE_PACKAGE_NAME, columnsSimpleName());
+  }
+
   public TypeName tableLoaderTypeName() {
     return ClassName.get(TABLE_PACKAGE_NAME, tableLoaderSimpleName());
   }
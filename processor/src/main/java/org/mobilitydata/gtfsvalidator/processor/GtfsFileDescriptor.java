@@ -21,6 +21,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import java.util.Optional;
 import javax.lang.model.type.TypeMirror;
+import org.mobilitydata.gtfsvalidator.annotation.TableStorageEnum;
 
 /** Describes a GTFS file (CSV table), e.g., "stops.txt". */
 @AutoValue
@@ -38,6 +39,12 @@ public abstract class GtfsFileDescriptor {
 
   public abstract boolean singleRow();
 
+  public abstract TableStorageEnum storage();
+
+  public boolean columnar() {
+    return storage() == TableStorageEnum.COLUMNAR;
+  }
+
   public abstract ImmutableList<GtfsFieldDescriptor> fields();
 
   public abstract ImmutableMap<String, GtfsFieldDescriptor> fieldByName();
@@ -66,6 +73,8 @@ public abstract class GtfsFileDescriptor {
 
     public abstract Builder setSingleRow(boolean value);
 
+    public abstract Builder setStorage(TableStorageEnum value);
+
     public abstract ImmutableList.Builder<GtfsFieldDescriptor> fieldsBuilder();
 
     abstract ImmutableList<GtfsFieldDescriptor> fields();
@@ -0,0 +1,480 @@
+/*
+ * Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.processor;
+
+import static org.mobilitydata.gtfsvalidator.processor.FieldNameConverter.getValueMethodName;
+import static org.mobilitydata.gtfsvalidator.processor.FieldNameConverter.gtfsColumnName;
+import static org.mobilitydata.gtfsvalidator.processor.FieldNameConverter.hasMethodName;
+import static org.mobilitydata.gtfsvalidator.processor.GtfsEntityClasses.TABLE_PACKAGE_NAME;
+
+import com.google.common.base.Preconditions;
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.WildcardTypeName;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.RandomAccess;
+import javax.lang.model.element.Modifier;
+import org.mobilitydata.gtfsvalidator.annotation.FieldTypeEnum;
+import org.mobilitydata.gtfsvalidator.annotation.Generated;
+import org.mobilitydata.gtfsvalidator.table.ColumnValues;
+import org.mobilitydata.gtfsvalidator.table.IdDictionary;
+
+/**
+ * Generates a columnar storage for a GTFS table with {@code TableStorageEnum.COLUMNAR} layout.
+ *
+ * <p>The storage keeps every column in a separate array: times, dates, colors, integers and enums
+ * in {@code int[]}, floats and coordinates in {@code double[]}, IDs in {@code int[]} with ordinals
+ * from an {@code IdDictionary} and other types in object arrays. Presence of values is stored
+ * in a {@code long[]} bitmap. The storage implements {@code List} of entities that are lightweight views
+ * into the arrays.
+ *
+ * <p>E.g., GtfsStopTimeColumns class is generated for "stop_times.txt".
+ */
+public class TableColumnsGenerator {
+  private static final String CSV_ROW_NUMBER = "csvRowNumber";
+  private static final String PRESENCE = "presence";
+  private static final String DICTIONARY = "dictionary";
+  private static final int DEFAULT_CAPACITY = 16;
+
+  private final GtfsFileDescriptor fileDescriptor;
+  private final GtfsEntityClasses classNames;
+
+  public TableColumnsGenerator(GtfsFileDescriptor fileDescriptor) {
+    Preconditions.checkArgument(fileDescriptor.columnar());
+    this.fileDescriptor = fileDescriptor;
+    this.classNames = new GtfsEntityClasses(fileDescriptor);
+  }
+
+  /** Type of an element of the array that stores the given field. */
+  private static TypeName columnElementType(GtfsFieldDescriptor field) {
+    switch (field.type()) {
+      case ID:
+      case TIME:
+      case DATE:
+      case COLOR:
+      case INTEGER:
+      case ENUM:
+        return TypeName.INT;
+      case FLOAT:
+      case LATITUDE:
+      case LONGITUDE:
+        return TypeName.DOUBLE;
+      default:
+        return TypeName.get(field.javaType());
+    }
+  }
+
+  /** Converts {@code value} of a builder or entity field to a column element. */
+  private static CodeBlock encodeValue(GtfsFieldDescriptor field, CodeBlock value) {
+    switch (field.type()) {
+      case ID:
+        return CodeBlock.of("$L.encode($L)", DICTIONARY, value);
+      case TIME:
+        return CodeBlock.of("$T.encodeTime($L)", ColumnValues.class, value);
+      case DATE:
+        return CodeBlock.of("$T.encodeDate($L)", ColumnValues.class, value);
+      case COLOR:
+        return CodeBlock.of("$T.encodeColor($L)", ColumnValues.class, value);
+      default:
+        return value;
+    }
+  }
+
+  /** Converts a column element at {@code row} to a value of the entity getter. */
+  private static CodeBlock decodeValue(GtfsFieldDescriptor field) {
+    switch (field.type()) {
+      case ID:
+        return CodeBlock.of("$L.decode($L[row])", DICTIONARY, field.name());
+      case TIME:
+        return CodeBlock.of("$T.decodeTime($L[row])", ColumnValues.class, field.name());
+      case DATE:
+        return CodeBlock.of("$T.decodeDate($L[row])", ColumnValues.class, field.name());
+      case COLOR:
+        return CodeBlock.of("$T.decodeColor($L[row])", ColumnValues.class, field.name());
+      default:
+        return CodeBlock.of("$L[row]", field.name());
+    }
+  }
+
+  /** Name of the public method that returns the ordinal of an ID, e.g., {@code stopIdOrdinal}. */
+  static String ordinalMethodName(GtfsFieldDescriptor field) {
+    return field.name() + "Ordinal";
+  }
+
+  /**
+   * Name of the method that returns a time or a date as the primitive that is stored in the
+   * column, e.g., {@code arrivalTimeSecondsSinceMidnight}, or null for other types.
+   */
+  static String primitiveMethodName(GtfsFieldDescriptor field) {
+    switch (field.type()) {
+      case TIME:
+        return field.name() + "SecondsSinceMidnight";
+      case DATE:
+        return field.name() + "EpochDay";
+      default:
+        return null;
+    }
+  }
+
+  /** Name of the method that returns a value stored in the column. */
+  private static String columnGetterName(GtfsFieldDescriptor field) {
+    return field.type() == FieldTypeEnum.ENUM ? getValueMethodName(field.name()) : field.name();
+  }
+
+  public JavaFile generateColumnsJavaFile() {
+    return JavaFile.builder(TABLE_PACKAGE_NAME, generateColumnsClass()).build();
+  }
+
+  public TypeSpec generateColumnsClass() {
+    TypeName gtfsEntityType = classNames.entityImplementationTypeName();
+    TypeSpec.Builder typeSpec =
+        TypeSpec.classBuilder(classNames.columnsSimpleName())
+            .superclass(
+                ParameterizedTypeName.get(ClassName.get(AbstractList.class), gtfsEntityType))
+            .addSuperinterface(RandomAccess.class)
+            .addAnnotation(Generated.class)
+            .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+            .addJavadoc(
+                "Columnar storage for $S. Entities returned by this list are views into its"
+                    + " arrays.\n",
+                fileDescriptor.filename());
+
+    typeSpec.addField(
+        FieldSpec.builder(
+                int.class, "FIELD_COUNT", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+            .initializer("$L", fileDescriptor.fields().size())
+            .build());
+    typeSpec.addField(
+        FieldSpec.builder(
+                int.class, "DEFAULT_CAPACITY", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+            .initializer("$L", DEFAULT_CAPACITY)
+            .build());
+    typeSpec.addField(
+        FieldSpec.builder(IdDictionary.class, DICTIONARY, Modifier.PRIVATE, Modifier.FINAL)
+            .build());
+    typeSpec.addField(int.class, "size", Modifier.PRIVATE);
+    typeSpec.addField(long[].class, CSV_ROW_NUMBER, Modifier.PRIVATE);
+    for (GtfsFieldDescriptor field : fileDescriptor.fields()) {
+      typeSpec.addField(ArrayTypeName.of(columnElementType(field)), field.name(), Modifier.PRIVATE);
+    }
+    typeSpec.addField(long[].class, PRESENCE, Modifier.PRIVATE);
+
+    typeSpec.addMethod(
+        MethodSpec.constructorBuilder()
+            .addModifiers(Modifier.PUBLIC)
+            .addStatement("this(new $T(), 0)", IdDictionary.class)
+            .build());
+    typeSpec.addMethod(
+        MethodSpec.constructorBuilder()
+            .addModifiers(Modifier.PUBLIC)
+            .addParameter(IdDictionary.class, DICTIONARY)
+            .addStatement("this($L, 0)", DICTIONARY)
+            .build());
+    typeSpec.addMethod(
+        MethodSpec.constructorBuilder()
+            .addModifiers(Modifier.PUBLIC)
+            .addParameter(int.class, "initialCapacity")
+            .addStatement("this(new $T(), initialCapacity)", IdDictionary.class)
+            .build());
+    typeSpec.addMethod(generateConstructorWithCapacity());
+    typeSpec.addMethod(
+        MethodSpec.methodBuilder("size")
+            .addAnnotation(Override.class)
+            .addModifiers(Modifier.PUBLIC)
+            .returns(int.class)
+            .addStatement("return size")
+            .build());
+    typeSpec.addMethod(
+        MethodSpec.methodBuilder("get")
+            .addAnnotation(Override.class)
+            .addModifiers(Modifier.PUBLIC)
+            .addParameter(int.class, "index")
+            .returns(gtfsEntityType)
+            .addStatement("$T.checkElementIndex(index, size)", Preconditions.class)
+            .addStatement("return new $T(this, index)", gtfsEntityType)
+            .build());
+    typeSpec.addMethod(
+        generateAppendMethod(
+            "append",
+            classNames.entityBuilderTypeName(),
+            "builder",
+            false,
+            "Appends a row with values of a builder and returns a view for it."));
+    typeSpec.addMethod(
+        generateAppendMethod(
+            "appendEntity", gtfsEntityType, "entity", true, "Appends a copy of an entity."));
+    typeSpec.addMethod(
+        MethodSpec.methodBuilder("add")
+            .addAnnotation(Override.class)
+            .addModifiers(Modifier.PUBLIC)
+            .addParameter(gtfsEntityType, "entity")
+            .returns(boolean.class)
+            .addStatement("appendEntity(entity)")
+            .addStatement("return true")
+            .build());
+    typeSpec.addMethod(generateAddAllMethod());
+    typeSpec.addMethod(
+        MethodSpec.methodBuilder("idDictionary")
+            .addJavadoc("Returns the dictionary that encodes ID columns.\n")
+            .addModifiers(Modifier.PUBLIC)
+            .returns(IdDictionary.class)
+            .addStatement("return $L", DICTIONARY)
+            .build());
+
+    typeSpec.addMethod(
+        MethodSpec.methodBuilder(CSV_ROW_NUMBER)
+            .addParameter(int.class, "row")
+            .returns(long.class)
+            .addStatement("return $L[row]", CSV_ROW_NUMBER)
+            .build());
+    int fieldNumber = 0;
+    for (GtfsFieldDescriptor field : fileDescriptor.fields()) {
+      typeSpec.addMethod(
+          MethodSpec.methodBuilder(columnGetterName(field))
+              .addParameter(int.class, "row")
+              .returns(
+                  field.type() == FieldTypeEnum.ENUM
+                      ? TypeName.INT
+                      : TypeName.get(field.javaType()))
+              .addStatement("return $L", decodeValue(field))
+              .build());
+      typeSpec.addMethod(
+          MethodSpec.methodBuilder(hasMethodName(field.name()))
+              .addParameter(int.class, "row")
+              .returns(boolean.class)
+              .addStatement("return isPresent(row, $L)", fieldNumber)
+              .build());
+      if (primitiveMethodName(field) != null) {
+        // Lets validators compare times and dates without allocating value objects.
+        typeSpec.addMethod(
+            MethodSpec.methodBuilder(primitiveMethodName(field))
+                .addParameter(int.class, "row")
+                .returns(int.class)
+                .addStatement("return $L[row]", field.name())
+                .build());
+      }
+      if (field.type() == FieldTypeEnum.ID) {
+        // Lets validators check IDs without decoding them, e.g., against a KeySet.
+        typeSpec.addMethod(
+            MethodSpec.methodBuilder(ordinalMethodName(field))
+                .addJavadoc(
+                    "Returns the ordinal of $L in {@link #idDictionary()} or {@code"
+                        + " IdDictionary.NO_ID} if the value is not set.\n",
+                    gtfsColumnName(field.name()))
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(int.class, "row")
+                .returns(int.class)
+                .addStatement("$T.checkElementIndex(row, size)", Preconditions.class)
+                .addStatement(
+                    "return isPresent(row, $L) ? $L[row] : $T.NO_ID",
+                    fieldNumber,
+                    field.name(),
+                    IdDictionary.class)
+                .build());
+      }
+      ++fieldNumber;
+    }
+
+    typeSpec.addMethod(generateNewRowMethod());
+    typeSpec.addMethod(generateGrowMethod());
+    typeSpec.addMethod(
+        MethodSpec.methodBuilder("presenceWords")
+            .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+            .addParameter(int.class, "capacity")
+            .returns(int.class)
+            .addStatement("return (int) (((long) capacity * FIELD_COUNT + 63) >>> 6)")
+            .build());
+    typeSpec.addMethod(
+        MethodSpec.methodBuilder("isPresent")
+            .addModifiers(Modifier.PRIVATE)
+            .addParameter(int.class, "row")
+            .addParameter(int.class, "field")
+            .returns(boolean.class)
+            .addStatement("long bit = (long) row * FIELD_COUNT + field")
+            .addStatement("return ($L[(int) (bit >>> 6)] & (1L << bit)) != 0", PRESENCE)
+            .build());
+    typeSpec.addMethod(
+        MethodSpec.methodBuilder("setPresent")
+            .addModifiers(Modifier.PRIVATE)
+            .addParameter(int.class, "row")
+            .addParameter(int.class, "field")
+            .addStatement("long bit = (long) row * FIELD_COUNT + field")
+            .addStatement("$L[(int) (bit >>> 6)] |= 1L << bit", PRESENCE)
+            .build());
+
+    return typeSpec.build();
+  }
+
+  private MethodSpec generateConstructorWithCapacity() {
+    MethodSpec.Builder method =
+        MethodSpec.constructorBuilder()
+            .addJavadoc(
+                "Creates a storage that encodes IDs with the given dictionary, usually the"
+                    + " dictionary of the feed.\n")
+            .addModifiers(Modifier.PUBLIC)
+            .addParameter(IdDictionary.class, DICTIONARY)
+            .addParameter(int.class, "initialCapacity")
+            .addStatement("this.$L = $L", DICTIONARY, DICTIONARY)
+            .addStatement("$L = new long[initialCapacity]", CSV_ROW_NUMBER);
+    for (GtfsFieldDescriptor field : fileDescriptor.fields()) {
+      method.addStatement(
+          "$L = new $T[initialCapacity]", field.name(), columnElementType(field));
+    }
+    method.addStatement("$L = new long[presenceWords(initialCapacity)]", PRESENCE);
+    return method.build();
+  }
+
+  private MethodSpec generateAppendMethod(
+      String methodName, TypeName sourceType, String source, boolean isEntity, String javadoc) {
+    MethodSpec.Builder method =
+        MethodSpec.methodBuilder(methodName)
+            .addJavadoc(javadoc + "\n")
+            .addModifiers(Modifier.PUBLIC)
+            .addParameter(sourceType, source)
+            .returns(classNames.entityImplementationTypeName())
+            .addStatement("final int row = newRow()")
+            .addStatement("$L[row] = $L.$L()", CSV_ROW_NUMBER, source, CSV_ROW_NUMBER);
+    int fieldNumber = 0;
+    for (GtfsFieldDescriptor field : fileDescriptor.fields()) {
+      String getter =
+          isEntity && field.type() == FieldTypeEnum.ENUM
+              ? getValueMethodName(field.name())
+              : field.name();
+      method.addStatement(
+          "$L[row] = $L",
+          field.name(),
+          encodeValue(field, CodeBlock.of("$L.$L()", source, getter)));
+      method
+          .beginControlFlow("if ($L.$L())", source, hasMethodName(field.name()))
+          .addStatement("setPresent(row, $L)", fieldNumber)
+          .endControlFlow();
+      ++fieldNumber;
+    }
+    method.addStatement("return new $T(this, row)", classNames.entityImplementationTypeName());
+    return method.build();
+  }
+
+  private MethodSpec generateAddAllMethod() {
+    TypeName columnsType = classNames.columnsTypeName();
+    MethodSpec.Builder method =
+        MethodSpec.methodBuilder("addAll")
+            .addAnnotation(Override.class)
+            .addModifiers(Modifier.PUBLIC)
+            .addParameter(
+                ParameterizedTypeName.get(
+                    ClassName.get(Collection.class),
+                    WildcardTypeName.subtypeOf(classNames.entityImplementationTypeName())),
+                "entities")
+            .returns(boolean.class)
+            .beginControlFlow("if (!(entities instanceof $T))", columnsType)
+            .addStatement("return super.addAll(entities)")
+            .endControlFlow()
+            .addCode(
+                "// Copy whole columns. IDs are re-encoded only if the tables have different"
+                    + " dictionaries.\n")
+            .addStatement("final $T other = ($T) entities", columnsType, columnsType)
+            .beginControlFlow("if (other.size == 0)")
+            .addStatement("return false")
+            .endControlFlow()
+            .addStatement("final int base = size")
+            .addStatement("grow(size + other.size)");
+    if (fileDescriptor.fields().stream().anyMatch(field -> field.type() == FieldTypeEnum.ID)) {
+      method.addStatement("final boolean sameDictionary = other.$L == $L", DICTIONARY, DICTIONARY);
+    }
+    method.addStatement(
+        "System.arraycopy(other.$L, 0, $L, base, other.size)", CSV_ROW_NUMBER, CSV_ROW_NUMBER);
+    for (GtfsFieldDescriptor field : fileDescriptor.fields()) {
+      if (field.type() == FieldTypeEnum.ID) {
+        method
+            .beginControlFlow("if (sameDictionary)")
+            .addStatement(
+                "System.arraycopy(other.$L, 0, $L, base, other.size)", field.name(), field.name())
+            .nextControlFlow("else")
+            .beginControlFlow("for (int i = 0; i < other.size; ++i)")
+            .addStatement(
+                "$L[base + i] = $L.encode(other.$L.decode(other.$L[i]))",
+                field.name(),
+                DICTIONARY,
+                DICTIONARY,
+                field.name())
+            .endControlFlow()
+            .endControlFlow();
+      } else {
+        method.addStatement(
+            "System.arraycopy(other.$L, 0, $L, base, other.size)", field.name(), field.name());
+      }
+    }
+    method
+        .addStatement("final long bitOffset = (long) base * FIELD_COUNT")
+        .addStatement("final int shift = (int) (bitOffset & 63)")
+        .addStatement("final int wordOffset = (int) (bitOffset >>> 6)")
+        .beginControlFlow("for (int i = 0; i < presenceWords(other.size); ++i)")
+        .addStatement("final long word = other.$L[i]", PRESENCE)
+        .addStatement("$L[wordOffset + i] |= word << shift", PRESENCE)
+        .beginControlFlow("if (shift != 0 && (word >>> (64 - shift)) != 0)")
+        .addStatement("$L[wordOffset + i + 1] |= word >>> (64 - shift)", PRESENCE)
+        .endControlFlow()
+        .endControlFlow()
+        .addStatement("size += other.size")
+        .addStatement("++modCount")
+        .addStatement("return true");
+    return method.build();
+  }
+
+  private MethodSpec generateNewRowMethod() {
+    return MethodSpec.methodBuilder("newRow")
+        .addModifiers(Modifier.PRIVATE)
+        .returns(int.class)
+        .beginControlFlow("if (size == $L.length)", CSV_ROW_NUMBER)
+        .addStatement("grow(Math.max(DEFAULT_CAPACITY, size * 2))")
+        .endControlFlow()
+        .addStatement("++modCount")
+        .addStatement("return size++")
+        .build();
+  }
+
+  private MethodSpec generateGrowMethod() {
+    MethodSpec.Builder method =
+        MethodSpec.methodBuilder("grow")
+            .addModifiers(Modifier.PRIVATE)
+            .addParameter(int.class, "minCapacity")
+            .beginControlFlow("if (minCapacity <= $L.length)", CSV_ROW_NUMBER)
+            .addStatement("return")
+            .endControlFlow()
+            .addStatement(
+                "final int capacity = Math.max(minCapacity, $L.length + ($L.length >> 1))",
+                CSV_ROW_NUMBER,
+                CSV_ROW_NUMBER)
+            .addStatement(
+                "$L = $T.copyOf($L, capacity)", CSV_ROW_NUMBER, Arrays.class, CSV_ROW_NUMBER);
+    for (GtfsFieldDescriptor field : fileDescriptor.fields()) {
+      method.addStatement("$L = $T.copyOf($L, capacity)", field.name(), Arrays.class, field.name());
+    }
+    method.addStatement(
+        "$L = $T.copyOf($L, presenceWords(capacity))", PRESENCE, Arrays.class, PRESENCE);
+    return method.build();
+  }
+}
@@ -16,15 +16,12 @@
 
 package org.mobilitydata.gtfsvalidator.processor;
 
-import static org.mobilitydata.gtfsvalidator.processor.FieldNameConverter.byKeyMapName;
+import static org.mobilitydata.gtfsvalidator.processor.FieldNameConverter.byKeyIndexName;
 import static org.mobilitydata.gtfsvalidator.processor.FieldNameConverter.byKeyMethodName;
 import static org.mobilitydata.gtfsvalidator.processor.FieldNameConverter.fieldNameField;
 import static org.mobilitydata.gtfsvalidator.processor.FieldNameConverter.hasMethodName;
 import static org.mobilitydata.gtfsvalidator.processor.GtfsEntityClasses.TABLE_PACKAGE_NAME;
 
-import com.google.common.collect.ArrayListMultimap;
-import com.google.common.collect.ListMultimap;
-import com.google.common.collect.Multimaps;
 import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.JavaFile;
@@ -33,7 +30,7 @@ import com.squareup.javapoet.ParameterizedTypeName;
 import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import javax.lang.model.element.Modifier;
@@ -41,7 +38,9 @@ import org.mobilitydata.gtfsvalidator.annotation.Generated;
 import org.mobilitydata.gtfsvalidator.notice.DuplicateKeyError;
 import org.mobilitydata.gtfsvalidator.notice.MoreThanOneEntityNotice;
 import org.mobilitydata.gtfsvalidator.notice.NoticeContainer;
+import org.mobilitydata.gtfsvalidator.table.GroupIndex;
 import org.mobilitydata.gtfsvalidator.table.GtfsTableContainer;
+import org.mobilitydata.gtfsvalidator.table.UniqueIndex;
 
 /**
  * Generates code for a container for a loaded GTFS table.
@@ -58,42 +57,47 @@ public class TableContainerGenerator {
     this.classNames = new GtfsEntityClasses(fileDescriptor);
   }
 
-  private static void addListMultimapWithGetters(
+  private static void addGroupIndexWithGetters(
       TypeSpec.Builder typeSpec, GtfsFieldDescriptor indexField, TypeName entityTypeName) {
-    TypeName keyMapType =
-        ParameterizedTypeName.get(
-            ClassName.get(ListMultimap.class), TypeName.get(indexField.javaType()), entityTypeName);
+    TypeName keyType = TypeName.get(indexField.javaType()).box();
+    TypeName entityListType = ParameterizedTypeName.get(ClassName.get(List.class), entityTypeName);
     String methodName = byKeyMethodName(indexField.name());
-    String fieldName = byKeyMapName(indexField.name());
+    String fieldName = byKeyIndexName(indexField.name());
     typeSpec.addField(
-        FieldSpec.builder(keyMapType, fieldName, Modifier.PRIVATE)
-            .initializer("$T.create()", ParameterizedTypeName.get(ArrayListMultimap.class))
+        FieldSpec.builder(
+                ParameterizedTypeName.get(ClassName.get(GroupIndex.class), keyType, entityTypeName),
+                fieldName,
+                Modifier.PRIVATE)
+            .initializer("$T.empty()", GroupIndex.class)
             .build());
     typeSpec.addMethod(
         MethodSpec.methodBuilder(methodName)
             .addModifiers(Modifier.PUBLIC)
             .addParameter(TypeName.get(indexField.javaType()), "key")
-            .returns(ParameterizedTypeName.get(ClassName.get(List.class), entityTypeName))
+            .returns(entityListType)
             .addStatement("return $L.get(key)", fieldName)
             .build());
     typeSpec.addMethod(
         MethodSpec.methodBuilder(methodName + "Map")
             .addModifiers(Modifier.PUBLIC)
-            .returns(keyMapType)
-            .addStatement("return $L", fieldName)
+            .returns(ParameterizedTypeName.get(ClassName.get(Map.class), keyType, entityListType))
+            .addStatement("return $L.asMap()", fieldName)
             .build());
   }
 
-  private static void addMapWithGetter(
+  private static void addUniqueIndexWithGetter(
       TypeSpec.Builder typeSpec, GtfsFieldDescriptor indexField, TypeName entityTypeName) {
     String methodName = byKeyMethodName(indexField.name());
-    String fieldName = byKeyMapName(indexField.name());
-    TypeName keyMapType =
-        ParameterizedTypeName.get(
-            ClassName.get(Map.class), TypeName.get(indexField.javaType()), entityTypeName);
+    String fieldName = byKeyIndexName(indexField.name());
     typeSpec.addField(
-        FieldSpec.builder(keyMapType, fieldName, Modifier.PRIVATE)
-            .initializer("new $T<>()", ParameterizedTypeName.get(HashMap.class))
+        FieldSpec.builder(
+                ParameterizedTypeName.get(
+                    ClassName.get(UniqueIndex.class),
+                    TypeName.get(indexField.javaType()).box(),
+                    entityTypeName),
+                fieldName,
+                Modifier.PRIVATE)
+            .initializer("$T.empty()", UniqueIndex.class)
             .build());
     typeSpec.addMethod(
         MethodSpec.methodBuilder(methodName)
@@ -162,14 +166,25 @@ public class TableContainerGenerator {
               .addStatement("return entities.isEmpty() ? null : entities.get(0)")
               .build());
     } else if (fileDescriptor.sequenceKey().isPresent()) {
-      addListMultimapWithGetters(
+      addGroupIndexWithGetters(
           typeSpec, fileDescriptor.firstKey().get(), classNames.entityImplementationTypeName());
+      typeSpec.addMethod(
+          MethodSpec.methodBuilder("getSequences")
+              .addAnnotation(Override.class)
+              .addModifiers(Modifier.PUBLIC)
+              .returns(
+                  ParameterizedTypeName.get(
+                      ClassName.get(Collection.class),
+                      ParameterizedTypeName.get(ClassName.get(List.class), gtfsEntityType)))
+              .addStatement(
+                  "return $L.groups()", byKeyIndexName(fileDescriptor.firstKey().get().name()))
+              .build());
     } else if (fileDescriptor.primaryKey().isPresent()) {
-      addMapWithGetter(
+      addUniqueIndexWithGetter(
           typeSpec, fileDescriptor.primaryKey().get(), classNames.entityImplementationTypeName());
     }
     for (GtfsFieldDescriptor indexField : fileDescriptor.indices()) {
-      addListMultimapWithGetters(typeSpec, indexField, classNames.entityImplementationTypeName());
+      addGroupIndexWithGetters(typeSpec, indexField, classNames.entityImplementationTypeName());
     }
 
     typeSpec.addMethod(generateConstructorWithEntities());
@@ -197,7 +212,11 @@ public class TableContainerGenerator {
         .addModifiers(Modifier.PUBLIC)
         .addParameter(GtfsTableContainer.TableStatus.class, "tableStatus")
         .addStatement("super(tableStatus)")
-        .addStatement("this.entities = new $T<>()", ArrayList.class)
+        .addStatement(
+            fileDescriptor.columnar() ? "this.entities = new $T()" : "this.entities = new $T<>()",
+            fileDescriptor.columnar()
+                ? classNames.columnsTypeName()
+                : ClassName.get(ArrayList.class))
         .build();
   }
 
@@ -236,21 +255,18 @@ public class TableContainerGenerator {
     } else if (fileDescriptor.sequenceKey().isPresent() && fileDescriptor.firstKey().isPresent()) {
       GtfsFieldDescriptor firstKey = fileDescriptor.firstKey().get();
       GtfsFieldDescriptor sequenceKey = fileDescriptor.sequenceKey().get();
-      String byKeyMap = byKeyMapName(firstKey.name());
-      method.beginControlFlow("for ($T entity : entities)", gtfsEntityType);
-      method.addStatement("$L.put(entity.$L(), entity)", byKeyMap, firstKey.name());
-      method.endControlFlow();
+      String byKeyIndex = byKeyIndexName(firstKey.name());
+      method.addStatement(
+          "$L = $T.createSorted(entities, $T::$L, $T::$L)",
+          byKeyIndex,
+          GroupIndex.class,
+          gtfsEntityType,
+          firstKey.name(),
+          gtfsEntityType,
+          sequenceKey.name());
 
       method
-          .beginControlFlow(
-              "for (List<$T> entityList: $T.asMap($L).values())",
-              gtfsEntityType,
-              Multimaps.class,
-              byKeyMap)
-          .addStatement(
-              "entityList.sort((entity1, entity2) -> Integer.compare(entity1.$L(), entity2.$L()))",
-              sequenceKey.name(),
-              sequenceKey.name())
+          .beginControlFlow("for (List<$T> entityList : $L.groups())", gtfsEntityType, byKeyIndex)
           .beginControlFlow("for (int i = 1; i < entityList.size(); ++i)")
           .addStatement("$T a = entityList.get(i - 1)", gtfsEntityType)
           .addStatement("$T b = entityList.get(i)", gtfsEntityType)
@@ -273,16 +289,18 @@ public class TableContainerGenerator {
           .endControlFlow();
     } else if (fileDescriptor.primaryKey().isPresent()) {
       GtfsFieldDescriptor primaryKey = fileDescriptor.primaryKey().get();
-      String byKeyMap = byKeyMapName(primaryKey.name());
-      method.beginControlFlow("for ($T newEntity : entities)", gtfsEntityType);
+      String byKeyIndex = byKeyIndexName(primaryKey.name());
+      method.addStatement("$L = new $T<>(entities)", byKeyIndex, UniqueIndex.class);
+      method.beginControlFlow("for (int row = 0; row < entities.size(); ++row)");
       method
+          .addStatement("$T newEntity = entities.get(row)", gtfsEntityType)
           .beginControlFlow("if (!newEntity.$L())", hasMethodName(primaryKey.name()))
           .addStatement("continue")
           .endControlFlow()
           .addStatement(
-              "$T oldEntity = $L.getOrDefault(newEntity.$L(), null)",
-              classNames.entityImplementationTypeName(),
-              byKeyMap,
+              "$T oldEntity = $L.putIfAbsent(newEntity.$L(), row)",
+              gtfsEntityType,
+              byKeyIndex,
               primaryKey.name())
           .beginControlFlow("if (oldEntity != null)")
           .addStatement(
@@ -292,19 +310,17 @@ public class TableContainerGenerator {
               loaderType,
               fieldNameField(primaryKey.name()),
               primaryKey.name())
-          .nextControlFlow("else")
-          .addStatement("$L.put(newEntity.$L(), newEntity)", byKeyMap, primaryKey.name())
           .endControlFlow();
       method.endControlFlow();
     }
 
-    if (!fileDescriptor.indices().isEmpty()) {
-      method.beginControlFlow("for ($T entity : entities)", gtfsEntityType);
-      for (GtfsFieldDescriptor indexField : fileDescriptor.indices()) {
-        method.addStatement(
-            "$L.put(entity.$L(), entity)", byKeyMapName(indexField.name()), indexField.name());
-      }
-      method.endControlFlow();
+    for (GtfsFieldDescriptor indexField : fileDescriptor.indices()) {
+      method.addStatement(
+          "$L = $T.create(entities, $T::$L)",
+          byKeyIndexName(indexField.name()),
+          GroupIndex.class,
+          gtfsEntityType,
+          indexField.name());
     }
     return method.build();
   }
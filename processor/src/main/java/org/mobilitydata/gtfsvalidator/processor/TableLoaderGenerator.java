@@ -32,11 +32,11 @@ import com.squareup.javapoet.MethodSpec;
 import com.squareup.javapoet.ParameterizedTypeName;
 import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
-import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 import javax.lang.model.element.Modifier;
 import org.mobilitydata.gtfsvalidator.annotation.FieldTypeEnum;
 import org.mobilitydata.gtfsvalidator.annotation.Generated;
@@ -44,13 +44,17 @@ import org.mobilitydata.gtfsvalidator.annotation.GtfsLoader;
 import org.mobilitydata.gtfsvalidator.notice.EmptyFileNotice;
 import org.mobilitydata.gtfsvalidator.notice.MissingRequiredFileError;
 import org.mobilitydata.gtfsvalidator.notice.NoticeContainer;
+import org.mobilitydata.gtfsvalidator.parsing.CsvChunkReader;
 import org.mobilitydata.gtfsvalidator.parsing.CsvFile;
 import org.mobilitydata.gtfsvalidator.parsing.CsvRow;
 import org.mobilitydata.gtfsvalidator.parsing.FieldCache;
 import org.mobilitydata.gtfsvalidator.parsing.RowParser;
+import org.mobilitydata.gtfsvalidator.table.ChunkedTableParser;
+import org.mobilitydata.gtfsvalidator.table.ChunkedTableParser.ParsedChunk;
 import org.mobilitydata.gtfsvalidator.table.GtfsTableContainer;
 import org.mobilitydata.gtfsvalidator.table.GtfsTableContainer.TableStatus;
 import org.mobilitydata.gtfsvalidator.table.GtfsTableLoader;
+import org.mobilitydata.gtfsvalidator.table.IdDictionary;
 import org.mobilitydata.gtfsvalidator.validator.SingleEntityValidator;
 import org.mobilitydata.gtfsvalidator.validator.TableHeaderValidator;
 import org.mobilitydata.gtfsvalidator.validator.ValidationContext;
@@ -79,6 +83,10 @@ public class TableLoaderGenerator {
 
   private static boolean cachingEnabled(final GtfsFieldDescriptor field) {
     // FIXME: Add a way to disable all caching with a command-line flag.
+    if (field.type() == FieldTypeEnum.ID) {
+      // IDs are interned by the dictionary of the feed instead, see internIds().
+      return false;
+    }
     if (field.cached()) {
       return true;
     }
@@ -93,8 +101,21 @@ public class TableLoaderGenerator {
     return field.type() == FieldTypeEnum.COLOR
         || field.type() == FieldTypeEnum.DATE
         || field.type() == FieldTypeEnum.TIME
-        || field.type() == FieldTypeEnum.LANGUAGE_CODE
-        || field.type() == FieldTypeEnum.ID;
+        || field.type() == FieldTypeEnum.LANGUAGE_CODE;
+  }
+
+  /**
+   * Tells if IDs of the table are interned by {@code ValidationContext.idDictionary()} while
+   * parsing.
+   *
+   * <p>The dictionary is shared by all tables, so a trip_id from trips.txt, stop_times.txt and
+   * frequencies.txt is the same string. Primary keys are interned as well since other tables refer
+   * to them. Columnar tables skip this step because their storage encodes IDs with the same
+   * dictionary.
+   */
+  private boolean internIds() {
+    return !fileDescriptor.columnar()
+        && fileDescriptor.fields().stream().anyMatch(field -> field.type() == FieldTypeEnum.ID);
   }
 
   private static String fieldColumnCache(GtfsFieldDescriptor field) {
@@ -155,10 +176,31 @@ public class TableLoaderGenerator {
     typeSpec.addMethod(MethodSpec.constructorBuilder().addModifiers(Modifier.PUBLIC).build());
     typeSpec.addMethod(generateGtfsFilenameMethod());
     typeSpec.addMethod(generateIsRequiredMethod());
+    typeSpec.addMethod(
+        MethodSpec.methodBuilder("getEntityClass")
+            .addAnnotation(Override.class)
+            .addModifiers(Modifier.PUBLIC)
+            .returns(
+                ParameterizedTypeName.get(
+                    ClassName.get(Class.class), classNames.entityImplementationTypeName()))
+            .addStatement("return $T.class", classNames.entityImplementationTypeName())
+            .build());
+    typeSpec.addMethod(
+        MethodSpec.methodBuilder("getTableContainerClass")
+            .addAnnotation(Override.class)
+            .addModifiers(Modifier.PUBLIC)
+            .returns(
+                ParameterizedTypeName.get(
+                    ClassName.get(Class.class), classNames.tableContainerTypeName()))
+            .addStatement("return $T.class", classNames.tableContainerTypeName())
+            .build());
     typeSpec.addMethod(generateLoadMethod());
+    typeSpec.addMethod(generateParseChunkMethod());
+    typeSpec.addMethod(generateScanMethod());
     typeSpec.addMethod(generateLoadMissingFileMethod());
     typeSpec.addMethod(generateGetColumnNamesMethod());
     typeSpec.addMethod(generateGetRequiredColumnNamesMethod());
+    typeSpec.addType(generateParsingStateClass());
 
     return typeSpec.build();
   }
@@ -202,17 +244,23 @@ public class TableLoaderGenerator {
   private MethodSpec generateLoadMethod() {
     TypeName gtfsEntityType = classNames.entityImplementationTypeName();
     TypeName tableContainerTypeName = classNames.tableContainerTypeName();
+    TypeName chunkedTableParserType =
+        ParameterizedTypeName.get(
+            ClassName.get(ChunkedTableParser.class), gtfsEntityType, parsingStateTypeName());
+    TypeName parsedChunkType =
+        ParameterizedTypeName.get(ClassName.get(ParsedChunk.class), gtfsEntityType);
     MethodSpec.Builder method =
         MethodSpec.methodBuilder("load")
+            .addAnnotation(Override.class)
             .addModifiers(Modifier.PUBLIC)
-            .addParameter(InputStream.class, "inputStream")
+            .addParameter(CsvChunkReader.class, "chunkReader")
             .addParameter(ValidationContext.class, "validationContext")
             .addParameter(ValidatorLoader.class, "validatorLoader")
             .addParameter(NoticeContainer.class, "noticeContainer")
+            .addParameter(ExecutorService.class, "chunkExecutor")
             .returns(
                 ParameterizedTypeName.get(ClassName.get(GtfsTableContainer.class), gtfsEntityType))
-            .addStatement(
-                "$T csvFile = new $T(inputStream, FILENAME)", CsvFile.class, CsvFile.class)
+            .addStatement("$T csvFile = chunkReader.nextChunk()", CsvFile.class)
             .beginControlFlow("if (csvFile.isEmpty())")
             .addStatement(
                 "noticeContainer.addValidationNotice(new $T(FILENAME))", EmptyFileNotice.class)
@@ -234,6 +282,172 @@ public class TableLoaderGenerator {
                 "return new $T($T.INVALID_HEADERS)", tableContainerTypeName, TableStatus.class)
             .endControlFlow();
 
+    method
+        .addStatement(
+            "final $T parser = new $T<>($L, () -> new $T(validationContext, validatorLoader),"
+                + " (chunk, state) -> parseChunk(chunk, state, validationContext))",
+            chunkedTableParserType,
+            ChunkedTableParser.class,
+            fileDescriptor.columnar()
+                ? CodeBlock.of(
+                    "() -> new $T(validationContext.idDictionary())", entityListTypeName())
+                : CodeBlock.of("$T::new", entityListTypeName()),
+            parsingStateTypeName())
+        .addStatement("final long parseStartNanos = System.nanoTime()")
+        .addStatement(
+            "final $T parsed = parser.parse(csvFile, chunkReader, chunkExecutor,"
+                + " noticeContainer)",
+            parsedChunkType)
+        .addStatement("final long parseNanos = System.nanoTime() - parseStartNanos")
+        .addStatement("long singleEntityValidatorNanos = 0")
+        .beginControlFlow("for ($T state : parser.getStates())", parsingStateTypeName())
+        .addStatement("state.logCacheStatistics()")
+        .addStatement("singleEntityValidatorNanos += state.singleEntityValidatorNanos")
+        .endControlFlow()
+        .addStatement(
+            "validationContext.metrics().recordTableParsed(FILENAME, chunkReader.getBytesRead(),"
+                + " parsed.getEntities().size(), parseNanos, singleEntityValidatorNanos)");
+
+    method
+        .beginControlFlow("if (parsed.hasUnparsableRows())")
+        .addStatement("logger.atSevere().log($S, FILENAME)", "Failed to parse some rows in %s")
+        .addStatement(
+            "return new $T($T.UNPARSABLE_ROWS)", tableContainerTypeName, TableStatus.class)
+        .nextControlFlow("else")
+        .addStatement("final long indexStartNanos = System.nanoTime()")
+        .addStatement(
+            "$T table = $T.forEntities(parsed.getEntities(), noticeContainer)",
+            tableContainerTypeName,
+            tableContainerTypeName)
+        .addStatement(
+            "validationContext.metrics().recordTableIndexed(FILENAME, System.nanoTime() -"
+                + " indexStartNanos)")
+        .addStatement(
+            "validatorLoader.invokeSingleFileValidators(table, validationContext, noticeContainer)")
+        .addStatement("return table")
+        .endControlFlow();
+
+    return method.build();
+  }
+
+  /** Class of a list that keeps parsed entities. */
+  private TypeName entityListTypeName() {
+    return fileDescriptor.columnar()
+        ? classNames.columnsTypeName()
+        : ClassName.get(ArrayList.class);
+  }
+
+  private ClassName parsingStateTypeName() {
+    return ClassName.get(TABLE_PACKAGE_NAME, classNames.tableLoaderSimpleName(), "ParsingState");
+  }
+
+  /**
+   * Generates a class for mutable state that is reused between chunks parsed by the same thread:
+   * field caches, an entity builder and single-entity validators.
+   */
+  private TypeSpec generateParsingStateClass() {
+    TypeName gtfsEntityType = classNames.entityImplementationTypeName();
+    TypeSpec.Builder typeSpec =
+        TypeSpec.classBuilder("ParsingState")
+            .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL);
+
+    // Several fields may reuse the same cache.
+    Set<String> cacheVars = new HashSet<>();
+    for (GtfsFieldDescriptor field : fileDescriptor.fields()) {
+      if (cachingEnabled(field)) {
+        String cacheVarName = fieldColumnCache(field);
+        if (cacheVars.add(cacheVarName)) {
+          typeSpec.addField(
+              FieldSpec.builder(
+                      ParameterizedTypeName.get(
+                          ClassName.get(FieldCache.class), TypeName.get(field.javaType())),
+                      cacheVarName,
+                      Modifier.FINAL)
+                  .initializer("new $T<>()", FieldCache.class)
+                  .build());
+        }
+      }
+    }
+    typeSpec.addField(
+        FieldSpec.builder(
+                ClassName.get(
+                    TABLE_PACKAGE_NAME, classNames.entityImplementationSimpleName(), "Builder"),
+                "builder",
+                Modifier.FINAL)
+            .initializer("new $T.Builder()", gtfsEntityType)
+            .build());
+    typeSpec.addField(
+        ParameterizedTypeName.get(
+            ClassName.get(List.class),
+            ParameterizedTypeName.get(ClassName.get(SingleEntityValidator.class), gtfsEntityType)),
+        "singleEntityValidators",
+        Modifier.FINAL);
+    typeSpec.addField(long.class, "singleEntityValidatorNanos");
+
+    typeSpec.addMethod(
+        MethodSpec.constructorBuilder()
+            .addParameter(ValidationContext.class, "validationContext")
+            .addParameter(ValidatorLoader.class, "validatorLoader")
+            .addStatement(
+                "singleEntityValidators = validatorLoader.createSingleEntityValidators("
+                    + "$T.class, validationContext)",
+                gtfsEntityType)
+            .build());
+
+    // Single-entity validators are timed per chunk and only if there are any, so that reading the
+    // clock does not add to the time of parsing every row.
+    typeSpec.addMethod(
+        MethodSpec.methodBuilder("validate")
+            .addParameter(
+                ParameterizedTypeName.get(ClassName.get(List.class), gtfsEntityType), "entities")
+            .addParameter(NoticeContainer.class, "noticeContainer")
+            .beginControlFlow("if (singleEntityValidators.isEmpty())")
+            .addStatement("return")
+            .endControlFlow()
+            .addStatement("final long startNanos = System.nanoTime()")
+            .beginControlFlow("for ($T entity : entities)", gtfsEntityType)
+            .addStatement(
+                "ValidatorLoader.invokeSingleEntityValidators(entity, singleEntityValidators,"
+                    + " noticeContainer)")
+            .endControlFlow()
+            .addStatement("singleEntityValidatorNanos += System.nanoTime() - startNanos")
+            .build());
+
+    // Print statistics for cache efficiency.
+    MethodSpec.Builder logMethod = MethodSpec.methodBuilder("logCacheStatistics");
+    for (GtfsFieldDescriptor field : fileDescriptor.fields()) {
+      if (cachingEnabled(field)) {
+        final String cacheName = fieldColumnCache(field);
+        logMethod.addStatement(
+            "logger.atInfo().log("
+                + "$S, FILENAME, $L, $L.getCacheSize(), $L.getLookupCount(), "
+                + "$L.getHitRatio() * 100.0, $L.getMissRatio() * 100.0)",
+            "Cache for %s %s: size = %d, lookup count = %d, hits = %.2f%%, misses = %.2f%%",
+            fieldNameField(field.name()),
+            cacheName,
+            cacheName,
+            cacheName,
+            cacheName);
+      }
+    }
+    typeSpec.addMethod(logMethod.build());
+
+    return typeSpec.build();
+  }
+
+  /** Generates a method that parses rows of a single chunk of a CSV file. */
+  private MethodSpec generateParseChunkMethod() {
+    TypeName gtfsEntityType = classNames.entityImplementationTypeName();
+    TypeName parsedChunkType =
+        ParameterizedTypeName.get(ClassName.get(ParsedChunk.class), gtfsEntityType);
+    MethodSpec.Builder method =
+        MethodSpec.methodBuilder("parseChunk")
+            .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+            .addParameter(CsvFile.class, "csvFile")
+            .addParameter(parsingStateTypeName(), "state")
+            .addParameter(ValidationContext.class, "validationContext")
+            .returns(parsedChunkType);
+
     for (GtfsFieldDescriptor field : fileDescriptor.fields()) {
       method.addStatement(
           "final int $L = csvFile.getColumnIndex($L)",
@@ -241,41 +455,43 @@ public class TableLoaderGenerator {
           fieldNameField(field.name()));
     }
 
-    // Several fields may reuse the same cache.
     Set<String> cacheVars = new HashSet<>();
     for (GtfsFieldDescriptor field : fileDescriptor.fields()) {
       if (cachingEnabled(field)) {
         String cacheVarName = fieldColumnCache(field);
         if (cacheVars.add(cacheVarName)) {
           method.addStatement(
-              "final $T<$T> $L = new $T<>()",
+              "final $T<$T> $L = state.$L",
               FieldCache.class,
               TypeName.get(field.javaType()),
               cacheVarName,
-              FieldCache.class);
+              cacheVarName);
         }
       }
     }
 
+    if (internIds()) {
+      method.addStatement(
+          "final $T idDictionary = validationContext.idDictionary()", IdDictionary.class);
+    }
     method
-        .addStatement("final $T.Builder builder = new $T.Builder()", gtfsEntityType, gtfsEntityType)
+        .addStatement("final $T.Builder builder = state.builder", gtfsEntityType)
+        .addStatement(
+            "final $T noticeContainer = validationContext.newNoticeContainer()",
+            NoticeContainer.class)
         .addStatement(
             "final $T rowParser = new $T(validationContext.feedName(), noticeContainer)",
             RowParser.class,
             RowParser.class)
         .addStatement(
-            "final $T entities = new $T<>()",
-            ParameterizedTypeName.get(ClassName.get(List.class), gtfsEntityType),
-            ArrayList.class)
-        .addStatement("boolean hasUnparsableRows = false")
-        .addStatement(
-            "final $T singleEntityValidators = validatorLoader.createSingleEntityValidators("
-                + "$T.class, validationContext)",
-            ParameterizedTypeName.get(
-                ClassName.get(List.class),
-                ParameterizedTypeName.get(
-                    ClassName.get(SingleEntityValidator.class), gtfsEntityType)),
-            gtfsEntityType);
+            fileDescriptor.columnar()
+                ? "final $T entities = new $T(validationContext.idDictionary())"
+                : "final $T entities = new $T<>()",
+            fileDescriptor.columnar()
+                ? classNames.columnsTypeName()
+                : ParameterizedTypeName.get(ClassName.get(List.class), gtfsEntityType),
+            entityListTypeName())
+        .addStatement("boolean hasUnparsableRows = false");
     method.beginControlFlow("for ($T row : csvFile)", CsvRow.class);
 
     method
@@ -304,19 +520,35 @@ public class TableLoaderGenerator {
                       ? ", " + field.javaType().toString() + "::forNumber"
                       : "");
       if (cachingEnabled(field)) {
-        fieldValue = CodeBlock.of("$L.addIfAbsent($L)", fieldColumnCache(field), fieldValue);
+        if (field.type() == FieldTypeEnum.TIME || field.type() == FieldTypeEnum.DATE) {
+          // Times and dates are looked up in cache by their int values, so a cache hit does not
+          // create an object.
+          fieldValue =
+              CodeBlock.of(
+                  "rowParser.$L($L, $T.$L, $L)",
+                  gtfsTypeToParserMethod(field.type()),
+                  fieldColumnIndex(field.name()),
+                  RowParser.class,
+                  field.required() ? "REQUIRED" : "OPTIONAL",
+                  fieldColumnCache(field));
+        } else {
+          fieldValue = CodeBlock.of("$L.addIfAbsent($L)", fieldColumnCache(field), fieldValue);
+        }
+      } else if (field.type() == FieldTypeEnum.ID && internIds()) {
+        fieldValue = CodeBlock.of("idDictionary.intern($L)", fieldValue);
       }
       method.addStatement(
           "builder.$L($L)", FieldNameConverter.setterMethodName(field.name()), fieldValue);
     }
 
+    method.beginControlFlow("if (!rowParser.hasParseErrorsInRow())");
+    if (fileDescriptor.columnar()) {
+      // Columnar tables store values of the builder directly, without creating an entity object.
+      method.addStatement("entities.append(builder)");
+    } else {
+      method.addStatement("entities.add(builder.build())");
+    }
     method
-        .beginControlFlow("if (!rowParser.hasParseErrorsInRow())")
-        .addStatement("$T entity = builder.build()", gtfsEntityType)
-        .addStatement(
-            "ValidatorLoader.invokeSingleEntityValidators(entity, singleEntityValidators,"
-                + " noticeContainer)")
-        .addStatement("entities.add(entity)")
         .endControlFlow()
         .endControlFlow()
         .beginControlFlow("if (rowParser.hasParseErrorsInRow())")
@@ -325,37 +557,11 @@ public class TableLoaderGenerator {
 
     method.endControlFlow(); // end for (row)
 
-    // Print statistics for cache efficiency.
-    for (GtfsFieldDescriptor field : fileDescriptor.fields()) {
-      if (cachingEnabled(field)) {
-        final String cacheName = fieldColumnCache(field);
-        method.addStatement(
-            "logger.atInfo().log("
-                + "$S, gtfsFilename(), $L, $L.getCacheSize(), $L.getLookupCount(), "
-                + "$L.getHitRatio() * 100.0, $L.getMissRatio() * 100.0)",
-            "Cache for %s %s: size = %d, lookup count = %d, hits = %.2f%%, misses = %.2f%%",
-            fieldNameField(field.name()),
-            cacheName,
-            cacheName,
-            cacheName,
-            cacheName);
-      }
-    }
+    // Single-entity validators run over the whole chunk, so that the clock is read once per chunk.
+    method.addStatement("state.validate(entities, noticeContainer)");
 
-    method
-        .beginControlFlow("if (hasUnparsableRows)")
-        .addStatement("logger.atSevere().log($S, FILENAME)", "Failed to parse some rows in %s")
-        .addStatement(
-            "return new $T($T.UNPARSABLE_ROWS)", tableContainerTypeName, TableStatus.class)
-        .nextControlFlow("else")
-        .addStatement(
-            "$T table = $T.forEntities(entities, noticeContainer)",
-            tableContainerTypeName,
-            tableContainerTypeName)
-        .addStatement(
-            "validatorLoader.invokeSingleFileValidators(table, validationContext, noticeContainer)")
-        .addStatement("return table")
-        .endControlFlow();
+    method.addStatement(
+        "return new $T<>(entities, noticeContainer, hasUnparsableRows)", ParsedChunk.class);
 
     return method.build();
   }
@@ -378,6 +584,40 @@ public class TableLoaderGenerator {
         .build();
   }
 
+  private MethodSpec generateScanMethod() {
+    TypeName gtfsEntityType = classNames.entityImplementationTypeName();
+    TypeName tableContainerTypeName = classNames.tableContainerTypeName();
+    return MethodSpec.methodBuilder("scan")
+        .addAnnotation(Override.class)
+        .addModifiers(Modifier.PUBLIC)
+        .addParameter(CsvChunkReader.class, "chunkReader")
+        .addParameter(ValidationContext.class, "validationContext")
+        .addParameter(NoticeContainer.class, "noticeContainer")
+        .returns(ParameterizedTypeName.get(ClassName.get(GtfsTableContainer.class), gtfsEntityType))
+        .addStatement("$T csvFile = chunkReader.nextChunk()", CsvFile.class)
+        .beginControlFlow("if (csvFile.isEmpty())")
+        .addStatement(
+            "noticeContainer.addValidationNotice(new $T(FILENAME))", EmptyFileNotice.class)
+        .addStatement("return new $T($T.EMPTY_FILE)", tableContainerTypeName, TableStatus.class)
+        .endControlFlow()
+        .beginControlFlow(
+            "if (!new $T().validate(FILENAME, csvFile.getColumnNames(), "
+                + "getColumnNames(), getRequiredColumnNames(), noticeContainer))",
+            TableHeaderValidator.class)
+        .addStatement(
+            "return new $T($T.INVALID_HEADERS)", tableContainerTypeName, TableStatus.class)
+        .endControlFlow()
+        .beginControlFlow(
+            "if (checkRowLengths(csvFile, chunkReader, validationContext, noticeContainer))")
+        .addStatement("logger.atSevere().log($S, FILENAME)", "Failed to parse some rows in %s")
+        .addStatement(
+            "return new $T($T.UNPARSABLE_ROWS)", tableContainerTypeName, TableStatus.class)
+        .endControlFlow()
+        .addStatement(
+            "return new $T($T.SCANNED_WITHOUT_ENTITIES)", tableContainerTypeName, TableStatus.class)
+        .build();
+  }
+
   private MethodSpec generateLoadMissingFileMethod() {
     TypeName gtfsEntityType = classNames.entityImplementationTypeName();
     MethodSpec.Builder method =